@@ -0,0 +1,60 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.analytics;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps entity ids to dense {@code int} codes so a column can hold an {@code int} per row and a filter can be a
+ * {@code boolean[]} indexed by code. Code {@value #NONE} stands for a missing id. Codes are handed out by a single
+ * writer; lookups are safe from any thread.
+ */
+final class IdDictionary {
+
+    static final int NONE = 0;
+
+    private final ConcurrentHashMap<Long, Integer> codes = new ConcurrentHashMap<>();
+    private volatile long[] ids = new long[64];
+    private volatile int size = 1;
+
+    /**
+     * Code of {@code id}, assigning the next one when it is new. Callers must hold the store's write lock.
+     */
+    int encode(Long id) {
+        if (id == null) {
+            return NONE;
+        }
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        int next = size;
+        long[] current = ids;
+        if (next == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[next] = id;
+        ids = current;
+        size = next + 1;
+        codes.put(id, next);
+        return next;
+    }
+
+    /**
+     * Code of {@code id}, or {@code -1} when it never appeared.
+     */
+    int code(Long id) {
+        if (id == null) {
+            return NONE;
+        }
+        Integer code = codes.get(id);
+        return code != null ? code : -1;
+    }
+
+    Long decode(int code) {
+        return code == NONE ? null : ids[code];
+    }
+
+    int size() {
+        return size;
+    }
+}
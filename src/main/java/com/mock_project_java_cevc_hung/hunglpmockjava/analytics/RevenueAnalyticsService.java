@@ -0,0 +1,181 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.analytics;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSliceRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueSliceResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingPaidEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves ad-hoc revenue slices from a {@link RevenueColumnStore} instead of MySQL.
+ * <p>Once the application is ready, every booking that was ever paid is streamed into the store in the background;
+ * slices taken before that finishes are flagged incomplete. After that the store follows this node's payments
+ * through {@link BookingPaidEvent} and status changes through {@link BookingStatusChangedEvent}, both applied after
+ * their transaction commits, and every {@code tail-ms} it reads the paid bookings whose {@code updated_at} moved
+ * since the previous read, which brings in the writes of other nodes. Each read goes back {@code tail-overlap-seconds}
+ * before the previous one started, to cover clock skew between nodes and transactions that committed late. A slice
+ * is flagged incomplete when no read succeeded for three intervals. The store holds about 20 bytes per paid booking
+ * plus 4 bytes per booking id, so {@code enabled} can turn it off on small instances.</p>
+ */
+@Service
+public class RevenueAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueAnalyticsService.class);
+
+    private final BookingJdbcRepository bookingJdbcRepository;
+    private final MessageSource messageSource;
+    private final boolean enabled;
+    private final RevenueColumnStore store;
+    private final ExecutorService loader;
+    private volatile boolean loaded;
+    private volatile LocalDateTime caughtUpAt;
+
+    /** Where the next tail read starts; only touched by the loader and then the scheduler. */
+    private LocalDateTime tailSince;
+
+    @Value("${app.analytics.revenue.tail-ms:10000}")
+    private long tailMs = 10000;
+
+    @Value("${app.analytics.revenue.tail-overlap-seconds:60}")
+    private long tailOverlapSeconds = 60;
+
+    public RevenueAnalyticsService(
+        BookingJdbcRepository bookingJdbcRepository,
+        MessageSource messageSource,
+        @Value("${app.analytics.revenue.enabled:true}") boolean enabled,
+        @Value("${app.analytics.revenue.parallelism:0}") int parallelism
+    ) {
+        this.bookingJdbcRepository = bookingJdbcRepository;
+        this.messageSource = messageSource;
+        this.enabled = enabled;
+        this.store = new RevenueColumnStore(parallelism);
+        this.loader = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("revenue-analytics-load-"));
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if (enabled) {
+            store.setLoading(true);
+            loader.execute(this::load);
+        }
+    }
+
+    void load() {
+        long started = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            bookingJdbcRepository.streamPaidBookings(this::append);
+            tailSince = startedAt.minusSeconds(tailOverlapSeconds);
+            caughtUpAt = startedAt;
+            loaded = true;
+            logger.info("Loaded {} paid bookings into the revenue column store in {} ms", store.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Loading the revenue column store failed; slices stay incomplete", e);
+        } finally {
+            store.setLoading(false);
+        }
+    }
+
+    /**
+     * Apply the paid bookings written since the previous read, by any node.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.revenue.tail-ms:10000}",
+            initialDelayString = "${app.analytics.revenue.tail-ms:10000}")
+    public void tail() {
+        if (!enabled || !loaded) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            bookingJdbcRepository.streamPaidBookingsUpdatedSince(tailSince, rs -> {
+                append(rs);
+                store.updateStatus(rs.getLong("id"), BookingEntity.Status.valueOf(rs.getString("status")));
+            });
+            tailSince = startedAt.minusSeconds(tailOverlapSeconds);
+            caughtUpAt = startedAt;
+        } catch (RuntimeException e) {
+            logger.warn("Could not read new paid bookings into the revenue column store: {}", e.getMessage());
+        }
+    }
+
+    private void append(ResultSet rs) throws SQLException {
+        Timestamp registeredAt = rs.getTimestamp("user_created_at");
+        long tourId = rs.getLong("tour_id");
+        Long tour = rs.wasNull() ? null : tourId;
+        long categoryId = rs.getLong("category_id");
+        Long category = rs.wasNull() ? null : categoryId;
+        store.append(rs.getLong("id"), rs.getTimestamp("paid_at").toLocalDateTime().toLocalDate(),
+                tour, category,
+                registeredAt != null ? registeredAt.toLocalDateTime().toLocalDate() : null,
+                BookingEntity.Status.valueOf(rs.getString("status")), rs.getLong("amount_minor"));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingPaid(BookingPaidEvent event) {
+        if (!enabled || event.paidAt() == null || event.amount() == null) {
+            return;
+        }
+        store.append(event.bookingId(), event.paidAt().toLocalDate(), event.tourId(), event.categoryId(),
+                event.userRegisteredAt() != null ? event.userRegisteredAt().toLocalDate() : null,
+                event.status(), event.amount().minorUnits());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        if (enabled) {
+            store.updateStatus(event.bookingId(), event.status());
+        }
+    }
+
+    /**
+     * Filter, group and sum paid bookings in memory.
+     *
+     * @throws BusinessException when analytics are disabled or the slice groups by too many dimensions
+     */
+    public RevenueSliceResponse slice(RevenueSliceRequest request) {
+        if (!enabled) {
+            throw new BusinessException(getMessage("revenue.analytics.error.disabled"));
+        }
+        if (request.getGroupBy() != null && request.getGroupBy().size() > RevenueColumnStore.MAX_GROUP_DIMENSIONS) {
+            throw new BusinessException(getMessage("revenue.analytics.error.too_many_dimensions",
+                    RevenueColumnStore.MAX_GROUP_DIMENSIONS));
+        }
+        RevenueSliceResponse response = store.query(request);
+        LocalDateTime caughtUp = caughtUpAt;
+        response.setComplete(loaded && caughtUp != null
+                && caughtUp.isAfter(LocalDateTime.now().minusNanos(3 * tailMs * 1_000_000)));
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+        store.shutdown();
+    }
+}
@@ -0,0 +1,442 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.analytics;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSliceRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueSliceResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Paid bookings kept in memory column by column, for ad-hoc revenue slicing without MySQL.
+ * <p>Rows live in chunks of {@value #CHUNK_ROWS}, one primitive array per column: payment day as epoch day, tour and
+ * category as {@link IdDictionary} codes, the user's registration month, the booking status and the amount in minor
+ * units, about 20 bytes a row. A query turns its filters into ranges and {@code boolean[]} masks over the codes,
+ * then scans the chunks in parallel on its own fork-join pool, each chunk summing into a primitive hash table that
+ * is merged at the end.</p>
+ * <p>One writer at a time appends rows and changes statuses; queries run without locks. A row becomes visible to
+ * queries once {@code size} is published, after all its columns are written. Status changes are single byte writes
+ * that a query running at the same time may or may not see.</p>
+ */
+public class RevenueColumnStore {
+
+    static final int CHUNK_ROWS = 1 << 16;
+    static final int MAX_GROUP_DIMENSIONS = 2;
+    private static final short NO_COHORT = Short.MIN_VALUE;
+    private static final BookingEntity.Status[] STATUSES = BookingEntity.Status.values();
+
+    private final IdDictionary tours = new IdDictionary();
+    private final IdDictionary categories = new IdDictionary();
+    private final ForkJoinPool pool;
+    private final Object writeLock = new Object();
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+
+    /** Row + 1 of each booking id; guarded by {@code writeLock}. */
+    private int[] rowByBooking = new int[1024];
+
+    /** Status changes seen while loading for bookings the load had not reached; guarded by {@code writeLock}. */
+    private Map<Long, BookingEntity.Status> lateStatuses;
+
+    public RevenueColumnStore(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Add a paid booking. A booking already in the store is left as it is, so the initial load and the payment
+     * listener may both deliver it; later status changes go through {@link #updateStatus}.
+     *
+     * @param userRegisteredAt month of this date is the booking's cohort; none when {@code null}
+     */
+    public void append(long bookingId, LocalDate paidDay, Long tourId, Long categoryId, LocalDate userRegisteredAt,
+                       BookingEntity.Status status, long amountMinor) {
+        if (bookingId <= 0 || bookingId >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Booking id out of range: " + bookingId);
+        }
+        synchronized (writeLock) {
+            if (rowOf(bookingId) >= 0) {
+                return;
+            }
+            if (lateStatuses != null) {
+                BookingEntity.Status late = lateStatuses.remove(bookingId);
+                status = late != null ? late : status;
+            }
+
+            int row = size;
+            int offset = row & (CHUNK_ROWS - 1);
+            Chunk[] current = chunks;
+            if (offset == 0) {
+                current = Arrays.copyOf(current, current.length + 1);
+                current[current.length - 1] = new Chunk();
+                chunks = current;
+            }
+            Chunk chunk = current[current.length - 1];
+            chunk.day[offset] = (int) paidDay.toEpochDay();
+            chunk.tour[offset] = tours.encode(tourId);
+            chunk.category[offset] = categories.encode(categoryId);
+            chunk.cohort[offset] = userRegisteredAt != null ? epochMonth(userRegisteredAt) : NO_COHORT;
+            chunk.status[offset] = (byte) status.ordinal();
+            chunk.amount[offset] = amountMinor;
+            indexBooking(bookingId, row);
+            size = row + 1;
+        }
+    }
+
+    /**
+     * Record a booking's new status.
+     *
+     * @return {@code false} when the booking is not in the store
+     */
+    public boolean updateStatus(long bookingId, BookingEntity.Status status) {
+        synchronized (writeLock) {
+            int row = rowOf(bookingId);
+            if (row < 0) {
+                if (lateStatuses != null) {
+                    lateStatuses.put(bookingId, status);
+                }
+                return false;
+            }
+            chunkOf(row).status[row & (CHUNK_ROWS - 1)] = (byte) status.ordinal();
+            return true;
+        }
+    }
+
+    /**
+     * While loading, keep status changes of bookings not loaded yet and apply them when the load reaches them.
+     */
+    public void setLoading(boolean loading) {
+        synchronized (writeLock) {
+            lateStatuses = loading ? new HashMap<>() : null;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Filter, group and sum the stored bookings.
+     *
+     * @throws IllegalArgumentException when grouping by more than {@value #MAX_GROUP_DIMENSIONS} dimensions
+     */
+    public RevenueSliceResponse query(RevenueSliceRequest request) {
+        long started = System.nanoTime();
+        List<RevenueSliceRequest.Dimension> groupBy = request.getGroupBy() != null
+                ? request.getGroupBy() : List.of();
+        if (groupBy.size() > MAX_GROUP_DIMENSIONS) {
+            throw new IllegalArgumentException("At most " + MAX_GROUP_DIMENSIONS + " group-by dimensions");
+        }
+
+        int rows = size;
+        Chunk[] snapshot = chunks;
+        Scan scan = new Scan(request, groupBy, snapshot, rows);
+        GroupSums sums = rows == 0 ? new GroupSums() : pool.invoke(new ScanTask(scan, 0, scan.chunkCount));
+
+        List<RevenueSliceResponse.Group> groups = new ArrayList<>(sums.size);
+        long totalMinor = 0;
+        long totalBookings = 0;
+        for (int slot = 0; slot < sums.keys.length; slot++) {
+            if (sums.counts[slot] == 0) {
+                continue;
+            }
+            totalMinor += sums.revenue[slot];
+            totalBookings += sums.counts[slot];
+            groups.add(RevenueSliceResponse.Group.builder()
+                    .keys(decodeKey(sums.keys[slot], groupBy))
+                    .revenue(Money.ofMinor(sums.revenue[slot]))
+                    .bookings(sums.counts[slot])
+                    .build());
+        }
+        groups.sort(groupOrder(groupBy));
+
+        int truncated = 0;
+        if (request.getLimit() != null && request.getLimit() >= 0 && groups.size() > request.getLimit()) {
+            truncated = groups.size() - request.getLimit();
+            groups = new ArrayList<>(groups.subList(0, request.getLimit()));
+        }
+        return RevenueSliceResponse.builder()
+                .groupBy(new ArrayList<>(groupBy))
+                .groups(groups)
+                .truncatedGroups(truncated)
+                .totalRevenue(Money.ofMinor(totalMinor))
+                .totalBookings(totalBookings)
+                .scannedRows(rows)
+                .complete(true)
+                .tookMicros((System.nanoTime() - started) / 1_000)
+                .build();
+    }
+
+    private static Comparator<RevenueSliceResponse.Group> groupOrder(List<RevenueSliceRequest.Dimension> groupBy) {
+        boolean timeFirst = !groupBy.isEmpty() && switch (groupBy.get(0)) {
+            case DAY, WEEK, MONTH, COHORT -> true;
+            default -> false;
+        };
+        if (timeFirst) {
+            // ISO dates and yyyy-MM sort as strings; a missing cohort goes first
+            return Comparator.comparing((RevenueSliceResponse.Group group) -> group.getKeys().get(0),
+                            Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(RevenueSliceResponse.Group::getRevenue, Comparator.reverseOrder());
+        }
+        return Comparator.comparing(RevenueSliceResponse.Group::getRevenue, Comparator.reverseOrder());
+    }
+
+    private List<String> decodeKey(long key, List<RevenueSliceRequest.Dimension> groupBy) {
+        List<String> keys = new ArrayList<>(groupBy.size());
+        for (int i = 0; i < groupBy.size(); i++) {
+            int value = i == 0 ? (int) (key >>> 32) : (int) key;
+            keys.add(switch (groupBy.get(i)) {
+                case DAY, WEEK -> LocalDate.ofEpochDay(value).toString();
+                case MONTH -> yearMonth(value).toString();
+                case COHORT -> value == NO_COHORT ? null : yearMonth(value).toString();
+                case CATEGORY -> idString(categories.decode(value));
+                case TOUR -> idString(tours.decode(value));
+                case STATUS -> STATUSES[value].name();
+            });
+        }
+        return keys;
+    }
+
+    private int rowOf(long bookingId) {
+        return bookingId < rowByBooking.length ? rowByBooking[(int) bookingId] - 1 : -1;
+    }
+
+    private void indexBooking(long bookingId, int row) {
+        if (bookingId >= rowByBooking.length) {
+            rowByBooking = Arrays.copyOf(rowByBooking, (int) Math.min(Integer.MAX_VALUE - 8,
+                    Math.max(bookingId + 1, rowByBooking.length * 2L)));
+        }
+        rowByBooking[(int) bookingId] = row + 1;
+    }
+
+    private Chunk chunkOf(int row) {
+        return chunks[row / CHUNK_ROWS];
+    }
+
+    private static String idString(Long id) {
+        return id != null ? id.toString() : null;
+    }
+
+    private static short epochMonth(LocalDate date) {
+        return (short) ((date.getYear() - 1970) * 12 + date.getMonthValue() - 1);
+    }
+
+    private static YearMonth yearMonth(int epochMonth) {
+        return YearMonth.of(1970 + Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1);
+    }
+
+    /**
+     * Months since 1970-01 of an epoch day, by the civil-from-days algorithm, so a scan allocates nothing per row.
+     */
+    static int epochMonthOfDay(int epochDay) {
+        int z = epochDay + 719_468;
+        int era = Math.floorDiv(z, 146_097);
+        int dayOfEra = z - era * 146_097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year - 1970) * 12 + month - 1;
+    }
+
+    private static final class Chunk {
+        final int[] day = new int[CHUNK_ROWS];
+        final int[] tour = new int[CHUNK_ROWS];
+        final int[] category = new int[CHUNK_ROWS];
+        final short[] cohort = new short[CHUNK_ROWS];
+        final byte[] status = new byte[CHUNK_ROWS];
+        final long[] amount = new long[CHUNK_ROWS];
+    }
+
+    /**
+     * A query compiled against one snapshot of the store.
+     */
+    private final class Scan {
+        final Chunk[] chunks;
+        final int rows;
+        final int chunkCount;
+        final int dayFrom;
+        final int dayTo;
+        final int cohortFrom;
+        final int cohortTo;
+        final boolean[] statusMask = new boolean[STATUSES.length];
+        final boolean[] tourMask;
+        final boolean[] categoryMask;
+        final RevenueSliceRequest.Dimension[] dimensions;
+
+        Scan(RevenueSliceRequest request, List<RevenueSliceRequest.Dimension> groupBy, Chunk[] chunks, int rows) {
+            this.chunks = chunks;
+            this.rows = rows;
+            this.chunkCount = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            this.dayFrom = request.getFrom() != null ? (int) request.getFrom().toEpochDay() : Integer.MIN_VALUE;
+            this.dayTo = request.getTo() != null ? (int) request.getTo().toEpochDay() : Integer.MAX_VALUE;
+            this.cohortFrom = request.getCohortFrom() != null ? epochMonth(request.getCohortFrom().atDay(1))
+                    : Integer.MIN_VALUE;
+            this.cohortTo = request.getCohortTo() != null ? epochMonth(request.getCohortTo().atDay(1))
+                    : Integer.MAX_VALUE;
+            if (request.getStatuses() == null || request.getStatuses().isEmpty()) {
+                statusMask[BookingEntity.Status.PAID.ordinal()] = true;
+            } else {
+                request.getStatuses().forEach(status -> statusMask[status.ordinal()] = true);
+            }
+            this.tourMask = mask(tours, request.getTourIds());
+            this.categoryMask = mask(categories, request.getCategoryIds());
+            this.dimensions = groupBy.toArray(new RevenueSliceRequest.Dimension[0]);
+        }
+
+        private boolean[] mask(IdDictionary dictionary, List<Long> ids) {
+            if (ids == null || ids.isEmpty()) {
+                return null;
+            }
+            boolean[] mask = new boolean[dictionary.size()];
+            for (Long id : ids) {
+                int code = dictionary.code(id);
+                if (code > IdDictionary.NONE && code < mask.length) {
+                    mask[code] = true;
+                }
+            }
+            return mask;
+        }
+
+        GroupSums scanChunk(int index) {
+            Chunk chunk = chunks[index];
+            int end = Math.min(CHUNK_ROWS, rows - index * CHUNK_ROWS);
+            GroupSums sums = new GroupSums();
+            boolean cohortFiltered = cohortFrom != Integer.MIN_VALUE || cohortTo != Integer.MAX_VALUE;
+            for (int i = 0; i < end; i++) {
+                int day = chunk.day[i];
+                if (day < dayFrom || day > dayTo || !statusMask[chunk.status[i]]) {
+                    continue;
+                }
+                if (tourMask != null && !matches(tourMask, chunk.tour[i])) {
+                    continue;
+                }
+                if (categoryMask != null && !matches(categoryMask, chunk.category[i])) {
+                    continue;
+                }
+                if (cohortFiltered) {
+                    short cohort = chunk.cohort[i];
+                    if (cohort == NO_COHORT || cohort < cohortFrom || cohort > cohortTo) {
+                        continue;
+                    }
+                }
+                long key = 0;
+                for (int d = 0; d < dimensions.length; d++) {
+                    long value = dimensionValue(dimensions[d], chunk, i) & 0xFFFF_FFFFL;
+                    key |= d == 0 ? value << 32 : value;
+                }
+                sums.add(key, chunk.amount[i], 1);
+            }
+            return sums;
+        }
+
+        private static boolean matches(boolean[] mask, int code) {
+            return code < mask.length && mask[code];
+        }
+
+        private static int dimensionValue(RevenueSliceRequest.Dimension dimension, Chunk chunk, int i) {
+            return switch (dimension) {
+                case DAY -> chunk.day[i];
+                case WEEK -> chunk.day[i] - Math.floorMod(chunk.day[i] + 3, 7);
+                case MONTH -> epochMonthOfDay(chunk.day[i]);
+                case CATEGORY -> chunk.category[i];
+                case TOUR -> chunk.tour[i];
+                case STATUS -> chunk.status[i];
+                case COHORT -> chunk.cohort[i];
+            };
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<GroupSums> {
+        private final Scan scan;
+        private final int from;
+        private final int to;
+
+        ScanTask(Scan scan, int from, int to) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GroupSums compute() {
+            if (to - from == 1) {
+                return scan.scanChunk(from);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(scan, from, middle);
+            left.fork();
+            GroupSums right = new ScanTask(scan, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Open-addressing hash table from group key to revenue and booking count, without boxing.
+     */
+    static final class GroupSums {
+        long[] keys = new long[16];
+        long[] revenue = new long[16];
+        long[] counts = new long[16];
+        int size;
+
+        void add(long key, long amount, long count) {
+            int mask = keys.length - 1;
+            int slot = Long.hashCode(key * 0x9E37_79B9_7F4A_7C15L) & mask;
+            while (counts[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (counts[slot] == 0) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    counts[slot] = count;
+                    revenue[slot] = amount;
+                    grow();
+                    return;
+                }
+            }
+            counts[slot] += count;
+            revenue[slot] += amount;
+        }
+
+        GroupSums merge(GroupSums other) {
+            GroupSums larger = size >= other.size ? this : other;
+            GroupSums smaller = larger == this ? other : this;
+            for (int slot = 0; slot < smaller.keys.length; slot++) {
+                if (smaller.counts[slot] != 0) {
+                    larger.add(smaller.keys[slot], smaller.revenue[slot], smaller.counts[slot]);
+                }
+            }
+            return larger;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldRevenue = revenue;
+            long[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            revenue = new long[oldKeys.length * 2];
+            counts = new long[oldKeys.length * 2];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldCounts[slot] != 0) {
+                    add(oldKeys[slot], oldRevenue[slot], oldCounts[slot]);
+                }
+            }
+        }
+    }
+}
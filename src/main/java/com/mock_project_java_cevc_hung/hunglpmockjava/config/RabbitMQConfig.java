@@ -1,10 +1,15 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.config;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventMessageConverter;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry.PaymentRetryRecoverer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
@@ -13,13 +18,18 @@ import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.rabbit.retry.RejectAndDontRequeueRecoverer;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "rabbit", matchIfMissing = true)
 @EnableRabbit
 public class RabbitMQConfig {
 
@@ -33,6 +43,52 @@ public class RabbitMQConfig {
     public static final String PAYMENT_COMPLETED_DLQ = "payment.completed.dlq";
     public static final String PAYMENT_COMPLETED_DLQ_ROUTING_KEY = "payment.completed.dlq";
 
+    private static final String PAYMENT_COMPLETED_PARTITION_QUEUE_PREFIX = "payment.completed.queue.";
+
+    public static final String PAYMENT_RETRY_EXCHANGE = "payment.retry.exchange";
+    private static final String PAYMENT_COMPLETED_RETRY_QUEUE_PREFIX = "payment.completed.retry.";
+    private static final String PAYMENT_RETRY_ROUTING_KEY_PREFIX = "retry.";
+
+    /**
+     * Queue holding the {@code payment.completed} events of one booking partition.
+     */
+    public static String paymentCompletedPartitionQueue(int partition) {
+        return PAYMENT_COMPLETED_PARTITION_QUEUE_PREFIX + partition;
+    }
+
+    /**
+     * Routing key on {@link #PAYMENT_EXCHANGE} for the {@code payment.completed} events of one booking partition.
+     */
+    public static String paymentCompletedPartitionRoutingKey(int partition) {
+        return PAYMENT_COMPLETED_ROUTING_KEY + "." + partition;
+    }
+
+    /**
+     * Name of the delay queue holding the given retry attempt.
+     */
+    public static String paymentCompletedRetryQueue(int attempt) {
+        return PAYMENT_COMPLETED_RETRY_QUEUE_PREFIX + attempt;
+    }
+
+    /**
+     * Routing key on {@link #PAYMENT_RETRY_EXCHANGE} for a retry attempt of a message first published with
+     * {@code routingKey}. The original key stays a suffix so the message finds its way back to the same queue.
+     */
+    public static String paymentRetryRoutingKey(int attempt, String routingKey) {
+        String originalKey = routingKey != null ? stripRetryPrefix(routingKey) : PAYMENT_COMPLETED_ROUTING_KEY;
+        return PAYMENT_RETRY_ROUTING_KEY_PREFIX + attempt + "." + originalKey;
+    }
+
+    /**
+     * The routing key a message was first published with, given the key it was last delivered with.
+     */
+    public static String stripRetryPrefix(String routingKey) {
+        if (!routingKey.startsWith(PAYMENT_RETRY_ROUTING_KEY_PREFIX)) {
+            return routingKey;
+        }
+        return routingKey.substring(routingKey.indexOf('.', PAYMENT_RETRY_ROUTING_KEY_PREFIX.length()) + 1);
+    }
+
     @Bean
     public TopicExchange paymentExchange() {
         return new TopicExchange(PAYMENT_EXCHANGE, true, false);
@@ -56,11 +112,37 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(PAYMENT_COMPLETED_DLQ).build();
     }
 
+    /**
+     * The unpartitioned queue now only drains events published before partitioning, and their retries.
+     */
     @Bean
     public Binding paymentCompletedBinding(Queue paymentCompletedQueue, TopicExchange paymentExchange) {
         return BindingBuilder.bind(paymentCompletedQueue)
                 .to(paymentExchange)
-                .with(PAYMENT_COMPLETED_ROUTING_KEY);
+                .with("#." + PAYMENT_COMPLETED_ROUTING_KEY);
+    }
+
+    /**
+     * One queue per booking partition. Single active consumer lets every node subscribe to a partition while only
+     * one of them receives its events at a time, which keeps the events of a booking in order. The {@code #.} binding
+     * also accepts the partition's retries coming back from the delay queues.
+     */
+    @Bean
+    public Declarables paymentCompletedPartitionTopology(
+            @Value("${app.payment.partitions.count:4}") int partitionCount
+    ) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            Queue queue = QueueBuilder.durable(paymentCompletedPartitionQueue(partition))
+                    .singleActiveConsumer()
+                    .deadLetterExchange(PAYMENT_DLX)
+                    .deadLetterRoutingKey(PAYMENT_COMPLETED_DLQ_ROUTING_KEY)
+                    .build();
+            declarables.add(queue);
+            declarables.add(new Binding(queue.getName(), Binding.DestinationType.QUEUE,
+                    PAYMENT_EXCHANGE, "#." + paymentCompletedPartitionRoutingKey(partition), null));
+        }
+        return new Declarables(declarables);
     }
 
     @Bean
@@ -72,8 +154,40 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public MessageConverter jacksonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public TopicExchange paymentRetryExchange() {
+        return new TopicExchange(PAYMENT_RETRY_EXCHANGE, true, false);
+    }
+
+    /**
+     * One delay queue per retry attempt. Nothing consumes them: a message waits out the queue's TTL and is then
+     * dead-lettered back to {@link #PAYMENT_EXCHANGE} with the routing key it was parked with, whose suffix is its
+     * original key, so waiting costs no consumer thread. A per-queue TTL keeps expiry in FIFO order, which
+     * per-message TTLs in a shared queue would not.
+     */
+    @Bean
+    public Declarables paymentCompletedRetryTopology(
+            @Value("${app.payment.retry.delays-ms:1000,5000,15000}") long[] delaysMs
+    ) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int attempt = 1; attempt <= delaysMs.length; attempt++) {
+            Queue queue = QueueBuilder.durable(paymentCompletedRetryQueue(attempt))
+                    .ttl(Math.toIntExact(delaysMs[attempt - 1]))
+                    .deadLetterExchange(PAYMENT_EXCHANGE)
+                    .build();
+            declarables.add(queue);
+            declarables.add(new Binding(queue.getName(), Binding.DestinationType.QUEUE,
+                    PAYMENT_RETRY_EXCHANGE, PAYMENT_RETRY_ROUTING_KEY_PREFIX + attempt + ".#", null));
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * JSON for everything, except payment events, which follow {@code app.messaging.codec} when sent and are read by
+     * content type.
+     */
+    @Bean
+    public MessageConverter jacksonMessageConverter(PaymentEventCodec paymentEventCodec) {
+        return new PaymentEventMessageConverter(paymentEventCodec, new Jackson2JsonMessageConverter());
     }
 
     @Bean
@@ -86,23 +200,48 @@ public class RabbitMQConfig {
     @Bean(name = "rabbitListenerContainerFactory")
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
             ConnectionFactory connectionFactory,
-            MessageConverter messageConverter
+            MessageConverter messageConverter,
+            PaymentRetryRecoverer paymentRetryRecoverer
     ) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter);
         factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
         factory.setDefaultRequeueRejected(false);
+        // A single attempt in the consumer thread; retries wait in the delay queues instead of a sleeping backoff
         factory.setAdviceChain(
                 RetryInterceptorBuilder.stateless()
-                        .maxAttempts(3)
-                        .backOffOptions(1000, 2.0, 10000)
-                        .recoverer(new RejectAndDontRequeueRecoverer())
+                        .maxAttempts(1)
+                        .recoverer(paymentRetryRecoverer)
                         .build()
         );
         factory.setErrorHandler(throwable ->
-                logger.error("Rabbit listener error. Message will be routed to DLQ if retries exhausted", throwable));
+                logger.error("Rabbit listener error. Message will be retried later or routed to DLQ", throwable));
         return factory;
     }
-}
 
+    /**
+     * Container factory for {@code PaymentCompletedBatchListener}: hands over up to {@code batchSize} messages or
+     * whatever arrived within {@code timeoutMs}, and leaves acknowledgement to the listener so that a batch is
+     * acknowledged together while single bad messages are still rejected to the DLQ.
+     */
+    @Bean(name = "paymentBatchListenerContainerFactory")
+    public SimpleRabbitListenerContainerFactory paymentBatchListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${app.payment.listener.batch.size:100}") int batchSize,
+            @Value("${app.payment.listener.batch.timeout-ms:200}") long timeoutMs
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setDefaultRequeueRejected(false);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setBatchReceiveTimeout(timeoutMs);
+        factory.setPrefetchCount(batchSize);
+        factory.setErrorHandler(throwable ->
+                logger.error("Rabbit batch listener error. Unacknowledged messages will be redelivered", throwable));
+        return factory;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -3,6 +3,7 @@ package com.mock_project_java_cevc_hung.hunglpmockjava.config;
 import com.mock_project_java_cevc_hung.hunglpmockjava.security.AuthTokenFilter;
 import com.mock_project_java_cevc_hung.hunglpmockjava.security.JwtAuthenticationEntryPoint;
 import com.mock_project_java_cevc_hung.hunglpmockjava.security.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -56,12 +57,15 @@ public class SecurityConfig {
         http.cors(cors -> cors.disable())
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches of SSE and long-poll responses were authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/css/**", "/js/**", "/images/**", "/vendor/**").permitAll()
                 .requestMatchers("/", "/index", "/home").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/guest/**").permitAll()
                 .requestMatchers("/api/tours/**").permitAll()
                 .requestMatchers("/api/v1/tours/**").permitAll()
+                .requestMatchers("/api/v1/payments/webhook").permitAll()
                 .requestMatchers("/api/reviews/**").permitAll()
                 .requestMatchers("/api/categories/**").permitAll()
                 .requestMatchers("/*.html").permitAll()
@@ -76,14 +76,13 @@ public class AdminController {
         long totalTours = tourRepository.count();
         long totalCategories = categoryRepository.count();
         long totalBooking = bookingRepository.count();
-        Double totalRevenue = revenueService.getTotalRevenue();
         List<UserEntity> recentUsers = userRepository.findTop5ByOrderByCreatedAtDesc();
         List<BookingEntity> recentBookings = bookingRepository.findTop5ByOrderByCreatedAtDesc();
         model.addAttribute("totalUsers", totalUsers);
         model.addAttribute("totalTours", totalTours);
         model.addAttribute("totalCategories", totalCategories);
         model.addAttribute("totalBooking", totalBooking);
-        model.addAttribute("totalRevenue", totalRevenue != null ? totalRevenue : 0.0);
+        model.addAttribute("totalRevenue", revenueService.getTotalRevenue().toBigDecimal());
         model.addAttribute("recentUsers", recentUsers);
         model.addAttribute("recentBookings", recentBookings);
 
@@ -4,6 +4,7 @@ import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.AdminPageReque
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.BookingUpdateRequest;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.BookingResponse;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.CsvExporter;
 import com.mock_project_java_cevc_hung.hunglpmockjava.service.BookingService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -15,10 +16,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
@@ -36,11 +39,13 @@ public class BookingController {
 
     private final BookingService bookingService;
     private final MessageSource messageSource;
+    private final CsvExporter csvExporter;
 
     @Autowired
-    public BookingController(BookingService bookingService, MessageSource messageSource) {
+    public BookingController(BookingService bookingService, MessageSource messageSource, CsvExporter csvExporter) {
         this.bookingService = bookingService;
         this.messageSource = messageSource;
+        this.csvExporter = csvExporter;
     }
     
     private void addErrorFlash(RedirectAttributes redirectAttributes, String message) {
@@ -78,6 +83,14 @@ public class BookingController {
         return VIEW_INDEX;
     }
 
+    /**
+     * Every booking with its user and tour, streamed; {@code ?gzip=true} downloads it compressed.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(defaultValue = "false") boolean gzip) {
+        return csvExporter.response(bookingService.getBookingsExport(), gzip);
+    }
+
     @GetMapping("/{id}/edit")
     public String editBookingPage(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
         try {
@@ -0,0 +1,68 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.controller.admin;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.ExportJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.CsvExportJobService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.ExportFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints to follow background CSV export jobs and download their files.
+ */
+@Controller
+@RequestMapping("/admin/exports")
+public class ExportJobController {
+
+    private final CsvExportJobService exportJobService;
+    private final ExportFileSender exportFileSender;
+
+    public ExportJobController(CsvExportJobService exportJobService, ExportFileSender exportFileSender) {
+        this.exportJobService = exportJobService;
+        this.exportFileSender = exportFileSender;
+    }
+
+    @GetMapping("")
+    @ResponseBody
+    public ResponseEntity<List<ExportJobResponse>> jobs() {
+        return ResponseEntity.ok(exportJobService.getJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    @ResponseBody
+    public ResponseEntity<?> job(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(exportJobService.getJob(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * The file of a finished job; supports {@code Range} for resumed downloads.
+     */
+    @GetMapping("/{jobId}/file")
+    public ResponseEntity<?> download(
+        @PathVariable String jobId,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        try {
+            exportFileSender.send(jobId, request, response);
+            return null;
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.controller.admin;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.DlqReplayRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.DlqReplayJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.DlqSummaryResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.dlq.PaymentDlqReplayService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints to inspect the payment DLQ and replay its messages.
+ */
+@Controller
+@RequestMapping("/admin/payments/dlq")
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "rabbit", matchIfMissing = true)
+public class PaymentDlqController {
+
+    private final PaymentDlqReplayService replayService;
+
+    public PaymentDlqController(PaymentDlqReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    @GetMapping
+    @ResponseBody
+    public ResponseEntity<DlqSummaryResponse> summary() {
+        return ResponseEntity.ok(replayService.summarize());
+    }
+
+    @GetMapping("/replays")
+    @ResponseBody
+    public ResponseEntity<List<DlqReplayJobResponse>> replays() {
+        return ResponseEntity.ok(replayService.getReplays());
+    }
+
+    @PostMapping("/replays")
+    @ResponseBody
+    public ResponseEntity<?> startReplay(@Valid @RequestBody DlqReplayRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(replayService.startReplay(request));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/replays/{jobId}")
+    @ResponseBody
+    public ResponseEntity<?> replay(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(replayService.getReplay(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/replays/{jobId}/cancel")
+    @ResponseBody
+    public ResponseEntity<?> cancelReplay(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(replayService.cancelReplay(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
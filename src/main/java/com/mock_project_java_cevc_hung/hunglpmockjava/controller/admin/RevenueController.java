@@ -1,11 +1,18 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.controller.admin;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.analytics.RevenueAnalyticsService;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.AdminPageRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSeriesRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSliceRequest;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.CategoryRevenueDTO;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.MonthlyRevenueDTO;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueResponse;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TopRatedTourDTO;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.ExportFileSender;
 import com.mock_project_java_cevc_hung.hunglpmockjava.service.RevenueService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -13,6 +20,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -20,10 +28,15 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Controller
@@ -36,9 +49,14 @@ public class RevenueController {
     private static final int TOP_RATED_TOUR_LIMIT = 5;
 
     private final RevenueService revenueService;
+    private final RevenueAnalyticsService revenueAnalyticsService;
+    private final ExportFileSender exportFileSender;
 
-    public RevenueController(RevenueService revenueService) {
+    public RevenueController(RevenueService revenueService, RevenueAnalyticsService revenueAnalyticsService,
+            ExportFileSender exportFileSender) {
         this.revenueService = revenueService;
+        this.revenueAnalyticsService = revenueAnalyticsService;
+        this.exportFileSender = exportFileSender;
     }
 
     @GetMapping("")
@@ -52,13 +70,13 @@ public class RevenueController {
 
         try {
             Page<RevenueResponse> revenues = revenueService.getAllRevenues(request.getSearch(), pageable);
-            Double totalRevenue = revenueService.getTotalRevenue();
+            BigDecimal totalRevenue = revenueService.getTotalRevenue().toBigDecimal();
             List<MonthlyRevenueDTO> chartData = revenueService.getRevenueChartData(MONTHS_IN_CHART);
             List<String> chartLabels = chartData.stream()
                     .map(MonthlyRevenueDTO::getLabel)
                     .collect(Collectors.toList());
-            List<Double> chartValues = chartData.stream()
-                    .map(MonthlyRevenueDTO::getTotalRevenue)
+            List<BigDecimal> chartValues = chartData.stream()
+                    .map(dto -> dto.getTotalRevenue().toBigDecimal())
                     .collect(Collectors.toList());
             List<Integer> chartBookings = chartData.stream()
                     .map(dto -> dto.getTotalBookings() != null ? dto.getTotalBookings() : 0)
@@ -68,8 +86,8 @@ public class RevenueController {
             List<String> categoryLabels = categoryRevenues.stream()
                     .map(CategoryRevenueDTO::getLabel)
                     .collect(Collectors.toList());
-            List<Double> categoryValues = categoryRevenues.stream()
-                    .map(dto -> dto.getTotalRevenue() != null ? dto.getTotalRevenue() : 0.0)
+            List<BigDecimal> categoryValues = categoryRevenues.stream()
+                    .map(dto -> dto.getTotalRevenue() != null ? dto.getTotalRevenue().toBigDecimal() : BigDecimal.ZERO)
                     .collect(Collectors.toList());
             List<Integer> categoryBookings = categoryRevenues.stream()
                     .map(dto -> dto.getTotalBookings() != null ? dto.getTotalBookings() : 0)
@@ -88,10 +106,6 @@ public class RevenueController {
                 logger.warn("Revenue list is null, defaulting to empty page");
                 revenues = Page.empty(pageable);
             }
-            if (totalRevenue == null) {
-                logger.warn("Total revenue is null, defaulting to 0.0");
-                totalRevenue = 0.0;
-            }
 
             model.addAttribute("revenues", revenues);
             model.addAttribute("totalRevenue", totalRevenue);
@@ -119,7 +133,7 @@ public class RevenueController {
             logger.error("Failed to load revenue page: {}", ex.getMessage(), ex);
             model.addAttribute(AdminConstants.ATTR_ERROR, "Unable to load revenue data");
             model.addAttribute("revenues", Page.empty(pageable));
-            model.addAttribute("totalRevenue", 0.0);
+            model.addAttribute("totalRevenue", BigDecimal.ZERO);
             model.addAttribute("revenueChartLabels", Collections.emptyList());
             model.addAttribute("revenueChartValues", Collections.emptyList());
             model.addAttribute("revenueChartBookings", Collections.emptyList());
@@ -136,6 +150,34 @@ public class RevenueController {
         }
     }
 
+    /**
+     * Revenue in day, week or month buckets, e.g.
+     * {@code /admin/revenue/series?from=2025-01-01&to=2025-03-31&granularity=WEEK}.
+     */
+    @GetMapping("/series")
+    @ResponseBody
+    public ResponseEntity<?> revenueSeries(@ModelAttribute RevenueSeriesRequest request) {
+        try {
+            return ResponseEntity.ok(revenueService.getRevenueSeries(request));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Ad-hoc revenue slice answered from memory, e.g.
+     * {@code /admin/revenue/slice?from=2025-01-01&categoryIds=2,5&statuses=PAID,REFUNDED&groupBy=MONTH,TOUR}.
+     */
+    @GetMapping("/slice")
+    @ResponseBody
+    public ResponseEntity<?> revenueSlice(@ModelAttribute RevenueSliceRequest request) {
+        try {
+            return ResponseEntity.ok(revenueAnalyticsService.slice(request));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/export/monthly")
     public ResponseEntity<byte[]> exportMonthlyRevenue() {
         try {
@@ -176,24 +218,17 @@ public class RevenueController {
         }
     }
 
+    /**
+     * Every revenue record, from the export file of the current revenue version; {@code ?gzip=true} downloads it
+     * compressed.
+     */
     @GetMapping("/export/all")
-    public ResponseEntity<byte[]> exportAllRevenues() {
-        try {
-            String csv = revenueService.exportAllRevenuesToCSV();
-            byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", "all_revenues.csv");
-            headers.setContentLength(bytes.length);
-
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(bytes);
-        } catch (Exception e) {
-            logger.error("Failed to export all revenues: {}", e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<?> exportAllRevenues(
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        return exportFileSender.serve(revenueService.getAllRevenuesExport(), gzip, request, response);
     }
 }
 
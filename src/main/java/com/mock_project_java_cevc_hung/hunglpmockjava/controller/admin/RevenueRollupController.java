@@ -0,0 +1,68 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.controller.admin;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueRollupRebuildResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.RevenueRollupBackfillService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints to rebuild the daily revenue rollups from the revenue rows.
+ */
+@Controller
+@RequestMapping("/admin/revenue/rollups")
+public class RevenueRollupController {
+
+    private final RevenueRollupBackfillService backfillService;
+
+    public RevenueRollupController(RevenueRollupBackfillService backfillService) {
+        this.backfillService = backfillService;
+    }
+
+    @GetMapping("/rebuilds")
+    @ResponseBody
+    public ResponseEntity<List<RevenueRollupRebuildResponse>> rebuilds() {
+        return ResponseEntity.ok(backfillService.getRebuilds());
+    }
+
+    @PostMapping("/rebuilds")
+    @ResponseBody
+    public ResponseEntity<?> startRebuild(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfillService.startRebuild(from, to));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/rebuilds/{jobId}")
+    @ResponseBody
+    public ResponseEntity<?> rebuild(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(backfillService.getRebuild(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/rebuilds/{jobId}/cancel")
+    @ResponseBody
+    public ResponseEntity<?> cancelRebuild(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(backfillService.cancelRebuild(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -4,12 +4,17 @@ import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.AdminPageReque
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.TourCreateRequest;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.TourUpdateRequest;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.CategoryResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.SeatReconciliationResponse;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportResult;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourResponse;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.ExportFileSender;
 import com.mock_project_java_cevc_hung.hunglpmockjava.service.CategoryService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.SeatLeaseAllocator;
 import com.mock_project_java_cevc_hung.hunglpmockjava.service.TourImportExportService;
 import com.mock_project_java_cevc_hung.hunglpmockjava.service.TourService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
@@ -49,16 +55,22 @@ public class TourController {
     private final TourService tourService;
     private final CategoryService categoryService;
     private final TourImportExportService importExportService;
+    private final SeatLeaseAllocator seatLeaseAllocator;
+    private final ExportFileSender exportFileSender;
 
     @Autowired
     public TourController(
         TourService tourService,
         CategoryService categoryService,
-        TourImportExportService importExportService
+        TourImportExportService importExportService,
+        SeatLeaseAllocator seatLeaseAllocator,
+        ExportFileSender exportFileSender
     ) {
         this.tourService = tourService;
         this.categoryService = categoryService;
         this.importExportService = importExportService;
+        this.seatLeaseAllocator = seatLeaseAllocator;
+        this.exportFileSender = exportFileSender;
     }
 
     @GetMapping("/tours")
@@ -211,23 +223,37 @@ public class TourController {
         return REDIRECT_TOURS;
     }
 
-    @GetMapping("/tours/export")
-    public ResponseEntity<byte[]> exportTours() {
+    @PostMapping("/tours/{id}/booking-mode")
+    public String updateBookingMode(
+            @PathVariable Long id,
+            @RequestParam("mode") TourEntity.BookingMode mode,
+            RedirectAttributes redirectAttributes) {
         try {
-            String csv = importExportService.exportToursToCSV();
-            byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", "tours_export.csv");
-            headers.setContentLength(bytes.length);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(bytes);
+            tourService.setBookingMode(id, mode);
+            redirectAttributes.addFlashAttribute(AdminConstants.ATTR_SUCCESS, "Tour booking mode updated successfully!");
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            redirectAttributes.addFlashAttribute(AdminConstants.ATTR_ERROR,
+                    "Error updating tour booking mode: " + e.getMessage());
         }
+        return REDIRECT_TOURS;
+    }
+
+    @GetMapping("/tours/{id}/seat-reconciliation")
+    @ResponseBody
+    public ResponseEntity<SeatReconciliationResponse> seatReconciliation(@PathVariable Long id) {
+        return ResponseEntity.ok(seatLeaseAllocator.reconcile(id));
+    }
+
+    /**
+     * Every tour, from the export file of the current catalog version; {@code ?gzip=true} downloads it compressed.
+     */
+    @GetMapping("/tours/export")
+    public ResponseEntity<?> exportTours(
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        return exportFileSender.serve(importExportService.getToursExport(), gzip, request, response);
     }
 
     @GetMapping("/tours/import-template")
@@ -268,7 +294,8 @@ public class TourController {
 
         long maxSize = 10 * 1024 * 1024;
         if (file.getSize() > maxSize) {
-            redirectAttributes.addFlashAttribute(AdminConstants.ATTR_ERROR, "File size exceeds maximum limit of 10MB");
+            redirectAttributes.addFlashAttribute(AdminConstants.ATTR_ERROR,
+                    "File size exceeds maximum limit of 10MB. Use the background import for larger files");
             return "redirect:" + BASE_PATH + "/import";
         }
 
@@ -0,0 +1,92 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.controller.admin;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.TourImportJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints to start background tour imports and poll their progress.
+ */
+@Controller
+@RequestMapping("/admin/tours/import/jobs")
+public class TourImportJobController {
+
+    private final TourImportJobService importJobService;
+
+    public TourImportJobController(TourImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    /**
+     * Start an import of the CSV file sent as the raw request body, e.g.
+     * {@code POST /admin/tours/import/jobs?fileName=tours.csv} with {@code Content-Type: text/csv}. The body is not
+     * multipart, so it is streamed to disk by the handler instead of being parsed up front.
+     */
+    @PostMapping(value = "",
+            consumes = {"text/csv", "application/vnd.ms-excel", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @ResponseBody
+    public ResponseEntity<?> start(@RequestParam String fileName, HttpServletRequest request) throws IOException {
+        try {
+            TourImportJobResponse job = importJobService.start(fileName, request.getInputStream(),
+                    request.getContentLengthLong());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/admin/tours/import/jobs/" + job.getId()))
+                    .body(job);
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("")
+    @ResponseBody
+    public ResponseEntity<List<TourImportJobResponse>> jobs() {
+        return ResponseEntity.ok(importJobService.getJobs());
+    }
+
+    /**
+     * Progress of a job: rows processed, rows per second and the error count so far.
+     */
+    @GetMapping("/{jobId}")
+    @ResponseBody
+    public ResponseEntity<?> job(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(importJobService.getJob(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}/errors")
+    @ResponseBody
+    public ResponseEntity<?> errors(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(importJobService.getErrors(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{jobId}/resume")
+    @ResponseBody
+    public ResponseEntity<?> resume(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.resume(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.controller.api;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.BookingCreateRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.CartCheckoutRequest;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiBookingResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiBookingStatusResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiCartCheckoutResponse;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiPaginatedResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.IdempotencyKeyEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.CartCheckoutException;
 import com.mock_project_java_cevc_hung.hunglpmockjava.security.UserDetailsImpl;
 import com.mock_project_java_cevc_hung.hunglpmockjava.service.BookingService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.BookingStatusPushService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.CartCheckoutService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.FlashSaleBookingService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.IdempotencyService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.LoadSheddingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -12,10 +22,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -25,15 +38,55 @@ public class ApiBookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private FlashSaleBookingService flashSaleBookingService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CartCheckoutService cartCheckoutService;
+
+    @Autowired
+    private LoadSheddingService loadSheddingService;
+
+    @Autowired
+    private BookingStatusPushService bookingStatusPushService;
+
     @PostMapping("/bookings")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> createBooking(
             @Valid @RequestBody BookingCreateRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
         
+        loadSheddingService.check(LoadSheddingService.Gate.BOOKING);
+        Long userId = userDetails.getId();
+        return idempotencyService.execute(IdempotencyKeyEntity.Scope.BOOKING, userId, idempotencyKey, request, () -> {
+            ApiBookingResponse response = flashSaleBookingService.isFlashSale(request.getTourId())
+                    ? flashSaleBookingService.createBooking(request, userId)
+                    : bookingService.createBooking(request, userId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        });
+    }
+
+    @PostMapping("/bookings/checkout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> checkoutCart(
+            @Valid @RequestBody CartCheckoutRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        loadSheddingService.check(LoadSheddingService.Gate.BOOKING);
         Long userId = userDetails.getId();
-        ApiBookingResponse response = bookingService.createBooking(request, userId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return idempotencyService.execute(IdempotencyKeyEntity.Scope.CART, userId, idempotencyKey, request, () -> {
+            try {
+                ApiCartCheckoutResponse response = cartCheckoutService.checkout(request, userId);
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (CartCheckoutException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getResult());
+            }
+        });
     }
 
     @GetMapping("/bookings/my")
@@ -72,6 +125,25 @@ public class ApiBookingController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/bookings/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamBookingEvents(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        return bookingStatusPushService.stream(id, userDetails.getId());
+    }
+
+    @GetMapping("/bookings/{id}/status")
+    @PreAuthorize("isAuthenticated()")
+    public DeferredResult<ApiBookingStatusResponse> awaitBookingStatus(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long timeoutMs,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        return bookingStatusPushService.poll(id, userDetails.getId(), timeoutMs);
+    }
+
     @PostMapping("/bookings/{id}/cancel")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> cancelBooking(
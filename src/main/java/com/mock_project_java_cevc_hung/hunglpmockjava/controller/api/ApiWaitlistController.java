@@ -0,0 +1,56 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.controller.api;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.WaitlistJoinRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiWaitlistResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.security.UserDetailsImpl;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.WaitlistService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1")
+@CrossOrigin(origins = "*")
+public class ApiWaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @PostMapping("/tours/{id}/waitlist")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> joinWaitlist(
+            @PathVariable Long id,
+            @Valid @RequestBody WaitlistJoinRequest request,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        Long userId = userDetails.getId();
+        ApiWaitlistResponse response = waitlistService.join(id, userId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/tours/{id}/waitlist")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getMyWaitlistEntry(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        Long userId = userDetails.getId();
+        ApiWaitlistResponse response = waitlistService.getEntry(id, userId);
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/tours/{id}/waitlist")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> leaveWaitlist(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        Long userId = userDetails.getId();
+        waitlistService.leave(id, userId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,6 +2,10 @@ package com.mock_project_java_cevc_hung.hunglpmockjava.controller.api;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.PaymentRequest;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.PaymentResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.IdempotencyKeyEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.security.UserDetailsImpl;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.IdempotencyService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.LoadSheddingService;
 import com.mock_project_java_cevc_hung.hunglpmockjava.service.PaymentService;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
 import jakarta.validation.Valid;
@@ -10,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,14 +29,23 @@ public class PaymentController {
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final LoadSheddingService loadSheddingService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService,
+                             LoadSheddingService loadSheddingService) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
+        this.loadSheddingService = loadSheddingService;
     }
 
     @PostMapping("/payments")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> processPayment(@Valid @RequestBody PaymentRequest request, BindingResult bindingResult) {
+    public ResponseEntity<?> processPayment(
+            @Valid @RequestBody PaymentRequest request,
+            BindingResult bindingResult,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
         
         // Validate request
         if (bindingResult.hasErrors()) {
@@ -48,16 +62,21 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         }
         
-        try {
-            PaymentResponse response = paymentService.processPayment(request);
-            return ResponseEntity.status(HttpStatus.OK).body(response);
-        } catch (BusinessException e) {
-            logger.warn("Payment business error: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Payment processing failed");
-            errorResponse.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-        }
+        // Shed before claiming the key so a retry after Retry-After is not answered as in progress
+        loadSheddingService.check(LoadSheddingService.Gate.PAYMENT);
+        return idempotencyService.execute(IdempotencyKeyEntity.Scope.PAYMENT, userDetails.getId(), idempotencyKey,
+                request, () -> {
+            try {
+                PaymentResponse response = paymentService.processPayment(request);
+                return ResponseEntity.status(HttpStatus.OK).body(response);
+            } catch (BusinessException e) {
+                logger.warn("Payment business error: {}", e.getMessage());
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Payment processing failed");
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+        });
     }
 }
 
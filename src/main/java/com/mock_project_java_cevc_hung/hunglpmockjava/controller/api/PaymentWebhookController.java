@@ -0,0 +1,29 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.controller.api;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.PaymentWebhookResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.security.PaymentWebhookSigner;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.PaymentWebhookService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Payment gateway callbacks. Authenticated by the HMAC signature instead of a user session.
+ */
+@RestController
+@RequestMapping("/api/v1/payments")
+public class PaymentWebhookController {
+
+    private final PaymentWebhookService paymentWebhookService;
+
+    public PaymentWebhookController(PaymentWebhookService paymentWebhookService) {
+        this.paymentWebhookService = paymentWebhookService;
+    }
+
+    @PostMapping("/webhook")
+    public ResponseEntity<PaymentWebhookResponse> receive(
+            @RequestHeader(value = PaymentWebhookSigner.TIMESTAMP_HEADER, required = false) String timestamp,
+            @RequestHeader(value = PaymentWebhookSigner.SIGNATURE_HEADER, required = false) String signature,
+            @RequestBody byte[] body) {
+        return ResponseEntity.ok(paymentWebhookService.receive(timestamp, signature, body));
+    }
+}
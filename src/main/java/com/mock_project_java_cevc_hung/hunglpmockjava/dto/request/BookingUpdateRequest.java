@@ -1,5 +1,6 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.request;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -16,6 +17,6 @@ public class BookingUpdateRequest {
     
     @NotNull(message = "Amount is required")
     @Min(value = 0, message = "Amount must be positive")
-    private Double amount;
+    private Money amount;
 }
 
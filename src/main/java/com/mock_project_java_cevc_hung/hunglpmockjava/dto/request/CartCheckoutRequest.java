@@ -0,0 +1,20 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartCheckoutRequest {
+
+    @NotEmpty(message = "Cart must contain at least one item")
+    private List<@Valid BookingCreateRequest> items;
+}
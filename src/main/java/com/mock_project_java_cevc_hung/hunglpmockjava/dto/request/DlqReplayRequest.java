@@ -0,0 +1,31 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.request;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DlqReplayRequest {
+
+    public enum Mode {
+        /** Publish the messages back to the payment exchange for the consumers. */
+        REPUBLISH,
+        /** Apply the messages here through the batch payment handler. */
+        DIRECT
+    }
+
+    /** Replay only messages that failed with this reason; all messages when empty. */
+    private String reason;
+
+    @Builder.Default
+    private Mode mode = Mode.REPUBLISH;
+
+    /** Most messages to replay; the whole queue when empty. */
+    @Min(value = 1, message = "Limit must be at least 1")
+    private Integer limit;
+}
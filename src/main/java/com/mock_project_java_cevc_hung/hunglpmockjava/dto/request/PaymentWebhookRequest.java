@@ -0,0 +1,32 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.request;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification body posted by the payment gateway.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentWebhookRequest {
+
+    public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+
+    private String paymentRef;
+
+    private Long bookingId;
+
+    private Money amount;
+
+    /** Gateway payment status, e.g. {@value #STATUS_SUCCEEDED} or {@code FAILED}. */
+    private String status;
+
+    private LocalDateTime paidAt;
+}
@@ -0,0 +1,40 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueSeriesRequest {
+
+    public enum Granularity {
+        DAY,
+        /** Weeks start on Monday. */
+        WEEK,
+        MONTH
+    }
+
+    /** First day of the range; 30 days before {@code to} when empty. */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    /** Last day of the range, inclusive; today when empty. */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    @Builder.Default
+    private Granularity granularity = Granularity.DAY;
+
+    /** Only revenue of this category; all categories when empty. */
+    private Long categoryId;
+
+    /** Only revenue of this tour; all tours when empty. */
+    private Long tourId;
+}
@@ -0,0 +1,67 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.request;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueSliceRequest {
+
+    public enum Dimension {
+        DAY,
+        /** Weeks start on Monday. */
+        WEEK,
+        MONTH,
+        CATEGORY,
+        TOUR,
+        STATUS,
+        /** Month the booking's user registered in. */
+        COHORT
+    }
+
+    /** First payment day; no lower bound when empty. */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    /** Last payment day, inclusive; no upper bound when empty. */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    /** Only these categories; all when empty. */
+    @Builder.Default
+    private List<Long> categoryIds = new ArrayList<>();
+
+    /** Only these tours; all when empty. */
+    @Builder.Default
+    private List<Long> tourIds = new ArrayList<>();
+
+    /** Only bookings now in these statuses; PAID when empty. */
+    @Builder.Default
+    private List<BookingEntity.Status> statuses = new ArrayList<>();
+
+    /** Only users who registered in or after this month, e.g. {@code 2025-01}. */
+    @DateTimeFormat(pattern = "yyyy-MM")
+    private YearMonth cohortFrom;
+
+    /** Only users who registered in or before this month. */
+    @DateTimeFormat(pattern = "yyyy-MM")
+    private YearMonth cohortTo;
+
+    /** Up to two dimensions to group by; a single total when empty. */
+    @Builder.Default
+    private List<Dimension> groupBy = new ArrayList<>();
+
+    /** Most groups to return. */
+    private Integer limit;
+}
@@ -1,11 +1,11 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.request;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -19,7 +19,7 @@ public class TourCreateRequest {
     
     @NotNull(message = "Price is required")
     @Min(value = 0, message = "Price must be greater than or equal to 0")
-    private BigDecimal price;
+    private Money price;
     
     @NotBlank(message = "Location is required")
     private String location;
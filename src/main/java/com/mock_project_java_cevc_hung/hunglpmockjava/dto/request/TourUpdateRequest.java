@@ -1,10 +1,10 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.request;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -17,7 +17,7 @@ public class TourUpdateRequest {
     private String description;
     
     @Min(value = 0, message = "Price must be greater than or equal to 0")
-    private BigDecimal price;
+    private Money price;
     
     @NotBlank(message = "Location is required")
     private String location;
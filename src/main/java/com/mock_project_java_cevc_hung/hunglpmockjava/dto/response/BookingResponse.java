@@ -1,6 +1,7 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -16,7 +17,7 @@ public class BookingResponse {
     private String tourTitle;
     private String tourLocation;
     private Integer qty;
-    private Double amount;
+    private Money amount;
     private BookingEntity.Status status;
     private String paymentRef;
     private LocalDateTime paidAt;
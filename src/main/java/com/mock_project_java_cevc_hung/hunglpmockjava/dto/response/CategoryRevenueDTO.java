@@ -1,5 +1,6 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -14,7 +15,7 @@ import lombok.Setter;
 public class CategoryRevenueDTO {
     private Long categoryId;
     private String label;
-    private Double totalRevenue;
+    private Money totalRevenue;
     private Integer totalBookings;
 }
 
@@ -0,0 +1,28 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.DlqReplayRequest;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class DlqReplayJobResponse {
+
+    public enum Status {
+        RUNNING, PAUSED, COMPLETED, CANCELLED, FAILED
+    }
+
+    private String id;
+    private DlqReplayRequest.Mode mode;
+    private String reason;
+    private Integer limit;
+    private Status status;
+    private long queueDepth;
+    private int scanned;
+    private int replayed;
+    private int failed;
+    private int skipped;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,33 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DlqSummaryResponse {
+
+    private long queueDepth;
+
+    private int inspected;
+
+    @Builder.Default
+    private List<ReasonGroup> reasons = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ReasonGroup {
+        private String reason;
+        private int count;
+        @Builder.Default
+        private List<Long> sampleBookingIds = new ArrayList<>();
+    }
+}
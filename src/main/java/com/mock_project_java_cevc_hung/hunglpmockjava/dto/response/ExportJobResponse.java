@@ -0,0 +1,24 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ExportJobResponse {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private String id;
+    private String fileName;
+    private String version;
+    private Status status;
+    private long rowsWritten;
+    private long bytes;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String downloadUrl;
+}
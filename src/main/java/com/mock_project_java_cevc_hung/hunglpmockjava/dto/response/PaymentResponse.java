@@ -1,5 +1,6 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import lombok.*;
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -7,7 +8,7 @@ public class PaymentResponse {
     
     private Long bookingId;
     private String paymentRef;
-    private Double amount;
+    private Money amount;
     private String status;
     private String message;
     private Long revenueId;
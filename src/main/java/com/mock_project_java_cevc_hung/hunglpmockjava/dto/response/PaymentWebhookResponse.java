@@ -0,0 +1,17 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import lombok.*;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PaymentWebhookResponse {
+
+    public enum Result {
+        /** Stored for processing. */
+        ACCEPTED,
+        /** Already received earlier; nothing stored. */
+        DUPLICATE
+    }
+
+    private String paymentRef;
+    private Result result;
+}
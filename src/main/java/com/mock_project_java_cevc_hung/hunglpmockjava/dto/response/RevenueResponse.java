@@ -1,5 +1,6 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import lombok.*;
 
 import java.time.LocalDate;
@@ -10,8 +11,8 @@ public class RevenueResponse {
     
     private Long id;
     private LocalDate date;
-    private Double totalRevenue;
-    private Double tourRevenue;
+    private Money totalRevenue;
+    private Money tourRevenue;
     private Integer totalBookings;
     private Long bookingId;
     private LocalDateTime createdAt;
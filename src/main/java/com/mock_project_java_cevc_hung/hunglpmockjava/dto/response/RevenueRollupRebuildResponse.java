@@ -0,0 +1,24 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RevenueRollupRebuildResponse {
+
+    public enum Status {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private String id;
+    private LocalDate from;
+    private LocalDate to;
+    private Status status;
+    private long daysRebuilt;
+    private long rollupRows;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
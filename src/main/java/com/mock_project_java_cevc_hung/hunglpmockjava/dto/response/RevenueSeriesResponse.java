@@ -0,0 +1,43 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSeriesRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueSeriesResponse {
+
+    private RevenueSeriesRequest.Granularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private Long categoryId;
+    private Long tourId;
+    private Money totalRevenue;
+    private long totalBookings;
+
+    @Builder.Default
+    private List<Point> points = new ArrayList<>();
+
+    /**
+     * One bucket; {@code start} and {@code end} are clipped to the requested range.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Point {
+        private LocalDate start;
+        private LocalDate end;
+        private Money revenue;
+        private long bookings;
+    }
+}
@@ -0,0 +1,56 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSliceRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueSliceResponse {
+
+    @Builder.Default
+    private List<RevenueSliceRequest.Dimension> groupBy = new ArrayList<>();
+
+    @Builder.Default
+    private List<Group> groups = new ArrayList<>();
+
+    /** Groups left out by the limit. */
+    private int truncatedGroups;
+
+    private Money totalRevenue;
+    private long totalBookings;
+
+    /** Rows of the store that were scanned. */
+    private long scannedRows;
+
+    /**
+     * {@code false} while the store is still loading the existing bookings, or when it has not read the writes of
+     * other nodes recently.
+     */
+    private boolean complete;
+
+    private long tookMicros;
+
+    /**
+     * One group; {@code keys} holds its value for each {@code groupBy} dimension, in order: an ISO date for
+     * {@code DAY} and {@code WEEK}, {@code yyyy-MM} for {@code MONTH} and {@code COHORT}, the id for
+     * {@code CATEGORY} and {@code TOUR}, the status name for {@code STATUS}. Missing values are {@code null}.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Group {
+        @Builder.Default
+        private List<String> keys = new ArrayList<>();
+        private Money revenue;
+        private long bookings;
+    }
+}
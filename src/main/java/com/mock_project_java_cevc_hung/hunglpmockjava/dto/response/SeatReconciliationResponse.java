@@ -0,0 +1,14 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import lombok.*;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class SeatReconciliationResponse {
+
+    private Long tourId;
+    private Integer seatsTotal;
+    private Integer seatsAvailable;
+    private Long seatsLeased;
+    private Long seatsSold;
+    private boolean balanced;
+}
@@ -0,0 +1,24 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourImportJobEntity;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class TourImportJobResponse {
+
+    private Long id;
+    private String fileName;
+    private TourImportJobEntity.Status status;
+    private long fileBytes;
+    private long bytesProcessed;
+    private double percent;
+    private int rowsProcessed;
+    private int successCount;
+    private int errorCount;
+    private double rowsPerSecond;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
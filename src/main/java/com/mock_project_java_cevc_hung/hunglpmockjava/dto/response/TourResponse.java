@@ -1,9 +1,9 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -12,7 +12,7 @@ public class TourResponse {
     private Long id;
     private String title;
     private String description;
-    private BigDecimal price;
+    private Money price;
     private String location;
     private String thumbnailUrl;
     private Integer seatsTotal;
@@ -21,6 +21,7 @@ public class TourResponse {
     private LocalDateTime startDate;
     private LocalDateTime endDate;
     private TourEntity.Status status;
+    private TourEntity.BookingMode bookingMode;
     private String categoryName;
     private Long categoryId;
     private LocalDateTime createdAt;
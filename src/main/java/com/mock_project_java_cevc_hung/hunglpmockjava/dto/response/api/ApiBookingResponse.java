@@ -1,6 +1,7 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,7 +20,7 @@ public class ApiBookingResponse {
     private String tourTitle;
     private String tourLocation;
     private Integer qty;
-    private Double amount;
+    private Money amount;
     private BookingEntity.Status status;
     private String paymentRef;
     private LocalDateTime paidAt;
@@ -0,0 +1,21 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiBookingStatusResponse {
+
+    private Long bookingId;
+    private BookingEntity.Status status;
+    private String paymentRef;
+    private LocalDateTime paidAt;
+}
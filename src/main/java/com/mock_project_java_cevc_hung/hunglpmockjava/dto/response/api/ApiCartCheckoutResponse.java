@@ -0,0 +1,21 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiCartCheckoutResponse {
+
+    private boolean success;
+    private String message;
+    private Money totalAmount;
+    private List<ApiCartLineResponse> lines;
+}
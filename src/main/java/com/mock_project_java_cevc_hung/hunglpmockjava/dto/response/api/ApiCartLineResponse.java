@@ -0,0 +1,24 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiCartLineResponse {
+
+    private Integer line;
+    private Long tourId;
+    private Integer qty;
+    private Status status;
+    private String message;
+    private ApiBookingResponse booking;
+
+    public enum Status {
+        BOOKED, FAILED, NOT_BOOKED
+    }
+}
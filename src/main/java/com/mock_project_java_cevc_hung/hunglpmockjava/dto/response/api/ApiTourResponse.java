@@ -1,11 +1,11 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -17,7 +17,7 @@ public class ApiTourResponse {
     private Long id;
     private String title;
     private String description;
-    private BigDecimal price;
+    private Money price;
     private String location;
     private String thumbnailUrl;
     private Integer seatsTotal;
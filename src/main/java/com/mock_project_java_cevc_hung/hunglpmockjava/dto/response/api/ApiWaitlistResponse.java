@@ -0,0 +1,26 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.WaitlistEntryEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiWaitlistResponse {
+
+    private Long id;
+    private Long tourId;
+    private String tourTitle;
+    private Integer qty;
+    private WaitlistEntryEntity.Status status;
+    private Long position;
+    private Long bookingId;
+    private LocalDateTime promotedAt;
+    private LocalDateTime createdAt;
+}
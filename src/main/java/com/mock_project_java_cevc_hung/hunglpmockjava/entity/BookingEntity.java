@@ -1,6 +1,7 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import lombok.*;
@@ -9,7 +10,11 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings",
+        indexes = {
+            @Index(name = "idx_bookings_status_hold_expires", columnList = "status, hold_expires_at"),
+            @Index(name = "idx_bookings_updated_at", columnList = "updated_at")
+        })
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class BookingEntity extends BaseEntity {
 
@@ -25,7 +30,12 @@ public class BookingEntity extends BaseEntity {
     private Integer qty;
 
     @Min(0)
-    private Double amount;
+    @Column(name = "amount_minor")
+    private Money amount;
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @Column(name = "amount")
+    private Double legacyAmount;
 
     @Enumerated(EnumType.STRING)
     @Builder.Default
@@ -35,6 +45,16 @@ public class BookingEntity extends BaseEntity {
     private LocalDateTime paidAt;
     private LocalDateTime cancelledAt;
 
+    /** Deadline after which an unpaid PENDING booking is cancelled and its seats are released. */
+    private LocalDateTime holdExpiresAt;
+
+    /** The previous release still reads {@code bookings.amount}, so it is written until the column is dropped. */
+    @PrePersist
+    @PreUpdate
+    void writeLegacyMoneyColumns() {
+        legacyAmount = amount != null ? amount.toDouble() : null;
+    }
+
     public enum Status {
         PENDING, PAID, CANCELLED, REFUNDED
     }
@@ -0,0 +1,46 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message written in the same transaction as the state change it announces and relayed to RabbitMQ afterwards.
+ */
+@Entity
+@Table(name = "outbox_events",
+        indexes = @Index(name = "idx_outbox_events_status_id", columnList = "status, id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class OutboxEventEntity extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(nullable = false)
+    private String routingKey;
+
+    @Column(nullable = false)
+    private String payloadType;
+
+    /** Wire content type of {@link #payload}; {@code null} for JSON rows written before it was recorded. */
+    @Column(length = 100)
+    private String contentType;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private LocalDateTime sentAt;
+
+    public enum Status {
+        PENDING, SENT
+    }
+}
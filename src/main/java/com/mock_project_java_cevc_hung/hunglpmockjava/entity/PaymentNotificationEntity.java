@@ -0,0 +1,67 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment notification as received from the gateway webhook. Rows are only ever inserted; the notification
+ * columns are never changed afterwards and the processor records its outcome once in {@code status}.
+ */
+@Entity
+@Table(name = "payment_notifications",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_notifications_payment_ref", columnNames = "payment_ref"),
+        indexes = @Index(name = "idx_payment_notifications_status_id", columnList = "status, id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PaymentNotificationEntity extends BaseEntity {
+
+    @Column(name = "payment_ref", nullable = false, length = 100)
+    private String paymentRef;
+
+    @Column(nullable = false)
+    private Long bookingId;
+
+    @Column(name = "amount_minor")
+    private Money amount;
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @Column(name = "amount")
+    private Double legacyAmount;
+
+    @Column(nullable = false, length = 20)
+    private String gatewayStatus;
+
+    private LocalDateTime paidAt;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private String reason;
+
+    private LocalDateTime processedAt;
+
+    /** Mirrors {@code amount} into the legacy decimal column until it is dropped. */
+    @PrePersist
+    @PreUpdate
+    void writeLegacyMoneyColumns() {
+        legacyAmount = amount != null ? amount.toDouble() : null;
+    }
+
+    public enum Status {
+        /** Stored, not processed yet. */
+        RECEIVED,
+        /** A {@code payment.completed} event was queued in the outbox. */
+        PUBLISHED,
+        /** Not a successful payment, or already applied; nothing to do. */
+        IGNORED,
+        /** A successful payment that cannot be applied to its booking; needs follow-up. */
+        REJECTED
+    }
+}
@@ -0,0 +1,47 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Revenue summed per day, category and tour. Kept up to date by {@code RevenueService} in the transaction that
+ * records each payment, and rebuilt from {@code revenues} by the rollup backfill.
+ * <p>Revenue without a tour or category is kept under {@link #NONE}: MySQL lets a unique key hold any number of
+ * {@code NULL}s, which would defeat the upsert.</p>
+ */
+@Entity
+@Table(
+    name = "revenue_daily_rollups",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_revenue_rollup_date_category_tour",
+        columnNames = {"revenue_date", "category_id", "tour_id"}
+    )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueDailyRollupEntity extends BaseEntity {
+
+    public static final long NONE = 0L;
+
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate revenueDate;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "tour_id", nullable = false)
+    private Long tourId;
+
+    @Column(name = "revenue_minor", nullable = false)
+    private Money revenue;
+
+    @Column(nullable = false)
+    private Integer bookings;
+}
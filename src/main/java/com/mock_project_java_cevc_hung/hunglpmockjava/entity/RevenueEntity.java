@@ -1,13 +1,14 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "revenues")
+@Table(name = "revenues", indexes = @Index(name = "idx_revenues_updated_at", columnList = "updated_at"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,11 +16,32 @@ import java.time.LocalDate;
 @Builder
 public class RevenueEntity extends BaseEntity {
     private LocalDate date;
-    private Double totalRevenue;
-    private Double tourRevenue;
+
+    @Column(name = "total_revenue_minor")
+    private Money totalRevenue;
+
+    @Column(name = "tour_revenue_minor")
+    private Money tourRevenue;
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @Column(name = "total_revenue")
+    private Double legacyTotalRevenue;
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @Column(name = "tour_revenue")
+    private Double legacyTourRevenue;
+
     private Integer totalBookings;
     
     @ManyToOne
     @JoinColumn(name = "booking_id")
     private BookingEntity booking;
+
+    /** Both revenue amounts also go to their legacy decimal columns until those are dropped. */
+    @PrePersist
+    @PreUpdate
+    void writeLegacyMoneyColumns() {
+        legacyTotalRevenue = totalRevenue != null ? totalRevenue.toDouble() : null;
+        legacyTourRevenue = tourRevenue != null ? tourRevenue.toDouble() : null;
+    }
 }
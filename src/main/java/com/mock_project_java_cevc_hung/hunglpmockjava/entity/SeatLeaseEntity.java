@@ -0,0 +1,34 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A block of seats taken out of {@code tours.seats_available} by one application node for a HOT tour.
+ * {@code seats} is the part of the block the node has not sold yet, so at any time
+ * {@code seatsTotal = seatsAvailable + sum(lease.seats) + seats held by PENDING/PAID bookings}.
+ */
+@Entity
+@Table(name = "seat_leases",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"tour_id", "node_id"}))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class SeatLeaseEntity extends BaseEntity {
+
+    @ManyToOne
+    @JoinColumn(name = "tour_id", nullable = false)
+    private TourEntity tour;
+
+    @Column(name = "node_id", nullable = false)
+    private String nodeId;
+
+    @Min(0)
+    @Column(nullable = false)
+    private Integer seats;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,6 +1,7 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import lombok.*;
@@ -22,8 +23,12 @@ public class TourEntity extends BaseEntity {
     private String description;
 
     @Min(0)
-    @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal price;
+    @Column(name = "price_minor")
+    private Money price;
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @Column(name = "price", precision = 19, scale = 2)
+    private BigDecimal legacyPrice;
 
     @Column(nullable = false)
     private String location;
@@ -48,6 +53,10 @@ public class TourEntity extends BaseEntity {
     @Builder.Default
     private Status status = Status.ACTIVE;
 
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private BookingMode bookingMode = BookingMode.STANDARD;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     private CategoryEntity category;
@@ -59,5 +68,19 @@ public class TourEntity extends BaseEntity {
     @OneToMany(mappedBy = "tour", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ReviewEntity> reviews;
 
+    /** Older nodes read the price from the legacy {@code price} column. */
+    @PrePersist
+    @PreUpdate
+    void writeLegacyMoneyColumns() {
+        legacyPrice = price != null ? price.toBigDecimal() : null;
+    }
+
     public enum Status { ACTIVE, INACTIVE }
+
+    /**
+     * How booking requests for this tour are admitted. STANDARD runs each request in its own transaction,
+     * FLASH_SALE funnels them through the per-tour admission queue and HOT sells from seat blocks leased
+     * by each application node.
+     */
+    public enum BookingMode { STANDARD, FLASH_SALE, HOT }
 }
@@ -0,0 +1,25 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A row a background tour import could not import. Only the first {@code max-stored-errors} of a job are kept; the
+ * job counts the rest.
+ */
+@Entity
+@Table(name = "tour_import_errors",
+        indexes = @Index(name = "idx_tour_import_errors_job_line", columnList = "job_id, line_number"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class TourImportErrorEntity extends BaseEntity {
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "line_number", nullable = false)
+    private int rowNumber;
+
+    @Column(nullable = false, length = 1000)
+    private String message;
+}
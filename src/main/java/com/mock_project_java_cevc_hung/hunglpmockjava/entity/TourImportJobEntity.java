@@ -0,0 +1,69 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A tour CSV import running in the background. {@code position} and {@code rowNumber} are the checkpoint: every
+ * line up to them is committed, together with the counters, so an interrupted import resumes right after it.
+ * A RUNNING job belongs to the node in {@code owner} for as long as that node keeps {@code heartbeatAt} fresh.
+ */
+@Entity
+@Table(name = "tour_import_jobs", indexes = @Index(name = "idx_tour_import_jobs_status", columnList = "status"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class TourImportJobEntity extends BaseEntity {
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false, length = 1024)
+    private String filePath;
+
+    @Column(nullable = false)
+    private long fileBytes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "checkpoint_position", nullable = false)
+    private long position;
+
+    @Column(name = "checkpoint_row", nullable = false)
+    private int rowNumber;
+
+    @Column(nullable = false)
+    private int totalRows;
+
+    @Column(nullable = false)
+    private int successCount;
+
+    @Column(nullable = false)
+    private int errorCount;
+
+    /** {@code totalRows} when the current run started from its checkpoint, for the rate of that run */
+    @Column(nullable = false)
+    private int rowsAtResume;
+
+    /** Node running the job; only it may move the checkpoint or finish the job */
+    @Column(length = 100)
+    private String owner;
+
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime resumedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
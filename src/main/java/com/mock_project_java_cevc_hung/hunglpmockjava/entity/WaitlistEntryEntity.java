@@ -0,0 +1,43 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.entity;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer waiting for seats on a sold-out tour. Entries are served in id order; a promoted entry points at
+ * the PENDING booking created for it.
+ */
+@Entity
+@Table(name = "waitlist_entries",
+        indexes = @Index(name = "idx_waitlist_tour_status", columnList = "tour_id, status, id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WaitlistEntryEntity extends BaseEntity {
+
+    @ManyToOne
+    @JoinColumn(name = "tour_id", nullable = false)
+    private TourEntity tour;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserEntity user;
+
+    @Min(1)
+    private Integer qty;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @OneToOne
+    @JoinColumn(name = "booking_id")
+    private BookingEntity booking;
+
+    private LocalDateTime promotedAt;
+
+    public enum Status {
+        WAITING, PROMOTED, CANCELLED
+    }
+}
@@ -0,0 +1,20 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.exception;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiCartCheckoutResponse;
+
+/**
+ * Exception thrown when a cart line fails, rolling back every booking of the checkout. Carries the per-line result.
+ */
+public class CartCheckoutException extends BusinessException {
+
+    private final ApiCartCheckoutResponse result;
+
+    public CartCheckoutException(ApiCartCheckoutResponse result) {
+        super(result.getMessage());
+        this.result = result;
+    }
+
+    public ApiCartCheckoutResponse getResult() {
+        return result;
+    }
+}
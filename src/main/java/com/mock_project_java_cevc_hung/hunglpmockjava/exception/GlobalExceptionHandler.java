@@ -3,6 +3,7 @@ package com.mock_project_java_cevc_hung.hunglpmockjava.exception;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -120,6 +121,79 @@ public class GlobalExceptionHandler {
         return modelAndView;
     }
 
+    /**
+     * Handle IdempotencyConflictException - 409 Conflict
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public Object handleIdempotencyConflictException(
+            IdempotencyConflictException ex,
+            HttpServletRequest request) {
+        
+        logger.warn("Idempotency conflict: {}", ex.getMessage());
+        
+        if (isApiRequest(request)) {
+            Map<String, Object> errorResponse = createErrorResponse(
+                    HttpStatus.CONFLICT,
+                    "Idempotency conflict",
+                    ex.getMessage(),
+                    request.getRequestURI()
+            );
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+        
+        return handleMvcException(ex, request, ex.getMessage());
+    }
+
+    /**
+     * Handle ServiceUnavailableException - 503 Service Unavailable with Retry-After
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public Object handleServiceUnavailableException(
+            ServiceUnavailableException ex,
+            HttpServletRequest request) {
+
+        logger.warn("Service unavailable: {}", ex.getMessage());
+
+        if (isApiRequest(request)) {
+            Map<String, Object> errorResponse = createErrorResponse(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Service unavailable",
+                    ex.getMessage(),
+                    request.getRequestURI()
+            );
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                    .body(errorResponse);
+        }
+
+        return handleMvcException(ex, request, ex.getMessage());
+    }
+
+    /**
+     * Handle TooManyRequestsException - 429 Too Many Requests with Retry-After
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public Object handleTooManyRequestsException(
+            TooManyRequestsException ex,
+            HttpServletRequest request) {
+
+        logger.warn("Too many requests: {}", ex.getMessage());
+
+        if (isApiRequest(request)) {
+            Map<String, Object> errorResponse = createErrorResponse(
+                    HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many requests",
+                    ex.getMessage(),
+                    request.getRequestURI()
+            );
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                    .body(errorResponse);
+        }
+
+        return handleMvcException(ex, request, ex.getMessage());
+    }
+
     /**
      * Handle RuntimeException - Generic runtime errors
      */
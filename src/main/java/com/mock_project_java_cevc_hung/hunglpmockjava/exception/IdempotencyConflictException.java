@@ -0,0 +1,10 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.exception;
+
+/**
+ * Exception thrown when an Idempotency-Key is still in use by a running request or was used for a different one
+ */
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
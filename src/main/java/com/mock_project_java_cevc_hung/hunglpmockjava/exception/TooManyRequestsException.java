@@ -0,0 +1,18 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.exception;
+
+/**
+ * Exception thrown when a client should slow down and retry after {@link #getRetryAfterSeconds()}
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
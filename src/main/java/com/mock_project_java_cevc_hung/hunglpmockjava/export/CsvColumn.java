@@ -0,0 +1,57 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One column of a {@link CsvExport}: its header and how to read its field from the current row.
+ */
+public record CsvColumn(String header, ValueReader reader) {
+
+    @FunctionalInterface
+    public interface ValueReader {
+        String read(ResultSet rs) throws SQLException;
+    }
+
+    public static CsvColumn of(String header, ValueReader reader) {
+        return new CsvColumn(header, reader);
+    }
+
+    public static CsvColumn text(String header, String column) {
+        return new CsvColumn(header, rs -> rs.getString(column));
+    }
+
+    public static CsvColumn text(String header, String column, String ifNull) {
+        return new CsvColumn(header, rs -> {
+            String value = rs.getString(column);
+            return value != null ? value : ifNull;
+        });
+    }
+
+    /**
+     * A {@code *_minor} column written as a decimal amount, the way {@link Money#toString()} prints it.
+     */
+    public static CsvColumn money(String header, String column, String ifNull) {
+        return new CsvColumn(header, rs -> {
+            long minorUnits = rs.getLong(column);
+            return rs.wasNull() ? ifNull : Money.ofMinor(minorUnits).toString();
+        });
+    }
+
+    /**
+     * A timestamp column in ISO-8601 when {@code formatter} is null.
+     */
+    public static CsvColumn dateTime(String header, String column, DateTimeFormatter formatter) {
+        return new CsvColumn(header, rs -> {
+            Timestamp value = rs.getTimestamp(column);
+            if (value == null) {
+                return "";
+            }
+            return formatter != null ? value.toLocalDateTime().format(formatter) : value.toLocalDateTime().toString();
+        });
+    }
+}
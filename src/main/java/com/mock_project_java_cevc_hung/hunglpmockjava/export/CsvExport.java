@@ -0,0 +1,21 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import java.util.List;
+
+/**
+ * What a CSV download contains: the query that yields its rows and the columns read from each row.
+ *
+ * @param fileName   download name without extension
+ * @param versionSql query returning one value that changes whenever the rows would, so a rendered file can be
+ *                   reused until then; null for exports that are always streamed
+ */
+public record CsvExport(String fileName, String sql, List<CsvColumn> columns, String versionSql) {
+
+    public CsvExport {
+        columns = List.copyOf(columns);
+    }
+
+    public List<String> headers() {
+        return columns.stream().map(CsvColumn::header).toList();
+    }
+}
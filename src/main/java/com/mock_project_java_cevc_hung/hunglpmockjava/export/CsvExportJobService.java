@@ -0,0 +1,277 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.ExportJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders {@link CsvExport}s to files under {@code app.export.dir} in the background and hands out the newest file
+ * for as long as the data has not changed.
+ * <p>Every request first runs the export's cheap {@link CsvExport#versionSql()}. If the newest file of that export
+ * was rendered at the same version it is reused; if a job for that version is already running the request joins
+ * it; otherwise a new job starts. So any number of admins downloading the same unchanged export cost one scan. A
+ * superseded file is kept until the next one replaces it, so downloads that already started on it can finish.</p>
+ * <p>The file index lives in memory: files left over from a previous run are deleted at startup.</p>
+ */
+@Service
+public class CsvExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvExportJobService.class);
+    private static final int MAX_KEPT_JOBS = 20;
+
+    private final CsvExporter csvExporter;
+    private final MessageSource messageSource;
+    private final Path directory;
+    private final ExecutorService workers;
+    private final Map<String, ExportJob> jobs;
+    private final Map<String, ExportJob> latest = new HashMap<>();
+    private final Map<String, ExportJob> retired = new HashMap<>();
+    private final Map<String, ExportJob> inFlight = new HashMap<>();
+
+    public CsvExportJobService(
+        CsvExporter csvExporter,
+        MessageSource messageSource,
+        @Value("${app.export.dir:${java.io.tmpdir}/hunglpmockjava-exports}") String directory,
+        @Value("${app.export.workers:2}") int workers
+    ) {
+        this.csvExporter = csvExporter;
+        this.messageSource = messageSource;
+        this.directory = Paths.get(directory);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workers),
+                new CustomizableThreadFactory("csv-export-"));
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ExportJob> eldest) {
+                return size() > MAX_KEPT_JOBS;
+            }
+        });
+        clearDirectory();
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    /**
+     * The job whose file holds {@code export} at the current data version: a finished one when the data did not
+     * change since, otherwise a running one.
+     */
+    ExportJob request(CsvExport export, boolean gzip) {
+        String key = CsvExporter.downloadName(export, gzip);
+        String version = csvExporter.version(export);
+        synchronized (latest) {
+            ExportJob ready = latest.get(key);
+            if (ready != null && ready.version.equals(version) && Files.isRegularFile(ready.file)) {
+                return ready;
+            }
+            ExportJob running = inFlight.get(key);
+            if (running != null && running.version.equals(version)) {
+                return running;
+            }
+            String id = UUID.randomUUID().toString();
+            ExportJob job = new ExportJob(id, key, version, gzip, directory.resolve(id + "-" + key));
+            inFlight.put(key, job);
+            jobs.put(id, job);
+            workers.execute(() -> render(job, export));
+            logger.info("Started CSV export job {} for {} at version {}", id, key, version);
+            return job;
+        }
+    }
+
+    public ExportJobResponse getJob(String jobId) {
+        return findJob(jobId).toResponse();
+    }
+
+    public List<ExportJobResponse> getJobs() {
+        synchronized (jobs) {
+            List<ExportJobResponse> responses = new ArrayList<>(jobs.size());
+            jobs.values().forEach(job -> responses.add(job.toResponse()));
+            Collections.reverse(responses);
+            return responses;
+        }
+    }
+
+    /**
+     * A job whose file can be downloaded.
+     *
+     * @throws ResourceNotFoundException when the job is unknown or its file was already replaced twice
+     * @throws BusinessException         when the job is still running or failed
+     */
+    ExportJob findCompletedJob(String jobId) {
+        ExportJob job = findJob(jobId);
+        if (job.status != ExportJobResponse.Status.COMPLETED) {
+            throw new BusinessException(getMessage("export.error.not_ready", jobId, job.status));
+        }
+        if (!Files.isRegularFile(job.file)) {
+            throw new ResourceNotFoundException(getMessage("export.error.job_not_found", jobId));
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private ExportJob findJob(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException(getMessage("export.error.job_not_found", jobId));
+        }
+        return job;
+    }
+
+    void render(ExportJob job, CsvExport export) {
+        Path part = job.file.resolveSibling(job.file.getFileName() + ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(part)) {
+                csvExporter.write(export, out, job.gzip, rows -> job.rowsWritten = rows);
+            }
+            Files.move(part, job.file, StandardCopyOption.ATOMIC_MOVE);
+            job.bytes = Files.size(job.file);
+            install(job);
+            job.finish(ExportJobResponse.Status.COMPLETED, null);
+        } catch (IOException | RuntimeException e) {
+            logger.error("CSV export job {} for {} failed", job.id, job.key, e);
+            deleteQuietly(part);
+            job.finish(ExportJobResponse.Status.FAILED, e.getMessage());
+        } finally {
+            synchronized (latest) {
+                inFlight.remove(job.key, job);
+            }
+            logger.info("CSV export job {} for {} {}: {} rows, {} bytes", job.id, job.key, job.status,
+                    job.rowsWritten, job.bytes);
+        }
+    }
+
+    /**
+     * Make {@code job} the newest file of its export unless a job started later already finished. The file it
+     * replaces is kept for downloads in progress, and the one before that is deleted.
+     */
+    private void install(ExportJob job) {
+        ExportJob obsolete;
+        synchronized (latest) {
+            ExportJob current = latest.get(job.key);
+            if (current != null && current.startedAtNanos > job.startedAtNanos) {
+                obsolete = retired.put(job.key, job);
+            } else {
+                latest.put(job.key, job);
+                obsolete = current != null ? retired.put(job.key, current) : null;
+            }
+        }
+        if (obsolete != null) {
+            deleteQuietly(obsolete.file);
+        }
+    }
+
+    private void clearDirectory() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{csv,gz,part}")) {
+                files.forEach(this::deleteQuietly);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare export directory " + directory, e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete export file {}: {}", file, e.getMessage());
+        }
+    }
+
+    static final class ExportJob {
+        final String id;
+        final String key;
+        final String version;
+        final boolean gzip;
+        final Path file;
+        private final long startedAtNanos = System.nanoTime();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile ExportJobResponse.Status status = ExportJobResponse.Status.RUNNING;
+        private volatile long rowsWritten;
+        private volatile long bytes;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        ExportJob(String id, String key, String version, boolean gzip, Path file) {
+            this.id = id;
+            this.key = key;
+            this.version = version;
+            this.gzip = gzip;
+            this.file = file;
+        }
+
+        private void finish(ExportJobResponse.Status finalStatus, String failure) {
+            error = failure;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+            done.countDown();
+        }
+
+        /**
+         * Wait up to {@code timeoutMs} for the job to finish.
+         *
+         * @return whether it finished
+         */
+        boolean await(long timeoutMs) throws InterruptedException {
+            return done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        ExportJobResponse.Status status() {
+            return status;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+
+        ExportJobResponse toResponse() {
+            return ExportJobResponse.builder()
+                    .id(id)
+                    .fileName(key)
+                    .version(version)
+                    .status(status)
+                    .rowsWritten(rowsWritten)
+                    .bytes(bytes)
+                    .error(error)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .downloadUrl(status == ExportJobResponse.Status.COMPLETED ? "/admin/exports/" + id + "/file" : null)
+                    .build();
+        }
+    }
+}
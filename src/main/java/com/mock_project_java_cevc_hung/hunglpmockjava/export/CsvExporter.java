@@ -0,0 +1,136 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a {@link CsvExport} from MySQL straight into the response.
+ * <p>Rows come through a forward-only, read-only cursor with a fetch size of {@link Integer#MIN_VALUE}, which is
+ * how Connector/J streams a result set instead of buffering it, and each row is encoded into a fixed-size buffer in
+ * front of the servlet output stream, optionally gzipped. Memory use does not grow with the number of rows; the
+ * price is a database connection held for as long as the client takes to download.</p>
+ */
+@Component
+public class CsvExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvExporter.class);
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+    private static final int PROGRESS_ROWS = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.export.buffer-bytes:65536}")
+    private int bufferBytes = 65536;
+
+    public CsvExporter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * A download response for {@code export}, named {@code <fileName>.csv} or {@code <fileName>.csv.gz}. The query
+     * only runs once Spring MVC writes the body.
+     */
+    public ResponseEntity<StreamingResponseBody> response(CsvExport export, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType(gzip));
+        headers.setContentDispositionFormData("attachment", downloadName(export, gzip));
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(out -> write(export, out, gzip));
+    }
+
+    static MediaType contentType(boolean gzip) {
+        return gzip ? APPLICATION_GZIP : TEXT_CSV;
+    }
+
+    static String downloadName(CsvExport export, boolean gzip) {
+        return export.fileName() + (gzip ? ".csv.gz" : ".csv");
+    }
+
+    /**
+     * Current value of {@link CsvExport#versionSql()}.
+     */
+    public String version(CsvExport export) {
+        return jdbcTemplate.queryForObject(export.versionSql(), String.class);
+    }
+
+    /**
+     * Write the header and every row of {@code export} to {@code out}. {@code out} is flushed but not closed.
+     */
+    public long write(CsvExport export, OutputStream out, boolean gzip) throws IOException {
+        return write(export, out, gzip, rows -> { });
+    }
+
+    /**
+     * Same as {@link #write(CsvExport, OutputStream, boolean)}, reporting the rows written so far to
+     * {@code progress} every {@value #PROGRESS_ROWS} rows and once at the end.
+     */
+    public long write(CsvExport export, OutputStream out, boolean gzip, LongConsumer progress) throws IOException {
+        long started = System.nanoTime();
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, bufferBytes) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), bufferBytes);
+        CsvWriter csv = new CsvWriter(writer);
+
+        for (String header : export.headers()) {
+            csv.field(header);
+        }
+        csv.endRow();
+
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(export.sql(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(Integer.MIN_VALUE);
+                return ps;
+            }, rs -> {
+                try {
+                    for (CsvColumn column : export.columns()) {
+                        csv.field(column.reader().read(rs));
+                    }
+                    csv.endRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++rows[0] % PROGRESS_ROWS == 0) {
+                    progress.accept(rows[0]);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            logger.warn("CSV export {} stopped after {} rows: {}", export.fileName(), rows[0], e.getMessage());
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+        progress.accept(rows[0]);
+        logger.info("Exported {} rows to {} in {} ms", rows[0], export.fileName(),
+                (System.nanoTime() - started) / 1_000_000);
+        return rows[0];
+    }
+}
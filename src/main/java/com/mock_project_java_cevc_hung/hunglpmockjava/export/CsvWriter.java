@@ -0,0 +1,52 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes CSV rows field by field to a {@link Writer}, so a row never has to exist as a whole string.
+ */
+public final class CsvWriter {
+
+    private final Writer out;
+    private boolean rowStarted;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        if (rowStarted) {
+            out.write(',');
+        }
+        out.write(escape(value));
+        rowStarted = true;
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        out.write('\n');
+        rowStarted = false;
+    }
+
+    /**
+     * Escape CSV special characters and prevent CSV injection
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        if (!value.isEmpty()) {
+            char firstChar = value.charAt(0);
+            if (firstChar == '=' || firstChar == '+' || firstChar == '-' || firstChar == '@') {
+                value = "'" + value;
+            }
+        }
+
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,146 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves files rendered by {@link CsvExportJobService}, whole or as a single byte range.
+ * <p>On Tomcat the file is handed to the connector through its sendfile request attributes, so the kernel copies
+ * it to the socket without the bytes passing through the JVM. Elsewhere it is sent with
+ * {@link FileChannel#transferTo}. Each rendered file has its own ETag, which {@code If-Range} is checked against so
+ * a resumed download never mixes two versions.</p>
+ */
+@Component
+public class ExportFileSender {
+
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CsvExportJobService jobService;
+
+    @Value("${app.export.wait-ms:20000}")
+    private long waitMs = 20000;
+
+    public ExportFileSender(CsvExportJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * Send the current file of {@code export}, rendering it first when the data changed since the last one. If that
+     * takes longer than {@code wait-ms} the answer is 202 with the job, to be polled and downloaded from
+     * {@code /admin/exports/{jobId}}.
+     *
+     * @return the response to send, or null when the file has already been written to {@code response}
+     */
+    public ResponseEntity<?> serve(CsvExport export, boolean gzip, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        CsvExportJobService.ExportJob job = jobService.request(export, gzip);
+        try {
+            job.await(waitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return switch (job.status()) {
+            case RUNNING -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/admin/exports/" + job.id))
+                    .body(job.toResponse());
+            case FAILED -> ResponseEntity.internalServerError().body(job.toResponse());
+            case COMPLETED -> {
+                send(job, request, response);
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Send the file of a finished job.
+     */
+    public void send(String jobId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(jobService.findCompletedJob(jobId), request, response);
+    }
+
+    void send(CsvExportJobService.ExportJob job, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long length = job.bytes();
+        String etag = "\"" + job.id + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setContentType(CsvExporter.contentType(job.gzip).toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(job.key).build().toString());
+
+        long start = 0;
+        long end = length - 1;
+        List<HttpRange> ranges = requestedRanges(request, etag);
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(length);
+            end = Math.min(ranges.get(0).getRangeEnd(length), length - 1);
+            if (start >= length || start > end) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count == 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, job.file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(job.file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, target);
+                if (sent <= 0) {
+                    throw new EOFException("Export file " + job.file + " ended at byte " + position);
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * The ranges to honour: none when there is no {@code Range} header, it is malformed, or {@code If-Range} names
+     * another file. Multiple ranges are answered with the whole file, which HTTP allows.
+     */
+    private List<HttpRange> requestedRanges(HttpServletRequest request, String etag) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
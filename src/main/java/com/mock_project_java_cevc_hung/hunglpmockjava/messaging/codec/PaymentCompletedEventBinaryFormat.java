@@ -0,0 +1,108 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary layout of {@link PaymentCompletedEvent}, big-endian:
+ * <pre>
+ * version    u8    {@value #VERSION_2}
+ * presence   u8    bit 0 bookingId, 1 amount, 2 paymentRef, 3 paidAt
+ * bookingId  i64
+ * amount     i64   minor units ({@value #VERSION_1}: f64)
+ * paymentRef u16 length, UTF-8 bytes
+ * paidAt     i64 epoch seconds of the local date-time taken as UTC, i32 nanos
+ * </pre>
+ * Absent fields take no space. Writers emit {@value #VERSION_2}; {@value #VERSION_1} bodies are still read. The
+ * version byte comes first so a body decodes on its own, also after a DLQ round trip that may have lost the
+ * headers; a reader rejects versions it does not know instead of guessing. A change to the layout gets a new
+ * version and readers learn it before any writer emits it.
+ */
+public final class PaymentCompletedEventBinaryFormat {
+
+    public static final String CONTENT_TYPE = "application/vnd.payment-completed+binary";
+    public static final byte VERSION_1 = 1;
+    public static final byte VERSION_2 = 2;
+
+    private static final int HAS_BOOKING_ID = 1;
+    private static final int HAS_AMOUNT = 1 << 1;
+    private static final int HAS_PAYMENT_REF = 1 << 2;
+    private static final int HAS_PAID_AT = 1 << 3;
+    private static final int MAX_PAYMENT_REF_BYTES = 0xFFFF;
+
+    private PaymentCompletedEventBinaryFormat() {
+    }
+
+    public static byte[] encode(PaymentCompletedEvent event) {
+        byte[] paymentRef = event.getPaymentRef() != null
+                ? event.getPaymentRef().getBytes(StandardCharsets.UTF_8) : null;
+        if (paymentRef != null && paymentRef.length > MAX_PAYMENT_REF_BYTES) {
+            throw new MessageConversionException("Payment reference too long for the binary format");
+        }
+        int presence = (event.getBookingId() != null ? HAS_BOOKING_ID : 0)
+                | (event.getAmount() != null ? HAS_AMOUNT : 0)
+                | (paymentRef != null ? HAS_PAYMENT_REF : 0)
+                | (event.getPaidAt() != null ? HAS_PAID_AT : 0);
+        int size = 2
+                + (event.getBookingId() != null ? Long.BYTES : 0)
+                + (event.getAmount() != null ? Long.BYTES : 0)
+                + (paymentRef != null ? Short.BYTES + paymentRef.length : 0)
+                + (event.getPaidAt() != null ? Long.BYTES + Integer.BYTES : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION_2);
+        buffer.put((byte) presence);
+        if (event.getBookingId() != null) {
+            buffer.putLong(event.getBookingId());
+        }
+        if (event.getAmount() != null) {
+            buffer.putLong(event.getAmount().minorUnits());
+        }
+        if (paymentRef != null) {
+            buffer.putShort((short) paymentRef.length);
+            buffer.put(paymentRef);
+        }
+        if (event.getPaidAt() != null) {
+            buffer.putLong(event.getPaidAt().toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(event.getPaidAt().getNano());
+        }
+        return buffer.array();
+    }
+
+    public static PaymentCompletedEvent decode(byte[] body) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            byte version = buffer.get();
+            if (version != VERSION_1 && version != VERSION_2) {
+                throw new MessageConversionException("Unsupported payment event binary version " + version);
+            }
+            int presence = buffer.get();
+            Long bookingId = (presence & HAS_BOOKING_ID) != 0 ? buffer.getLong() : null;
+            Money amount = null;
+            if ((presence & HAS_AMOUNT) != 0) {
+                amount = version == VERSION_1 ? Money.of(buffer.getDouble()) : Money.ofMinor(buffer.getLong());
+            }
+            String paymentRef = null;
+            if ((presence & HAS_PAYMENT_REF) != 0) {
+                int length = Short.toUnsignedInt(buffer.getShort());
+                paymentRef = new String(body, buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            }
+            LocalDateTime paidAt = (presence & HAS_PAID_AT) != 0
+                    ? LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC)
+                    : null;
+            return new PaymentCompletedEvent(bookingId, amount, paymentRef, paidAt);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | ArithmeticException | DateTimeException e) {
+            throw new MessageConversionException("Truncated or corrupt binary payment event", e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes payment events in the format selected by {@code app.messaging.codec} ({@code json} or {@code binary}) and
+ * decodes either format by content type, so producers can be switched over while messages of both kinds are still
+ * in flight. Consumers must run a version that knows {@link PaymentCompletedEventBinaryFormat} before any producer
+ * is switched to {@code binary}.
+ * <p>The outbox stores the wire body: JSON as text, binary as Base64 along with its content type. Rows without a
+ * content type predate the binary format and are JSON.</p>
+ */
+@Component
+public class PaymentEventCodec {
+
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_BINARY = "binary";
+
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+
+    public PaymentEventCodec(ObjectMapper objectMapper, @Value("${app.messaging.codec:json}") String format) {
+        this.objectMapper = objectMapper;
+        if (!FORMAT_JSON.equalsIgnoreCase(format) && !FORMAT_BINARY.equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("app.messaging.codec must be json or binary, was " + format);
+        }
+        this.binary = FORMAT_BINARY.equalsIgnoreCase(format);
+    }
+
+    /**
+     * Content type of the events this node writes.
+     */
+    public String contentType() {
+        return binary ? PaymentCompletedEventBinaryFormat.CONTENT_TYPE : MessageProperties.CONTENT_TYPE_JSON;
+    }
+
+    public byte[] encode(PaymentCompletedEvent event) {
+        if (binary) {
+            return PaymentCompletedEventBinaryFormat.encode(event);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new MessageConversionException("Cannot serialize payment event for booking " + event.getBookingId(), e);
+        }
+    }
+
+    /**
+     * Body to store in {@link OutboxEventEntity#getPayload()} for an event encoded by {@link #encode}.
+     */
+    public String toOutboxPayload(byte[] body) {
+        return binary ? Base64.getEncoder().encodeToString(body) : new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Wire body of an outbox row.
+     */
+    public static byte[] body(OutboxEventEntity event) {
+        return body(event.getPayload(), event.getContentType());
+    }
+
+    private static byte[] body(String payload, String contentType) {
+        return isBinary(contentType)
+                ? Base64.getDecoder().decode(payload)
+                : payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @throws MessageConversionException when the body cannot be read, which no retry can fix
+     */
+    public PaymentCompletedEvent decode(byte[] body, String contentType) {
+        if (isBinary(contentType)) {
+            return PaymentCompletedEventBinaryFormat.decode(body);
+        }
+        try {
+            return objectMapper.readValue(body, PaymentCompletedEvent.class);
+        } catch (IOException e) {
+            throw new MessageConversionException("Unreadable payment event", e);
+        }
+    }
+
+    public PaymentCompletedEvent decode(Message message) {
+        return decode(message.getBody(), message.getMessageProperties().getContentType());
+    }
+
+    /**
+     * Decode an event as stored in the outbox.
+     */
+    public PaymentCompletedEvent decodeStored(String payload, String contentType) {
+        try {
+            return decode(body(payload, contentType), contentType);
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("Corrupt Base64 payment event", e);
+        }
+    }
+
+    public static boolean isBinary(String contentType) {
+        return contentType != null && contentType.startsWith(PaymentCompletedEventBinaryFormat.CONTENT_TYPE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Rabbit message converter that writes {@link PaymentCompletedEvent}s in the format of the {@link PaymentEventCodec}
+ * and reads binary payment events by content type; everything else goes through the JSON delegate.
+ */
+public class PaymentEventMessageConverter implements MessageConverter {
+
+    private final PaymentEventCodec codec;
+    private final MessageConverter delegate;
+
+    public PaymentEventMessageConverter(PaymentEventCodec codec, MessageConverter delegate) {
+        this.codec = codec;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        if (object instanceof PaymentCompletedEvent event && PaymentEventCodec.isBinary(codec.contentType())) {
+            messageProperties.setContentType(codec.contentType());
+            byte[] body = codec.encode(event);
+            messageProperties.setContentLength(body.length);
+            return new Message(body, messageProperties);
+        }
+        return delegate.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        if (PaymentEventCodec.isBinary(message.getMessageProperties().getContentType())) {
+            return PaymentCompletedEventBinaryFormat.decode(message.getBody());
+        }
+        return delegate.fromMessage(message);
+    }
+}
@@ -0,0 +1,483 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.dlq;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.DlqReplayRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.DlqReplayJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.DlqSummaryResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener.PaymentCompletedBatchProcessor;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentConsumerAutoscaler;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentPartitionLagMonitor;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentPartitions;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry.PaymentRetryRecoverer;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Inspects and replays the {@code payment.completed} DLQ.
+ * <p>Inspection reads up to {@code inspect-limit} messages without acknowledging them and hands them back to the
+ * queue, grouped by their {@value PaymentRetryRecoverer#FAILURE_REASON_HEADER}. A replay runs as one background job
+ * at a time. It takes batches of {@code batch-size} messages and either publishes the selected ones back to their
+ * partition with fresh retry state, or applies them here through the {@link PaymentCompletedBatchProcessor}. Messages
+ * that are not selected, or fail again, go back to the tail of the DLQ. A batch is acknowledged only after the broker
+ * has confirmed every copy, so a crash can at worst replay a message twice, which the idempotent handlers tolerate.
+ * </p>
+ * <p>To stay out of the way of live traffic the job is held to {@code rate-per-second} messages and pauses while the
+ * connection pool is under pressure or the live partitions hold more than {@code max-live-lag} messages. Each job
+ * scans at most the depth the DLQ had when it started, so messages it sends back are not visited twice.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "rabbit", matchIfMissing = true)
+public class PaymentDlqReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentDlqReplayService.class);
+    private static final String UNKNOWN_REASON = "unknown";
+    private static final String X_DEATH_HEADER = "x-death";
+    private static final int MAX_SAMPLE_BOOKINGS = 10;
+    private static final int MAX_KEPT_JOBS = 20;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final PaymentPartitions paymentPartitions;
+    private final PaymentCompletedBatchProcessor batchProcessor;
+    private final PaymentConsumerAutoscaler autoscaler;
+    private final PaymentPartitionLagMonitor lagMonitor;
+    private final PaymentEventCodec paymentEventCodec;
+    private final MessageSource messageSource;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+    private final ExecutorService worker;
+    private final AtomicReference<ReplayJob> running = new AtomicReference<>();
+    private final Map<String, ReplayJob> jobs;
+    private final Map<DlqReplayRequest.Mode, Counter> replayedCounters = new EnumMap<>(DlqReplayRequest.Mode.class);
+
+    @Value("${app.payment.dlq.replay.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${app.payment.dlq.replay.rate-per-second:100}")
+    private int ratePerSecond = 100;
+
+    @Value("${app.payment.dlq.replay.pause-ms:1000}")
+    private long pauseMs = 1000;
+
+    @Value("${app.payment.dlq.replay.max-live-lag:1000}")
+    private long maxLiveLag = 1000;
+
+    @Value("${app.payment.dlq.inspect-limit:1000}")
+    private int inspectLimit = 1000;
+
+    @Value("${app.outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs = 5000;
+
+    public PaymentDlqReplayService(
+        RabbitTemplate rabbitTemplate,
+        PaymentPartitions paymentPartitions,
+        PaymentCompletedBatchProcessor batchProcessor,
+        PaymentConsumerAutoscaler autoscaler,
+        PaymentPartitionLagMonitor lagMonitor,
+        PaymentEventCodec paymentEventCodec,
+        MessageSource messageSource,
+        MeterRegistry meterRegistry
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.paymentPartitions = paymentPartitions;
+        this.batchProcessor = batchProcessor;
+        this.autoscaler = autoscaler;
+        this.lagMonitor = lagMonitor;
+        this.paymentEventCodec = paymentEventCodec;
+        this.messageSource = messageSource;
+        this.worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("payment-dlq-replay-"));
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ReplayJob> eldest) {
+                return size() > MAX_KEPT_JOBS;
+            }
+        });
+
+        for (DlqReplayRequest.Mode mode : DlqReplayRequest.Mode.values()) {
+            replayedCounters.put(mode, Counter.builder("payment.dlq.replayed")
+                    .tag("mode", mode.name().toLowerCase())
+                    .description("Payment events replayed from the DLQ")
+                    .register(meterRegistry));
+        }
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    /**
+     * Group the messages at the head of the DLQ by failure reason, leaving them in the queue.
+     */
+    public DlqSummaryResponse summarize() {
+        return rabbitTemplate.execute(channel -> {
+            long depth = channel.messageCount(RabbitMQConfig.PAYMENT_COMPLETED_DLQ);
+            Map<String, DlqSummaryResponse.ReasonGroup> groups = new LinkedHashMap<>();
+            int inspected = 0;
+            long lastTag = -1;
+            try {
+                while (inspected < inspectLimit) {
+                    GetResponse response = channel.basicGet(RabbitMQConfig.PAYMENT_COMPLETED_DLQ, false);
+                    if (response == null) {
+                        break;
+                    }
+                    inspected++;
+                    lastTag = response.getEnvelope().getDeliveryTag();
+                    Message message = toMessage(response);
+                    DlqSummaryResponse.ReasonGroup group = groups.computeIfAbsent(reasonOf(message),
+                            reason -> DlqSummaryResponse.ReasonGroup.builder().reason(reason).build());
+                    group.setCount(group.getCount() + 1);
+                    PaymentCompletedEvent event = readEvent(message);
+                    if (event != null && group.getSampleBookingIds().size() < MAX_SAMPLE_BOOKINGS) {
+                        group.getSampleBookingIds().add(event.getBookingId());
+                    }
+                }
+            } finally {
+                if (lastTag >= 0) {
+                    channel.basicNack(lastTag, true, true);
+                }
+            }
+
+            List<DlqSummaryResponse.ReasonGroup> reasons = new ArrayList<>(groups.values());
+            reasons.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+            return DlqSummaryResponse.builder()
+                    .queueDepth(depth)
+                    .inspected(inspected)
+                    .reasons(reasons)
+                    .build();
+        });
+    }
+
+    /**
+     * Start a replay job in the background.
+     *
+     * @throws BusinessException when another replay is still running
+     */
+    public DlqReplayJobResponse startReplay(DlqReplayRequest request) {
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), request.getMode(),
+                StringUtils.hasText(request.getReason()) ? request.getReason().trim() : null, request.getLimit());
+        if (!running.compareAndSet(null, job)) {
+            ReplayJob current = running.get();
+            throw new BusinessException(getMessage("payment.dlq.error.replay_running",
+                    current != null ? current.id : ""));
+        }
+        jobs.put(job.id, job);
+        worker.execute(() -> run(job));
+        logger.info("Started DLQ replay {} (mode {}, reason {}, limit {})",
+                job.id, job.mode, job.reason != null ? job.reason : "any", job.limit);
+        return job.toResponse();
+    }
+
+    public DlqReplayJobResponse getReplay(String jobId) {
+        return findJob(jobId).toResponse();
+    }
+
+    public List<DlqReplayJobResponse> getReplays() {
+        synchronized (jobs) {
+            List<DlqReplayJobResponse> replays = new ArrayList<>(jobs.size());
+            jobs.values().forEach(job -> replays.add(job.toResponse()));
+            Collections.reverse(replays);
+            return replays;
+        }
+    }
+
+    /**
+     * Ask a running job to stop after its current batch.
+     */
+    public DlqReplayJobResponse cancelReplay(String jobId) {
+        ReplayJob job = findJob(jobId);
+        job.cancelled = true;
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ReplayJob job = running.get();
+        if (job != null) {
+            job.cancelled = true;
+        }
+        worker.shutdown();
+    }
+
+    private ReplayJob findJob(String jobId) {
+        ReplayJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException(getMessage("payment.dlq.error.job_not_found", jobId));
+        }
+        return job;
+    }
+
+    void run(ReplayJob job) {
+        try {
+            Long depth = rabbitTemplate.execute(channel -> channel.messageCount(RabbitMQConfig.PAYMENT_COMPLETED_DLQ));
+            job.queueDepth = depth != null ? depth : 0;
+            long budget = job.queueDepth;
+            while (budget > 0 && !job.cancelled && !job.limitReached()) {
+                if (!awaitCapacity(job)) {
+                    break;
+                }
+                long started = System.nanoTime();
+                int take = (int) Math.min(batchSize, budget);
+                Integer scanned = rabbitTemplate.execute(channel -> replayBatch(channel, job, take));
+                if (scanned == null || scanned == 0) {
+                    break;
+                }
+                budget -= scanned;
+                if (!pace(started, scanned)) {
+                    break;
+                }
+            }
+            job.finish(job.cancelled ? DlqReplayJobResponse.Status.CANCELLED : DlqReplayJobResponse.Status.COMPLETED,
+                    null);
+        } catch (RuntimeException e) {
+            logger.error("DLQ replay {} failed", job.id, e);
+            job.finish(DlqReplayJobResponse.Status.FAILED, e.getMessage());
+        } finally {
+            running.compareAndSet(job, null);
+        }
+        logger.info("DLQ replay {} {}: {} scanned, {} replayed, {} failed, {} skipped", job.id, job.status,
+                job.scanned.get(), job.replayed.get(), job.failed.get(), job.skipped.get());
+    }
+
+    /**
+     * Take up to {@code take} messages off the DLQ and replay those the job selects.
+     *
+     * @return number of messages taken
+     */
+    private int replayBatch(Channel channel, ReplayJob job, int take)
+            throws IOException, InterruptedException, TimeoutException {
+        channel.confirmSelect();
+        List<Message> selected = new ArrayList<>(take);
+        List<PaymentCompletedEvent> events = new ArrayList<>(take);
+        long lastTag = -1;
+        int scanned = 0;
+        while (scanned < take) {
+            GetResponse response = channel.basicGet(RabbitMQConfig.PAYMENT_COMPLETED_DLQ, false);
+            if (response == null) {
+                break;
+            }
+            scanned++;
+            lastTag = response.getEnvelope().getDeliveryTag();
+            Message message = toMessage(response);
+            PaymentCompletedEvent event = readEvent(message);
+            if (event == null || !job.selects(reasonOf(message), selected.size())) {
+                publish(channel, RabbitMQConfig.PAYMENT_DLX, RabbitMQConfig.PAYMENT_COMPLETED_DLQ_ROUTING_KEY, message);
+                job.skipped.incrementAndGet();
+                continue;
+            }
+            selected.add(message);
+            events.add(event);
+        }
+
+        if (!events.isEmpty()) {
+            if (job.mode == DlqReplayRequest.Mode.DIRECT) {
+                applyDirectly(channel, job, selected, events);
+            } else {
+                republish(channel, job, selected, events);
+            }
+        }
+        if (lastTag >= 0) {
+            channel.waitForConfirmsOrDie(confirmTimeoutMs);
+            channel.basicAck(lastTag, true);
+        }
+        job.scanned.addAndGet(scanned);
+        return scanned;
+    }
+
+    private void republish(Channel channel, ReplayJob job, List<Message> messages, List<PaymentCompletedEvent> events)
+            throws IOException {
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            Map<String, Object> headers = message.getMessageProperties().getHeaders();
+            headers.remove(PaymentRetryRecoverer.RETRY_ATTEMPT_HEADER);
+            headers.remove(PaymentRetryRecoverer.FAILURE_REASON_HEADER);
+            headers.remove(X_DEATH_HEADER);
+            publish(channel, RabbitMQConfig.PAYMENT_EXCHANGE,
+                    paymentPartitions.routingKeyFor(events.get(i).getBookingId()), message);
+        }
+        job.replayed.addAndGet(messages.size());
+        replayedCounters.get(job.mode).increment(messages.size());
+    }
+
+    private void applyDirectly(Channel channel, ReplayJob job, List<Message> messages,
+                               List<PaymentCompletedEvent> events) throws IOException {
+        List<RuntimeException> failures = batchProcessor.process(events);
+        int applied = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            RuntimeException failure = failures.get(i);
+            if (failure == null) {
+                applied++;
+                continue;
+            }
+            Message message = messages.get(i);
+            message.getMessageProperties().setHeader(PaymentRetryRecoverer.FAILURE_REASON_HEADER,
+                    PaymentRetryRecoverer.reason(failure));
+            publish(channel, RabbitMQConfig.PAYMENT_DLX, RabbitMQConfig.PAYMENT_COMPLETED_DLQ_ROUTING_KEY, message);
+            job.failed.incrementAndGet();
+        }
+        job.replayed.addAndGet(applied);
+        replayedCounters.get(job.mode).increment(applied);
+    }
+
+    /**
+     * Wait until live traffic leaves room for the replay.
+     *
+     * @return {@code false} when the job was cancelled or interrupted while waiting
+     */
+    private boolean awaitCapacity(ReplayJob job) {
+        while (autoscaler.poolUnderPressure() || liveLag() > maxLiveLag) {
+            job.status = DlqReplayJobResponse.Status.PAUSED;
+            if (job.cancelled || !sleep(pauseMs)) {
+                return false;
+            }
+        }
+        job.status = DlqReplayJobResponse.Status.RUNNING;
+        return !job.cancelled;
+    }
+
+    /**
+     * Hold the job to {@code rate-per-second} by sleeping off what is left of the batch's time slot.
+     */
+    private boolean pace(long startedNanos, int messages) {
+        long slotNanos = TimeUnit.SECONDS.toNanos(messages) / Math.max(1, ratePerSecond);
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(slotNanos - (System.nanoTime() - startedNanos));
+        return remainingMs <= 0 || sleep(remainingMs);
+    }
+
+    private long liveLag() {
+        long lag = 0;
+        for (int partition : paymentPartitions.assigned()) {
+            lag += lagMonitor.lag(partition);
+        }
+        return lag;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void publish(Channel channel, String exchange, String routingKey, Message message) throws IOException {
+        channel.basicPublish(exchange, routingKey, false,
+                propertiesConverter.fromMessageProperties(message.getMessageProperties(), StandardCharsets.UTF_8.name()),
+                message.getBody());
+    }
+
+    private Message toMessage(GetResponse response) {
+        MessageProperties properties = propertiesConverter.toMessageProperties(response.getProps(),
+                response.getEnvelope(), StandardCharsets.UTF_8.name());
+        return new Message(response.getBody(), properties);
+    }
+
+    private PaymentCompletedEvent readEvent(Message message) {
+        try {
+            PaymentCompletedEvent event = paymentEventCodec.decode(message);
+            return event.getBookingId() != null ? event : null;
+        } catch (MessageConversionException e) {
+            return null;
+        }
+    }
+
+    private static String reasonOf(Message message) {
+        Object reason = message.getMessageProperties().getHeader(PaymentRetryRecoverer.FAILURE_REASON_HEADER);
+        return reason != null ? reason.toString() : UNKNOWN_REASON;
+    }
+
+    static final class ReplayJob {
+        private final String id;
+        private final DlqReplayRequest.Mode mode;
+        private final String reason;
+        private final Integer limit;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger scanned = new AtomicInteger();
+        private final AtomicInteger replayed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private volatile DlqReplayJobResponse.Status status = DlqReplayJobResponse.Status.RUNNING;
+        volatile boolean cancelled;
+        private volatile long queueDepth;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        ReplayJob(String id, DlqReplayRequest.Mode mode, String reason, Integer limit) {
+            this.id = id;
+            this.mode = mode != null ? mode : DlqReplayRequest.Mode.REPUBLISH;
+            this.reason = reason;
+            this.limit = limit;
+        }
+
+        private boolean selects(String messageReason, int selectedInBatch) {
+            return (reason == null || reason.equals(messageReason))
+                    && (limit == null || replayed.get() + failed.get() + selectedInBatch < limit);
+        }
+
+        private boolean limitReached() {
+            return limit != null && replayed.get() + failed.get() >= limit;
+        }
+
+        private void finish(DlqReplayJobResponse.Status finalStatus, String failure) {
+            error = failure;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        DlqReplayJobResponse toResponse() {
+            return DlqReplayJobResponse.builder()
+                    .id(id)
+                    .mode(mode)
+                    .reason(reason)
+                    .limit(limit)
+                    .status(status)
+                    .queueDepth(queueDepth)
+                    .scanned(scanned.get())
+                    .replayed(replayed.get())
+                    .failed(failed.get())
+                    .skipped(skipped.get())
+                    .error(error)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,12 +12,12 @@ import java.time.LocalDateTime;
 @Setter
 public class PaymentCompletedEvent implements Serializable {
     private Long bookingId;
-    private Double amount;
+    private Money amount;
     private String paymentRef;
     private LocalDateTime paidAt;
 
     @Builder
-    public PaymentCompletedEvent(Long bookingId, Double amount, String paymentRef, LocalDateTime paidAt) {
+    public PaymentCompletedEvent(Long bookingId, Money amount, String paymentRef, LocalDateTime paidAt) {
         this.bookingId = bookingId;
         this.amount = amount;
         this.paymentRef = paymentRef;
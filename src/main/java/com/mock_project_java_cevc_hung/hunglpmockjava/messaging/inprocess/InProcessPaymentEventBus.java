@@ -0,0 +1,322 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.inprocess;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener.PaymentCompletedBatchProcessor;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener.PaymentCompletedListener;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentPartitions;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry.PaymentRetryRecoverer;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport.PaymentEventBacklog;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport.PaymentEventTransport;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers payment events to the payment handlers inside the JVM, for single-node deployments that run without
+ * RabbitMQ. Enabled with {@code app.messaging.transport=inprocess} (the {@code inprocess} profile).
+ * <p>Each partition of {@link PaymentPartitions} is a bounded ring buffer drained by one worker at a time, so events
+ * of one booking are still handled in order and a slow partition cannot hold back the others. The drain takes up to
+ * {@code app.payment.listener.batch.size} events at once and applies them through the
+ * {@link PaymentCompletedBatchProcessor} when batch mode is enabled, otherwise one by one. A full buffer makes
+ * {@link #send} fail after {@code publish-timeout-ms}; the relay then leaves the events in the outbox, which is the
+ * back-pressure RabbitMQ would otherwise provide.</p>
+ * <p>Failed events are retried after the same {@code app.payment.retry.delays-ms} as on RabbitMQ and end up in a
+ * bounded in-memory dead-letter store once the delays are used up. Because buffered events do not survive a restart,
+ * events relayed within the outbox retention window whose booking is still pending are dispatched again on startup;
+ * the handlers are idempotent, so replaying an event that was in fact applied is harmless.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "inprocess")
+public class InProcessPaymentEventBus implements PaymentEventTransport, PaymentEventBacklog {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessPaymentEventBus.class);
+
+    private final PaymentPartitions paymentPartitions;
+    private final PaymentCompletedListener paymentCompletedListener;
+    private final PaymentCompletedBatchProcessor batchProcessor;
+    private final boolean batchEnabled;
+    private final PaymentEventCodec paymentEventCodec;
+    private final OutboxEventRepository outboxEventRepository;
+    private final long[] delaysMs;
+    private final List<PartitionLane> lanes;
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final List<Counter> retriedCounters;
+    private final Counter deadLetteredCounter;
+
+    @Value("${app.messaging.inprocess.publish-timeout-ms:1000}")
+    private long publishTimeoutMs = 1000;
+
+    @Value("${app.messaging.inprocess.dead-letter-capacity:1000}")
+    private int deadLetterCapacity = 1000;
+
+    @Value("${app.payment.listener.batch.size:100}")
+    private int batchSize = 100;
+
+    @Value("${app.outbox.retention-hours:72}")
+    private long retentionHours = 72;
+
+    public InProcessPaymentEventBus(
+        PaymentPartitions paymentPartitions,
+        PaymentCompletedListener paymentCompletedListener,
+        PaymentCompletedBatchProcessor batchProcessor,
+        PaymentEventCodec paymentEventCodec,
+        OutboxEventRepository outboxEventRepository,
+        MeterRegistry meterRegistry,
+        @Value("${app.payment.retry.delays-ms:1000,5000,15000}") long[] delaysMs,
+        @Value("${app.messaging.inprocess.capacity:10000}") int capacity,
+        @Value("${app.payment.listener.batch.enabled:false}") boolean batchEnabled
+    ) {
+        this.paymentPartitions = paymentPartitions;
+        this.paymentCompletedListener = paymentCompletedListener;
+        this.batchProcessor = batchProcessor;
+        this.batchEnabled = batchEnabled;
+        this.paymentEventCodec = paymentEventCodec;
+        this.outboxEventRepository = outboxEventRepository;
+        this.delaysMs = delaysMs;
+        this.workers = Executors.newFixedThreadPool(paymentPartitions.count(),
+                new CustomizableThreadFactory("payment-bus-"));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("payment-bus-retry-"));
+
+        this.lanes = new ArrayList<>(paymentPartitions.count());
+        for (int partition = 0; partition < paymentPartitions.count(); partition++) {
+            PartitionLane lane = new PartitionLane(partition, capacity);
+            lanes.add(lane);
+            Gauge.builder("payment.partition.lag", lane.queue, BlockingQueue::size)
+                    .tag("partition", String.valueOf(partition))
+                    .description("Payment events waiting in the partition")
+                    .register(meterRegistry);
+        }
+        this.retriedCounters = new ArrayList<>(delaysMs.length);
+        for (int attempt = 1; attempt <= delaysMs.length; attempt++) {
+            retriedCounters.add(Counter.builder("payment.retry.scheduled")
+                    .tag("attempt", String.valueOf(attempt))
+                    .description("Payment events sent to a retry delay queue")
+                    .register(meterRegistry));
+        }
+        this.deadLetteredCounter = Counter.builder("payment.retry.exhausted")
+                .description("Payment events routed to the DLQ")
+                .register(meterRegistry);
+        Gauge.builder("payment.bus.dead_letters", deadLetters, this::size)
+                .description("Payment events kept in the in-process dead-letter store")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void send(List<OutboxEventEntity> events) {
+        for (OutboxEventEntity event : events) {
+            Envelope envelope = new Envelope(event.getId(), event.getAggregateId(), event.getPayload(), event.getContentType(), 0);
+            if (!enqueue(envelope, publishTimeoutMs)) {
+                throw new IllegalStateException("Payment event partition "
+                        + paymentPartitions.partitionOf(event.getAggregateId()) + " is full");
+            }
+        }
+    }
+
+    /**
+     * Dispatch again the events that may have been lost in the buffers when the node stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayUnconfirmed() {
+        List<OutboxEventEntity> unconfirmed = outboxEventRepository.findSentForBookingsIn(
+                OutboxEventEntity.Status.SENT, LocalDateTime.now().minusHours(retentionHours),
+                BookingEntity.Status.PENDING);
+        int replayed = 0;
+        for (OutboxEventEntity event : unconfirmed) {
+            if (enqueue(new Envelope(event.getId(), event.getAggregateId(), event.getPayload(), event.getContentType(), 0), publishTimeoutMs)) {
+                replayed++;
+            }
+        }
+        if (replayed > 0) {
+            logger.info("Replayed {} of {} relayed payment events still awaiting their booking",
+                    replayed, unconfirmed.size());
+        }
+    }
+
+    @Override
+    public long pendingEvents() {
+        return lanes.stream().mapToLong(lane -> lane.queue.size()).sum();
+    }
+
+    /**
+     * Snapshot of the events that used up their retries, oldest first.
+     */
+    public List<DeadLetter> deadLetters() {
+        synchronized (deadLetters) {
+            return List.copyOf(deadLetters);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+    }
+
+    private boolean enqueue(Envelope envelope, long timeoutMs) {
+        PartitionLane lane = lanes.get(paymentPartitions.partitionOf(envelope.bookingId()));
+        try {
+            if (!lane.queue.offer(envelope, timeoutMs, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        scheduleDrain(lane);
+        return true;
+    }
+
+    private void scheduleDrain(PartitionLane lane) {
+        if (lane.draining.compareAndSet(false, true)) {
+            workers.execute(() -> drain(lane));
+        }
+    }
+
+    /**
+     * Single-consumer drain loop for one partition, guarded by {@link PartitionLane#draining}; the re-check after
+     * releasing the flag closes the race with producers that enqueued just before the flag was cleared.
+     */
+    private void drain(PartitionLane lane) {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            lane.queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                lane.draining.set(false);
+                if (lane.queue.isEmpty() || !lane.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            try {
+                dispatch(batch);
+            } catch (RuntimeException e) {
+                logger.error("Payment partition {} failed to dispatch {} events", lane.partition, batch.size(), e);
+                batch.forEach(envelope -> retry(envelope, e));
+            }
+        }
+    }
+
+    private void dispatch(List<Envelope> batch) {
+        List<Envelope> readable = new ArrayList<>(batch.size());
+        List<PaymentCompletedEvent> events = new ArrayList<>(batch.size());
+        for (Envelope envelope : batch) {
+            try {
+                events.add(paymentEventCodec.decodeStored(envelope.payload(), envelope.contentType()));
+                readable.add(envelope);
+            } catch (MessageConversionException e) {
+                deadLetter(envelope, e);
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        if (batchEnabled) {
+            List<RuntimeException> failures = batchProcessor.process(events);
+            for (int i = 0; i < failures.size(); i++) {
+                if (failures.get(i) != null) {
+                    retry(readable.get(i), failures.get(i));
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                paymentCompletedListener.handlePaymentCompleted(events.get(i));
+            } catch (RuntimeException e) {
+                retry(readable.get(i), e);
+            }
+        }
+    }
+
+    private void retry(Envelope envelope, RuntimeException cause) {
+        int attempt = envelope.attempt();
+        if (attempt >= delaysMs.length) {
+            deadLetter(envelope, cause);
+            return;
+        }
+
+        Envelope next = new Envelope(envelope.outboxId(), envelope.bookingId(), envelope.payload(),
+                envelope.contentType(), attempt + 1);
+        retryScheduler.schedule(() -> {
+            if (!enqueue(next, 0)) {
+                deadLetter(next, new IllegalStateException("Payment event partition is full"));
+            }
+        }, delaysMs[attempt], TimeUnit.MILLISECONDS);
+        retriedCounters.get(attempt).increment();
+        logger.warn("Payment event scheduled for retry {}/{}: {}",
+                attempt + 1, delaysMs.length, PaymentRetryRecoverer.reason(cause));
+    }
+
+    private void deadLetter(Envelope envelope, Throwable cause) {
+        synchronized (deadLetters) {
+            if (deadLetters.size() >= deadLetterCapacity) {
+                deadLetters.pollFirst();
+            }
+            deadLetters.addLast(new DeadLetter(envelope.outboxId(), envelope.bookingId(), envelope.payload(),
+                    envelope.attempt(), PaymentRetryRecoverer.reason(cause), LocalDateTime.now()));
+        }
+        deadLetteredCounter.increment();
+        logger.error("Payment event for booking {} dead-lettered after {} retries: {}",
+                envelope.bookingId(), envelope.attempt(), PaymentRetryRecoverer.reason(cause));
+    }
+
+    private int size(Deque<DeadLetter> store) {
+        synchronized (store) {
+            return store.size();
+        }
+    }
+
+    /**
+     * A payment event that used up its retries.
+     */
+    public record DeadLetter(Long outboxId, Long bookingId, String payload, int attempts, String reason,
+                             LocalDateTime failedAt) {
+    }
+
+    private record Envelope(Long outboxId, Long bookingId, String payload, String contentType, int attempt) {
+    }
+
+    private static final class PartitionLane {
+        private final int partition;
+        private final BlockingQueue<Envelope> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private PartitionLane(int partition, int capacity) {
+            this.partition = partition;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry.PaymentRetryRecoverer;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Batch mode of the RabbitMQ {@code payment.completed} consumer, enabled with
+ * {@code app.payment.listener.batch.enabled}.
+ * <p>The container hands over up to {@code batch.size} messages, or whatever arrived within {@code batch.timeout-ms}.
+ * The {@link PaymentCompletedBatchProcessor} applies them in one transaction, then the whole batch is acknowledged at
+ * once. A message that failed is handed alone to the {@link PaymentRetryRecoverer} without holding back the rest.</p>
+ */
+@Component
+@ConditionalOnExpression("${app.payment.listener.batch.enabled:false} and '${app.messaging.transport:rabbit}' == 'rabbit'")
+public class PaymentCompletedBatchListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentCompletedBatchListener.class);
+
+    private final PaymentCompletedBatchProcessor batchProcessor;
+    private final PaymentRetryRecoverer paymentRetryRecoverer;
+    private final PaymentEventCodec paymentEventCodec;
+    private final Counter rejectedCounter;
+
+    public PaymentCompletedBatchListener(
+        PaymentCompletedBatchProcessor batchProcessor,
+        PaymentRetryRecoverer paymentRetryRecoverer,
+        PaymentEventCodec paymentEventCodec,
+        MeterRegistry meterRegistry
+    ) {
+        this.batchProcessor = batchProcessor;
+        this.paymentRetryRecoverer = paymentRetryRecoverer;
+        this.paymentEventCodec = paymentEventCodec;
+
+        this.rejectedCounter = Counter.builder("payment.listener.rejected")
+                .description("Payment events of a batch that failed and were handed to the retry topology")
+                .register(meterRegistry);
+    }
+
+    public void handlePaymentsCompleted(List<Message> messages, Channel channel) {
+        List<Message> readable = new ArrayList<>(messages.size());
+        List<PaymentCompletedEvent> events = new ArrayList<>(messages.size());
+        Set<Long> rejectedTags = new HashSet<>();
+        for (Message message : messages) {
+            try {
+                events.add(paymentEventCodec.decode(message));
+                readable.add(message);
+            } catch (MessageConversionException e) {
+                handOff(channel, message, () -> paymentRetryRecoverer.deadLetter(message, e), rejectedTags);
+            }
+        }
+        logger.info("Received batch of {} payment.completed events", messages.size());
+
+        if (!events.isEmpty()) {
+            List<RuntimeException> failures = batchProcessor.process(events);
+            for (int i = 0; i < failures.size(); i++) {
+                RuntimeException failure = failures.get(i);
+                Message message = readable.get(i);
+                if (failure != null) {
+                    handOff(channel, message, () -> paymentRetryRecoverer.recover(message, failure), rejectedTags);
+                }
+            }
+        }
+
+        // Everything not rejected back to the broker has been applied, skipped or re-routed: settle it in one ack
+        messages.stream()
+                .map(message -> message.getMessageProperties().getDeliveryTag())
+                .filter(tag -> !rejectedTags.contains(tag))
+                .max(Long::compare)
+                .ifPresent(lastTag -> basicAck(channel, lastTag));
+    }
+
+    /**
+     * Pass a failed message to the retry topology. If it cannot be re-routed, reject it so the broker dead-letters it.
+     */
+    private void handOff(Channel channel, Message message, Runnable route, Set<Long> rejectedTags) {
+        rejectedCounter.increment();
+        try {
+            route.run();
+        } catch (AmqpRejectAndDontRequeueException e) {
+            long deliveryTag = message.getMessageProperties().getDeliveryTag();
+            try {
+                channel.basicNack(deliveryTag, false, false);
+            } catch (IOException ioe) {
+                throw new IllegalStateException("Cannot reject payment event", ioe);
+            }
+            rejectedTags.add(deliveryTag);
+        }
+    }
+
+    private void basicAck(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot acknowledge payment events", e);
+        }
+    }
+}
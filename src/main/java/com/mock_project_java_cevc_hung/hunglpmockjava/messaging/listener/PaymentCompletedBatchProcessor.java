@@ -0,0 +1,152 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.exception.PaymentProcessingException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.RevenueService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingPaidEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingStatusChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a batch of {@code payment.completed} events, independent of the transport that delivered them.
+ * <p>One transaction locks all affected bookings with a single IN query, marks the payable ones PAID with one JDBC
+ * batch and inserts their revenue rows with another. Each event is still judged on its own, exactly as in
+ * {@link PaymentCompletedListener}: duplicates for paid bookings are skipped and an event that fails validation is
+ * reported back alone without holding back the rest. If the batch write itself fails, the events are replayed one at
+ * a time through the single-event handler so that only the ones that still fail are reported.</p>
+ * <p>Consumers use it when {@code app.payment.listener.batch.enabled} is set; the DLQ replay always does.</p>
+ */
+@Component
+public class PaymentCompletedBatchProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentCompletedBatchProcessor.class);
+
+    private final BookingRepository bookingRepository;
+    private final BookingJdbcRepository bookingJdbcRepository;
+    private final RevenueService revenueService;
+    private final PaymentCompletedListener paymentCompletedListener;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer batchTimer;
+
+    public PaymentCompletedBatchProcessor(
+        BookingRepository bookingRepository,
+        BookingJdbcRepository bookingJdbcRepository,
+        RevenueService revenueService,
+        PaymentCompletedListener paymentCompletedListener,
+        ApplicationEventPublisher eventPublisher,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.bookingJdbcRepository = bookingJdbcRepository;
+        this.revenueService = revenueService;
+        this.paymentCompletedListener = paymentCompletedListener;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.batchTimer = Timer.builder("payment.listener.batch")
+                .description("Time to apply one batch of payment events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Apply a batch of events.
+     *
+     * @return one entry per event, in order: {@code null} when the event was applied or skipped as a duplicate,
+     *         otherwise the failure that should send it to retry
+     */
+    public List<RuntimeException> process(List<PaymentCompletedEvent> events) {
+        try {
+            return batchTimer.record(() -> transactionTemplate.execute(status -> apply(events)));
+        } catch (RuntimeException e) {
+            logger.warn("Batch of {} payment events failed, processing them one by one: {}",
+                    events.size(), e.getMessage());
+            return processOneByOne(events);
+        }
+    }
+
+    private List<RuntimeException> apply(List<PaymentCompletedEvent> events) {
+        RuntimeException[] failures = new RuntimeException[events.size()];
+        Map<Long, BookingEntity> bookings = bookingRepository.findAllLockedByIdIn(events.stream()
+                        .map(PaymentCompletedEvent::getBookingId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toCollection(TreeSet::new)))
+                .stream()
+                .collect(Collectors.toMap(BookingEntity::getId, Function.identity()));
+
+        List<BookingEntity> paid = new ArrayList<>();
+        int rejected = 0;
+        for (int i = 0; i < events.size(); i++) {
+            PaymentCompletedEvent event = events.get(i);
+            BookingEntity booking = bookings.get(event.getBookingId());
+            if (booking == null) {
+                failures[i] = new PaymentProcessingException(
+                        "Booking not found for payment event bookingId=" + event.getBookingId());
+                rejected++;
+                continue;
+            }
+            try {
+                // A second event for the same booking in this batch sees it PAID already and is skipped
+                if (!PaymentCompletedListener.awaitsPayment(booking, event)) {
+                    logger.info("Booking {} already paid. Skipping.", booking.getId());
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                failures[i] = e;
+                rejected++;
+                continue;
+            }
+
+            booking.setStatus(BookingEntity.Status.PAID);
+            booking.setPaymentRef(event.getPaymentRef());
+            booking.setPaidAt(event.getPaidAt() != null ? event.getPaidAt() : LocalDateTime.now());
+            paid.add(booking);
+        }
+
+        if (!paid.isEmpty()) {
+            bookingJdbcRepository.markPaid(paid);
+            revenueService.createRevenuesForPayments(paid);
+            paid.forEach(booking -> {
+                eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking));
+                eventPublisher.publishEvent(BookingPaidEvent.of(booking));
+            });
+        }
+        logger.info("Payment batch applied: {} paid, {} rejected, {} skipped",
+                paid.size(), rejected, events.size() - paid.size() - rejected);
+        return Arrays.asList(failures);
+    }
+
+    private List<RuntimeException> processOneByOne(List<PaymentCompletedEvent> events) {
+        List<RuntimeException> failures = new ArrayList<>(events.size());
+        for (PaymentCompletedEvent event : events) {
+            try {
+                paymentCompletedListener.handlePaymentCompleted(event);
+                failures.add(null);
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        }
+        return failures;
+    }
+}
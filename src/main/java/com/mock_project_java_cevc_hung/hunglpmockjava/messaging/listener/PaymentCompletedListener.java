@@ -1,15 +1,17 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener;
 
-import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
 import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.exception.PaymentProcessingException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.service.RevenueService;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingPaidEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingStatusChangedEvent;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -27,18 +29,21 @@ public class PaymentCompletedListener {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentCompletedListener.class);
     /**
-     * Acceptable delta (one cent) when comparing booking amount vs incoming payload. This reflects
-     * the minimum currency precision used across the system (VND currently stored as double). Any wider gap
+     * Acceptable delta (one minor unit) when comparing booking amount vs incoming payload. Amounts are exact
+     * {@link Money} now, so this only absorbs rounding by producers still sending floating-point JSON. Any wider gap
      * indicates a data inconsistency and triggers a retry/DLQ.
      */
-    private static final double AMOUNT_TOLERANCE = 0.01d;
+    private static final Money AMOUNT_TOLERANCE = Money.ofMinor(1);
 
     private final BookingRepository bookingRepository;
     private final RevenueService revenueService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PaymentCompletedListener(BookingRepository bookingRepository, RevenueService revenueService) {
+    public PaymentCompletedListener(BookingRepository bookingRepository, RevenueService revenueService,
+                                    ApplicationEventPublisher eventPublisher) {
         this.bookingRepository = bookingRepository;
         this.revenueService = revenueService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -47,37 +52,36 @@ public class PaymentCompletedListener {
      * <ul>
      *   <li>Booking must exist</li>
      *   <li>Duplicate events for already-paid bookings are ignored (idempotency)</li>
+     *   <li>Bookings cancelled or refunded meanwhile (e.g. an expired seat hold) are rejected</li>
      *   <li>Amount must match within {@link #AMOUNT_TOLERANCE}</li>
      * </ul>
-     * <p>If validation fails, a {@link PaymentProcessingException} propagates, letting RabbitMQ retry and eventually
-     * route the message to the DLQ. The method runs inside a transaction to ensure booking updates and revenue
-     * creation are atomic.</p>
+     * <p>If validation fails, a {@link PaymentProcessingException} propagates and the
+     * {@link com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry.PaymentRetryRecoverer} moves the message
+     * to its next retry delay queue, or to the DLQ once the retries are used up. The method runs inside a transaction
+     * to ensure booking updates and revenue creation are atomic.</p>
+     * <p>{@link com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentPartitionListenerConfigurer}
+     * subscribes this method to every partition queue the node consumes, unless
+     * {@code app.payment.listener.batch.enabled} is set; the {@link PaymentCompletedBatchListener} then consumes the
+     * queues and falls back to this method per message.</p>
      */
-    @RabbitListener(queues = RabbitMQConfig.PAYMENT_COMPLETED_QUEUE,
-            containerFactory = "rabbitListenerContainerFactory")
     @Transactional
     public void handlePaymentCompleted(PaymentCompletedEvent event) {
         logger.info("Received payment.completed event bookingId={}, amount={}",
                 event.getBookingId(), event.getAmount());
 
-        Optional<BookingEntity> optionalBooking = bookingRepository.findById(event.getBookingId());
+        // Locked so the seat hold expiry cannot cancel the booking while it is being marked PAID
+        Optional<BookingEntity> optionalBooking = bookingRepository.findLockedById(event.getBookingId());
         if (optionalBooking.isEmpty()) {
             throw new PaymentProcessingException(
                     "Booking not found for payment event bookingId=" + event.getBookingId());
         }
 
         BookingEntity booking = optionalBooking.get();
-        if (booking.getStatus() == BookingEntity.Status.PAID) {
+        if (!awaitsPayment(booking, event)) {
             logger.info("Booking {} already paid. Skipping.", booking.getId());
             return;
         }
 
-        if (Math.abs(booking.getAmount() - event.getAmount()) > AMOUNT_TOLERANCE) {
-            throw new PaymentProcessingException(String.format(
-                    "Amount mismatch with booking %d. Expected %.2f, received %.2f",
-                    booking.getId(), booking.getAmount(), event.getAmount()));
-        }
-
         booking.setStatus(BookingEntity.Status.PAID);
         booking.setPaymentRef(event.getPaymentRef());
         booking.setPaidAt(event.getPaidAt() != null ? event.getPaidAt() : LocalDateTime.now());
@@ -89,8 +93,35 @@ public class PaymentCompletedListener {
                 savedBooking.getAmount(),
                 savedBooking
         );
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(savedBooking));
+        eventPublisher.publishEvent(BookingPaidEvent.of(savedBooking));
 
         logger.info("Payment event processed successfully for booking {}", booking.getId());
     }
-}
 
+    /**
+     * Check a locked booking against a payment event.
+     *
+     * @return {@code true} when the booking is PENDING and should be marked PAID, {@code false} when it is already
+     *         paid and the event is a duplicate
+     * @throws PaymentProcessingException when the booking can no longer be paid or the amount does not match
+     */
+    static boolean awaitsPayment(BookingEntity booking, PaymentCompletedEvent event) {
+        if (booking.getStatus() == BookingEntity.Status.PAID) {
+            return false;
+        }
+
+        if (booking.getStatus() != BookingEntity.Status.PENDING) {
+            throw new PaymentProcessingException(String.format(
+                    "Booking %d is %s; its seat hold is gone and the payment needs a manual refund",
+                    booking.getId(), booking.getStatus()));
+        }
+
+        if (!booking.getAmount().isWithin(event.getAmount(), AMOUNT_TOLERANCE)) {
+            throw new PaymentProcessingException(String.format(
+                    "Amount mismatch with booking %d. Expected %s, received %s",
+                    booking.getId(), booking.getAmount(), event.getAmount()));
+        }
+        return true;
+    }
+}
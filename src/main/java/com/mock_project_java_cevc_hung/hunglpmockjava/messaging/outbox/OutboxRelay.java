@@ -0,0 +1,147 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.outbox;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport.PaymentEventTransport;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes committed {@code outbox_events} rows through the configured {@link PaymentEventTransport}.
+ * <p>Each cycle claims a batch with {@code FOR UPDATE SKIP LOCKED}, hands it to the transport (for RabbitMQ: one
+ * channel, one wait for the broker to confirm the whole batch) and marks the rows SENT with a single update. Delivery
+ * is at-least-once: a crash between the confirm and the commit re-sends the batch, which the idempotent payment
+ * listener tolerates. When the transport is unavailable the cycle fails, the rows stay PENDING and only the backlog
+ * grows.</p>
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentEventTransport paymentEventTransport;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+    private final Timer batchTimer;
+
+    @Value("${app.outbox.relay.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${app.outbox.retention-hours:72}")
+    private long retentionHours = 72;
+
+    public OutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        PaymentEventTransport paymentEventTransport,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.paymentEventTransport = paymentEventTransport;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("outbox.backlog", backlog, AtomicLong::get)
+                .description("Outbox events waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Outbox events published and confirmed by the broker")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("outbox.relay.failures")
+                .description("Relay cycles that failed to publish a batch")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to publish and confirm one outbox batch")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:500}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = batchTimer.record(this::publishBatch);
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            logger.warn("Outbox relay could not publish, events stay queued: {}", e.getMessage());
+        }
+        try {
+            refreshBacklog();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh outbox backlog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publish one batch and mark it sent.
+     *
+     * @return number of events published
+     */
+    public int publishBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEventEntity> batch = outboxEventRepository.lockBatch(
+                    OutboxEventEntity.Status.PENDING, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            paymentEventTransport.send(batch);
+
+            outboxEventRepository.markSent(
+                    batch.stream().map(OutboxEventEntity::getId).toList(),
+                    OutboxEventEntity.Status.SENT,
+                    LocalDateTime.now());
+            return batch.size();
+        });
+
+        int count = published != null ? published : 0;
+        publishedCounter.increment(count);
+        return count;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-ms:3600000}", initialDelayString = "${app.outbox.cleanup-ms:3600000}")
+    public void purgeSent() {
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteSentBefore(
+                OutboxEventEntity.Status.SENT, LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} sent outbox events", deleted);
+        }
+    }
+
+    /**
+     * Age in seconds of the oldest unpublished outbox event at the last relay cycle.
+     */
+    public long lagSeconds() {
+        return lagSeconds.get();
+    }
+
+    private void refreshBacklog() {
+        backlog.set(outboxEventRepository.countByStatus(OutboxEventEntity.Status.PENDING));
+        lagSeconds.set(outboxEventRepository.findOldestCreatedAt(OutboxEventEntity.Status.PENDING)
+                .map(oldest -> Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()))
+                .orElse(0L));
+    }
+}
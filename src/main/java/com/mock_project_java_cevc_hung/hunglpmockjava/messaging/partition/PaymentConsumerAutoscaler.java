@@ -0,0 +1,251 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scales the payment partition consumers of this node between {@code min-consumers} and {@code max-consumers}.
+ * <p>A partition keeps exactly one consumer to preserve per-booking order, so the unit of scaling is a partition
+ * container: a sample with backlog on a stopped partition starts it, a partition that neither delivered a message nor
+ * had one waiting for {@code idle-samples} in a row is stopped, and under pressure (processing slower than
+ * {@code target-latency-ms}, callers waiting for a connection, or the Hikari pool above {@code pool-saturation}) the
+ * least loaded running partition is stopped. Idleness is judged from deliveries, not depth, since a busy partition
+ * that keeps up has an empty queue. With single active consumer a stopped partition fails over to another node's
+ * standby consumer, so a partition with messages waiting is only stopped when the broker reports such a standby.</p>
+ * <p>Every consumer may hold a connection while it works, so the running count never exceeds the pool size minus
+ * {@code reserved-connections}, which stay for the HTTP API. Prefetch follows the backlog per running consumer
+ * within {@code min-prefetch}..{@code max-prefetch}; it is applied when a container next starts, since changing it
+ * on a running consumer means a restart.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "rabbit", matchIfMissing = true)
+public class PaymentConsumerAutoscaler {
+
+    /** Partition of the legacy unpartitioned queue, which is not scaled */
+    public static final int UNPARTITIONED = -1;
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentConsumerAutoscaler.class);
+
+    private final RabbitListenerEndpointRegistry registry;
+    private final PaymentPartitions paymentPartitions;
+    private final PaymentPartitionLagMonitor lagMonitor;
+    private final HikariDataSource hikariDataSource;
+    private final int[] idleSamples;
+    private final LongAdder[] deliveries;
+    private final LongAdder processedMessages = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger prefetch = new AtomicInteger();
+    private final AtomicInteger ceiling = new AtomicInteger();
+
+    @Value("${app.payment.listener.adaptive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.payment.listener.adaptive.min-consumers:1}")
+    private int minConsumers = 1;
+
+    @Value("${app.payment.listener.adaptive.max-consumers:0}")
+    private int maxConsumers = 0;
+
+    @Value("${app.payment.listener.adaptive.min-prefetch:10}")
+    private int minPrefetch = 10;
+
+    @Value("${app.payment.listener.adaptive.max-prefetch:250}")
+    private int maxPrefetch = 250;
+
+    @Value("${app.payment.listener.adaptive.target-latency-ms:200}")
+    private long targetLatencyMs = 200;
+
+    @Value("${app.payment.listener.adaptive.reserved-connections:5}")
+    private int reservedConnections = 5;
+
+    @Value("${app.payment.listener.adaptive.pool-saturation:0.8}")
+    private double poolSaturation = 0.8;
+
+    @Value("${app.payment.listener.adaptive.idle-samples:6}")
+    private int idleSamplesToStop = 6;
+
+    public PaymentConsumerAutoscaler(
+        RabbitListenerEndpointRegistry registry,
+        PaymentPartitions paymentPartitions,
+        PaymentPartitionLagMonitor lagMonitor,
+        DataSource dataSource,
+        MeterRegistry meterRegistry
+    ) {
+        this.registry = registry;
+        this.paymentPartitions = paymentPartitions;
+        this.lagMonitor = lagMonitor;
+        this.hikariDataSource = unwrapHikari(dataSource);
+        this.idleSamples = new int[paymentPartitions.count()];
+        this.deliveries = new LongAdder[paymentPartitions.count()];
+        for (int partition = 0; partition < deliveries.length; partition++) {
+            deliveries[partition] = new LongAdder();
+        }
+
+        Gauge.builder("payment.listener.consumers", running, AtomicInteger::get)
+                .description("Payment partition consumers running on this node")
+                .register(meterRegistry);
+        Gauge.builder("payment.listener.consumers.ceiling", ceiling, AtomicInteger::get)
+                .description("Most payment consumers the connection pool allows")
+                .register(meterRegistry);
+        Gauge.builder("payment.listener.prefetch", prefetch, AtomicInteger::get)
+                .description("Prefetch applied to payment consumers as they start")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the time spent handling {@code messages} payment events of {@code partition}, whether one by one or as a
+     * batch; {@link #UNPARTITIONED} for the legacy queue.
+     */
+    public void recordProcessing(int partition, int messages, long nanos) {
+        processedMessages.add(messages);
+        processingNanos.add(nanos);
+        if (partition >= 0 && partition < deliveries.length) {
+            deliveries[partition].add(messages);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.listener.adaptive.sample-ms:5000}",
+            initialDelayString = "${app.payment.listener.adaptive.sample-ms:5000}")
+    public void adjust() {
+        if (!enabled) {
+            return;
+        }
+
+        long messages = processedMessages.sumThenReset();
+        long nanos = processingNanos.sumThenReset();
+        long latencyMs = messages > 0 ? nanos / messages / 1_000_000 : 0;
+        boolean poolPressure = poolUnderPressure();
+        boolean pressure = poolPressure || latencyMs > targetLatencyMs;
+
+        int upperBound = maxConsumers > 0
+                ? Math.min(maxConsumers, paymentPartitions.assigned().size())
+                : paymentPartitions.assigned().size();
+        int allowed = Math.max(Math.min(minConsumers, upperBound), Math.min(upperBound, poolCeiling()));
+        ceiling.set(allowed);
+
+        List<Integer> runningPartitions = paymentPartitions.assigned().stream()
+                .filter(partition -> container(partition).isRunning())
+                .toList();
+        List<Integer> stoppedPartitions = paymentPartitions.assigned().stream()
+                .filter(partition -> !container(partition).isRunning())
+                .toList();
+        long[] delivered = new long[deliveries.length];
+        for (int partition : paymentPartitions.assigned()) {
+            delivered[partition] = deliveries[partition].sumThenReset();
+            boolean idle = delivered[partition] == 0 && lagMonitor.lag(partition) == 0;
+            idleSamples[partition] = idle ? idleSamples[partition] + 1 : 0;
+        }
+
+        long backlog = paymentPartitions.assigned().stream().mapToLong(lagMonitor::lag).sum();
+        int targetPrefetch = (int) Math.max(minPrefetch,
+                Math.min(maxPrefetch, backlog / Math.max(1, runningPartitions.size())));
+        if (targetPrefetch != prefetch.getAndSet(targetPrefetch)) {
+            paymentPartitions.assigned().forEach(partition -> applyPrefetch(container(partition), targetPrefetch));
+        }
+
+        int count = runningPartitions.size();
+        Comparator<Integer> byLag = Comparator.comparingLong(lagMonitor::lag);
+        Comparator<Integer> byLoad = byLag.thenComparingLong(partition -> delivered[partition]);
+        Optional<Integer> busiestStopped = stoppedPartitions.stream().max(byLag);
+        Optional<Integer> idleRunning = runningPartitions.stream()
+                .filter(partition -> idleSamples[partition] >= idleSamplesToStop)
+                .findFirst();
+        Optional<Integer> leastLoadedStoppable = runningPartitions.stream()
+                .filter(this::canStop)
+                .min(byLoad);
+        if ((count > allowed || (pressure && count > minConsumers)) && leastLoadedStoppable.isPresent()) {
+            stop(leastLoadedStoppable.get(), pressure
+                    ? "pressure (latency " + latencyMs + " ms, pool saturated " + poolPressure + ")"
+                    : "connection pool allows " + allowed);
+            count--;
+        } else if (!pressure && count < allowed && busiestStopped.isPresent()
+                && (lagMonitor.lag(busiestStopped.get()) > 0 || count < minConsumers)) {
+            start(busiestStopped.get());
+            count++;
+        } else if (!pressure && count > minConsumers && idleRunning.isPresent()) {
+            stop(idleRunning.get(), "idle");
+            count--;
+        }
+        running.set(count);
+    }
+
+    /**
+     * Whether stopping the consumer of {@code partition} leaves no ready message without a consumer: the queue is
+     * empty or another node has a standby consumer on it.
+     */
+    private boolean canStop(int partition) {
+        return lagMonitor.lag(partition) == 0 || lagMonitor.consumers(partition) > 1;
+    }
+
+    private void start(int partition) {
+        container(partition).start();
+        idleSamples[partition] = 0;
+        logger.info("Started payment consumer for partition {}", partition);
+    }
+
+    private void stop(int partition, String reason) {
+        container(partition).stop();
+        logger.info("Stopped payment consumer for partition {}: {}", partition, reason);
+    }
+
+    private MessageListenerContainer container(int partition) {
+        return registry.getListenerContainer(RabbitMQConfig.paymentCompletedPartitionQueue(partition));
+    }
+
+    private static void applyPrefetch(MessageListenerContainer container, int prefetchCount) {
+        if (container instanceof AbstractMessageListenerContainer listenerContainer) {
+            listenerContainer.setPrefetchCount(prefetchCount);
+        }
+    }
+
+    private int poolCeiling() {
+        if (hikariDataSource == null) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(1, hikariDataSource.getMaximumPoolSize() - reservedConnections);
+    }
+
+    /**
+     * Whether the connection pool has callers waiting or is above {@code pool-saturation}.
+     */
+    public boolean poolUnderPressure() {
+        HikariPoolMXBean pool = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            return false;
+        }
+        return pool.getThreadsAwaitingConnection() > 0
+                || pool.getActiveConnections() >= hikariDataSource.getMaximumPoolSize() * poolSaturation;
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari;
+        }
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport.PaymentEventBacklog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the depth and consumer count of every {@code payment.completed} partition queue as
+ * {@code payment.partition.lag} and {@code payment.partition.consumers}, tagged by partition. The broker is polled
+ * on a schedule rather than from the gauges, so a scrape never waits on RabbitMQ.
+ */
+@Component
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "rabbit", matchIfMissing = true)
+public class PaymentPartitionLagMonitor implements PaymentEventBacklog {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentPartitionLagMonitor.class);
+
+    private final AmqpAdmin amqpAdmin;
+    private final List<AtomicLong> lags;
+    private final List<AtomicLong> consumers;
+
+    public PaymentPartitionLagMonitor(AmqpAdmin amqpAdmin, PaymentPartitions paymentPartitions,
+                                      MeterRegistry meterRegistry) {
+        this.amqpAdmin = amqpAdmin;
+        this.lags = new ArrayList<>(paymentPartitions.count());
+        this.consumers = new ArrayList<>(paymentPartitions.count());
+        for (int partition = 0; partition < paymentPartitions.count(); partition++) {
+            AtomicLong lag = new AtomicLong();
+            AtomicLong consumerCount = new AtomicLong();
+            lags.add(lag);
+            consumers.add(consumerCount);
+            Gauge.builder("payment.partition.lag", lag, AtomicLong::get)
+                    .tag("partition", String.valueOf(partition))
+                    .description("Payment events waiting in the partition queue")
+                    .register(meterRegistry);
+            Gauge.builder("payment.partition.consumers", consumerCount, AtomicLong::get)
+                    .tag("partition", String.valueOf(partition))
+                    .description("Consumers subscribed to the partition queue, at most one of them active")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Messages waiting in a partition queue at the last refresh.
+     */
+    public long lag(int partition) {
+        return lags.get(partition).get();
+    }
+
+    /**
+     * Consumers subscribed to a partition queue at the last refresh, across all nodes.
+     */
+    public long consumers(int partition) {
+        return consumers.get(partition).get();
+    }
+
+    @Override
+    public long pendingEvents() {
+        return lags.stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.partitions.lag-refresh-ms:5000}")
+    public void refresh() {
+        try {
+            for (int partition = 0; partition < lags.size(); partition++) {
+                QueueInformation info = amqpAdmin.getQueueInfo(RabbitMQConfig.paymentCompletedPartitionQueue(partition));
+                lags.get(partition).set(info != null ? info.getMessageCount() : 0);
+                consumers.get(partition).set(info != null ? info.getConsumerCount() : 0);
+            }
+        } catch (AmqpException e) {
+            logger.warn("Could not read payment partition depths: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener.PaymentCompletedBatchListener;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener.PaymentCompletedListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registers one listener container per {@code payment.completed} partition queue this node consumes.
+ * <p>Each container runs a single consumer, so a partition is processed by one thread and the events of a booking
+ * stay in order, while throughput grows with the number of partitions. A container that listens to several queues
+ * would not do: single active consumer would hand all of them to the same consumer. The unpartitioned legacy queue
+ * gets a container too, so events published before partitioning still drain. Processing times are reported to
+ * the {@link PaymentConsumerAutoscaler}, which starts and stops the partition containers.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "rabbit", matchIfMissing = true)
+public class PaymentPartitionListenerConfigurer implements RabbitListenerConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentPartitionListenerConfigurer.class);
+
+    private final PaymentPartitions paymentPartitions;
+    private final PaymentCompletedListener paymentCompletedListener;
+    private final ObjectProvider<PaymentCompletedBatchListener> paymentCompletedBatchListener;
+    private final PaymentEventCodec paymentEventCodec;
+    private final PaymentConsumerAutoscaler autoscaler;
+    private final SimpleRabbitListenerContainerFactory singleFactory;
+    private final SimpleRabbitListenerContainerFactory batchFactory;
+
+    @Value("${app.payment.listener.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    public PaymentPartitionListenerConfigurer(
+        PaymentPartitions paymentPartitions,
+        PaymentCompletedListener paymentCompletedListener,
+        ObjectProvider<PaymentCompletedBatchListener> paymentCompletedBatchListener,
+        PaymentEventCodec paymentEventCodec,
+        PaymentConsumerAutoscaler autoscaler,
+        @Qualifier("rabbitListenerContainerFactory") SimpleRabbitListenerContainerFactory singleFactory,
+        @Qualifier("paymentBatchListenerContainerFactory") SimpleRabbitListenerContainerFactory batchFactory
+    ) {
+        this.paymentPartitions = paymentPartitions;
+        this.paymentCompletedListener = paymentCompletedListener;
+        this.paymentCompletedBatchListener = paymentCompletedBatchListener;
+        this.paymentEventCodec = paymentEventCodec;
+        this.autoscaler = autoscaler;
+        this.singleFactory = singleFactory;
+        this.batchFactory = batchFactory;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        Map<String, Integer> queues = new LinkedHashMap<>();
+        for (int partition : paymentPartitions.assigned()) {
+            queues.put(RabbitMQConfig.paymentCompletedPartitionQueue(partition), partition);
+        }
+        queues.put(RabbitMQConfig.PAYMENT_COMPLETED_QUEUE, PaymentConsumerAutoscaler.UNPARTITIONED);
+
+        for (Map.Entry<String, Integer> entry : queues.entrySet()) {
+            String queue = entry.getKey();
+            int partition = entry.getValue();
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId(queue);
+            endpoint.setQueueNames(queue);
+            endpoint.setConcurrency("1");
+            if (batchEnabled) {
+                PaymentCompletedBatchListener batchListener = paymentCompletedBatchListener.getObject();
+                endpoint.setMessageListener((ChannelAwareBatchMessageListener) (messages, channel) -> {
+                    long started = System.nanoTime();
+                    batchListener.handlePaymentsCompleted(messages, channel);
+                    autoscaler.recordProcessing(partition, messages.size(), System.nanoTime() - started);
+                });
+                registrar.registerEndpoint(endpoint, batchFactory);
+            } else {
+                endpoint.setMessageListener((MessageListener) message -> {
+                    long started = System.nanoTime();
+                    try {
+                        paymentCompletedListener.handlePaymentCompleted(paymentEventCodec.decode(message));
+                    } finally {
+                        autoscaler.recordProcessing(partition, 1, System.nanoTime() - started);
+                    }
+                });
+                registrar.registerEndpoint(endpoint, singleFactory);
+            }
+        }
+        logger.info("Consuming payment partitions {} of {} ({} mode)", paymentPartitions.assigned(),
+                paymentPartitions.count(), batchEnabled ? "batch" : "single");
+    }
+}
@@ -0,0 +1,78 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Maps bookings to {@code payment.completed} partitions and says which partitions this node consumes.
+ * <p>A booking is placed with jump consistent hashing: all events of a booking land in the same partition, and when
+ * the partition count grows only about {@code 1/n} of the bookings move, instead of nearly all of them as with a plain
+ * modulo. {@code app.payment.partitions.assigned} limits this node to a comma-separated list of partitions; left
+ * empty, the node subscribes to all of them and single active consumer decides which node serves each one.</p>
+ */
+@Component
+public class PaymentPartitions {
+
+    private final int count;
+    private final List<Integer> assigned;
+
+    public PaymentPartitions(
+        @Value("${app.payment.partitions.count:4}") int count,
+        @Value("${app.payment.partitions.assigned:}") String assigned
+    ) {
+        if (count < 1) {
+            throw new IllegalArgumentException("app.payment.partitions.count must be at least 1");
+        }
+        this.count = count;
+        this.assigned = StringUtils.hasText(assigned)
+                ? StringUtils.commaDelimitedListToSet(assigned.replace(" ", "")).stream()
+                        .map(Integer::valueOf)
+                        .sorted()
+                        .toList()
+                : IntStream.range(0, count).boxed().toList();
+        for (int partition : this.assigned) {
+            if (partition < 0 || partition >= count) {
+                throw new IllegalArgumentException("Assigned payment partition " + partition
+                        + " is outside 0.." + (count - 1));
+            }
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Partitions consumed by this node, in ascending order.
+     */
+    public List<Integer> assigned() {
+        return assigned;
+    }
+
+    public int partitionOf(Long bookingId) {
+        return jumpConsistentHash(bookingId, count);
+    }
+
+    public String routingKeyFor(Long bookingId) {
+        return RabbitMQConfig.paymentCompletedPartitionRoutingKey(partitionOf(bookingId));
+    }
+
+    /**
+     * Lamping and Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm".
+     */
+    static int jumpConsistentHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
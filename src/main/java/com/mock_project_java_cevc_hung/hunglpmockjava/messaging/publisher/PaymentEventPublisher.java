@@ -1,30 +1,50 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.publisher;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
 import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentPartitions;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.OutboxEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
+/**
+ * Records payment events in the {@code outbox_events} table as part of the caller's transaction. The
+ * {@link com.mock_project_java_cevc_hung.hunglpmockjava.messaging.outbox.OutboxRelay} publishes them once committed,
+ * so a rolled-back payment never emits an event and a slow or unavailable broker never delays a payment. Events are
+ * routed to the booking's partition, so all events of a booking reach the same single active consumer in order.
+ */
 @Component
 public class PaymentEventPublisher {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentEventPublisher.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentEventCodec paymentEventCodec;
+    private final PaymentPartitions paymentPartitions;
 
-    public PaymentEventPublisher(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public PaymentEventPublisher(
+        OutboxEventRepository outboxEventRepository,
+        PaymentEventCodec paymentEventCodec,
+        PaymentPartitions paymentPartitions
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.paymentEventCodec = paymentEventCodec;
+        this.paymentPartitions = paymentPartitions;
     }
 
     public void publishPaymentCompleted(PaymentCompletedEvent event) {
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.PAYMENT_EXCHANGE,
-                RabbitMQConfig.PAYMENT_COMPLETED_ROUTING_KEY,
-                event
-        );
-        logger.info("Published payment.completed event for bookingId={}", event.getBookingId());
+        outboxEventRepository.save(OutboxEventEntity.builder()
+                .aggregateId(event.getBookingId())
+                .exchange(RabbitMQConfig.PAYMENT_EXCHANGE)
+                .routingKey(paymentPartitions.routingKeyFor(event.getBookingId()))
+                .payloadType(PaymentCompletedEvent.class.getName())
+                .contentType(paymentEventCodec.contentType())
+                .payload(paymentEventCodec.toOutboxPayload(paymentEventCodec.encode(event)))
+                .status(OutboxEventEntity.Status.PENDING)
+                .build());
+        logger.info("Queued payment.completed event in outbox for bookingId={}", event.getBookingId());
     }
 }
-
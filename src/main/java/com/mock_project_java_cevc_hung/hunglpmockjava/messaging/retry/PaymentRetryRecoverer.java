@@ -0,0 +1,139 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes a failed {@code payment.completed} message to its next retry delay queue, or to the DLQ once every delay
+ * has been used.
+ * <p>The attempt number travels in the {@value #RETRY_ATTEMPT_HEADER} header and the last failure in
+ * {@value #FAILURE_REASON_HEADER}, so a message carries its own retry state across consumers and restarts. The failed
+ * delivery is acknowledged only once the broker has confirmed the copy; if publishing fails or is not confirmed, the
+ * delivery is rejected and the broker dead-letters it as before. Messages that cannot be converted are dead-lettered at once since no retry can
+ * fix them.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "rabbit", matchIfMissing = true)
+public class PaymentRetryRecoverer implements MessageRecoverer {
+
+    public static final String RETRY_ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String FAILURE_REASON_HEADER = "x-failure-reason";
+    private static final int MAX_REASON_LENGTH = 255;
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRetryRecoverer.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final List<Counter> retriedCounters;
+    private final Counter deadLetteredCounter;
+
+    @Value("${app.payment.retry.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs = 5000;
+
+    public PaymentRetryRecoverer(
+        RabbitTemplate rabbitTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${app.payment.retry.delays-ms:1000,5000,15000}") long[] delaysMs
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retriedCounters = new ArrayList<>(delaysMs.length);
+        for (int attempt = 1; attempt <= delaysMs.length; attempt++) {
+            retriedCounters.add(Counter.builder("payment.retry.scheduled")
+                    .tag("attempt", String.valueOf(attempt))
+                    .description("Payment events sent to a retry delay queue")
+                    .register(meterRegistry));
+        }
+        this.deadLetteredCounter = Counter.builder("payment.retry.exhausted")
+                .description("Payment events routed to the DLQ")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        int attempt = retryAttempt(message);
+        if (attempt >= retriedCounters.size() || isFatal(cause)) {
+            deadLetter(message, cause);
+            return;
+        }
+
+        int nextAttempt = attempt + 1;
+        republish(message, cause, RabbitMQConfig.PAYMENT_RETRY_EXCHANGE, RabbitMQConfig.paymentRetryRoutingKey(
+                nextAttempt, message.getMessageProperties().getReceivedRoutingKey()), nextAttempt);
+        retriedCounters.get(attempt).increment();
+        logger.warn("Payment event scheduled for retry {}/{}: {}", nextAttempt, retriedCounters.size(), reason(cause));
+    }
+
+    /**
+     * Send a message straight to the DLQ, recording why.
+     */
+    public void deadLetter(Message message, Throwable cause) {
+        republish(message, cause, RabbitMQConfig.PAYMENT_DLX, RabbitMQConfig.PAYMENT_COMPLETED_DLQ_ROUTING_KEY,
+                retryAttempt(message));
+        deadLetteredCounter.increment();
+        logger.error("Payment event routed to DLQ after {} retries: {}", retryAttempt(message), reason(cause));
+    }
+
+    /**
+     * Number of retries already made for this message, {@code 0} on first delivery.
+     */
+    public static int retryAttempt(Message message) {
+        Object attempt = message.getMessageProperties().getHeader(RETRY_ATTEMPT_HEADER);
+        return attempt instanceof Number number ? number.intValue() : 0;
+    }
+
+    private void republish(Message message, Throwable cause, String exchange, String routingKey, int attempt) {
+        MessageProperties properties = message.getMessageProperties();
+        properties.setHeader(RETRY_ATTEMPT_HEADER, attempt);
+        properties.setHeader(FAILURE_REASON_HEADER, reason(cause));
+        if (properties.getDeliveryMode() == null) {
+            properties.setDeliveryMode(properties.getReceivedDeliveryMode() != null
+                    ? properties.getReceivedDeliveryMode() : MessageDeliveryMode.PERSISTENT);
+        }
+        try {
+            rabbitTemplate.invoke(operations -> {
+                operations.send(exchange, routingKey, message);
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            });
+        } catch (AmqpException e) {
+            throw new AmqpRejectAndDontRequeueException("Could not route failed payment event", e);
+        }
+    }
+
+    private static boolean isFatal(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof MessageConversionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Failure description stored in {@value #FAILURE_REASON_HEADER}: the root cause's type and message.
+     */
+    public static String reason(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String reason = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport;
+
+/**
+ * Payment events handed to the transport but not consumed yet, summed over the partitions this node can see.
+ * Implemented by whichever side of the selected transport knows the queue depths.
+ */
+public interface PaymentEventBacklog {
+
+    /**
+     * Events waiting for a consumer at the last sample. Must not block: it is read on the request path.
+     */
+    long pendingEvents();
+}
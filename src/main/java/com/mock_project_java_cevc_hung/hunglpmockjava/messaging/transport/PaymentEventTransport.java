@@ -0,0 +1,18 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+
+import java.util.List;
+
+/**
+ * Carries committed outbox events to the payment consumers. Selected with {@code app.messaging.transport}:
+ * {@code rabbit} (default) publishes to RabbitMQ, {@code inprocess} dispatches through in-memory ring buffers.
+ */
+public interface PaymentEventTransport {
+
+    /**
+     * Hand a batch of events over, returning only once the transport has accepted all of them. Throws when it
+     * cannot; the events then stay pending in the outbox and are offered again on the next relay cycle.
+     */
+    void send(List<OutboxEventEntity> events);
+}
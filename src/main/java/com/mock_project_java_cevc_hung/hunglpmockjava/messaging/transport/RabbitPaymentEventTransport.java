@@ -0,0 +1,57 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Publishes outbox events to RabbitMQ on one channel and waits for the broker to confirm the whole batch.
+ */
+@Component
+@ConditionalOnProperty(name = "app.messaging.transport", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitPaymentEventTransport implements PaymentEventTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${app.outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs = 5000;
+
+    public RabbitPaymentEventTransport(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public void send(List<OutboxEventEntity> events) {
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxEventEntity event : events) {
+                operations.send(event.getExchange(), event.getRoutingKey(), toMessage(event));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+
+    private Message toMessage(OutboxEventEntity event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId("outbox-" + event.getId());
+        if (PaymentEventCodec.isBinary(event.getContentType())) {
+            // The binary body names its own type and version
+            properties.setContentType(event.getContentType());
+        } else {
+            properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+            properties.setContentEncoding(StandardCharsets.UTF_8.name());
+            properties.setHeader("__TypeId__", event.getPayloadType());
+        }
+        return new Message(PaymentEventCodec.body(event), properties);
+    }
+}
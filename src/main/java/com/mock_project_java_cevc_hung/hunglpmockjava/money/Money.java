@@ -0,0 +1,122 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money held as a whole number of minor units (hundredths of a VND), so sums and comparisons are exact
+ * integer arithmetic and need no allocation.
+ * <p>Amounts enter with {@link #of(BigDecimal)}, rounding half up to {@value #SCALE} decimals. JSON reads and writes
+ * a plain decimal number, as the {@code Double} fields did; form fields and {@code @Value} properties bind through
+ * {@link #valueOf(String)}. Arithmetic that leaves the {@code long} range throws {@link ArithmeticException}.</p>
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_PER_UNIT = 100;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Amount from a legacy floating-point value, taken by its shortest decimal representation.
+     */
+    public static Money of(double amount) {
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * Parse a decimal amount such as {@code 1250.5}.
+     *
+     * @throws NumberFormatException if the text is not a decimal number
+     */
+    public static Money valueOf(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return ofMinor(Math.multiplyExact(minorUnits, quantity));
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    /**
+     * Whether this amount differs from {@code other} by at most {@code tolerance}.
+     */
+    public boolean isWithin(Money other, Money tolerance) {
+        return Math.abs(Math.subtractExact(minorUnits, other.minorUnits)) <= tolerance.minorUnits;
+    }
+
+    /**
+     * Whether this amount differs from {@code unitPrice * quantity} by at most {@code tolerance}, without building
+     * the product.
+     */
+    public boolean isWithinTotal(Money unitPrice, int quantity, Money tolerance) {
+        long expected = Math.multiplyExact(unitPrice.minorUnits, quantity);
+        return Math.abs(Math.subtractExact(minorUnits, expected)) <= tolerance.minorUnits;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Nearest {@code double}, for charts and other display-only uses.
+     */
+    public double toDouble() {
+        return (double) minorUnits / MINOR_PER_UNIT;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
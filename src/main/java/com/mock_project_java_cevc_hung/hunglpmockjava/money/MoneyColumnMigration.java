@@ -0,0 +1,122 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.money;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves amounts from the legacy decimal columns to the {@code *_minor} {@code BIGINT} columns that {@link Money}
+ * attributes map to.
+ * <p>Runs once Hibernate has added the new columns and before the web server, listeners and schedulers start. For
+ * each pair it sets {@code minor = ROUND(legacy * 100)} in chunks of {@code batch-size} rows where the minor column
+ * is empty or disagrees with the legacy one, then drops the legacy {@code NOT NULL}. Every step only touches rows
+ * and columns that still need it, so a restart after a crash resumes where it stopped and a migrated database is a
+ * no-op.</p>
+ * <p>During a rolling deploy nodes on the previous release still write only the legacy columns, and this release
+ * writes both, so each node reads what the other wrote. The fill therefore repeats every {@code backfill-ms} to pick
+ * up rows the old nodes inserted or changed; turn {@code backfill} off once every node runs this release. Drop the
+ * legacy columns, and the writes to them, once a rollback is no longer needed.</p>
+ * <p>Doubles go through {@code DECIMAL(30,4)} first so {@code 0.145} rounds to 15 minor units as
+ * {@link Money#of(double)} would, not to 14 as its binary value would.</p>
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class MoneyColumnMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoneyColumnMigration.class);
+
+    /** Table, legacy column, minor-units column. */
+    private static final List<String[]> COLUMNS = List.of(
+            new String[]{"bookings", "amount", "amount_minor"},
+            new String[]{"payment_notifications", "amount", "amount_minor"},
+            new String[]{"revenues", "total_revenue", "total_revenue_minor"},
+            new String[]{"revenues", "tour_revenue", "tour_revenue_minor"},
+            new String[]{"tours", "price", "price_minor"});
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.money.migration.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.money.migration.batch-size:5000}")
+    private int batchSize = 5000;
+
+    @Value("${app.money.migration.backfill:true}")
+    private boolean backfill = true;
+
+    public MoneyColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        for (String[] column : COLUMNS) {
+            migrate(column[0], column[1], column[2]);
+        }
+    }
+
+    /**
+     * Fill the minor columns from rows written by nodes still on the previous release.
+     */
+    @Scheduled(fixedDelayString = "${app.money.migration.backfill-ms:300000}",
+            initialDelayString = "${app.money.migration.backfill-ms:300000}")
+    public void backfill() {
+        if (!enabled || !backfill) {
+            return;
+        }
+        for (String[] column : COLUMNS) {
+            if (column(column[0], column[1]) != null && column(column[0], column[2]) != null) {
+                fill(column[0], column[1], column[2]);
+            }
+        }
+    }
+
+    private void migrate(String table, String legacyColumn, String minorColumn) {
+        Map<String, Object> legacy = column(table, legacyColumn);
+        if (legacy == null || column(table, minorColumn) == null) {
+            return;
+        }
+
+        fill(table, legacyColumn, minorColumn);
+
+        if ("NO".equals(legacy.get("IS_NULLABLE"))) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY " + legacyColumn + " "
+                    + legacy.get("COLUMN_TYPE") + " NULL");
+            logger.info("Made legacy column {}.{} nullable", table, legacyColumn);
+        }
+    }
+
+    private void fill(String table, String legacyColumn, String minorColumn) {
+        String minor = "ROUND(CAST(" + legacyColumn + " AS DECIMAL(30,4)) * 100)";
+        String sql = "UPDATE " + table + " SET " + minorColumn + " = " + minor + " WHERE " + legacyColumn
+                + " IS NOT NULL AND (" + minorColumn + " IS NULL OR " + minorColumn + " <> " + minor + ") LIMIT "
+                + batchSize;
+        long moved = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(sql);
+            moved += updated;
+        } while (updated == batchSize);
+        if (moved > 0) {
+            logger.info("Moved {} amounts from {}.{} to {}", moved, table, legacyColumn, minorColumn);
+        }
+    }
+
+    private Map<String, Object> column(String table, String column) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT COLUMN_TYPE, IS_NULLABLE FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?", table, column);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
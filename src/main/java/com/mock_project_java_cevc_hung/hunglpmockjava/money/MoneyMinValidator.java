@@ -0,0 +1,26 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.money;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.Min;
+
+import java.math.BigDecimal;
+
+/**
+ * Lets {@code @Min} keep guarding amounts now that they are {@link Money}: the bound is in whole units. Registered
+ * with Hibernate Validator through {@code META-INF/services/jakarta.validation.ConstraintValidator}.
+ */
+public class MoneyMinValidator implements ConstraintValidator<Min, Money> {
+
+    private long minMinorUnits;
+
+    @Override
+    public void initialize(Min constraint) {
+        minMinorUnits = Money.of(BigDecimal.valueOf(constraint.value())).minorUnits();
+    }
+
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+        return value == null || value.minorUnits() >= minMinorUnits;
+    }
+}
@@ -0,0 +1,131 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access for bookings. Hibernate cannot batch inserts of IDENTITY entities, so bulk inserts go
+ * through here in a single JDBC batch on the connection of the surrounding transaction.
+ */
+@Repository
+public class BookingJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO bookings (user_id, tour_id, qty, amount_minor, status, hold_expires_at, created_at, updated_at, " +
+            "amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ? / 100)";
+
+    private static final String MARK_PAID_SQL =
+            "UPDATE bookings SET status = ?, payment_ref = ?, paid_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final String PAID_BOOKINGS_SQL =
+            "SELECT b.id, b.paid_at, b.tour_id, t.category_id, u.created_at AS user_created_at, b.status, b.amount_minor " +
+            "FROM bookings b " +
+            "LEFT JOIN tours t ON b.tour_id = t.id " +
+            "LEFT JOIN users u ON b.user_id = u.id " +
+            "WHERE b.paid_at IS NOT NULL AND b.amount_minor IS NOT NULL";
+
+    private static final String PAID_BOOKINGS_UPDATED_SINCE_SQL = PAID_BOOKINGS_SQL + " AND b.updated_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert new bookings in one batch and assign the generated ids to them.
+     */
+    public void insertAll(List<BookingEntity> bookings) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        BookingEntity booking = bookings.get(i);
+                        ps.setLong(1, booking.getUser().getId());
+                        ps.setLong(2, booking.getTour().getId());
+                        ps.setInt(3, booking.getQty());
+                        ps.setLong(4, booking.getAmount().minorUnits());
+                        ps.setString(5, booking.getStatus().name());
+                        ps.setTimestamp(6, toTimestamp(booking.getHoldExpiresAt()));
+                        ps.setTimestamp(7, toTimestamp(booking.getCreatedAt()));
+                        ps.setTimestamp(8, toTimestamp(booking.getUpdatedAt()));
+                        ps.setLong(9, booking.getAmount().minorUnits());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    /**
+     * Write the PAID transition of several bookings in one batch. Status, payment reference and paid time are
+     * taken from the given bookings, which are expected to be locked by the caller.
+     */
+    public void markPaid(List<BookingEntity> bookings) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MARK_PAID_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BookingEntity booking = bookings.get(i);
+                ps.setString(1, booking.getStatus().name());
+                ps.setString(2, booking.getPaymentRef());
+                ps.setTimestamp(3, toTimestamp(booking.getPaidAt()));
+                ps.setTimestamp(4, now);
+                ps.setLong(5, booking.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bookings.size();
+            }
+        });
+    }
+
+    /**
+     * Hand every booking that was ever paid to {@code handler}, whatever its status now. Rows are streamed from
+     * the server one at a time rather than buffered, so any number of bookings fits in memory.
+     */
+    public void streamPaidBookings(RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(PAID_BOOKINGS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Hand every paid booking written at or after {@code since} to {@code handler}: new payments and status changes,
+     * on any node.
+     */
+    public void streamPaidBookingsUpdatedSince(LocalDateTime since, RowCallbackHandler handler) {
+        jdbcTemplate.query(PAID_BOOKINGS_UPDATED_SINCE_SQL, handler, Timestamp.valueOf(since));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
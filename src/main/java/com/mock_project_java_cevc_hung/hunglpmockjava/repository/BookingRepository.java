@@ -1,17 +1,84 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.BookingStatusProjection;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.PendingHoldProjection;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<BookingEntity, Long>, JpaSpecificationExecutor<BookingEntity> {
     
     Page<BookingEntity> findByUserId(Long userId, Pageable pageable);
     List<BookingEntity> findTop5ByOrderByCreatedAtDesc();
+    List<BookingEntity> findByStatus(BookingEntity.Status status, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(b.qty), 0) FROM BookingEntity b WHERE b.tour.id = :tourId AND b.status IN :statuses")
+    long sumQtyByTourIdAndStatusIn(@Param("tourId") Long tourId,
+                                   @Param("statuses") Collection<BookingEntity.Status> statuses);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BookingEntity b WHERE b.id = :id")
+    Optional<BookingEntity> findLockedById(@Param("id") Long id);
+
+    /**
+     * Lock several bookings in id order so concurrent batch consumers queue behind each other instead of deadlocking.
+     * The entities are loaded read-only: callers write their changes back with a JDBC batch, not a flush.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("SELECT b FROM BookingEntity b WHERE b.id IN :ids ORDER BY b.id")
+    List<BookingEntity> findAllLockedByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id AS id, b.user.id AS userId, b.status AS status, b.paymentRef AS paymentRef, " +
+           "b.paidAt AS paidAt FROM BookingEntity b WHERE b.id = :id")
+    Optional<BookingStatusProjection> findStatusById(@Param("id") Long id);
+
+    @Query("SELECT b.id AS id, b.user.id AS userId, b.status AS status, b.paymentRef AS paymentRef, " +
+           "b.paidAt AS paidAt FROM BookingEntity b WHERE b.id IN :ids AND b.status <> :status")
+    List<BookingStatusProjection> findStatusByIdInAndStatusNot(@Param("ids") Collection<Long> ids,
+                                                               @Param("status") BookingEntity.Status status);
+
+    // Seat holds
+    @Query("SELECT b.id AS id, b.holdExpiresAt AS holdExpiresAt, b.createdAt AS createdAt " +
+           "FROM BookingEntity b WHERE b.status = :status")
+    List<PendingHoldProjection> findHoldsByStatus(@Param("status") BookingEntity.Status status);
+
+    @Query("SELECT b.id FROM BookingEntity b WHERE b.status = :status AND b.holdExpiresAt < :cutoff")
+    List<Long> findOverdueHoldIds(@Param("status") BookingEntity.Status status,
+                                  @Param("cutoff") LocalDateTime cutoff,
+                                  Pageable pageable);
+
+    /**
+     * Lock the bookings among {@code ids} whose hold is really over, so a concurrent payment cannot flip one of
+     * them to PAID between this read and the cancelling update.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BookingEntity b WHERE b.id IN :ids AND b.status = :status " +
+           "AND (b.holdExpiresAt IS NULL OR b.holdExpiresAt <= :now)")
+    List<BookingEntity> findExpiredHoldsForUpdate(@Param("ids") Collection<Long> ids,
+                                                  @Param("status") BookingEntity.Status status,
+                                                  @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BookingEntity b SET b.status = :status, b.cancelledAt = :cancelledAt, " +
+           "b.updatedAt = CURRENT_TIMESTAMP WHERE b.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") BookingEntity.Status status,
+                           @Param("cancelledAt") LocalDateTime cancelledAt);
 }
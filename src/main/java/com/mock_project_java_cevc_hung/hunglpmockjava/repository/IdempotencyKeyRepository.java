@@ -0,0 +1,23 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, Long> {
+
+    Optional<IdempotencyKeyEntity> findByScopeAndUserIdAndIdempotencyKey(IdempotencyKeyEntity.Scope scope,
+                                                                         Long userId,
+                                                                         String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKeyEntity k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,56 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Claim the oldest unsent events. Rows locked by a relay on another node are skipped
+     * ({@code FOR UPDATE SKIP LOCKED}), so relays share the backlog instead of publishing the same rows.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEventEntity e WHERE e.status = :status ORDER BY e.id")
+    List<OutboxEventEntity> lockBatch(@Param("status") OutboxEventEntity.Status status, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEventEntity e SET e.status = :status, e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("status") OutboxEventEntity.Status status,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    long countByStatus(OutboxEventEntity.Status status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEventEntity e WHERE e.status = :status")
+    Optional<LocalDateTime> findOldestCreatedAt(@Param("status") OutboxEventEntity.Status status);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEventEntity e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteSentBefore(@Param("status") OutboxEventEntity.Status status, @Param("before") LocalDateTime before);
+
+    /**
+     * Events already handed to a transport whose booking has still not been marked paid, oldest first.
+     */
+    @Query("SELECT e FROM OutboxEventEntity e, BookingEntity b WHERE b.id = e.aggregateId " +
+           "AND e.status = :status AND e.sentAt >= :since AND b.status = :bookingStatus ORDER BY e.id")
+    List<OutboxEventEntity> findSentForBookingsIn(@Param("status") OutboxEventEntity.Status status,
+                                                  @Param("since") LocalDateTime since,
+                                                  @Param("bookingStatus") BookingEntity.Status bookingStatus);
+}
@@ -0,0 +1,105 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.PaymentNotificationEntity;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plain JDBC access to {@code payment_notifications}: the webhook stores notifications in multi-row batches and the
+ * processor writes outcomes the same way.
+ */
+@Repository
+public class PaymentNotificationJdbcRepository {
+
+    // A concurrent insert of the same payment reference on another node is dropped, not failed. The legacy
+    // amount column is still written for nodes on the previous release.
+    private static final String INSERT_SQL =
+            "INSERT INTO payment_notifications (payment_ref, booking_id, amount_minor, gateway_status, paid_at, payload, " +
+            "status, created_at, updated_at, amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ? / 100) " +
+            "ON DUPLICATE KEY UPDATE payment_ref = payment_ref";
+
+    private static final String MARK_PROCESSED_SQL =
+            "UPDATE payment_notifications SET status = ?, reason = ?, processed_at = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentNotificationJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Payment references among {@code paymentRefs} that are already stored.
+     */
+    public Set<String> findExistingRefs(Collection<String> paymentRefs) {
+        if (paymentRefs.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(paymentRefs.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT payment_ref FROM payment_notifications WHERE payment_ref IN (" + placeholders + ")",
+                String.class, paymentRefs.toArray()));
+    }
+
+    public void insertAll(List<PaymentNotificationEntity> notifications) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PaymentNotificationEntity notification = notifications.get(i);
+                ps.setString(1, notification.getPaymentRef());
+                ps.setLong(2, notification.getBookingId());
+                ps.setLong(3, notification.getAmount().minorUnits());
+                ps.setString(4, notification.getGatewayStatus());
+                ps.setTimestamp(5, toTimestamp(notification.getPaidAt()));
+                ps.setString(6, notification.getPayload());
+                ps.setString(7, notification.getStatus().name());
+                ps.setTimestamp(8, now);
+                ps.setTimestamp(9, now);
+                ps.setLong(10, notification.getAmount().minorUnits());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return notifications.size();
+            }
+        });
+    }
+
+    /**
+     * Record the processing outcome of several notifications in one batch.
+     */
+    public void markProcessed(List<PaymentNotificationEntity> notifications) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MARK_PROCESSED_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PaymentNotificationEntity notification = notifications.get(i);
+                ps.setString(1, notification.getStatus().name());
+                ps.setString(2, notification.getReason());
+                ps.setTimestamp(3, now);
+                ps.setTimestamp(4, now);
+                ps.setLong(5, notification.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return notifications.size();
+            }
+        });
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
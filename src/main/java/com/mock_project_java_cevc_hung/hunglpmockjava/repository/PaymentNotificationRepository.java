@@ -0,0 +1,33 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.PaymentNotificationEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentNotificationRepository extends JpaRepository<PaymentNotificationEntity, Long> {
+
+    /**
+     * Claim the oldest unprocessed notifications, skipping rows another node is already processing
+     * ({@code FOR UPDATE SKIP LOCKED}). The entities are read-only: outcomes are written with a JDBC batch.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints({
+        @QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT n FROM PaymentNotificationEntity n WHERE n.status = :status ORDER BY n.id")
+    List<PaymentNotificationEntity> lockBatch(@Param("status") PaymentNotificationEntity.Status status,
+                                              Pageable pageable);
+
+    long countByStatus(PaymentNotificationEntity.Status status);
+}
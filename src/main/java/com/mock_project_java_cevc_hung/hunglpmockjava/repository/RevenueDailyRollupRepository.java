@@ -0,0 +1,49 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.RevenueDailyRollupEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.CategoryRevenueProjection;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.MonthlyRevenueProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueDailyRollupRepository extends JpaRepository<RevenueDailyRollupEntity, Long> {
+
+    @Query(value = "SELECT COALESCE(SUM(revenue_minor), 0) FROM revenue_daily_rollups", nativeQuery = true)
+    long sumRevenueMinor();
+
+    @Query(
+            value = """
+                    SELECT DATE_FORMAT(r.revenue_date, '%Y-%m') AS period,
+                           COALESCE(SUM(r.revenue_minor), 0) AS totalRevenueMinor,
+                           COALESCE(SUM(r.bookings), 0) AS totalBookings
+                    FROM revenue_daily_rollups r
+                    WHERE r.revenue_date >= :startDate
+                    GROUP BY DATE_FORMAT(r.revenue_date, '%Y-%m')
+                    ORDER BY period
+                    """,
+            nativeQuery = true
+    )
+    List<MonthlyRevenueProjection> findMonthlyRevenueFrom(@Param("startDate") LocalDate startDate);
+
+    @Query(
+            value = """
+                    SELECT c.id AS categoryId,
+                           COALESCE(c.name, 'Uncategorized') AS categoryName,
+                           COALESCE(SUM(r.revenue_minor), 0) AS totalRevenueMinor,
+                           COALESCE(SUM(r.bookings), 0) AS totalBookings
+                    FROM revenue_daily_rollups r
+                    LEFT JOIN categories c ON r.category_id = c.id
+                    GROUP BY c.id, c.name
+                    ORDER BY totalRevenueMinor DESC
+                    LIMIT :limit
+                    """,
+            nativeQuery = true
+    )
+    List<CategoryRevenueProjection> findTopCategoriesByRevenue(@Param("limit") int limit);
+}
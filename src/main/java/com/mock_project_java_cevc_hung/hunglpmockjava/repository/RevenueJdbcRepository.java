@@ -0,0 +1,57 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.RevenueEntity;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC writes for revenue rows, used where revenue is recorded for many payments at once.
+ */
+@Repository
+public class RevenueJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revenues (date, total_revenue_minor, tour_revenue_minor, total_bookings, booking_id, created_at, " +
+            "updated_at, total_revenue, tour_revenue) VALUES (?, ?, ?, ?, ?, ?, ?, ? / 100, ? / 100)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevenueJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert revenue rows in one batch. Generated ids are not read back.
+     */
+    public void insertAll(List<RevenueEntity> revenues) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RevenueEntity revenue = revenues.get(i);
+                ps.setDate(1, Date.valueOf(revenue.getDate()));
+                ps.setLong(2, revenue.getTotalRevenue().minorUnits());
+                ps.setLong(3, revenue.getTourRevenue().minorUnits());
+                ps.setInt(4, revenue.getTotalBookings());
+                ps.setLong(5, revenue.getBooking().getId());
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+                ps.setLong(8, revenue.getTotalRevenue().minorUnits());
+                ps.setLong(9, revenue.getTourRevenue().minorUnits());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return revenues.size();
+            }
+        });
+    }
+}
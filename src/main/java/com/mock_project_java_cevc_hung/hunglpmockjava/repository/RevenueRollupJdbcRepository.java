@@ -0,0 +1,161 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSeriesRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueSeriesResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.RevenueDailyRollupEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC access to {@code revenue_daily_rollups}: the incremental upsert, bucketed reads and the rebuild from
+ * {@code revenues}.
+ */
+@Repository
+public class RevenueRollupJdbcRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO revenue_daily_rollups (revenue_date, category_id, tour_id, revenue_minor, bookings, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE revenue_minor = revenue_minor + VALUES(revenue_minor), " +
+            "bookings = bookings + VALUES(bookings), updated_at = VALUES(updated_at)";
+
+    private static final String DELETE_RANGE_SQL =
+            "DELETE FROM revenue_daily_rollups WHERE revenue_date BETWEEN ? AND ?";
+
+    private static final String SUM_REVENUES_SQL =
+            "SELECT r.date AS revenue_date, COALESCE(t.category_id, 0) AS category_id, COALESCE(b.tour_id, 0) AS tour_id, " +
+            "COALESCE(SUM(r.total_revenue_minor), 0) AS revenue_minor, COALESCE(SUM(r.total_bookings), 0) AS bookings " +
+            "FROM revenues r " +
+            "LEFT JOIN bookings b ON r.booking_id = b.id " +
+            "LEFT JOIN tours t ON b.tour_id = t.id " +
+            "WHERE r.date BETWEEN ? AND ? " +
+            "GROUP BY r.date, COALESCE(t.category_id, 0), COALESCE(b.tour_id, 0) " +
+            "ORDER BY r.date, COALESCE(t.category_id, 0), COALESCE(b.tour_id, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevenueRollupJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add each increment to its (date, category, tour) row, creating the row when it is missing. Callers pass one
+     * increment per key in key order, so concurrent batches lock rows in the same order.
+     */
+    public void addAll(List<RevenueDailyRollupEntity> increments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RevenueDailyRollupEntity increment = increments.get(i);
+                ps.setDate(1, Date.valueOf(increment.getRevenueDate()));
+                ps.setLong(2, increment.getCategoryId());
+                ps.setLong(3, increment.getTourId());
+                ps.setLong(4, increment.getRevenue().minorUnits());
+                ps.setInt(5, increment.getBookings());
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return increments.size();
+            }
+        });
+    }
+
+    /**
+     * Revenue between {@code from} and {@code to} (inclusive) summed per bucket, in bucket order. Buckets without
+     * revenue are absent; each point carries its bucket's first day as {@code start} and no {@code end}.
+     *
+     * @param categoryId only this category when not {@code null}
+     * @param tourId     only this tour when not {@code null}
+     */
+    public List<RevenueSeriesResponse.Point> sumByBucket(LocalDate from, LocalDate to,
+                                                         RevenueSeriesRequest.Granularity granularity,
+                                                         Long categoryId, Long tourId) {
+        String bucket = bucketExpression(granularity);
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT ").append(bucket).append(" AS bucket, ")
+                .append("SUM(r.revenue_minor) AS revenue_minor, SUM(r.bookings) AS bookings ")
+                .append("FROM revenue_daily_rollups r WHERE r.revenue_date BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(4);
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        if (categoryId != null) {
+            sql.append(" AND r.category_id = ?");
+            args.add(categoryId);
+        }
+        if (tourId != null) {
+            sql.append(" AND r.tour_id = ?");
+            args.add(tourId);
+        }
+        sql.append(" GROUP BY bucket ORDER BY bucket");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> RevenueSeriesResponse.Point.builder()
+                .start(rs.getDate("bucket").toLocalDate())
+                .revenue(Money.ofMinor(rs.getLong("revenue_minor")))
+                .bookings(rs.getLong("bookings"))
+                .build(), args.toArray());
+    }
+
+    /**
+     * Replace the rollups of {@code from}..{@code to} (inclusive) with sums of the raw revenue rows. Must run in a
+     * transaction so readers never see the range empty.
+     * <p>The delete locks the range of the rollup key first. The sums are then read with a plain, non-locking
+     * {@code SELECT} rather than {@code INSERT ... SELECT}, which would take shared locks on the bookings that a
+     * payment batch holds while it waits for this range.</p>
+     *
+     * @return rollup rows written
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        jdbcTemplate.update(DELETE_RANGE_SQL, Date.valueOf(from), Date.valueOf(to));
+        List<RevenueDailyRollupEntity> sums = jdbcTemplate.query(SUM_REVENUES_SQL, (rs, rowNum) ->
+                RevenueDailyRollupEntity.builder()
+                        .revenueDate(rs.getDate("revenue_date").toLocalDate())
+                        .categoryId(rs.getLong("category_id"))
+                        .tourId(rs.getLong("tour_id"))
+                        .revenue(Money.ofMinor(rs.getLong("revenue_minor")))
+                        .bookings(rs.getInt("bookings"))
+                        .build(), Date.valueOf(from), Date.valueOf(to));
+        if (!sums.isEmpty()) {
+            addAll(sums);
+        }
+        return sums.size();
+    }
+
+    public boolean hasRollups() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM revenue_daily_rollups)", Boolean.class));
+    }
+
+    /**
+     * Earliest and latest revenue date, or {@code null} when there is no revenue yet.
+     */
+    public LocalDate[] findRevenueDateRange() {
+        return jdbcTemplate.queryForObject("SELECT MIN(date), MAX(date) FROM revenues", (rs, rowNum) -> {
+            Date first = rs.getDate(1);
+            Date last = rs.getDate(2);
+            return first != null ? new LocalDate[]{first.toLocalDate(), last.toLocalDate()} : null;
+        });
+    }
+
+    private static String bucketExpression(RevenueSeriesRequest.Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> "r.revenue_date";
+            case WEEK -> "DATE_SUB(r.revenue_date, INTERVAL WEEKDAY(r.revenue_date) DAY)";
+            case MONTH -> "DATE_SUB(r.revenue_date, INTERVAL DAYOFMONTH(r.revenue_date) - 1 DAY)";
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.SeatLeaseEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SeatLeaseRepository extends JpaRepository<SeatLeaseEntity, Long> {
+
+    Optional<SeatLeaseEntity> findByTourIdAndNodeId(Long tourId, String nodeId);
+
+    List<SeatLeaseEntity> findByNodeId(String nodeId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM SeatLeaseEntity l WHERE l.id = :id")
+    Optional<SeatLeaseEntity> findLockedById(@Param("id") Long id);
+
+    @Query("SELECT l.id FROM SeatLeaseEntity l WHERE l.expiresAt < :now")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now);
+
+    @Query("SELECT COALESCE(SUM(l.seats), 0) FROM SeatLeaseEntity l WHERE l.tour.id = :tourId")
+    long sumSeatsByTourId(@Param("tourId") Long tourId);
+
+    /**
+     * Sell {@code qty} seats out of a lease. Only the owning node touches its lease row, so this never contends
+     * with other nodes selling the same tour.
+     */
+    @Modifying
+    @Query("UPDATE SeatLeaseEntity l SET l.seats = l.seats - :qty WHERE l.id = :id AND l.seats >= :qty")
+    int consumeSeats(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying
+    @Query("UPDATE SeatLeaseEntity l SET l.seats = l.seats + :qty WHERE l.id = :id")
+    int returnSeats(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying
+    @Query("UPDATE SeatLeaseEntity l SET l.expiresAt = :expiresAt WHERE l.nodeId = :nodeId")
+    int renewLeases(@Param("nodeId") String nodeId, @Param("expiresAt") LocalDateTime expiresAt);
+}
@@ -0,0 +1,13 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourImportErrorEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TourImportErrorRepository extends JpaRepository<TourImportErrorEntity, Long> {
+
+    List<TourImportErrorEntity> findByJobIdOrderByRowNumberAsc(Long jobId);
+}
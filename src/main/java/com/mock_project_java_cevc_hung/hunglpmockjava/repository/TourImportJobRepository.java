@@ -0,0 +1,86 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourImportJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TourImportJobRepository extends JpaRepository<TourImportJobEntity, Long> {
+
+    List<TourImportJobEntity> findTop20ByOrderByIdDesc();
+
+    /**
+     * Jobs any node may claim: queued ones and running ones whose owner stopped sending heartbeats.
+     */
+    @Query("SELECT j FROM TourImportJobEntity j WHERE j.status = :queued OR (j.status = :running " +
+           "AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)) ORDER BY j.id")
+    List<TourImportJobEntity> findClaimable(@Param("queued") TourImportJobEntity.Status queued,
+                                            @Param("running") TourImportJobEntity.Status running,
+                                            @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Make {@code owner} the runner of a queued job, or of a running job whose lease expired, and start a new run
+     * from its checkpoint.
+     *
+     * @return 1 when the job was claimed, 0 when another node holds it or it is no longer unfinished
+     */
+    @Modifying
+    @Query("UPDATE TourImportJobEntity j SET j.status = :running, j.owner = :owner, j.heartbeatAt = :now, " +
+           "j.startedAt = COALESCE(j.startedAt, :now), j.resumedAt = :now, j.rowsAtResume = j.totalRows, " +
+           "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND (j.status = :queued OR (j.status = :running " +
+           "AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)))")
+    int claim(@Param("id") Long id,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore,
+              @Param("queued") TourImportJobEntity.Status queued,
+              @Param("running") TourImportJobEntity.Status running);
+
+    @Modifying
+    @Query("UPDATE TourImportJobEntity j SET j.heartbeatAt = :now WHERE j.owner = :owner AND j.status = :running")
+    int renewLeases(@Param("owner") String owner,
+                    @Param("now") LocalDateTime now,
+                    @Param("running") TourImportJobEntity.Status running);
+
+    /**
+     * Move the checkpoint of a job forward and add the counts of the rows behind it, as long as {@code owner}
+     * still holds the job.
+     *
+     * @return 1 when the checkpoint moved, 0 when the lease was lost
+     */
+    @Modifying
+    @Query("UPDATE TourImportJobEntity j SET j.position = :position, j.rowNumber = :rowNumber, " +
+           "j.totalRows = j.totalRows + :rows, j.successCount = j.successCount + :inserted, " +
+           "j.errorCount = j.errorCount + :errors, j.heartbeatAt = :now, j.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE j.id = :id AND j.owner = :owner AND j.status = :running")
+    int advance(@Param("id") Long id,
+                @Param("owner") String owner,
+                @Param("position") long position,
+                @Param("rowNumber") int rowNumber,
+                @Param("rows") int rows,
+                @Param("inserted") int inserted,
+                @Param("errors") int errors,
+                @Param("now") LocalDateTime now,
+                @Param("running") TourImportJobEntity.Status running);
+
+    /**
+     * End the run of {@code owner}.
+     *
+     * @return 1 when the job was finished, 0 when the lease was lost
+     */
+    @Modifying
+    @Query("UPDATE TourImportJobEntity j SET j.status = :status, j.error = :error, j.finishedAt = :now, " +
+           "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND j.owner = :owner AND j.status = :running")
+    int finish(@Param("id") Long id,
+               @Param("owner") String owner,
+               @Param("status") TourImportJobEntity.Status status,
+               @Param("error") String error,
+               @Param("now") LocalDateTime now,
+               @Param("running") TourImportJobEntity.Status running);
+}
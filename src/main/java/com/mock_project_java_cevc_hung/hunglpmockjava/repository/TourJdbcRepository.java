@@ -0,0 +1,83 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC inserts for tours. Hibernate cannot batch inserts of IDENTITY entities, so bulk imports go through
+ * here in JDBC batches on the connection of the surrounding transaction.
+ */
+@Repository
+public class TourJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO tours (title, description, price_minor, location, thumbnail_url, seats_total, seats_available, " +
+            "rating_avg, start_date, end_date, status, booking_mode, category_id, created_at, updated_at, price) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? / 100)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TourJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert tours in one batch. Generated ids are not read back.
+     */
+    public void insertAll(List<TourEntity> tours) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                setInsertValues(ps, tours.get(i), now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return tours.size();
+            }
+        });
+    }
+
+    public void insert(TourEntity tour) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, ps -> setInsertValues(ps, tour, now));
+    }
+
+    private static void setInsertValues(PreparedStatement ps, TourEntity tour, Timestamp now) throws SQLException {
+        ps.setString(1, tour.getTitle());
+        ps.setString(2, tour.getDescription());
+        if (tour.getPrice() != null) {
+            ps.setLong(3, tour.getPrice().minorUnits());
+            ps.setLong(16, tour.getPrice().minorUnits());
+        } else {
+            ps.setNull(3, Types.BIGINT);
+            ps.setNull(16, Types.BIGINT);
+        }
+        ps.setString(4, tour.getLocation());
+        ps.setString(5, tour.getThumbnailUrl());
+        ps.setInt(6, tour.getSeatsTotal());
+        ps.setInt(7, tour.getSeatsAvailable());
+        ps.setDouble(8, tour.getRatingAvg());
+        ps.setTimestamp(9, toTimestamp(tour.getStartDate()));
+        ps.setTimestamp(10, toTimestamp(tour.getEndDate()));
+        ps.setString(11, tour.getStatus().name());
+        ps.setString(12, tour.getBookingMode().name());
+        ps.setLong(13, tour.getCategory().getId());
+        ps.setTimestamp(14, now);
+        ps.setTimestamp(15, now);
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
@@ -1,14 +1,18 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
 
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -40,4 +44,45 @@ public interface TourRepository extends JpaRepository<TourEntity, Long>, JpaSpec
     Page<TourEntity> findByCategoryIdAndTitleContainingIgnoreCaseAndStatus(Long categoryId, String keyword, TourEntity.Status status, Pageable pageable);
     
     java.util.Optional<TourEntity> findByIdAndStatus(Long id, TourEntity.Status status);
+
+    @Query("SELECT t.bookingMode FROM TourEntity t WHERE t.id = :id")
+    java.util.Optional<TourEntity.BookingMode> findBookingModeById(@Param("id") Long id);
+
+    // Seat inventory
+    /**
+     * Lock several tours with one query. Rows are locked in primary key order, so two checkouts sharing tours
+     * queue behind each other instead of deadlocking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TourEntity t WHERE t.id IN :ids ORDER BY t.id")
+    List<TourEntity> findAllForUpdateOrderById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lock a tour row and read its seat count from the row itself. The seat updates below are bulk statements
+     * that leave a {@link TourEntity} already loaded in the transaction untouched, so its {@code seatsAvailable}
+     * can be older than the row.
+     */
+    @Query(value = "SELECT seats_available FROM tours WHERE id = :id FOR UPDATE", nativeQuery = true)
+    java.util.Optional<Integer> findSeatsAvailableForUpdate(@Param("id") Long id);
+
+    /**
+     * Atomically take {@code qty} seats from a tour. The guard on {@code seatsAvailable} is evaluated by the
+     * database under the row lock of the UPDATE itself, so concurrent bookings cannot oversell.
+     *
+     * @return 1 when the seats were reserved, 0 when the tour does not exist or has not enough seats left
+     */
+    @Modifying
+    @Query("UPDATE TourEntity t SET t.seatsAvailable = t.seatsAvailable - :qty, t.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE t.id = :tourId AND t.seatsAvailable >= :qty")
+    int reserveSeats(@Param("tourId") Long tourId, @Param("qty") int qty);
+
+    /**
+     * Atomically give {@code qty} seats back to a tour.
+     *
+     * @return 1 when the seats were released, 0 when the tour does not exist
+     */
+    @Modifying
+    @Query("UPDATE TourEntity t SET t.seatsAvailable = t.seatsAvailable + :qty, t.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE t.id = :tourId")
+    int releaseSeats(@Param("tourId") Long tourId, @Param("qty") int qty);
 }
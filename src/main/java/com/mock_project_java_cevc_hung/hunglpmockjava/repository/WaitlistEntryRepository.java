@@ -0,0 +1,22 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.WaitlistEntryEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntryEntity, Long> {
+
+    List<WaitlistEntryEntity> findByTourIdAndStatusOrderByIdAsc(Long tourId, WaitlistEntryEntity.Status status,
+                                                                Pageable pageable);
+
+    Optional<WaitlistEntryEntity> findFirstByTourIdAndUserIdOrderByIdDesc(Long tourId, Long userId);
+
+    boolean existsByTourIdAndUserIdAndStatus(Long tourId, Long userId, WaitlistEntryEntity.Status status);
+
+    long countByTourIdAndStatusAndIdLessThan(Long tourId, WaitlistEntryEntity.Status status, Long id);
+}
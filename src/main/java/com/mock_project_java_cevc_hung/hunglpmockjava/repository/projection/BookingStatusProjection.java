@@ -0,0 +1,13 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+
+import java.time.LocalDateTime;
+
+public interface BookingStatusProjection {
+    Long getId();
+    Long getUserId();
+    BookingEntity.Status getStatus();
+    String getPaymentRef();
+    LocalDateTime getPaidAt();
+}
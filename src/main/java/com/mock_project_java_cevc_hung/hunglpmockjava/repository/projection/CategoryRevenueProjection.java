@@ -1,9 +1,15 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+
 public interface CategoryRevenueProjection {
     Long getCategoryId();
     String getCategoryName();
-    Double getTotalRevenue();
+    Long getTotalRevenueMinor();
     Integer getTotalBookings();
+
+    default Money getTotalRevenue() {
+        return Money.ofMinor(getTotalRevenueMinor());
+    }
 }
 
@@ -1,8 +1,14 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+
 public interface MonthlyRevenueProjection {
     String getPeriod();
-    Double getTotalRevenue();
+    Long getTotalRevenueMinor();
     Integer getTotalBookings();
+
+    default Money getTotalRevenue() {
+        return Money.ofMinor(getTotalRevenueMinor());
+    }
 }
 
@@ -0,0 +1,9 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface PendingHoldProjection {
+    Long getId();
+    LocalDateTime getHoldExpiresAt();
+    LocalDateTime getCreatedAt();
+}
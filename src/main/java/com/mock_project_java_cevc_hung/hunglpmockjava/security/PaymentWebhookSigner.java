@@ -0,0 +1,75 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * HMAC-SHA256 signatures of payment gateway webhooks.
+ * <p>The gateway signs {@code <timestamp>.<raw body>} with the shared secret and sends
+ * {@code sha256=<hex digest>} in {@value #SIGNATURE_HEADER} along with the Unix timestamp in
+ * {@value #TIMESTAMP_HEADER}. Timestamps older than {@code tolerance-seconds} are refused so a captured request
+ * cannot be replayed later.</p>
+ */
+@Component
+public class PaymentWebhookSigner {
+
+    public static final String SIGNATURE_HEADER = "X-Gateway-Signature";
+    public static final String TIMESTAMP_HEADER = "X-Gateway-Timestamp";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SCHEME = "sha256=";
+
+    private final SecretKeySpec key;
+    private final long toleranceSeconds;
+
+    public PaymentWebhookSigner(
+        @Value("${app.payment.webhook.secret}") String secret,
+        @Value("${app.payment.webhook.tolerance-seconds:300}") long toleranceSeconds
+    ) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.toleranceSeconds = toleranceSeconds;
+    }
+
+    public String sign(long timestampSeconds, byte[] body) {
+        return SCHEME + HexFormat.of().formatHex(digest(timestampSeconds, body));
+    }
+
+    /**
+     * Check a received signature in constant time.
+     */
+    public boolean verify(String timestamp, String signature, byte[] body) {
+        if (timestamp == null || signature == null || !signature.startsWith(SCHEME)) {
+            return false;
+        }
+        long timestampSeconds;
+        byte[] received;
+        try {
+            timestampSeconds = Long.parseLong(timestamp.trim());
+            received = HexFormat.of().parseHex(signature.substring(SCHEME.length()).trim());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        if (Math.abs(now - timestampSeconds) > toleranceSeconds) {
+            return false;
+        }
+        return MessageDigest.isEqual(digest(timestampSeconds, body), received);
+    }
+
+    private byte[] digest(long timestampSeconds, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update((timestampSeconds + ".").getBytes(StandardCharsets.UTF_8));
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot compute webhook signature", e);
+        }
+    }
+}
@@ -9,12 +9,19 @@ import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.CsvColumn;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.CsvExport;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingPaidEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingStatusChangedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.SeatsReleasedEvent;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
@@ -23,30 +30,65 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
 @Transactional
 public class BookingService {
+
+    private static final DateTimeFormatter EXPORT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final CsvExport BOOKINGS_EXPORT = new CsvExport("bookings_export",
+            "SELECT b.id, b.user_id, u.name AS user_name, u.email AS user_email, b.tour_id, t.title AS tour_title, " +
+            "b.qty, b.amount_minor, b.status, b.payment_ref, b.paid_at, b.cancelled_at, b.created_at " +
+            "FROM bookings b " +
+            "LEFT JOIN users u ON b.user_id = u.id " +
+            "LEFT JOIN tours t ON b.tour_id = t.id " +
+            "ORDER BY b.id",
+            List.of(
+                    CsvColumn.text("ID", "id"),
+                    CsvColumn.text("User ID", "user_id"),
+                    CsvColumn.text("User Name", "user_name"),
+                    CsvColumn.text("User Email", "user_email"),
+                    CsvColumn.text("Tour ID", "tour_id"),
+                    CsvColumn.text("Tour Title", "tour_title"),
+                    CsvColumn.text("Quantity", "qty"),
+                    CsvColumn.money("Amount", "amount_minor", ""),
+                    CsvColumn.text("Status", "status"),
+                    CsvColumn.text("Payment Ref", "payment_ref"),
+                    CsvColumn.dateTime("Paid At", "paid_at", EXPORT_DATE_FORMATTER),
+                    CsvColumn.dateTime("Cancelled At", "cancelled_at", EXPORT_DATE_FORMATTER),
+                    CsvColumn.dateTime("Created At", "created_at", EXPORT_DATE_FORMATTER)),
+            null);
+
     private final BookingRepository bookingRepository;
     private final TourRepository tourRepository;
     private final UserRepository userRepository;
     private final MessageSource messageSource;
+    private final SeatLeaseAllocator seatLeaseAllocator;
+    private final SeatHoldExpiryService seatHoldExpiryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.booking.amount-tolerance:0.01}")
-    private java.math.BigDecimal amountTolerance;
+    private Money amountTolerance = Money.ofMinor(1);
 
     public BookingService(
         BookingRepository bookingRepository,
         TourRepository tourRepository,
         UserRepository userRepository,
-        MessageSource messageSource
+        MessageSource messageSource,
+        SeatLeaseAllocator seatLeaseAllocator,
+        SeatHoldExpiryService seatHoldExpiryService,
+        ApplicationEventPublisher eventPublisher
     ) {
         this.bookingRepository = bookingRepository;
         this.tourRepository = tourRepository;
         this.userRepository = userRepository;
         this.messageSource = messageSource;
+        this.seatLeaseAllocator = seatLeaseAllocator;
+        this.seatHoldExpiryService = seatHoldExpiryService;
+        this.eventPublisher = eventPublisher;
     }
     
     private String getMessage(String code, Object... args) {
@@ -70,7 +112,7 @@ public class BookingService {
         Integer newQty = request.getQty();
         int qtyDiff = newQty - oldQty;
         
-        if (qtyDiff != 0) {
+        if (qtyDiff != 0 && holdsSeats(booking.getStatus())) {
             updateTourSeats(booking.getTour(), qtyDiff);
         }
         
@@ -83,21 +125,35 @@ public class BookingService {
 
     public void deleteBooking(Long id) {
         BookingEntity booking = findBookingById(id);
+        if (holdsSeats(booking.getStatus())) {
+            updateTourSeats(booking.getTour(), -booking.getQty());
+        }
         bookingRepository.delete(booking);
     }
 
     public BookingResponse cancelBooking(Long id) {
         BookingEntity booking = findBookingById(id);
+        if (holdsSeats(booking.getStatus())) {
+            updateTourSeats(booking.getTour(), -booking.getQty());
+        }
         booking.setStatus(BookingEntity.Status.CANCELLED);
         booking.setCancelledAt(java.time.LocalDateTime.now());
         
         BookingEntity savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(savedBooking));
         return convertToResponse(savedBooking);
     }
 
     public BookingResponse toggleBookingStatus(Long id, BookingEntity.Status newStatus) {
         BookingEntity booking = findBookingById(id);
         
+        boolean heldSeats = holdsSeats(booking.getStatus());
+        if (heldSeats && !holdsSeats(newStatus)) {
+            updateTourSeats(booking.getTour(), -booking.getQty());
+        } else if (!heldSeats && holdsSeats(newStatus)) {
+            updateTourSeats(booking.getTour(), booking.getQty());
+        }
+        
         booking.setStatus(newStatus);
         if (newStatus == BookingEntity.Status.PAID) {
             booking.setPaidAt(java.time.LocalDateTime.now());
@@ -105,9 +161,18 @@ public class BookingService {
             booking.setCancelledAt(java.time.LocalDateTime.now());
         } else if (newStatus == BookingEntity.Status.PENDING) {
             booking.setCancelledAt(null);
+            booking.setHoldExpiresAt(seatHoldExpiryService.newDeadline());
         }
         
         BookingEntity savedBooking = bookingRepository.save(booking);
+        if (newStatus == BookingEntity.Status.PENDING) {
+            seatHoldExpiryService.track(savedBooking.getId(), savedBooking.getHoldExpiresAt());
+        } else {
+            eventPublisher.publishEvent(BookingStatusChangedEvent.of(savedBooking));
+            if (newStatus == BookingEntity.Status.PAID) {
+                eventPublisher.publishEvent(BookingPaidEvent.of(savedBooking));
+            }
+        }
         return convertToResponse(savedBooking);
     }
     
@@ -120,14 +185,11 @@ public class BookingService {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(getMessage("booking.api.error.user.not_found", userId)));
         
-        java.math.BigDecimal expectedAmount = tour.getPrice().multiply(new java.math.BigDecimal(request.getQty()));
-
-        java.math.BigDecimal actualAmount = java.math.BigDecimal.valueOf(request.getAmount());
-        java.math.BigDecimal diff = expectedAmount.subtract(actualAmount).abs();
-        java.math.BigDecimal tolerance = amountTolerance != null ? amountTolerance : new java.math.BigDecimal("0.01");
-        if (diff.compareTo(tolerance) > 0) {
-            throw new BusinessException(getMessage("booking.api.error.amount.mismatch",
-                    expectedAmount, actualAmount));
+        validateBookingAmount(tour, request.getQty(), request.getAmount());
+        
+        if (!reserveSeats(tour, request.getQty())) {
+            throw new BusinessException(getMessage("booking.api.error.tour.not_enough_seats",
+                    tour.getSeatsAvailable(), request.getQty()));
         }
         
         BookingEntity booking = BookingEntity.builder()
@@ -136,10 +198,11 @@ public class BookingService {
                 .qty(request.getQty())
                 .amount(request.getAmount())
                 .status(BookingEntity.Status.PENDING)
+                .holdExpiresAt(seatHoldExpiryService.newDeadline())
                 .build();
         
         BookingEntity savedBooking = bookingRepository.save(booking);
-        updateTourSeats(tour, request.getQty());
+        seatHoldExpiryService.track(savedBooking.getId(), savedBooking.getHoldExpiresAt());
         
         return convertToApiResponse(savedBooking);
     }
@@ -167,13 +230,32 @@ public class BookingService {
         booking.setStatus(BookingEntity.Status.CANCELLED);
         booking.setCancelledAt(java.time.LocalDateTime.now());
         BookingEntity savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(savedBooking));
         
         updateTourSeats(booking.getTour(), -booking.getQty());
         
         return convertToApiResponse(savedBooking);
     }
     
-    private ApiBookingResponse convertToApiResponse(BookingEntity booking) {
+    /**
+     * All bookings with their user and tour as a streamed CSV export
+     */
+    public CsvExport getBookingsExport() {
+        return BOOKINGS_EXPORT;
+    }
+
+    /**
+     * Check that the client-side amount matches {@code price * qty} within the configured tolerance. The check is
+     * integer arithmetic on minor units; only the error message builds decimals.
+     */
+    public void validateBookingAmount(TourEntity tour, Integer qty, Money amount) {
+        if (!amount.isWithinTotal(tour.getPrice(), qty, amountTolerance)) {
+            throw new BusinessException(getMessage("booking.api.error.amount.mismatch",
+                    tour.getPrice().times(qty).toBigDecimal(), amount.toBigDecimal()));
+        }
+    }
+    
+    public ApiBookingResponse convertToApiResponse(BookingEntity booking) {
         return ApiBookingResponse.builder()
                 .id(booking.getId())
                 .tourId(booking.getTour() != null ? booking.getTour().getId() : null)
@@ -232,15 +314,39 @@ public class BookingService {
                 .orElseThrow(() -> new ResourceNotFoundException(getMessage("booking.api.error.booking.not_found", id)));
     }
     
+    /**
+     * Apply a seat delta through the guarded single-statement updates on {@link TourRepository}, or through
+     * this node's seat lease for HOT tours. A positive {@code qtyDiff} takes seats, a negative one gives them
+     * back. The tour row is never read-modified-written here, so concurrent bookings cannot lose updates.
+     */
     private void updateTourSeats(TourEntity tour, int qtyDiff) {
-        int newAvailableSeats = tour.getSeatsAvailable() - qtyDiff;
-        
-        if (newAvailableSeats < 0) {
-            throw new BusinessException(getMessage("booking.api.error.booking.cannot_adjust_seats", tour.getSeatsAvailable(), qtyDiff));
+        if (qtyDiff > 0) {
+            if (!reserveSeats(tour, qtyDiff)) {
+                throw new BusinessException(getMessage("booking.api.error.booking.cannot_adjust_seats", tour.getSeatsAvailable(), qtyDiff));
+            }
+        } else if (qtyDiff < 0) {
+            releaseSeats(tour, -qtyDiff);
         }
-        
-        tour.setSeatsAvailable(newAvailableSeats);
-        tourRepository.save(tour);
+    }
+    
+    private boolean reserveSeats(TourEntity tour, int qty) {
+        if (seatLeaseAllocator.isHot(tour)) {
+            return seatLeaseAllocator.reserve(tour, qty);
+        }
+        return tourRepository.reserveSeats(tour.getId(), qty) > 0;
+    }
+    
+    private void releaseSeats(TourEntity tour, int qty) {
+        if (seatLeaseAllocator.isHot(tour)) {
+            seatLeaseAllocator.release(tour, qty);
+        } else {
+            tourRepository.releaseSeats(tour.getId(), qty);
+        }
+        eventPublisher.publishEvent(new SeatsReleasedEvent(tour.getId(), qty));
+    }
+    
+    private boolean holdsSeats(BookingEntity.Status status) {
+        return status == BookingEntity.Status.PENDING || status == BookingEntity.Status.PAID;
     }
     
     private void validateTourBooking(TourEntity tour, Integer requestedQty) {
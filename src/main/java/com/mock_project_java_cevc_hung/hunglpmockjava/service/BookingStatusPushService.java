@@ -0,0 +1,349 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiBookingStatusResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ServiceUnavailableException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.BookingStatusProjection;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the moment a booking leaves PENDING to clients waiting on it, instead of having them poll the bookings table.
+ * <p>A waiter is either a Server-Sent Events stream or a long-poll {@link DeferredResult}; both are parked with
+ * servlet async processing, so a waiting client holds a map entry and a connection but no thread. Changes are
+ * delivered after the changing transaction commits, from {@link BookingStatusChangedEvent}s published by the payment
+ * handlers and the seat hold expiry. A waiter is registered before the booking is read, so a change that commits
+ * in between is either seen by the read or delivered to the waiter.</p>
+ * <p>Events are only seen on the node that applied the change. For changes applied on another node, streams are
+ * checked against the database on every heartbeat with one query per {@value #RECHECK_BATCH_SIZE} bookings, and a
+ * long-poll reads the status again when it times out.</p>
+ */
+@Service
+public class BookingStatusPushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingStatusPushService.class);
+    private static final String STATUS_EVENT = "status";
+    private static final int RECHECK_BATCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final MessageSource messageSource;
+    private final ConcurrentMap<Long, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ExecutorService sender;
+    private final Counter streamPushCounter;
+    private final Counter pollPushCounter;
+
+    @Value("${app.booking.events.sse-timeout-ms:300000}")
+    private long sseTimeoutMs = 300000;
+
+    @Value("${app.booking.events.poll-timeout-ms:25000}")
+    private long pollTimeoutMs = 25000;
+
+    @Value("${app.booking.events.max-poll-timeout-ms:60000}")
+    private long maxPollTimeoutMs = 60000;
+
+    @Value("${app.booking.events.max-waiters:10000}")
+    private int maxWaiters = 10000;
+
+    public BookingStatusPushService(
+        BookingRepository bookingRepository,
+        MessageSource messageSource,
+        MeterRegistry meterRegistry,
+        @Value("${app.booking.events.sender-threads:2}") int senderThreads
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.messageSource = messageSource;
+        this.sender = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("booking-events-"));
+
+        Gauge.builder("booking.events.waiters", waiting, AtomicInteger::get)
+                .description("Clients waiting for a booking status change on this node")
+                .register(meterRegistry);
+        this.streamPushCounter = Counter.builder("booking.events.pushed")
+                .tag("channel", "sse")
+                .description("Booking status changes pushed to waiting clients")
+                .register(meterRegistry);
+        this.pollPushCounter = Counter.builder("booking.events.pushed")
+                .tag("channel", "long_poll")
+                .description("Booking status changes pushed to waiting clients")
+                .register(meterRegistry);
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    /**
+     * Open a stream that sends the current status of the booking as a {@value #STATUS_EVENT} event, then the next
+     * one once the booking leaves PENDING, and completes.
+     */
+    public SseEmitter stream(Long bookingId, Long userId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        StreamWaiter waiter = new StreamWaiter(bookingId, emitter);
+        ApiBookingStatusResponse current = registerAndLoad(waiter, userId);
+        emitter.onCompletion(() -> unregister(waiter));
+        emitter.onTimeout(() -> {
+            unregister(waiter);
+            emitter.complete();
+        });
+        emitter.onError(error -> unregister(waiter));
+
+        if (current.getStatus() != BookingEntity.Status.PENDING) {
+            finish(waiter, current);
+            return emitter;
+        }
+        // Queued like every other write; skipped once the final event is on its way, so it never follows it
+        send(() -> {
+            if (!waiter.done.get()) {
+                emitter.send(SseEmitter.event().name(STATUS_EVENT).data(current));
+            }
+        }, waiter);
+        return emitter;
+    }
+
+    /**
+     * Answer as soon as the booking is no longer PENDING, or with its status after {@code timeoutMs}.
+     */
+    public DeferredResult<ApiBookingStatusResponse> poll(Long bookingId, Long userId, Long timeoutMs) {
+        long timeout = timeoutMs != null ? Math.max(1, Math.min(timeoutMs, maxPollTimeoutMs)) : pollTimeoutMs;
+        DeferredResult<ApiBookingStatusResponse> result = new DeferredResult<>(timeout);
+        PollWaiter waiter = new PollWaiter(bookingId, result);
+        ApiBookingStatusResponse current = registerAndLoad(waiter, userId);
+        result.onCompletion(() -> unregister(waiter));
+        result.onTimeout(() -> {
+            if (unregister(waiter)) {
+                // The change may have been applied on another node
+                result.setResult(bookingRepository.findStatusById(bookingId)
+                        .map(BookingStatusPushService::toResponse)
+                        .orElse(current));
+            }
+        });
+
+        if (current.getStatus() != BookingEntity.Status.PENDING) {
+            finish(waiter, current);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        Set<Waiter> waiting = waiters.remove(event.bookingId());
+        if (waiting == null) {
+            return;
+        }
+        ApiBookingStatusResponse status = ApiBookingStatusResponse.builder()
+                .bookingId(event.bookingId())
+                .status(event.status())
+                .paymentRef(event.paymentRef())
+                .paidAt(event.paidAt())
+                .build();
+        for (Waiter waiter : waiting) {
+            finish(waiter, status);
+        }
+    }
+
+    /**
+     * Finish the streams whose booking left PENDING on another node, keep the other ones alive through proxies and
+     * notice clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${app.booking.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        recheckStreams();
+        for (Set<Waiter> bookingWaiters : waiters.values()) {
+            for (Waiter waiter : bookingWaiters) {
+                if (waiter instanceof StreamWaiter stream) {
+                    send(() -> stream.emitter.send(SseEmitter.event().comment("keep-alive")), stream);
+                }
+            }
+        }
+    }
+
+    private void recheckStreams() {
+        List<Long> bookingIds = waiters.entrySet().stream()
+                .filter(entry -> entry.getValue().stream().anyMatch(StreamWaiter.class::isInstance))
+                .map(Map.Entry::getKey)
+                .toList();
+        for (int from = 0; from < bookingIds.size(); from += RECHECK_BATCH_SIZE) {
+            List<Long> batch = bookingIds.subList(from, Math.min(from + RECHECK_BATCH_SIZE, bookingIds.size()));
+            try {
+                for (BookingStatusProjection booking : bookingRepository.findStatusByIdInAndStatusNot(batch,
+                        BookingEntity.Status.PENDING)) {
+                    Set<Waiter> waiting = waiters.remove(booking.getId());
+                    if (waiting != null) {
+                        ApiBookingStatusResponse status = toResponse(booking);
+                        waiting.forEach(waiter -> finish(waiter, status));
+                    }
+                }
+            } catch (DataAccessException e) {
+                logger.warn("Could not re-check booking statuses of {} streams: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        waiters.values().forEach(bookingWaiters -> bookingWaiters.forEach(waiter -> {
+            if (waiter instanceof StreamWaiter stream) {
+                stream.emitter.complete();
+            }
+        }));
+        sender.shutdown();
+        try {
+            sender.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ApiBookingStatusResponse registerAndLoad(Waiter waiter, Long userId) {
+        if (waiting.incrementAndGet() > maxWaiters) {
+            waiting.decrementAndGet();
+            throw new ServiceUnavailableException(getMessage("booking.events.error.too_many_waiters"),
+                    TimeUnit.MILLISECONDS.toSeconds(pollTimeoutMs));
+        }
+        waiters.compute(waiter.bookingId, (bookingId, bookingWaiters) -> {
+            Set<Waiter> set = bookingWaiters != null ? bookingWaiters : ConcurrentHashMap.newKeySet();
+            set.add(waiter);
+            return set;
+        });
+
+        try {
+            BookingStatusProjection booking = bookingRepository.findStatusById(waiter.bookingId)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            getMessage("booking.api.error.booking.not_found", waiter.bookingId)));
+            if (!booking.getUserId().equals(userId)) {
+                throw new BusinessException(getMessage("booking.events.error.own_booking_required"));
+            }
+            return toResponse(booking);
+        } catch (RuntimeException e) {
+            unregister(waiter);
+            throw e;
+        }
+    }
+
+    /**
+     * @return {@code true} when this call took the waiter out, {@code false} when it was already finished
+     */
+    private boolean unregister(Waiter waiter) {
+        if (!waiter.done.compareAndSet(false, true)) {
+            return false;
+        }
+        waiting.decrementAndGet();
+        waiters.computeIfPresent(waiter.bookingId, (bookingId, bookingWaiters) -> {
+            bookingWaiters.remove(waiter);
+            return bookingWaiters.isEmpty() ? null : bookingWaiters;
+        });
+        return true;
+    }
+
+    private void finish(Waiter waiter, ApiBookingStatusResponse status) {
+        if (!unregister(waiter)) {
+            return;
+        }
+        if (waiter instanceof PollWaiter poll) {
+            poll.result.setResult(status);
+            pollPushCounter.increment();
+        } else if (waiter instanceof StreamWaiter stream) {
+            // Writing to a slow client must not hold up the payment consumer that committed the change
+            send(() -> {
+                stream.emitter.send(SseEmitter.event().name(STATUS_EVENT).data(status));
+                stream.emitter.complete();
+                streamPushCounter.increment();
+            }, stream);
+        }
+    }
+
+    /**
+     * Write to a stream on the sender pool. Writes to one stream hold its lock, so two of them never interleave even
+     * when they run on different sender threads.
+     */
+    private void send(SseWrite write, StreamWaiter stream) {
+        try {
+            sender.execute(() -> {
+                try {
+                    synchronized (stream) {
+                        write.run();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Booking event stream for booking {} closed: {}", stream.bookingId, e.getMessage());
+                    unregister(stream);
+                    stream.emitter.completeWithError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stream.emitter.complete();
+        }
+    }
+
+    private static ApiBookingStatusResponse toResponse(BookingStatusProjection booking) {
+        return ApiBookingStatusResponse.builder()
+                .bookingId(booking.getId())
+                .status(booking.getStatus())
+                .paymentRef(booking.getPaymentRef())
+                .paidAt(booking.getPaidAt())
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface SseWrite {
+        void run() throws IOException;
+    }
+
+    private abstract static class Waiter {
+        final Long bookingId;
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        private Waiter(Long bookingId) {
+            this.bookingId = bookingId;
+        }
+    }
+
+    private static final class StreamWaiter extends Waiter {
+        private final SseEmitter emitter;
+
+        private StreamWaiter(Long bookingId, SseEmitter emitter) {
+            super(bookingId);
+            this.emitter = emitter;
+        }
+    }
+
+    private static final class PollWaiter extends Waiter {
+        private final DeferredResult<ApiBookingStatusResponse> result;
+
+        private PollWaiter(Long bookingId, DeferredResult<ApiBookingStatusResponse> result) {
+            super(bookingId);
+            this.result = result;
+        }
+    }
+}
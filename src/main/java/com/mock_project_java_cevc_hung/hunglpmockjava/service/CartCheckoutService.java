@@ -0,0 +1,205 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.BookingCreateRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.CartCheckoutRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiCartCheckoutResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiCartLineResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.CartCheckoutException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Books several tours in one transaction.
+ * <p>The cart's tours are locked with one {@code SELECT ... FOR UPDATE} in id order, so overlapping checkouts wait
+ * for each other instead of deadlocking. Seats are taken with one guarded update per tour and all bookings are
+ * inserted in one JDBC batch. Every line is validated before anything is written; if any line fails, the whole cart
+ * is rolled back and the per-line result says which lines failed and why.</p>
+ */
+@Service
+@Transactional
+public class CartCheckoutService {
+
+    private final TourRepository tourRepository;
+    private final UserRepository userRepository;
+    private final BookingJdbcRepository bookingJdbcRepository;
+    private final BookingService bookingService;
+    private final SeatLeaseAllocator seatLeaseAllocator;
+    private final SeatHoldExpiryService seatHoldExpiryService;
+    private final MessageSource messageSource;
+
+    @Value("${app.booking.cart.max-items:10}")
+    private int maxItems = 10;
+
+    public CartCheckoutService(
+        TourRepository tourRepository,
+        UserRepository userRepository,
+        BookingJdbcRepository bookingJdbcRepository,
+        BookingService bookingService,
+        SeatLeaseAllocator seatLeaseAllocator,
+        SeatHoldExpiryService seatHoldExpiryService,
+        MessageSource messageSource
+    ) {
+        this.tourRepository = tourRepository;
+        this.userRepository = userRepository;
+        this.bookingJdbcRepository = bookingJdbcRepository;
+        this.bookingService = bookingService;
+        this.seatLeaseAllocator = seatLeaseAllocator;
+        this.seatHoldExpiryService = seatHoldExpiryService;
+        this.messageSource = messageSource;
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    public ApiCartCheckoutResponse checkout(CartCheckoutRequest request, Long userId) {
+        List<BookingCreateRequest> items = request.getItems();
+        if (items.size() > maxItems) {
+            throw new BusinessException(getMessage("booking.api.error.cart.too_many_items", maxItems));
+        }
+
+        UserEntity user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(getMessage("booking.api.error.user.not_found", userId)));
+
+        Map<Long, TourEntity> tours = tourRepository.findAllForUpdateOrderById(
+                        items.stream().map(BookingCreateRequest::getTourId).collect(Collectors.toCollection(TreeSet::new)))
+                .stream()
+                .collect(Collectors.toMap(TourEntity::getId, Function.identity()));
+
+        List<ApiCartLineResponse> lines = new ArrayList<>(items.size());
+        Map<Long, Integer> seatsLeft = new HashMap<>();
+        Map<Long, Integer> seatsByTour = new TreeMap<>();
+        boolean failed = false;
+        for (int i = 0; i < items.size(); i++) {
+            BookingCreateRequest item = items.get(i);
+            ApiCartLineResponse line = ApiCartLineResponse.builder()
+                    .line(i)
+                    .tourId(item.getTourId())
+                    .qty(item.getQty())
+                    .status(ApiCartLineResponse.Status.NOT_BOOKED)
+                    .build();
+            lines.add(line);
+            try {
+                TourEntity tour = tours.get(item.getTourId());
+                validateLine(tour, item, seatsLeft);
+                seatsByTour.merge(tour.getId(), item.getQty(), Integer::sum);
+            } catch (BusinessException | ResourceNotFoundException e) {
+                line.setStatus(ApiCartLineResponse.Status.FAILED);
+                line.setMessage(e.getMessage());
+                failed = true;
+            }
+        }
+        if (failed) {
+            throw rollback(lines);
+        }
+
+        for (Map.Entry<Long, Integer> entry : seatsByTour.entrySet()) {
+            TourEntity tour = tours.get(entry.getKey());
+            if (!reserveSeats(tour, entry.getValue())) {
+                for (ApiCartLineResponse line : lines) {
+                    if (line.getTourId().equals(tour.getId())) {
+                        line.setStatus(ApiCartLineResponse.Status.FAILED);
+                        line.setMessage(getMessage("booking.api.error.tour.not_enough_seats",
+                                tour.getSeatsAvailable(), entry.getValue()));
+                    }
+                }
+                throw rollback(lines);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime holdExpiresAt = seatHoldExpiryService.newDeadline();
+        List<BookingEntity> bookings = new ArrayList<>(items.size());
+        for (BookingCreateRequest item : items) {
+            BookingEntity booking = BookingEntity.builder()
+                    .tour(tours.get(item.getTourId()))
+                    .user(user)
+                    .qty(item.getQty())
+                    .amount(item.getAmount())
+                    .status(BookingEntity.Status.PENDING)
+                    .holdExpiresAt(holdExpiresAt)
+                    .build();
+            booking.setCreatedAt(now);
+            booking.setUpdatedAt(now);
+            bookings.add(booking);
+        }
+        bookingJdbcRepository.insertAll(bookings);
+
+        long totalMinorUnits = 0;
+        for (int i = 0; i < bookings.size(); i++) {
+            BookingEntity booking = bookings.get(i);
+            seatHoldExpiryService.track(booking.getId(), holdExpiresAt);
+            lines.get(i).setStatus(ApiCartLineResponse.Status.BOOKED);
+            lines.get(i).setBooking(bookingService.convertToApiResponse(booking));
+            totalMinorUnits = Math.addExact(totalMinorUnits, booking.getAmount().minorUnits());
+        }
+
+        return ApiCartCheckoutResponse.builder()
+                .success(true)
+                .totalAmount(Money.ofMinor(totalMinorUnits))
+                .lines(lines)
+                .build();
+    }
+
+    /**
+     * Check one line against the locked tour, counting seats taken by earlier lines of the same cart.
+     */
+    private void validateLine(TourEntity tour, BookingCreateRequest item, Map<Long, Integer> seatsLeft) {
+        if (tour == null) {
+            throw new ResourceNotFoundException(getMessage("booking.api.error.tour.not_found", item.getTourId()));
+        }
+        if (tour.getStatus() != TourEntity.Status.ACTIVE) {
+            throw new BusinessException(getMessage("booking.api.error.tour.not_active"));
+        }
+        if (tour.getBookingMode() == TourEntity.BookingMode.FLASH_SALE) {
+            throw new BusinessException(getMessage("booking.api.error.cart.flash_sale"));
+        }
+        bookingService.validateBookingAmount(tour, item.getQty(), item.getAmount());
+
+        // HOT tours sell from leased blocks the tour row does not show; their reservation decides
+        if (!seatLeaseAllocator.isHot(tour)) {
+            int left = seatsLeft.getOrDefault(tour.getId(), tour.getSeatsAvailable());
+            if (left < item.getQty()) {
+                throw new BusinessException(getMessage("booking.api.error.tour.not_enough_seats", left, item.getQty()));
+            }
+            seatsLeft.put(tour.getId(), left - item.getQty());
+        }
+    }
+
+    private boolean reserveSeats(TourEntity tour, int qty) {
+        if (seatLeaseAllocator.isHot(tour)) {
+            return seatLeaseAllocator.reserve(tour, qty);
+        }
+        return tourRepository.reserveSeats(tour.getId(), qty) > 0;
+    }
+
+    private CartCheckoutException rollback(List<ApiCartLineResponse> lines) {
+        return new CartCheckoutException(ApiCartCheckoutResponse.builder()
+                .success(false)
+                .message(getMessage("booking.api.error.cart.rolled_back"))
+                .lines(lines)
+                .build());
+    }
+}
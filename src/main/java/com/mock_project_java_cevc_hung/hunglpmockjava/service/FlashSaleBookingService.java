@@ -0,0 +1,406 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.BookingCreateRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiBookingResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Admission queue for tours in {@link TourEntity.BookingMode#FLASH_SALE} mode.
+ * <p>Instead of letting every request run its own transaction against the same {@code tours} row, requests are
+ * appended to a bounded per-tour queue. A single drain task per tour takes them in micro-batches, grants seats in
+ * arrival order inside one transaction (one guarded seat update and one booking insert round per batch) and
+ * completes the futures the callers are waiting on. Once a tour is sold out, new callers are rejected immediately
+ * without touching the database until the sold-out mark ages out, so seats released by cancellations are picked
+ * up again.</p>
+ */
+@Service
+public class FlashSaleBookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleBookingService.class);
+    private static final int MAX_GRANT_ATTEMPTS = 3;
+
+    private final TourRepository tourRepository;
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final SeatHoldExpiryService seatHoldExpiryService;
+    private final MessageSource messageSource;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, TourLane> lanes = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer waitTimer;
+
+    @Value("${app.booking.flash-sale.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${app.booking.flash-sale.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${app.booking.flash-sale.wait-timeout-ms:10000}")
+    private long waitTimeoutMs = 10000;
+
+    @Value("${app.booking.flash-sale.sold-out-recheck-ms:2000}")
+    private long soldOutRecheckMs = 2000;
+
+    public FlashSaleBookingService(
+        TourRepository tourRepository,
+        UserRepository userRepository,
+        BookingRepository bookingRepository,
+        BookingService bookingService,
+        SeatHoldExpiryService seatHoldExpiryService,
+        MessageSource messageSource,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${app.booking.flash-sale.worker-threads:4}") int workerThreads
+    ) {
+        this.tourRepository = tourRepository;
+        this.userRepository = userRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.seatHoldExpiryService = seatHoldExpiryService;
+        this.messageSource = messageSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = Executors.newFixedThreadPool(workerThreads, new CustomizableThreadFactory("flash-sale-"));
+
+        Gauge.builder("booking.flash_sale.queue.depth", lanes,
+                        l -> l.values().stream().mapToInt(lane -> lane.queue.size()).sum())
+                .description("Booking requests waiting in flash-sale admission queues")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("booking.flash_sale.batch.size")
+                .description("Requests granted or rejected per flash-sale micro-batch")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("booking.flash_sale.wait")
+                .description("Time a booking request spent queued before its batch was processed")
+                .register(meterRegistry);
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    public boolean isFlashSale(Long tourId) {
+        return tourRepository.findBookingModeById(tourId)
+                .map(mode -> mode == TourEntity.BookingMode.FLASH_SALE)
+                .orElse(false);
+    }
+
+    /**
+     * Queue a booking request and block until its batch has been committed, the tour sells out or the
+     * configured wait timeout passes. A request still queued at the timeout is withdrawn; one whose batch is
+     * already granting seats is waited for, so no booking is created for a caller that was told it failed.
+     */
+    public ApiBookingResponse createBooking(BookingCreateRequest request, Long userId) {
+        Ticket ticket = enqueue(request, userId);
+        try {
+            return ticket.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (ticket.take()) {
+                ticket.future.cancel(false);
+                throw new BusinessException(getMessage("booking.api.error.flash_sale.timeout"));
+            }
+            try {
+                return ticket.future.join();
+            } catch (CompletionException completion) {
+                throw failure(completion.getCause());
+            }
+        } catch (ExecutionException e) {
+            throw failure(e.getCause());
+        }
+    }
+
+    /**
+     * Append a booking request to the tour's admission queue. Rejects immediately when the tour is known to be
+     * sold out or the queue is full. Cancelling the returned future only withdraws the request while it is
+     * still queued.
+     */
+    public CompletableFuture<ApiBookingResponse> submit(BookingCreateRequest request, Long userId) {
+        return enqueue(request, userId).future;
+    }
+
+    private RuntimeException failure(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new BusinessException(cause.getMessage(), cause);
+    }
+
+    private Ticket enqueue(BookingCreateRequest request, Long userId) {
+        TourLane lane = lanes.computeIfAbsent(request.getTourId(), tourId -> new TourLane(tourId, queueCapacity));
+
+        if (lane.isSoldOut(soldOutRecheckMs)) {
+            throw new BusinessException(getMessage("booking.api.error.flash_sale.sold_out"));
+        }
+
+        Ticket ticket = new Ticket(request, userId);
+        if (!lane.queue.offer(ticket)) {
+            throw new BusinessException(getMessage("booking.api.error.flash_sale.queue_full"));
+        }
+
+        scheduleDrain(lane);
+        return ticket;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void scheduleDrain(TourLane lane) {
+        if (lane.draining.compareAndSet(false, true)) {
+            workers.execute(() -> drain(lane));
+        }
+    }
+
+    /**
+     * Single-writer drain loop for one tour. Only one instance runs per lane at a time, guarded by
+     * {@link TourLane#draining}; the re-check after releasing the flag closes the race with producers that
+     * enqueued just before the flag was cleared.
+     */
+    private void drain(TourLane lane) {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            lane.queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                lane.draining.set(false);
+                if (lane.queue.isEmpty() || !lane.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            try {
+                processBatch(lane, batch);
+            } catch (RuntimeException e) {
+                logger.error("Flash-sale batch for tour {} failed", lane.tourId, e);
+                batch.forEach(ticket -> ticket.future.completeExceptionally(e));
+            }
+        }
+    }
+
+    private void processBatch(TourLane lane, List<Ticket> batch) {
+        long now = System.nanoTime();
+        List<Ticket> pending = new ArrayList<>(batch.size());
+        for (Ticket ticket : batch) {
+            waitTimer.record(now - ticket.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+            if (!ticket.future.isDone() && ticket.take()) {
+                pending.add(ticket);
+            }
+        }
+        batchSizeSummary.record(pending.size());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        if (lane.isSoldOut(soldOutRecheckMs)) {
+            BusinessException soldOut = new BusinessException(getMessage("booking.api.error.flash_sale.sold_out"));
+            pending.forEach(ticket -> ticket.future.completeExceptionally(soldOut));
+            return;
+        }
+
+        BatchOutcome outcome = null;
+        for (int attempt = 1; attempt <= MAX_GRANT_ATTEMPTS && outcome == null; attempt++) {
+            try {
+                outcome = transactionTemplate.execute(status -> grant(lane.tourId, pending));
+            } catch (SeatsChangedException e) {
+                logger.debug("Seats of tour {} changed under flash-sale batch, retrying (attempt {})",
+                        lane.tourId, attempt);
+            }
+        }
+        if (outcome == null) {
+            int available = tourRepository.findById(lane.tourId).map(TourEntity::getSeatsAvailable).orElse(0);
+            pending.forEach(ticket -> ticket.future.completeExceptionally(new BusinessException(getMessage(
+                    "booking.api.error.tour.not_enough_seats", available, ticket.request.getQty()))));
+            return;
+        }
+
+        // Futures are only completed after the transaction committed
+        for (int i = 0; i < pending.size(); i++) {
+            Object result = outcome.results.get(i);
+            if (result instanceof ApiBookingResponse response) {
+                pending.get(i).future.complete(response);
+            } else {
+                pending.get(i).future.completeExceptionally((RuntimeException) result);
+            }
+        }
+        if (outcome.remainingSeats <= 0) {
+            lane.markSoldOut();
+        }
+    }
+
+    /**
+     * Grant seats for a batch in arrival order. Runs inside a transaction: the tour is read once, all bookings
+     * are inserted together and the whole batch takes its seats with a single guarded update.
+     */
+    private BatchOutcome grant(Long tourId, List<Ticket> tickets) {
+        List<Object> results = new ArrayList<>(tickets.size());
+        TourEntity tour = tourRepository.findById(tourId).orElse(null);
+        if (tour == null) {
+            ResourceNotFoundException notFound = new ResourceNotFoundException(
+                    getMessage("booking.api.error.tour.not_found", tourId));
+            tickets.forEach(ticket -> results.add(notFound));
+            return new BatchOutcome(results, 0);
+        }
+        if (tour.getStatus() != TourEntity.Status.ACTIVE) {
+            BusinessException notActive = new BusinessException(getMessage("booking.api.error.tour.not_active"));
+            tickets.forEach(ticket -> results.add(notActive));
+            return new BatchOutcome(results, tour.getSeatsAvailable());
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        tickets.forEach(ticket -> userIds.add(ticket.userId));
+        Map<Long, UserEntity> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+
+        int remaining = tour.getSeatsAvailable();
+        int granted = 0;
+        List<BookingEntity> bookings = new ArrayList<>();
+        LocalDateTime holdExpiresAt = seatHoldExpiryService.newDeadline();
+        List<Integer> bookingSlots = new ArrayList<>();
+        for (Ticket ticket : tickets) {
+            int qty = ticket.request.getQty();
+            try {
+                if (remaining <= 0) {
+                    throw new BusinessException(getMessage("booking.api.error.flash_sale.sold_out"));
+                }
+                if (qty > remaining) {
+                    throw new BusinessException(
+                            getMessage("booking.api.error.tour.not_enough_seats", remaining, qty));
+                }
+                bookingService.validateBookingAmount(tour, qty, ticket.request.getAmount());
+                UserEntity user = users.get(ticket.userId);
+                if (user == null) {
+                    throw new ResourceNotFoundException(
+                            getMessage("booking.api.error.user.not_found", ticket.userId));
+                }
+
+                bookings.add(BookingEntity.builder()
+                        .tour(tour)
+                        .user(user)
+                        .qty(qty)
+                        .amount(ticket.request.getAmount())
+                        .status(BookingEntity.Status.PENDING)
+                        .holdExpiresAt(holdExpiresAt)
+                        .build());
+                bookingSlots.add(results.size());
+                results.add(null);
+                remaining -= qty;
+                granted += qty;
+            } catch (RuntimeException e) {
+                results.add(e);
+            }
+        }
+
+        if (granted > 0) {
+            if (tourRepository.reserveSeats(tourId, granted) == 0) {
+                throw new SeatsChangedException();
+            }
+            List<BookingEntity> saved = bookingRepository.saveAll(bookings);
+            for (int i = 0; i < saved.size(); i++) {
+                seatHoldExpiryService.track(saved.get(i).getId(), holdExpiresAt);
+                results.set(bookingSlots.get(i), bookingService.convertToApiResponse(saved.get(i)));
+            }
+        }
+
+        return new BatchOutcome(results, remaining);
+    }
+
+    private static final class TourLane {
+        private final Long tourId;
+        private final BlockingQueue<Ticket> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile long soldOutAtMillis;
+
+        private TourLane(Long tourId, int capacity) {
+            this.tourId = tourId;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private boolean isSoldOut(long recheckMs) {
+            long markedAt = soldOutAtMillis;
+            return markedAt != 0 && System.currentTimeMillis() - markedAt < recheckMs;
+        }
+
+        private void markSoldOut() {
+            soldOutAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    private static final class Ticket {
+        private final BookingCreateRequest request;
+        private final Long userId;
+        private final long enqueuedAtNanos = System.nanoTime();
+        private final CompletableFuture<ApiBookingResponse> future = new CompletableFuture<>();
+        private final AtomicBoolean taken = new AtomicBoolean(false);
+
+        private Ticket(BookingCreateRequest request, Long userId) {
+            this.request = request;
+            this.userId = userId;
+        }
+
+        /**
+         * Claimed once, either by the drain loop admitting the request or by the caller giving up on it.
+         */
+        private boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Per-ticket results in arrival order: either an {@link ApiBookingResponse} or the exception rejecting it.
+     */
+    private record BatchOutcome(List<Object> results, int remainingSeats) {
+    }
+
+    /**
+     * Thrown inside the grant transaction when the guarded seat update lost against a writer outside the
+     * queue (cancellation, admin edit), so the batch is rolled back and re-evaluated against fresh inventory.
+     */
+    private static final class SeatsChangedException extends RuntimeException {
+    }
+}
@@ -0,0 +1,265 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.IdempotencyKeyEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.IdempotencyConflictException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response of a request carrying an {@code Idempotency-Key} the caller already used.
+ * <p>Completed responses are kept in a bounded in-memory LRU in front of the {@code idempotency_keys} table, so a
+ * retry on the same node is answered without a query and a retry on another node with a single lookup. A first
+ * request claims its key with a row insert before running; the unique constraint makes a concurrent duplicate fail
+ * fast with 409 instead of running twice. Only 2xx responses are recorded; a failed attempt gives its key back so
+ * the client can retry.</p>
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final MessageSource messageSource;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, StoredResponse> memory;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    @Value("${app.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes = 1440;
+
+    @Value("${app.idempotency.claim-timeout-seconds:60}")
+    private long claimTimeoutSeconds = 60;
+
+    public IdempotencyService(
+        IdempotencyKeyRepository idempotencyKeyRepository,
+        ObjectMapper objectMapper,
+        MessageSource messageSource,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${app.idempotency.max-entries:10000}") int maxEntries
+    ) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.messageSource = messageSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.memory = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        Gauge.builder("idempotency.store.size", memory, Map::size)
+                .description("Idempotent responses cached in memory")
+                .register(meterRegistry);
+        this.memoryHits = Counter.builder("idempotency.store.lookups")
+                .tag("result", "hit").tag("tier", "memory")
+                .description("Idempotency-Key lookups")
+                .register(meterRegistry);
+        this.databaseHits = Counter.builder("idempotency.store.lookups")
+                .tag("result", "hit").tag("tier", "database")
+                .description("Idempotency-Key lookups")
+                .register(meterRegistry);
+        this.misses = Counter.builder("idempotency.store.lookups")
+                .tag("result", "miss").tag("tier", "none")
+                .description("Idempotency-Key lookups")
+                .register(meterRegistry);
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    /**
+     * Run {@code action} at most once per key for this caller and scope, replaying its response afterwards.
+     * Without a key the action simply runs.
+     */
+    public ResponseEntity<?> execute(IdempotencyKeyEntity.Scope scope, Long userId, String key, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(getMessage("idempotency.error.key_too_long", MAX_KEY_LENGTH));
+        }
+
+        String cacheKey = scope + ":" + userId + ":" + key;
+        String requestHash = hash(request);
+
+        Optional<ResponseEntity<?>> replay = lookup(cacheKey, scope, userId, key, requestHash);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        misses.increment();
+
+        Long claimId = claim(scope, userId, key, requestHash);
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(claimId);
+            throw e;
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            release(claimId);
+            return response;
+        }
+        StoredResponse stored = complete(claimId, response);
+        memory.put(cacheKey, stored);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            memory.values().removeIf(stored -> stored.expiresAtMillis() < now);
+        }
+        Integer deleted = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Optional<ResponseEntity<?>> lookup(String cacheKey, IdempotencyKeyEntity.Scope scope, Long userId,
+                                               String key, String requestHash) {
+        StoredResponse cached = memory.get(cacheKey);
+        if (cached != null && cached.expiresAtMillis() >= System.currentTimeMillis()) {
+            memoryHits.increment();
+            return Optional.of(replay(cached, requestHash));
+        }
+
+        Optional<IdempotencyKeyEntity> row = idempotencyKeyRepository.findByScopeAndUserIdAndIdempotencyKey(
+                scope, userId, key);
+        if (row.isEmpty()) {
+            return Optional.empty();
+        }
+
+        IdempotencyKeyEntity entity = row.get();
+        LocalDateTime now = LocalDateTime.now();
+        boolean abandonedClaim = entity.getStatusCode() == null
+                && entity.getCreatedAt() != null
+                && entity.getCreatedAt().plusSeconds(claimTimeoutSeconds).isBefore(now);
+        if (entity.getExpiresAt().isBefore(now) || abandonedClaim) {
+            release(entity.getId());
+            return Optional.empty();
+        }
+        if (entity.getStatusCode() == null) {
+            throw new IdempotencyConflictException(getMessage("idempotency.error.in_progress"));
+        }
+
+        databaseHits.increment();
+        StoredResponse stored = toStoredResponse(entity);
+        memory.put(cacheKey, stored);
+        return Optional.of(replay(stored, requestHash));
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException(getMessage("idempotency.error.key_reused"));
+        }
+        return ResponseEntity.status(stored.statusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body());
+    }
+
+    private Long claim(IdempotencyKeyEntity.Scope scope, Long userId, String key, String requestHash) {
+        try {
+            return transactionTemplate.execute(status -> idempotencyKeyRepository.saveAndFlush(
+                    IdempotencyKeyEntity.builder()
+                            .scope(scope)
+                            .userId(userId)
+                            .idempotencyKey(key)
+                            .requestHash(requestHash)
+                            .expiresAt(LocalDateTime.now().plusMinutes(ttlMinutes))
+                            .build()).getId());
+        } catch (DataIntegrityViolationException e) {
+            throw new IdempotencyConflictException(getMessage("idempotency.error.in_progress"));
+        }
+    }
+
+    private StoredResponse complete(Long claimId, ResponseEntity<?> response) {
+        String body = toJson(response.getBody());
+        int statusCode = response.getStatusCode().value();
+        IdempotencyKeyEntity entity = transactionTemplate.execute(status -> {
+            IdempotencyKeyEntity claimed = idempotencyKeyRepository.findById(claimId).orElseThrow();
+            claimed.setStatusCode(statusCode);
+            claimed.setResponseBody(body);
+            return idempotencyKeyRepository.save(claimed);
+        });
+        return toStoredResponse(entity);
+    }
+
+    private void release(Long claimId) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteById(claimId));
+    }
+
+    private StoredResponse toStoredResponse(IdempotencyKeyEntity entity) {
+        long expiresAtMillis = entity.getExpiresAt()
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new StoredResponse(entity.getRequestHash(), entity.getStatusCode(), entity.getResponseBody(),
+                expiresAtMillis);
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent payload", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int statusCode, String body, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,261 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ServiceUnavailableException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.TooManyRequestsException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.outbox.OutboxRelay;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport.PaymentEventBacklog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sheds payment and booking requests while the payment event pipeline is behind, so the backlog stops growing and
+ * callers get a fast answer with {@code Retry-After} instead of a PENDING that takes minutes to settle.
+ * <p>Two signals are sampled every {@code sample-ms}: events waiting for a payment consumer and the age of the oldest
+ * unpublished outbox event. Each {@link Gate} has its own thresholds per signal. Between the throttle and the reject
+ * threshold a growing share of requests is answered 429, proportional to how far the worse signal has climbed; at the
+ * reject threshold every request is answered 503 until both signals fall below {@code recovery-ratio} of it, so the
+ * gate does not flap around the limit. Checking a gate only reads the last sample.</p>
+ */
+@Service
+public class LoadSheddingService {
+
+    public enum Gate {
+        PAYMENT, BOOKING
+    }
+
+    public enum Level {
+        NORMAL, THROTTLE, REJECT
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadSheddingService.class);
+
+    private final OutboxRelay outboxRelay;
+    private final ObjectProvider<PaymentEventBacklog> paymentEventBacklog;
+    private final MessageSource messageSource;
+    private final Map<Gate, GateState> states = new EnumMap<>(Gate.class);
+    private volatile long queueDepth;
+    private volatile long outboxLagSeconds;
+
+    @Value("${app.backpressure.recovery-ratio:0.8}")
+    private double recoveryRatio = 0.8;
+
+    @Value("${app.backpressure.payment.enabled:true}")
+    private boolean paymentEnabled = true;
+
+    @Value("${app.backpressure.payment.queue-depth-throttle:5000}")
+    private long paymentQueueDepthThrottle = 5000;
+
+    @Value("${app.backpressure.payment.queue-depth-reject:20000}")
+    private long paymentQueueDepthReject = 20000;
+
+    @Value("${app.backpressure.payment.outbox-lag-throttle-seconds:30}")
+    private long paymentOutboxLagThrottle = 30;
+
+    @Value("${app.backpressure.payment.outbox-lag-reject-seconds:120}")
+    private long paymentOutboxLagReject = 120;
+
+    @Value("${app.backpressure.payment.retry-after-seconds:5}")
+    private long paymentRetryAfterSeconds = 5;
+
+    @Value("${app.backpressure.booking.enabled:true}")
+    private boolean bookingEnabled = true;
+
+    @Value("${app.backpressure.booking.queue-depth-throttle:20000}")
+    private long bookingQueueDepthThrottle = 20000;
+
+    @Value("${app.backpressure.booking.queue-depth-reject:50000}")
+    private long bookingQueueDepthReject = 50000;
+
+    @Value("${app.backpressure.booking.outbox-lag-throttle-seconds:120}")
+    private long bookingOutboxLagThrottle = 120;
+
+    @Value("${app.backpressure.booking.outbox-lag-reject-seconds:300}")
+    private long bookingOutboxLagReject = 300;
+
+    @Value("${app.backpressure.booking.retry-after-seconds:10}")
+    private long bookingRetryAfterSeconds = 10;
+
+    public LoadSheddingService(
+        OutboxRelay outboxRelay,
+        ObjectProvider<PaymentEventBacklog> paymentEventBacklog,
+        MessageSource messageSource,
+        MeterRegistry meterRegistry
+    ) {
+        this.outboxRelay = outboxRelay;
+        this.paymentEventBacklog = paymentEventBacklog;
+        this.messageSource = messageSource;
+
+        Gauge.builder("backpressure.signal", this, service -> service.queueDepth)
+                .tag("signal", "queue_depth")
+                .description("Payment events waiting for a consumer, as last sampled for load shedding")
+                .register(meterRegistry);
+        Gauge.builder("backpressure.signal", this, service -> service.outboxLagSeconds)
+                .tag("signal", "outbox_lag")
+                .description("Age of the oldest unpublished outbox event, as last sampled for load shedding")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        for (Gate gate : Gate.values()) {
+            GateState state = new GateState(gate, meterRegistry);
+            states.put(gate, state);
+            String tag = gate.name().toLowerCase();
+            Gauge.builder("backpressure.level", state, s -> s.level.ordinal())
+                    .tag("gate", tag)
+                    .description("Load shedding level: 0 normal, 1 throttling with 429, 2 rejecting with 503")
+                    .register(meterRegistry);
+            Gauge.builder("backpressure.admit_ratio", state, s -> s.admitRatio)
+                    .tag("gate", tag)
+                    .description("Share of requests let through at the current load shedding level")
+                    .register(meterRegistry);
+            registerThreshold(meterRegistry, gate, "queue_depth", Level.THROTTLE);
+            registerThreshold(meterRegistry, gate, "queue_depth", Level.REJECT);
+            registerThreshold(meterRegistry, gate, "outbox_lag", Level.THROTTLE);
+            registerThreshold(meterRegistry, gate, "outbox_lag", Level.REJECT);
+        }
+    }
+
+    private void registerThreshold(MeterRegistry meterRegistry, Gate gate, String signal, Level level) {
+        Gauge.builder("backpressure.threshold", this, service -> {
+                    Thresholds thresholds = service.thresholds(gate);
+                    if (signal.equals("queue_depth")) {
+                        return level == Level.THROTTLE ? thresholds.queueDepthThrottle : thresholds.queueDepthReject;
+                    }
+                    return level == Level.THROTTLE ? thresholds.outboxLagThrottle : thresholds.outboxLagReject;
+                })
+                .tag("gate", gate.name().toLowerCase())
+                .tag("signal", signal)
+                .tag("level", level.name().toLowerCase())
+                .description("Configured load shedding threshold")
+                .register(meterRegistry);
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    /**
+     * Let a request through the gate or shed it.
+     *
+     * @throws TooManyRequestsException when the gate is throttling and this request was not admitted
+     * @throws ServiceUnavailableException when the gate is rejecting every request
+     */
+    public void check(Gate gate) {
+        GateState state = states.get(gate);
+        Level level = state.level;
+        if (level == Level.NORMAL) {
+            return;
+        }
+        long retryAfter = thresholds(gate).retryAfterSeconds;
+        if (level == Level.REJECT) {
+            state.rejectedCounter.increment();
+            throw new ServiceUnavailableException(getMessage("backpressure.error.overloaded"), retryAfter);
+        }
+        if (ThreadLocalRandom.current().nextDouble() >= state.admitRatio) {
+            state.throttledCounter.increment();
+            throw new TooManyRequestsException(getMessage("backpressure.error.throttled"), retryAfter);
+        }
+    }
+
+    public Level level(Gate gate) {
+        return states.get(gate).level;
+    }
+
+    @Scheduled(fixedDelayString = "${app.backpressure.sample-ms:1000}")
+    public void sample() {
+        PaymentEventBacklog backlog = paymentEventBacklog.getIfAvailable();
+        queueDepth = backlog != null ? backlog.pendingEvents() : 0;
+        outboxLagSeconds = outboxRelay.lagSeconds();
+
+        for (GateState state : states.values()) {
+            Thresholds thresholds = thresholds(state.gate);
+            Level previous = state.level;
+            if (!thresholds.enabled) {
+                state.update(Level.NORMAL, 1.0);
+            } else if (rejecting(queueDepth, thresholds.queueDepthReject, previous)
+                    || rejecting(outboxLagSeconds, thresholds.outboxLagReject, previous)) {
+                state.update(Level.REJECT, 0.0);
+            } else {
+                double pressure = Math.max(
+                        pressure(queueDepth, thresholds.queueDepthThrottle, thresholds.queueDepthReject),
+                        pressure(outboxLagSeconds, thresholds.outboxLagThrottle, thresholds.outboxLagReject));
+                state.update(pressure > 0 ? Level.THROTTLE : Level.NORMAL, 1.0 - pressure);
+            }
+            if (state.level != previous) {
+                logger.warn("Load shedding for {} went from {} to {} (queue depth {}, outbox lag {} s)",
+                        state.gate, previous, state.level, queueDepth, outboxLagSeconds);
+            }
+        }
+    }
+
+    private boolean rejecting(long value, long rejectAt, Level previous) {
+        if (rejectAt <= 0) {
+            return false;
+        }
+        return value >= rejectAt || (previous == Level.REJECT && value >= rejectAt * recoveryRatio);
+    }
+
+    /**
+     * Share of the way from the throttle to the reject threshold, {@code 0} below the throttle threshold.
+     */
+    private static double pressure(long value, long throttleAt, long rejectAt) {
+        if (throttleAt <= 0 || value < throttleAt) {
+            return 0.0;
+        }
+        if (rejectAt <= throttleAt) {
+            return 1.0;
+        }
+        return Math.min(1.0, (double) (value - throttleAt + 1) / (rejectAt - throttleAt + 1));
+    }
+
+    private Thresholds thresholds(Gate gate) {
+        return switch (gate) {
+            case PAYMENT -> new Thresholds(paymentEnabled, paymentQueueDepthThrottle, paymentQueueDepthReject,
+                    paymentOutboxLagThrottle, paymentOutboxLagReject, paymentRetryAfterSeconds);
+            case BOOKING -> new Thresholds(bookingEnabled, bookingQueueDepthThrottle, bookingQueueDepthReject,
+                    bookingOutboxLagThrottle, bookingOutboxLagReject, bookingRetryAfterSeconds);
+        };
+    }
+
+    private record Thresholds(boolean enabled, long queueDepthThrottle, long queueDepthReject,
+                              long outboxLagThrottle, long outboxLagReject, long retryAfterSeconds) {
+    }
+
+    private static final class GateState {
+        private final Gate gate;
+        private final Counter throttledCounter;
+        private final Counter rejectedCounter;
+        private volatile Level level = Level.NORMAL;
+        private volatile double admitRatio = 1.0;
+
+        private GateState(Gate gate, MeterRegistry meterRegistry) {
+            this.gate = gate;
+            this.throttledCounter = Counter.builder("backpressure.shed")
+                    .tag("gate", gate.name().toLowerCase())
+                    .tag("status", "429")
+                    .description("Requests shed by load shedding")
+                    .register(meterRegistry);
+            this.rejectedCounter = Counter.builder("backpressure.shed")
+                    .tag("gate", gate.name().toLowerCase())
+                    .tag("status", "503")
+                    .description("Requests shed by load shedding")
+                    .register(meterRegistry);
+        }
+
+        private void update(Level newLevel, double newAdmitRatio) {
+            admitRatio = newAdmitRatio;
+            level = newLevel;
+        }
+    }
+}
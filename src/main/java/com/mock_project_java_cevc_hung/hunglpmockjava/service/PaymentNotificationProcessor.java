@@ -0,0 +1,200 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.PaymentWebhookRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.PaymentNotificationEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.publisher.PaymentEventPublisher;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.PaymentNotificationJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.PaymentNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns stored gateway notifications into {@code payment.completed} events.
+ * <p>The webhook wakes the processor after each stored batch; a sweep every {@code sweep-ms} picks up what a crashed
+ * or busy node left behind. Each cycle claims RECEIVED notifications with {@code FOR UPDATE SKIP LOCKED}, checks
+ * them against their bookings and, in the same transaction, queues one outbox event per payable notification and
+ * records every outcome with one JDBC batch. The payment listener still validates the booking under lock, so this
+ * check only keeps obviously unpayable notifications out of the pipeline and flags them for follow-up. Seat hold
+ * expiry is not enforced here: the gateway has already captured the money, so a booking still PENDING is paid.</p>
+ */
+@Service
+public class PaymentNotificationProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentNotificationProcessor.class);
+    private static final Money AMOUNT_TOLERANCE = Money.ofMinor(1);
+
+    private final PaymentNotificationRepository notificationRepository;
+    private final PaymentNotificationJdbcRepository notificationJdbcRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentEventPublisher paymentEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService worker;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean requested = new AtomicBoolean(false);
+    private final Map<PaymentNotificationEntity.Status, Counter> outcomeCounters =
+            new EnumMap<>(PaymentNotificationEntity.Status.class);
+
+    @Value("${app.payment.webhook.process-batch-size:200}")
+    private int batchSize = 200;
+
+    public PaymentNotificationProcessor(
+        PaymentNotificationRepository notificationRepository,
+        PaymentNotificationJdbcRepository notificationJdbcRepository,
+        BookingRepository bookingRepository,
+        PaymentEventPublisher paymentEventPublisher,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.notificationJdbcRepository = notificationJdbcRepository;
+        this.bookingRepository = bookingRepository;
+        this.paymentEventPublisher = paymentEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("payment-notification-"));
+
+        for (PaymentNotificationEntity.Status status : PaymentNotificationEntity.Status.values()) {
+            if (status != PaymentNotificationEntity.Status.RECEIVED) {
+                outcomeCounters.put(status, Counter.builder("payment.webhook.processed")
+                        .tag("outcome", status.name().toLowerCase())
+                        .description("Gateway payment notifications processed")
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    /**
+     * Ask for a processing cycle soon. Calls while a cycle is running are folded into one more cycle.
+     */
+    public void wakeUp() {
+        requested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.webhook.sweep-ms:5000}")
+    public void sweep() {
+        wakeUp();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    private void drain() {
+        try {
+            while (requested.getAndSet(false)) {
+                int processed;
+                do {
+                    processed = processBatch();
+                } while (processed == batchSize);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Payment notification processing failed, retrying on the next sweep: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+        if (requested.get() && draining.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    /**
+     * Process one batch of received notifications.
+     *
+     * @return number of notifications processed
+     */
+    public int processBatch() {
+        List<PaymentNotificationEntity> processed = transactionTemplate.execute(status -> {
+            List<PaymentNotificationEntity> batch = notificationRepository.lockBatch(
+                    PaymentNotificationEntity.Status.RECEIVED, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return batch;
+            }
+
+            Map<Long, BookingEntity> bookings = bookingRepository.findAllById(batch.stream()
+                            .map(PaymentNotificationEntity::getBookingId)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(BookingEntity::getId, Function.identity()));
+
+            Set<Long> paidInBatch = new HashSet<>();
+            for (PaymentNotificationEntity notification : batch) {
+                decide(notification, bookings.get(notification.getBookingId()), paidInBatch);
+            }
+            notificationJdbcRepository.markProcessed(batch);
+            return batch;
+        });
+        if (processed == null) {
+            return 0;
+        }
+
+        // Counted once the outcomes are committed
+        processed.forEach(notification -> outcomeCounters.get(notification.getStatus()).increment());
+        return processed.size();
+    }
+
+    private void decide(PaymentNotificationEntity notification, BookingEntity booking, Set<Long> paidInBatch) {
+        if (!PaymentWebhookRequest.STATUS_SUCCEEDED.equalsIgnoreCase(notification.getGatewayStatus())) {
+            record(notification, PaymentNotificationEntity.Status.IGNORED,
+                    "Gateway status " + notification.getGatewayStatus());
+        } else if (booking == null) {
+            record(notification, PaymentNotificationEntity.Status.REJECTED, "Booking not found");
+        } else if (booking.getStatus() == BookingEntity.Status.PAID
+                && notification.getPaymentRef().equals(booking.getPaymentRef())) {
+            record(notification, PaymentNotificationEntity.Status.IGNORED, "Booking already paid with this payment");
+        } else if (booking.getStatus() != BookingEntity.Status.PENDING) {
+            record(notification, PaymentNotificationEntity.Status.REJECTED, "Booking is " + booking.getStatus());
+        } else if (!booking.getAmount().isWithin(notification.getAmount(), AMOUNT_TOLERANCE)) {
+            record(notification, PaymentNotificationEntity.Status.REJECTED,
+                    "Amount mismatch: booking " + booking.getAmount() + ", paid " + notification.getAmount());
+        } else if (!paidInBatch.add(booking.getId())) {
+            record(notification, PaymentNotificationEntity.Status.REJECTED, "Second payment for the booking");
+        } else {
+            paymentEventPublisher.publishPaymentCompleted(PaymentCompletedEvent.builder()
+                    .bookingId(booking.getId())
+                    .amount(notification.getAmount())
+                    .paymentRef(notification.getPaymentRef())
+                    .paidAt(notification.getPaidAt() != null ? notification.getPaidAt() : LocalDateTime.now())
+                    .build());
+            record(notification, PaymentNotificationEntity.Status.PUBLISHED, null);
+        }
+    }
+
+    private void record(PaymentNotificationEntity notification, PaymentNotificationEntity.Status outcome,
+                        String reason) {
+        notification.setStatus(outcome);
+        notification.setReason(reason);
+        if (outcome == PaymentNotificationEntity.Status.REJECTED) {
+            logger.warn("Payment notification {} for booking {} rejected: {}",
+                    notification.getPaymentRef(), notification.getBookingId(), reason);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessExceptio
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
 import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
 import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.publisher.PaymentEventPublisher;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +21,9 @@ import java.time.LocalDateTime;
 @Transactional
 public class PaymentService {
 
+    /** One minor unit, what a client rounding the amount it shows may be off by. */
+    private static final Money AMOUNT_TOLERANCE = Money.ofMinor(1);
+
     private final BookingRepository bookingRepository;
     private final MessageSource messageSource;
     private final PaymentEventPublisher paymentEventPublisher;
@@ -53,10 +57,13 @@ public class PaymentService {
                     booking.getStatus().name()));
         }
 
-        double tolerance = 0.01; // 1 cent tolerance
-        if (Math.abs(booking.getAmount() - request.getAmount()) > tolerance) {
+        if (booking.getHoldExpiresAt() != null && booking.getHoldExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BusinessException(getMessage("payment.error.booking.hold_expired", booking.getId()));
+        }
+
+        if (!booking.getAmount().isWithin(request.getAmount(), AMOUNT_TOLERANCE)) {
             throw new BusinessException(getMessage("payment.error.amount.mismatch", 
-                    booking.getAmount(), request.getAmount()));
+                    booking.getAmount().toBigDecimal(), request.getAmount().toBigDecimal()));
         }
         
         if (request.getPaymentRef() == null || request.getPaymentRef().trim().isEmpty()) {
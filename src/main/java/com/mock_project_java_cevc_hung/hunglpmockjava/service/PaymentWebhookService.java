@@ -0,0 +1,271 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.PaymentWebhookRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.PaymentWebhookResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.PaymentNotificationEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.AuthException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ServiceUnavailableException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.PaymentNotificationJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.security.PaymentWebhookSigner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Receives payment gateway webhooks.
+ * <p>A notification is acknowledged only once it is stored, but requests do not each pay for a transaction: they are
+ * appended to a bounded queue and a single writer stores whatever has accumulated with one duplicate lookup and one
+ * multi-row insert, then releases all waiting requests together (group commit). Under load the batches grow instead
+ * of the latency. Notifications are deduplicated by {@code paymentRef}, so gateway retries are acknowledged as
+ * duplicates without being stored twice. Processing happens afterwards in {@link PaymentNotificationProcessor}.
+ * A full queue or a storage failure answers 503 so the gateway retries later.</p>
+ */
+@Service
+public class PaymentWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookService.class);
+    private static final int MAX_PAYMENT_REF_LENGTH = 100;
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PaymentNotificationJdbcRepository notificationJdbcRepository;
+    private final PaymentNotificationProcessor notificationProcessor;
+    private final PaymentWebhookSigner signer;
+    private final ObjectMapper objectMapper;
+    private final MessageSource messageSource;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Receipt> queue;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final ExecutorService writer;
+    private final Counter acceptedCounter;
+    private final Counter duplicateCounter;
+    private final Counter invalidSignatureCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer ackTimer;
+
+    @Value("${app.payment.webhook.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.payment.webhook.ack-timeout-ms:2000}")
+    private long ackTimeoutMs = 2000;
+
+    public PaymentWebhookService(
+        PaymentNotificationJdbcRepository notificationJdbcRepository,
+        PaymentNotificationProcessor notificationProcessor,
+        PaymentWebhookSigner signer,
+        ObjectMapper objectMapper,
+        MessageSource messageSource,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${app.payment.webhook.queue-capacity:10000}") int queueCapacity
+    ) {
+        this.notificationJdbcRepository = notificationJdbcRepository;
+        this.notificationProcessor = notificationProcessor;
+        this.signer = signer;
+        this.objectMapper = objectMapper;
+        this.messageSource = messageSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("payment-webhook-"));
+
+        Gauge.builder("payment.webhook.queue.depth", queue, BlockingQueue::size)
+                .description("Gateway notifications waiting to be stored")
+                .register(meterRegistry);
+        this.acceptedCounter = Counter.builder("payment.webhook.received")
+                .tag("result", "accepted")
+                .description("Gateway notifications received")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("payment.webhook.received")
+                .tag("result", "duplicate")
+                .description("Gateway notifications received")
+                .register(meterRegistry);
+        this.invalidSignatureCounter = Counter.builder("payment.webhook.received")
+                .tag("result", "invalid_signature")
+                .description("Gateway notifications received")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("payment.webhook.batch.size")
+                .description("Gateway notifications stored per insert batch")
+                .register(meterRegistry);
+        this.ackTimer = Timer.builder("payment.webhook.ack")
+                .description("Time from receiving a gateway notification to acknowledging it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    /**
+     * Verify, store and acknowledge one notification.
+     *
+     * @throws AuthException when the signature is missing, wrong or too old
+     * @throws BusinessException when the body is not a valid notification
+     * @throws ServiceUnavailableException when the notification could not be stored in time
+     */
+    public PaymentWebhookResponse receive(String timestamp, String signature, byte[] body) {
+        long startedNanos = System.nanoTime();
+        if (!signer.verify(timestamp, signature, body)) {
+            invalidSignatureCounter.increment();
+            throw new AuthException(getMessage("payment.webhook.error.signature"));
+        }
+
+        PaymentWebhookRequest request = parse(body);
+        Receipt receipt = new Receipt(PaymentNotificationEntity.builder()
+                .paymentRef(request.getPaymentRef().trim())
+                .bookingId(request.getBookingId())
+                .amount(request.getAmount())
+                .gatewayStatus(request.getStatus().trim().toUpperCase())
+                .paidAt(request.getPaidAt())
+                .payload(new String(body, StandardCharsets.UTF_8))
+                .status(PaymentNotificationEntity.Status.RECEIVED)
+                .build());
+        if (!queue.offer(receipt)) {
+            throw new ServiceUnavailableException(getMessage("payment.webhook.error.busy"), RETRY_AFTER_SECONDS);
+        }
+        scheduleDrain();
+
+        PaymentWebhookResponse.Result result = await(receipt.future);
+        (result == PaymentWebhookResponse.Result.ACCEPTED ? acceptedCounter : duplicateCounter).increment();
+        ackTimer.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        return PaymentWebhookResponse.builder()
+                .paymentRef(receipt.notification.getPaymentRef())
+                .result(result)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    private PaymentWebhookRequest parse(byte[] body) {
+        PaymentWebhookRequest request;
+        try {
+            request = objectMapper.readValue(body, PaymentWebhookRequest.class);
+        } catch (IOException e) {
+            throw new BusinessException(getMessage("payment.webhook.error.invalid_payload"), e);
+        }
+        if (request.getPaymentRef() == null || request.getPaymentRef().isBlank()
+                || request.getPaymentRef().trim().length() > MAX_PAYMENT_REF_LENGTH
+                || request.getBookingId() == null
+                || request.getAmount() == null || request.getAmount().isNegative()
+                || request.getStatus() == null || request.getStatus().isBlank()) {
+            throw new BusinessException(getMessage("payment.webhook.error.invalid_payload"));
+        }
+        return request;
+    }
+
+    private PaymentWebhookResponse.Result await(CompletableFuture<PaymentWebhookResponse.Result> future) {
+        try {
+            return future.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            throw new ServiceUnavailableException(getMessage("payment.webhook.error.busy"), RETRY_AFTER_SECONDS, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(getMessage("payment.webhook.error.busy"), RETRY_AFTER_SECONDS, e);
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    /**
+     * Single-writer loop; the re-check after releasing {@link #draining} closes the race with requests that queued
+     * just before the flag was cleared.
+     */
+    private void drain() {
+        List<Receipt> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                draining.set(false);
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            try {
+                store(batch);
+            } catch (RuntimeException e) {
+                logger.error("Could not store {} gateway notifications", batch.size(), e);
+                batch.forEach(receipt -> receipt.future.completeExceptionally(e));
+            }
+        }
+    }
+
+    private void store(List<Receipt> batch) {
+        batchSizeSummary.record(batch.size());
+        Map<String, Receipt> firstByRef = new HashMap<>();
+        List<PaymentNotificationEntity> fresh = new ArrayList<>(batch.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> existing = notificationJdbcRepository.findExistingRefs(batch.stream()
+                    .map(receipt -> receipt.notification.getPaymentRef())
+                    .distinct()
+                    .toList());
+            for (Receipt receipt : batch) {
+                String paymentRef = receipt.notification.getPaymentRef();
+                if (!existing.contains(paymentRef) && firstByRef.putIfAbsent(paymentRef, receipt) == null) {
+                    fresh.add(receipt.notification);
+                }
+            }
+            if (!fresh.isEmpty()) {
+                notificationJdbcRepository.insertAll(fresh);
+            }
+        });
+
+        // Requests are only released after the commit
+        for (Receipt receipt : batch) {
+            receipt.future.complete(firstByRef.get(receipt.notification.getPaymentRef()) == receipt
+                    ? PaymentWebhookResponse.Result.ACCEPTED
+                    : PaymentWebhookResponse.Result.DUPLICATE);
+        }
+        if (!fresh.isEmpty()) {
+            notificationProcessor.wakeUp();
+        }
+    }
+
+    private static final class Receipt {
+        private final PaymentNotificationEntity notification;
+        private final CompletableFuture<PaymentWebhookResponse.Result> future = new CompletableFuture<>();
+
+        private Receipt(PaymentNotificationEntity notification) {
+            this.notification = notification;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueRollupRebuildResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueRollupJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rebuilds {@code revenue_daily_rollups} from the raw {@code revenues} rows, for the first deployment of the rollups
+ * and to repair them after revenue rows were changed by hand.
+ * <p>A rebuild runs as one background job at a time and walks its range in chunks of {@code chunk-days} days. Each
+ * chunk deletes and recomputes its rollups in its own transaction, so readers never see a day empty and a cancelled
+ * or failed job leaves every chunk either rebuilt or untouched. Payments recorded meanwhile update the rollup before
+ * inserting their revenue row: if the payment wins the row lock the chunk waits and then counts its revenue, if the
+ * chunk wins the payment waits and then adds its amount on top, so neither is counted twice.</p>
+ * <p>When {@code backfill-on-startup} is set and the rollups are empty while revenue exists, a full rebuild starts
+ * once the application is ready.</p>
+ */
+@Service
+public class RevenueRollupBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueRollupBackfillService.class);
+    private static final int MAX_KEPT_JOBS = 20;
+
+    private final RevenueRollupJdbcRepository rollupJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageSource messageSource;
+    private final ExecutorService worker;
+    private final AtomicReference<RebuildJob> running = new AtomicReference<>();
+    private final Map<String, RebuildJob> jobs;
+
+    @Value("${app.revenue.rollup.chunk-days:31}")
+    private int chunkDays = 31;
+
+    @Value("${app.revenue.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup = true;
+
+    public RevenueRollupBackfillService(
+        RevenueRollupJdbcRepository rollupJdbcRepository,
+        PlatformTransactionManager transactionManager,
+        MessageSource messageSource
+    ) {
+        this.rollupJdbcRepository = rollupJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messageSource = messageSource;
+        this.worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("revenue-rollup-rebuild-"));
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RebuildJob> eldest) {
+                return size() > MAX_KEPT_JOBS;
+            }
+        });
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup || rollupJdbcRepository.hasRollups()) {
+            return;
+        }
+        if (rollupJdbcRepository.findRevenueDateRange() != null) {
+            logger.info("Revenue rollups are empty, rebuilding them from the revenue rows");
+            startRebuild(null, null);
+        }
+    }
+
+    /**
+     * Start rebuilding the rollups of {@code from}..{@code to} (inclusive) in the background. Either bound may be
+     * empty to start at the first or end at the last revenue date.
+     *
+     * @throws BusinessException when the range is inverted or another rebuild is still running
+     */
+    public RevenueRollupRebuildResponse startRebuild(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException(getMessage("revenue.series.error.invalid_range", from, to));
+        }
+        RebuildJob job = new RebuildJob(UUID.randomUUID().toString(), from, to);
+        if (!running.compareAndSet(null, job)) {
+            RebuildJob current = running.get();
+            throw new BusinessException(getMessage("revenue.rollup.error.rebuild_running",
+                    current != null ? current.id : ""));
+        }
+        jobs.put(job.id, job);
+        worker.execute(() -> run(job));
+        logger.info("Started revenue rollup rebuild {} ({} to {})", job.id,
+                from != null ? from : "first revenue", to != null ? to : "last revenue");
+        return job.toResponse();
+    }
+
+    public RevenueRollupRebuildResponse getRebuild(String jobId) {
+        return findJob(jobId).toResponse();
+    }
+
+    public List<RevenueRollupRebuildResponse> getRebuilds() {
+        synchronized (jobs) {
+            List<RevenueRollupRebuildResponse> rebuilds = new ArrayList<>(jobs.size());
+            jobs.values().forEach(job -> rebuilds.add(job.toResponse()));
+            Collections.reverse(rebuilds);
+            return rebuilds;
+        }
+    }
+
+    /**
+     * Ask a running job to stop after its current chunk.
+     */
+    public RevenueRollupRebuildResponse cancelRebuild(String jobId) {
+        RebuildJob job = findJob(jobId);
+        job.cancelled = true;
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        RebuildJob job = running.get();
+        if (job != null) {
+            job.cancelled = true;
+        }
+        worker.shutdown();
+    }
+
+    private RebuildJob findJob(String jobId) {
+        RebuildJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException(getMessage("revenue.rollup.error.job_not_found", jobId));
+        }
+        return job;
+    }
+
+    void run(RebuildJob job) {
+        try {
+            if (job.from == null || job.to == null) {
+                LocalDate[] range = rollupJdbcRepository.findRevenueDateRange();
+                if (range == null) {
+                    job.finish(RevenueRollupRebuildResponse.Status.COMPLETED, null);
+                    return;
+                }
+                job.from = job.from != null ? job.from : range[0];
+                job.to = job.to != null ? job.to : range[1];
+            }
+            LocalDate chunkStart = job.from;
+            while (!chunkStart.isAfter(job.to) && !job.cancelled) {
+                LocalDate chunkEnd = chunkStart.plusDays(Math.max(1, chunkDays) - 1L);
+                if (chunkEnd.isAfter(job.to)) {
+                    chunkEnd = job.to;
+                }
+                LocalDate start = chunkStart;
+                LocalDate end = chunkEnd;
+                Integer rows = transactionTemplate.execute(status -> rollupJdbcRepository.rebuild(start, end));
+                job.rollupRows += rows != null ? rows : 0;
+                job.daysRebuilt += ChronoUnit.DAYS.between(start, end) + 1;
+                chunkStart = end.plusDays(1);
+            }
+            job.finish(job.cancelled ? RevenueRollupRebuildResponse.Status.CANCELLED
+                    : RevenueRollupRebuildResponse.Status.COMPLETED, null);
+        } catch (RuntimeException e) {
+            logger.error("Revenue rollup rebuild {} failed", job.id, e);
+            job.finish(RevenueRollupRebuildResponse.Status.FAILED, e.getMessage());
+        } finally {
+            running.compareAndSet(job, null);
+            logger.info("Revenue rollup rebuild {} {}: {} days, {} rollup rows", job.id, job.status,
+                    job.daysRebuilt, job.rollupRows);
+        }
+    }
+
+    static final class RebuildJob {
+        private final String id;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile LocalDate from;
+        private volatile LocalDate to;
+        private volatile long daysRebuilt;
+        private volatile long rollupRows;
+        private volatile RevenueRollupRebuildResponse.Status status = RevenueRollupRebuildResponse.Status.RUNNING;
+        volatile boolean cancelled;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        RebuildJob(String id, LocalDate from, LocalDate to) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+        }
+
+        private void finish(RevenueRollupRebuildResponse.Status finalStatus, String failure) {
+            error = failure;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        RevenueRollupRebuildResponse toResponse() {
+            return RevenueRollupRebuildResponse.builder()
+                    .id(id)
+                    .from(from)
+                    .to(to)
+                    .status(status)
+                    .daysRebuilt(daysRebuilt)
+                    .rollupRows(rollupRows)
+                    .error(error)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
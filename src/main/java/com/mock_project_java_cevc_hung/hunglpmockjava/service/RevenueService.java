@@ -1,20 +1,33 @@
 package com.mock_project_java_cevc_hung.hunglpmockjava.service;
 
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSeriesRequest;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.CategoryRevenueDTO;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.MonthlyRevenueDTO;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueSeriesResponse;
 import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TopRatedTourDTO;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.RevenueDailyRollupEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.RevenueEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.ReviewEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.CsvColumn;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.CsvExport;
+import com.mock_project_java_cevc_hung.hunglpmockjava.export.CsvWriter;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueDailyRollupRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueJdbcRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueRollupJdbcRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.ReviewRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.CategoryRevenueProjection;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.MonthlyRevenueProjection;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.TopRatedTourProjection;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
@@ -23,9 +36,12 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -35,14 +51,48 @@ import java.util.Map;
 @Transactional
 public class RevenueService {
 
+    private static final Comparator<RevenueDailyRollupEntity> ROLLUP_KEY_ORDER =
+            Comparator.comparing(RevenueDailyRollupEntity::getRevenueDate)
+                    .thenComparing(RevenueDailyRollupEntity::getCategoryId)
+                    .thenComparing(RevenueDailyRollupEntity::getTourId);
+
+    private static final CsvExport ALL_REVENUES_EXPORT = new CsvExport("all_revenues",
+            "SELECT id, date, total_revenue_minor, tour_revenue_minor, total_bookings, booking_id, created_at, updated_at " +
+            "FROM revenues ORDER BY id",
+            List.of(
+                    CsvColumn.text("ID", "id"),
+                    CsvColumn.text("Date", "date"),
+                    CsvColumn.money("Total Revenue", "total_revenue_minor", "0"),
+                    CsvColumn.money("Tour Revenue", "tour_revenue_minor", "0"),
+                    CsvColumn.text("Total Bookings", "total_bookings", "0"),
+                    CsvColumn.text("Booking ID", "booking_id"),
+                    CsvColumn.dateTime("Created At", "created_at", null),
+                    CsvColumn.dateTime("Updated At", "updated_at", null)),
+            "SELECT CONCAT_WS(':', COUNT(*), COALESCE(MAX(updated_at), '')) FROM revenues");
+
     private final RevenueRepository revenueRepository;
+    private final RevenueJdbcRepository revenueJdbcRepository;
+    private final RevenueDailyRollupRepository rollupRepository;
+    private final RevenueRollupJdbcRepository rollupJdbcRepository;
     private final ReviewRepository reviewRepository;
     private final MessageSource messageSource;
 
+    @Value("${app.revenue.series.max-points:1000}")
+    private int maxSeriesPoints = 1000;
+
+    @Value("${app.revenue.series.default-days:30}")
+    private int defaultSeriesDays = 30;
+
     public RevenueService(RevenueRepository revenueRepository,
+            RevenueJdbcRepository revenueJdbcRepository,
+            RevenueDailyRollupRepository rollupRepository,
+            RevenueRollupJdbcRepository rollupJdbcRepository,
             ReviewRepository reviewRepository,
             MessageSource messageSource) {
         this.revenueRepository = revenueRepository;
+        this.revenueJdbcRepository = revenueJdbcRepository;
+        this.rollupRepository = rollupRepository;
+        this.rollupJdbcRepository = rollupJdbcRepository;
         this.reviewRepository = reviewRepository;
         this.messageSource = messageSource;
     }
@@ -62,9 +112,8 @@ public class RevenueService {
         return convertToResponse(revenue);
     }
 
-    public Double getTotalRevenue() {
-        Double sum = revenueRepository.sumTotalRevenue();
-        return sum != null ? sum : 0.0;
+    public Money getTotalRevenue() {
+        return Money.ofMinor(rollupRepository.sumRevenueMinor());
     }
 
     public List<MonthlyRevenueDTO> getRevenueChartData(int monthsBack) {
@@ -75,8 +124,8 @@ public class RevenueService {
         LocalDate endMonth = LocalDate.now().withDayOfMonth(1);
         LocalDate startMonth = endMonth.minusMonths(monthsBack - 1);
 
-        List<MonthlyRevenueProjection> rawData = revenueRepository.findMonthlyRevenueFrom(startMonth);
-        Map<String, Double> revenueMap = new LinkedHashMap<>();
+        List<MonthlyRevenueProjection> rawData = rollupRepository.findMonthlyRevenueFrom(startMonth);
+        Map<String, Money> revenueMap = new LinkedHashMap<>();
         Map<String, Integer> bookingMap = new LinkedHashMap<>();
         for (MonthlyRevenueProjection row : rawData) {
             revenueMap.put(row.getPeriod(), row.getTotalRevenue());
@@ -93,7 +142,7 @@ public class RevenueService {
             String key = month.format(keyFormatter);
             String label = month.format(labelFormatter);
 
-            Double revenueValue = revenueMap.getOrDefault(key, 0.0);
+            Money revenueValue = revenueMap.getOrDefault(key, Money.ZERO);
             Integer bookingsValue = bookingMap.getOrDefault(key, 0);
             chartData.add(MonthlyRevenueDTO.builder()
                     .period(key)
@@ -110,7 +159,7 @@ public class RevenueService {
         if (limit <= 0) {
             return List.of();
         }
-        List<CategoryRevenueProjection> rows = revenueRepository.findTopCategoriesByRevenue(limit);
+        List<CategoryRevenueProjection> rows = rollupRepository.findTopCategoriesByRevenue(limit);
         List<CategoryRevenueDTO> results = new ArrayList<>();
         for (CategoryRevenueProjection row : rows) {
             results.add(CategoryRevenueDTO.builder()
@@ -123,6 +172,81 @@ public class RevenueService {
         return results;
     }
 
+    /**
+     * Revenue of {@code request.from}..{@code request.to} in day, week or month buckets, read from the daily
+     * rollups. Every bucket of the range is present, with zero revenue where nothing was paid.
+     *
+     * @throws BusinessException when the range is inverted or needs more than {@code max-points} buckets
+     */
+    public RevenueSeriesResponse getRevenueSeries(RevenueSeriesRequest request) {
+        RevenueSeriesRequest.Granularity granularity = request.getGranularity() != null
+                ? request.getGranularity() : RevenueSeriesRequest.Granularity.DAY;
+        LocalDate to = request.getTo() != null ? request.getTo() : LocalDate.now();
+        LocalDate from = request.getFrom() != null ? request.getFrom() : to.minusDays(defaultSeriesDays - 1L);
+        if (from.isAfter(to)) {
+            throw new BusinessException(getMessage("revenue.series.error.invalid_range", from, to));
+        }
+
+        List<LocalDate> buckets = new ArrayList<>();
+        for (LocalDate start = bucketStart(from, granularity); !start.isAfter(to); start = nextBucket(start, granularity)) {
+            if (buckets.size() == maxSeriesPoints) {
+                throw new BusinessException(getMessage("revenue.series.error.too_many_points", maxSeriesPoints));
+            }
+            buckets.add(start);
+        }
+
+        Map<LocalDate, RevenueSeriesResponse.Point> sums = new HashMap<>();
+        for (RevenueSeriesResponse.Point point : rollupJdbcRepository.sumByBucket(
+                from, to, granularity, request.getCategoryId(), request.getTourId())) {
+            sums.put(point.getStart(), point);
+        }
+
+        List<RevenueSeriesResponse.Point> points = new ArrayList<>(buckets.size());
+        long totalMinor = 0;
+        long totalBookings = 0;
+        for (LocalDate start : buckets) {
+            RevenueSeriesResponse.Point sum = sums.get(start);
+            Money revenue = sum != null ? sum.getRevenue() : Money.ZERO;
+            long bookings = sum != null ? sum.getBookings() : 0;
+            LocalDate end = nextBucket(start, granularity).minusDays(1);
+            points.add(RevenueSeriesResponse.Point.builder()
+                    .start(start.isBefore(from) ? from : start)
+                    .end(end.isAfter(to) ? to : end)
+                    .revenue(revenue)
+                    .bookings(bookings)
+                    .build());
+            totalMinor = Math.addExact(totalMinor, revenue.minorUnits());
+            totalBookings += bookings;
+        }
+
+        return RevenueSeriesResponse.builder()
+                .granularity(granularity)
+                .from(from)
+                .to(to)
+                .categoryId(request.getCategoryId())
+                .tourId(request.getTourId())
+                .totalRevenue(Money.ofMinor(totalMinor))
+                .totalBookings(totalBookings)
+                .points(points)
+                .build();
+    }
+
+    private static LocalDate bucketStart(LocalDate day, RevenueSeriesRequest.Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(DayOfWeek.MONDAY);
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate nextBucket(LocalDate start, RevenueSeriesRequest.Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+
     public List<TopRatedTourDTO> getTopRatedTours(int limit) {
         if (limit <= 0) {
             return List.of();
@@ -143,23 +267,79 @@ public class RevenueService {
 
     /**
      * Create a new revenue record for each payment (one-to-one relationship)
-     * This allows full traceability of each payment
+     * This allows full traceability of each payment. The daily rollup is updated
+     * first, in the same transaction, so a concurrent rollup rebuild of that day
+     * waits for this payment instead of deadlocking with it.
      * 
      * @param date          The date of payment
      * @param bookingAmount The amount of the booking
      * @param booking       The booking entity for reference
      * @return The created RevenueEntity
      */
-    public RevenueEntity createRevenueForPayment(LocalDate date, Double bookingAmount, BookingEntity booking) {
-        RevenueEntity revenue = RevenueEntity.builder()
+    public RevenueEntity createRevenueForPayment(LocalDate date, Money bookingAmount, BookingEntity booking) {
+        RevenueEntity revenue = buildRevenueForPayment(date, bookingAmount, booking);
+        rollupJdbcRepository.addAll(List.of(rollupOf(revenue)));
+        return revenueRepository.save(revenue);
+    }
+
+    /**
+     * Record one revenue row per paid booking with a single JDBC batch.
+     *
+     * @param bookings Bookings already marked PAID, each with its paid time set
+     */
+    public void createRevenuesForPayments(List<BookingEntity> bookings) {
+        List<RevenueEntity> revenues = new ArrayList<>(bookings.size());
+        for (BookingEntity booking : bookings) {
+            revenues.add(buildRevenueForPayment(booking.getPaidAt().toLocalDate(), booking.getAmount(), booking));
+        }
+        rollupJdbcRepository.addAll(rollupsOf(revenues));
+        revenueJdbcRepository.insertAll(revenues);
+    }
+
+    /**
+     * One rollup increment per (date, category, tour) in key order, so concurrent batches take the row locks of
+     * the upsert in the same order.
+     */
+    private List<RevenueDailyRollupEntity> rollupsOf(List<RevenueEntity> revenues) {
+        List<RevenueDailyRollupEntity> increments = new ArrayList<>(revenues.size());
+        for (RevenueEntity revenue : revenues) {
+            increments.add(rollupOf(revenue));
+        }
+        increments.sort(ROLLUP_KEY_ORDER);
+
+        List<RevenueDailyRollupEntity> merged = new ArrayList<>(increments.size());
+        for (RevenueDailyRollupEntity increment : increments) {
+            RevenueDailyRollupEntity last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && ROLLUP_KEY_ORDER.compare(last, increment) == 0) {
+                last.setRevenue(last.getRevenue().plus(increment.getRevenue()));
+                last.setBookings(last.getBookings() + increment.getBookings());
+            } else {
+                merged.add(increment);
+            }
+        }
+        return merged;
+    }
+
+    private RevenueDailyRollupEntity rollupOf(RevenueEntity revenue) {
+        TourEntity tour = revenue.getBooking() != null ? revenue.getBooking().getTour() : null;
+        return RevenueDailyRollupEntity.builder()
+                .revenueDate(revenue.getDate())
+                .categoryId(tour != null && tour.getCategory() != null
+                        ? tour.getCategory().getId() : RevenueDailyRollupEntity.NONE)
+                .tourId(tour != null ? tour.getId() : RevenueDailyRollupEntity.NONE)
+                .revenue(revenue.getTotalRevenue())
+                .bookings(revenue.getTotalBookings())
+                .build();
+    }
+
+    private RevenueEntity buildRevenueForPayment(LocalDate date, Money bookingAmount, BookingEntity booking) {
+        return RevenueEntity.builder()
                 .date(date)
                 .tourRevenue(bookingAmount)
                 .totalRevenue(bookingAmount)
                 .totalBookings(1)
                 .booking(booking)
                 .build();
-
-        return revenueRepository.save(revenue);
     }
 
     private Specification<RevenueEntity> createSearchSpecification(String search) {
@@ -207,10 +387,10 @@ public class RevenueService {
         csv.append("Period,Month,Total Revenue,Total Bookings\n");
 
         for (MonthlyRevenueDTO dto : data) {
-            csv.append(escapeCsv(dto.getPeriod())).append(",");
-            csv.append(escapeCsv(dto.getLabel())).append(",");
-            csv.append(escapeCsv(dto.getTotalRevenue() != null ? dto.getTotalRevenue().toString() : "0")).append(",");
-            csv.append(escapeCsv(dto.getTotalBookings() != null ? dto.getTotalBookings().toString() : "0"));
+            csv.append(CsvWriter.escape(dto.getPeriod())).append(",");
+            csv.append(CsvWriter.escape(dto.getLabel())).append(",");
+            csv.append(CsvWriter.escape(dto.getTotalRevenue() != null ? dto.getTotalRevenue().toString() : "0")).append(",");
+            csv.append(CsvWriter.escape(dto.getTotalBookings() != null ? dto.getTotalBookings().toString() : "0"));
             csv.append("\n");
         }
 
@@ -227,10 +407,10 @@ public class RevenueService {
         csv.append("Category ID,Category Name,Total Revenue,Total Bookings\n");
 
         for (CategoryRevenueDTO dto : data) {
-            csv.append(escapeCsv(dto.getCategoryId() != null ? dto.getCategoryId().toString() : "")).append(",");
-            csv.append(escapeCsv(dto.getLabel())).append(",");
-            csv.append(escapeCsv(dto.getTotalRevenue() != null ? dto.getTotalRevenue().toString() : "0")).append(",");
-            csv.append(escapeCsv(dto.getTotalBookings() != null ? dto.getTotalBookings().toString() : "0"));
+            csv.append(CsvWriter.escape(dto.getCategoryId() != null ? dto.getCategoryId().toString() : "")).append(",");
+            csv.append(CsvWriter.escape(dto.getLabel())).append(",");
+            csv.append(CsvWriter.escape(dto.getTotalRevenue() != null ? dto.getTotalRevenue().toString() : "0")).append(",");
+            csv.append(CsvWriter.escape(dto.getTotalBookings() != null ? dto.getTotalBookings().toString() : "0"));
             csv.append("\n");
         }
 
@@ -238,53 +418,10 @@ public class RevenueService {
     }
 
     /**
-     * Export all revenue records to CSV
+     * All revenue records as a streamed CSV export
      */
-    public String exportAllRevenuesToCSV() {
-        List<RevenueEntity> revenues = revenueRepository.findAll();
-        StringBuilder csv = new StringBuilder();
-
-        csv.append("ID,Date,Total Revenue,Tour Revenue,Total Bookings,Booking ID,Created At,Updated At\n");
-
-        for (RevenueEntity revenue : revenues) {
-            csv.append(escapeCsv(revenue.getId() != null ? revenue.getId().toString() : "")).append(",");
-            csv.append(escapeCsv(revenue.getDate() != null ? revenue.getDate().toString() : "")).append(",");
-            csv.append(escapeCsv(revenue.getTotalRevenue() != null ? revenue.getTotalRevenue().toString() : "0"))
-                    .append(",");
-            csv.append(escapeCsv(revenue.getTourRevenue() != null ? revenue.getTourRevenue().toString() : "0"))
-                    .append(",");
-            csv.append(escapeCsv(revenue.getTotalBookings() != null ? revenue.getTotalBookings().toString() : "0"))
-                    .append(",");
-            csv.append(escapeCsv(revenue.getBooking() != null && revenue.getBooking().getId() != null
-                    ? revenue.getBooking().getId().toString()
-                    : "")).append(",");
-            csv.append(escapeCsv(revenue.getCreatedAt() != null ? revenue.getCreatedAt().toString() : "")).append(",");
-            csv.append(escapeCsv(revenue.getUpdatedAt() != null ? revenue.getUpdatedAt().toString() : ""));
-            csv.append("\n");
-        }
-
-        return csv.toString();
-    }
-
-    /**
-     * Escape CSV special characters and prevent CSV injection
-     */
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "";
-        }
-
-        if (!value.isEmpty()) {
-            char firstChar = value.charAt(0);
-            if (firstChar == '=' || firstChar == '+' || firstChar == '-' || firstChar == '@') {
-                value = "'" + value;
-            }
-        }
-
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-        return value;
+    public CsvExport getAllRevenuesExport() {
+        return ALL_REVENUES_EXPORT;
     }
 
     private RevenueEntity findRevenueById(Long id) {
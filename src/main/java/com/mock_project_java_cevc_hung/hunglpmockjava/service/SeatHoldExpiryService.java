@@ -0,0 +1,196 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.PendingHoldProjection;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingStatusChangedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.SeatsReleasedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Releases the seats of PENDING bookings that were never paid.
+ * <p>Every PENDING booking carries a {@code holdExpiresAt} deadline. Deadlines are tracked in an in-memory
+ * {@link SeatHoldTimingWheel} that is rebuilt from the {@code bookings} table on startup and fed by every booking
+ * created on this node afterwards, so the table is not polled to find due holds. Due holds are cancelled in
+ * batches: one locking read, one set-based status update and one seat release per tour. The release lets the
+ * {@link WaitlistService} hand the seats on in the same transaction. A slow sweep picks up overdue holds created
+ * by nodes that went away before expiring them.</p>
+ */
+@Service
+public class SeatHoldExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldExpiryService.class);
+
+    private final BookingRepository bookingRepository;
+    private final TourRepository tourRepository;
+    private final SeatLeaseAllocator seatLeaseAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatHoldTimingWheel wheel;
+    private final Counter expiredCounter;
+
+    @Value("${app.booking.hold.minutes:15}")
+    private long holdMinutes = 15;
+
+    @Value("${app.booking.hold.batch-size:500}")
+    private int batchSize = 500;
+
+    public SeatHoldExpiryService(
+        BookingRepository bookingRepository,
+        TourRepository tourRepository,
+        SeatLeaseAllocator seatLeaseAllocator,
+        ApplicationEventPublisher eventPublisher,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${app.booking.hold.tick-ms:1000}") long tickMillis,
+        @Value("${app.booking.hold.wheel-size:4096}") int wheelSize
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.tourRepository = tourRepository;
+        this.seatLeaseAllocator = seatLeaseAllocator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new SeatHoldTimingWheel(tickMillis, wheelSize, System.currentTimeMillis());
+
+        Gauge.builder("booking.hold.tracked", wheel, SeatHoldTimingWheel::size)
+                .description("PENDING booking holds tracked by the expiry timing wheel")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("booking.hold.expired")
+                .description("PENDING bookings cancelled because their hold expired")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deadline for a hold starting now.
+     */
+    public LocalDateTime newDeadline() {
+        return LocalDateTime.now().plusMinutes(holdMinutes);
+    }
+
+    /**
+     * Start tracking a hold. Inside a transaction the booking is only scheduled once the transaction commits.
+     */
+    public void track(Long bookingId, LocalDateTime deadline) {
+        Runnable schedule = () -> wheel.schedule(bookingId, toMillis(deadline));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule.run();
+                }
+            });
+        } else {
+            schedule.run();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<PendingHoldProjection> holds = bookingRepository.findHoldsByStatus(BookingEntity.Status.PENDING);
+        for (PendingHoldProjection hold : holds) {
+            LocalDateTime deadline = hold.getHoldExpiresAt() != null
+                    ? hold.getHoldExpiresAt()
+                    : hold.getCreatedAt().plusMinutes(holdMinutes);
+            wheel.schedule(hold.getId(), toMillis(deadline));
+        }
+        logger.info("Seat hold wheel rebuilt with {} PENDING bookings", holds.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.booking.hold.tick-ms:1000}")
+    public void tick() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            expire(due.subList(from, Math.min(due.size(), from + batchSize)));
+        }
+    }
+
+    /**
+     * Recover holds no node is tracking any more, e.g. created on a node that stopped before they were due.
+     */
+    @Scheduled(fixedDelayString = "${app.booking.hold.sweep-ms:300000}",
+            initialDelayString = "${app.booking.hold.sweep-ms:300000}")
+    public void sweepOverdue() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(1);
+        List<Long> overdue;
+        do {
+            overdue = bookingRepository.findOverdueHoldIds(
+                    BookingEntity.Status.PENDING, cutoff, PageRequest.of(0, batchSize));
+        } while (!overdue.isEmpty() && expire(overdue) > 0);
+    }
+
+    /**
+     * Cancel the bookings among {@code bookingIds} that are still PENDING past their deadline and give their
+     * seats back with one release per tour.
+     *
+     * @return number of bookings cancelled
+     */
+    public int expire(List<Long> bookingIds) {
+        Integer cancelled = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<BookingEntity> expired = bookingRepository.findExpiredHoldsForUpdate(
+                    bookingIds, BookingEntity.Status.PENDING, now);
+            if (expired.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> expiredIds = new ArrayList<>(expired.size());
+            Map<Long, TourEntity> tours = new LinkedHashMap<>();
+            Map<Long, Integer> seatsByTour = new LinkedHashMap<>();
+            for (BookingEntity booking : expired) {
+                expiredIds.add(booking.getId());
+                TourEntity tour = booking.getTour();
+                tours.putIfAbsent(tour.getId(), tour);
+                seatsByTour.merge(tour.getId(), booking.getQty(), Integer::sum);
+            }
+
+            bookingRepository.updateStatusByIdIn(expiredIds, BookingEntity.Status.CANCELLED, now);
+            expiredIds.forEach(bookingId -> eventPublisher.publishEvent(
+                    new BookingStatusChangedEvent(bookingId, BookingEntity.Status.CANCELLED, null, null)));
+            seatsByTour.forEach((tourId, seats) -> {
+                TourEntity tour = tours.get(tourId);
+                if (seatLeaseAllocator.isHot(tour)) {
+                    seatLeaseAllocator.release(tour, seats);
+                } else {
+                    tourRepository.releaseSeats(tourId, seats);
+                }
+                eventPublisher.publishEvent(new SeatsReleasedEvent(tourId, seats));
+            });
+            return expired.size();
+        });
+
+        int count = cancelled != null ? cancelled : 0;
+        if (count > 0) {
+            expiredCounter.increment(count);
+            logger.info("Cancelled {} expired PENDING bookings", count);
+        }
+        return count;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
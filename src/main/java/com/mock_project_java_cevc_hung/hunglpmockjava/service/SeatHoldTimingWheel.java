@@ -0,0 +1,75 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel for booking hold deadlines.
+ * <p>Deadlines are rounded up to the next tick and hashed into {@code wheelSize} slots, so scheduling is O(1) and
+ * each tick only looks at one slot. Deadlines further away than one revolution stay in their slot and are skipped
+ * until the wheel comes round to their tick. Deadlines already in the past when scheduled expire on the next
+ * {@link #advance(long)}.</p>
+ */
+public class SeatHoldTimingWheel {
+
+    private final long tickMillis;
+    private final List<Entry>[] slots;
+    private final List<Long> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public SeatHoldTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public synchronized void schedule(long bookingId, long deadlineMillis) {
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        if (deadlineTick <= currentTick) {
+            overdue.add(bookingId);
+        } else {
+            slots[(int) (deadlineTick % slots.length)].add(new Entry(bookingId, deadlineTick));
+        }
+        size++;
+    }
+
+    /**
+     * Move the wheel forward to {@code nowMillis} and collect every booking whose deadline has passed.
+     */
+    public synchronized List<Long> advance(long nowMillis) {
+        List<Long> expired = new ArrayList<>(overdue);
+        overdue.clear();
+
+        long targetTick = nowMillis / tickMillis;
+        // After a long pause every slot is visited once; a full revolution covers all of them
+        long firstTick = Math.max(currentTick + 1, targetTick - slots.length + 1);
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            Iterator<Entry> it = slots[(int) (tick % slots.length)].iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.deadlineTick <= targetTick) {
+                    expired.add(entry.bookingId);
+                    it.remove();
+                }
+            }
+        }
+        if (targetTick > currentTick) {
+            currentTick = targetTick;
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private record Entry(long bookingId, long deadlineTick) {
+    }
+}
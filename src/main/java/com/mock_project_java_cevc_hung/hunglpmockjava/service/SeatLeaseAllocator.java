@@ -0,0 +1,346 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.SeatReconciliationResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.SeatLeaseEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.SeatLeaseRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sells seats of {@link TourEntity.BookingMode#HOT} tours from blocks leased by this node.
+ * <p>Each node takes a block of seats out of {@code tours.seats_available} into its own {@code seat_leases} row
+ * and sells from an in-memory counter backed by that row. Bookings on different nodes therefore update different
+ * rows instead of all serializing on the tour row. The block is refilled in the background when it runs low,
+ * renewed by a heartbeat, returned on shutdown, and returned by any node once it has expired.</p>
+ */
+@Service
+public class SeatLeaseAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatLeaseAllocator.class);
+    private static final List<BookingEntity.Status> SEAT_HOLDING_STATUSES =
+            List.of(BookingEntity.Status.PENDING, BookingEntity.Status.PAID);
+
+    private final TourRepository tourRepository;
+    private final SeatLeaseRepository seatLeaseRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final Map<Long, LocalLease> localLeases = new ConcurrentHashMap<>();
+    private final Set<Long> refillsInFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refillExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("seat-lease-"));
+
+    @Value("${app.booking.seat-lease.block-size:50}")
+    private int blockSize = 50;
+
+    @Value("${app.booking.seat-lease.low-watermark:10}")
+    private int lowWatermark = 10;
+
+    @Value("${app.booking.seat-lease.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    public SeatLeaseAllocator(
+        TourRepository tourRepository,
+        SeatLeaseRepository seatLeaseRepository,
+        BookingRepository bookingRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${app.booking.seat-lease.node-id:}") String nodeId
+    ) {
+        this.tourRepository = tourRepository;
+        this.seatLeaseRepository = seatLeaseRepository;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : generateNodeId();
+    }
+
+    public boolean isHot(TourEntity tour) {
+        return tour.getBookingMode() == TourEntity.BookingMode.HOT;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Seats left in this node's lease of a tour, 0 when it holds none.
+     */
+    public int leasedSeats(Long tourId) {
+        LocalLease lease = localLeases.get(tourId);
+        return lease != null ? Math.max(0, lease.remaining.get()) : 0;
+    }
+
+    /**
+     * Take {@code qty} seats for a booking in the caller's transaction. Sells from this node's lease when it has
+     * enough seats left, otherwise falls back to the guarded update on the tour row.
+     *
+     * @return whether the seats were reserved
+     */
+    public boolean reserve(TourEntity tour, int qty) {
+        Long tourId = tour.getId();
+        LocalLease lease = localLeases.get(tourId);
+        if (lease != null && lease.tryTake(qty)) {
+            if (seatLeaseRepository.consumeSeats(lease.leaseId, qty) == 1) {
+                onRollback(() -> lease.remaining.addAndGet(qty));
+                if (lease.remaining.get() <= lowWatermark) {
+                    scheduleRefill(tourId);
+                }
+                return true;
+            }
+            // The lease row was reaped or holds fewer seats than we thought; forget it and lease again
+            localLeases.remove(tourId, lease);
+        }
+
+        scheduleRefill(tourId);
+        return tourRepository.reserveSeats(tourId, qty) > 0;
+    }
+
+    /**
+     * Give {@code qty} seats back in the caller's transaction, into this node's lease when it holds one so the
+     * tour row is not touched.
+     */
+    public void release(TourEntity tour, int qty) {
+        LocalLease lease = localLeases.get(tour.getId());
+        if (lease != null && seatLeaseRepository.returnSeats(lease.leaseId, qty) == 1) {
+            afterCommit(() -> lease.remaining.addAndGet(qty));
+            return;
+        }
+        tourRepository.releaseSeats(tour.getId(), qty);
+    }
+
+    /**
+     * Move up to one block of seats from the tour row into this node's lease.
+     *
+     * @return the number of seats added to the lease
+     */
+    public int refill(Long tourId) {
+        LeaseGrant grant = transactionTemplate.execute(status -> {
+            TourEntity tour = tourRepository.findById(tourId).orElse(null);
+            if (tour == null || !isHot(tour) || tour.getStatus() != TourEntity.Status.ACTIVE) {
+                return null;
+            }
+            int seats = Math.min(blockSize, tour.getSeatsAvailable());
+            if (seats <= 0 || tourRepository.reserveSeats(tourId, seats) == 0) {
+                return null;
+            }
+
+            Optional<SeatLeaseEntity> existing = seatLeaseRepository.findByTourIdAndNodeId(tourId, nodeId);
+            if (existing.isPresent()) {
+                seatLeaseRepository.returnSeats(existing.get().getId(), seats);
+                return new LeaseGrant(existing.get().getId(), seats, existing.get().getSeats() + seats);
+            }
+            SeatLeaseEntity lease = seatLeaseRepository.save(SeatLeaseEntity.builder()
+                    .tour(tour)
+                    .nodeId(nodeId)
+                    .seats(seats)
+                    .expiresAt(LocalDateTime.now().plusSeconds(ttlSeconds))
+                    .build());
+            return new LeaseGrant(lease.getId(), seats, seats);
+        });
+        if (grant == null) {
+            return 0;
+        }
+
+        localLeases.compute(tourId, (id, local) -> {
+            if (local != null && local.leaseId.equals(grant.leaseId)) {
+                local.remaining.addAndGet(grant.seats);
+                return local;
+            }
+            return new LocalLease(grant.leaseId, grant.leaseSeats);
+        });
+        logger.debug("Node {} leased {} seats of tour {}", nodeId, grant.seats, tourId);
+        return grant.seats;
+    }
+
+    /**
+     * Keep this node's leases alive, hand back leases of tours that are no longer HOT and return the seats of
+     * leases whose owner stopped renewing them.
+     */
+    @Scheduled(fixedDelayString = "${app.booking.seat-lease.heartbeat-ms:15000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!localLeases.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    seatLeaseRepository.renewLeases(nodeId, now.plusSeconds(ttlSeconds)));
+        }
+
+        for (Long tourId : new ArrayList<>(localLeases.keySet())) {
+            boolean hot = tourRepository.findBookingModeById(tourId)
+                    .map(mode -> mode == TourEntity.BookingMode.HOT)
+                    .orElse(false);
+            if (!hot) {
+                returnLease(tourId);
+            }
+        }
+
+        for (Long leaseId : seatLeaseRepository.findExpiredIds(now)) {
+            transactionTemplate.executeWithoutResult(status -> returnLeaseRow(leaseId, now));
+        }
+    }
+
+    @PreDestroy
+    public void returnAllLeases() {
+        refillExecutor.shutdown();
+        for (Long tourId : new ArrayList<>(localLeases.keySet())) {
+            try {
+                returnLease(tourId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not return seat lease of tour {} on shutdown; it will be reaped on expiry",
+                        tourId, e);
+            }
+        }
+    }
+
+    /**
+     * Check that no seat was lost or created: every seat of the tour is either still available on the tour row,
+     * sitting unsold in some node's lease, or held by a PENDING/PAID booking.
+     */
+    public SeatReconciliationResponse reconcile(Long tourId) {
+        return transactionTemplate.execute(status -> {
+            TourEntity tour = tourRepository.findById(tourId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Tour not found with id: " + tourId));
+            long leased = seatLeaseRepository.sumSeatsByTourId(tourId);
+            long sold = bookingRepository.sumQtyByTourIdAndStatusIn(tourId, SEAT_HOLDING_STATUSES);
+            return SeatReconciliationResponse.builder()
+                    .tourId(tourId)
+                    .seatsTotal(tour.getSeatsTotal())
+                    .seatsAvailable(tour.getSeatsAvailable())
+                    .seatsLeased(leased)
+                    .seatsSold(sold)
+                    .balanced(tour.getSeatsAvailable() + leased + sold == tour.getSeatsTotal())
+                    .build();
+        });
+    }
+
+    private void returnLease(Long tourId) {
+        LocalLease lease = localLeases.remove(tourId);
+        if (lease != null) {
+            transactionTemplate.executeWithoutResult(status -> returnLeaseRow(lease.leaseId, null));
+        }
+    }
+
+    /**
+     * Give a lease's unsold seats back to its tour and delete it. The row is locked first so a sale on the owning
+     * node either commits before we read {@code seats} or finds the row gone afterwards.
+     *
+     * @param expiredBefore only return the lease if it expired before this instant; {@code null} to always return
+     */
+    private void returnLeaseRow(Long leaseId, LocalDateTime expiredBefore) {
+        seatLeaseRepository.findLockedById(leaseId).ifPresent(lease -> {
+            if (expiredBefore != null && !lease.getExpiresAt().isBefore(expiredBefore)) {
+                return;
+            }
+            if (lease.getSeats() > 0) {
+                tourRepository.releaseSeats(lease.getTour().getId(), lease.getSeats());
+            }
+            seatLeaseRepository.delete(lease);
+            logger.info("Returned {} leased seats of tour {} from node {}",
+                    lease.getSeats(), lease.getTour().getId(), lease.getNodeId());
+        });
+    }
+
+    private void scheduleRefill(Long tourId) {
+        if (refillsInFlight.add(tourId)) {
+            try {
+                refillExecutor.execute(() -> {
+                    try {
+                        refill(tourId);
+                    } catch (RuntimeException e) {
+                        logger.warn("Seat lease refill for tour {} failed", tourId, e);
+                    } finally {
+                        refillsInFlight.remove(tourId);
+                    }
+                });
+            } catch (RuntimeException e) {
+                refillsInFlight.remove(tourId);
+            }
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String generateNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static final class LocalLease {
+        private final Long leaseId;
+        private final AtomicInteger remaining;
+
+        private LocalLease(Long leaseId, int remaining) {
+            this.leaseId = leaseId;
+            this.remaining = new AtomicInteger(remaining);
+        }
+
+        private boolean tryTake(int qty) {
+            int current;
+            do {
+                current = remaining.get();
+                if (current < qty) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - qty));
+            return true;
+        }
+    }
+
+    private record LeaseGrant(Long leaseId, int seats, int leaseSeats) {
+    }
+}
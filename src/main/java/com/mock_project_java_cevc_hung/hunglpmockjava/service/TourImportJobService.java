@@ -0,0 +1,425 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportResult;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourImportErrorEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourImportJobEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourImportErrorRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports tour CSV files of any size in the background through {@link TourImportPipeline}.
+ * <p>The upload arrives as a raw CSV request body and is copied to {@code app.tour-import.dir} as it is read, so it
+ * is never held in memory and only this endpoint accepts bodies of up to {@code max-upload-bytes}. Jobs run one at a
+ * time per node. Each batch of the pipeline commits its tours together with the job's checkpoint and counters, so a
+ * failure loses at most the batch in progress. A failed job can be resumed by hand.</p>
+ * <p>A node runs a job only after claiming it with a guarded update that records it as the owner, and keeps the
+ * claim alive with a heartbeat. Checkpoints and the final status are written only while the node still owns the job,
+ * so a job is never imported twice. Queued jobs and jobs whose owner stopped sending heartbeats for
+ * {@code lease-seconds} are picked up by any node that has their file, from their last checkpoint.</p>
+ * <p>Without {@code app.tour-import.dir} background imports are disabled: uploads and resumes are rejected and no
+ * job is picked up.</p>
+ * <p>Only the first {@code max-stored-errors} row errors of a job are stored; the job counts all of them.</p>
+ */
+@Service
+public class TourImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TourImportJobService.class);
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 1000;
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final TourImportPipeline pipeline;
+    private final TourImportJobRepository jobRepository;
+    private final TourImportErrorRepository errorRepository;
+    private final MessageSource messageSource;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    /** Null when background imports are disabled. */
+    private final Path directory;
+    private final int maxStoredErrors;
+    private final ExecutorService worker;
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.tour-import.max-upload-bytes:2147483648}")
+    private long maxUploadBytes = 2L * 1024 * 1024 * 1024;
+
+    @Value("${app.tour-import.lease-seconds:60}")
+    private long leaseSeconds = 60;
+
+    public TourImportJobService(
+        TourImportPipeline pipeline,
+        TourImportJobRepository jobRepository,
+        TourImportErrorRepository errorRepository,
+        MessageSource messageSource,
+        PlatformTransactionManager transactionManager,
+        @Value("${app.tour-import.dir:}") String directory,
+        @Value("${app.tour-import.max-stored-errors:1000}") int maxStoredErrors
+    ) {
+        this.pipeline = pipeline;
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.messageSource = messageSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = generateNodeId();
+        this.directory = StringUtils.hasText(directory) ? Paths.get(directory) : null;
+        if (this.directory == null) {
+            logger.warn("app.tour-import.dir is not set, background tour imports are disabled");
+        }
+        this.maxStoredErrors = Math.max(0, maxStoredErrors);
+        this.worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("tour-import-job-"));
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    /**
+     * Schedule the queued jobs and the jobs whose lease expired that this node can read the file of. Each one is
+     * claimed before it runs, so a job another node gets to first is skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.tour-import.poll-ms:30000}",
+            initialDelayString = "${app.tour-import.poll-ms:30000}")
+    public void resumeUnfinished() {
+        if (directory == null) {
+            return;
+        }
+        LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(leaseSeconds);
+        for (TourImportJobEntity job : jobRepository.findClaimable(TourImportJobEntity.Status.QUEUED,
+                TourImportJobEntity.Status.RUNNING, staleBefore)) {
+            if (scheduled.contains(job.getId())) {
+                continue;
+            }
+            if (!Files.isRegularFile(Paths.get(job.getFilePath()))) {
+                logger.debug("Tour import {} is waiting for a node that has {}", job.getId(), job.getFilePath());
+                continue;
+            }
+            logger.info("Picking up tour import {} of {} after row {}", job.getId(), job.getFileName(),
+                    job.getRowNumber());
+            schedule(job.getId());
+        }
+    }
+
+    /**
+     * Keep the lease on the job this node is running.
+     */
+    @Scheduled(fixedDelayString = "${app.tour-import.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!scheduled.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.renewLeases(nodeId,
+                    LocalDateTime.now(), TourImportJobEntity.Status.RUNNING));
+        }
+    }
+
+    /**
+     * Copy the CSV file {@code fileName} from {@code body} to the import directory and queue its import. The body is
+     * read as it arrives and never held in memory.
+     *
+     * @param contentLength the declared length of the body, or -1 when unknown
+     * @throws BusinessException when background imports are disabled, or the file is missing, is not a CSV file,
+     *         is too large or cannot be stored
+     */
+    public TourImportJobResponse start(String fileName, InputStream body, long contentLength) {
+        requireDirectory();
+        if (fileName == null || !fileName.toLowerCase().endsWith(".csv")) {
+            throw new BusinessException(getMessage("tour.import.error.not_csv"));
+        }
+        if (contentLength > maxUploadBytes) {
+            throw new BusinessException(getMessage("tour.import.error.too_large", maxUploadBytes));
+        }
+
+        Path target = directory.resolve("tour-import-" + UUID.randomUUID() + ".csv");
+        TourImportJobEntity job;
+        try {
+            Files.createDirectories(directory);
+            long bytes = copy(body, target);
+            if (bytes == 0) {
+                deleteQuietly(target);
+                throw new BusinessException(getMessage("tour.import.error.file_required"));
+            }
+            job = jobRepository.save(TourImportJobEntity.builder()
+                    .fileName(fileName)
+                    .filePath(target.toString())
+                    .fileBytes(bytes)
+                    .status(TourImportJobEntity.Status.QUEUED)
+                    .build());
+        } catch (BusinessException e) {
+            deleteQuietly(target);
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not store tour import upload {}", fileName, e);
+            deleteQuietly(target);
+            throw new BusinessException(getMessage("tour.import.error.upload_failed", e.getMessage()));
+        }
+        schedule(job.getId());
+        logger.info("Queued tour import {} of {} ({} bytes)", job.getId(), fileName, job.getFileBytes());
+        return toResponse(job);
+    }
+
+    /**
+     * Copy {@code body} to {@code target}, stopping as soon as it grows past {@code max-upload-bytes}.
+     */
+    private long copy(InputStream body, Path target) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        long bytes = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                bytes += read;
+                if (bytes > maxUploadBytes) {
+                    throw new BusinessException(getMessage("tour.import.error.too_large", maxUploadBytes));
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Queue a failed job again; it continues after its last checkpoint.
+     *
+     * @throws BusinessException when background imports are disabled, the job did not fail or its file is gone
+     */
+    public TourImportJobResponse resume(Long jobId) {
+        requireDirectory();
+        TourImportJobEntity job = findJob(jobId);
+        if (job.getStatus() != TourImportJobEntity.Status.FAILED
+                || !Files.isRegularFile(Paths.get(job.getFilePath()))) {
+            throw new BusinessException(getMessage("tour.import.error.not_resumable", String.valueOf(jobId),
+                    job.getStatus()));
+        }
+        job.setStatus(TourImportJobEntity.Status.QUEUED);
+        job.setOwner(null);
+        job.setError(null);
+        job.setFinishedAt(null);
+        job = jobRepository.save(job);
+        schedule(jobId);
+        return toResponse(job);
+    }
+
+    public TourImportJobResponse getJob(Long jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    public List<TourImportJobResponse> getJobs() {
+        return jobRepository.findTop20ByOrderByIdDesc().stream().map(this::toResponse).toList();
+    }
+
+    /**
+     * The stored row errors of a job, in row order.
+     */
+    public List<TourImportResult.ImportError> getErrors(Long jobId) {
+        findJob(jobId);
+        return errorRepository.findByJobIdOrderByRowNumberAsc(jobId).stream()
+                .map(error -> new TourImportResult.ImportError(error.getRowNumber(), error.getMessage()))
+                .toList();
+    }
+
+    /**
+     * Stop the running job; it keeps its last checkpoint and resumes on the next start.
+     */
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void requireDirectory() {
+        if (directory == null) {
+            throw new BusinessException(getMessage("tour.import.error.disabled"));
+        }
+    }
+
+    private TourImportJobEntity findJob(Long jobId) {
+        return jobRepository.findById(jobId).orElseThrow(() -> new ResourceNotFoundException(
+                getMessage("tour.import.error.job_not_found", String.valueOf(jobId))));
+    }
+
+    private void schedule(Long jobId) {
+        if (scheduled.add(jobId)) {
+            worker.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    scheduled.remove(jobId);
+                }
+            });
+        }
+    }
+
+    void run(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> jobRepository.claim(jobId, nodeId, now,
+                now.minusSeconds(leaseSeconds), TourImportJobEntity.Status.QUEUED,
+                TourImportJobEntity.Status.RUNNING));
+        if (claimed == null || claimed == 0) {
+            logger.debug("Tour import {} is finished or held by another node", jobId);
+            return;
+        }
+        TourImportJobEntity job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        Path file = Paths.get(job.getFilePath());
+        AtomicInteger storedErrors = new AtomicInteger(Math.min(job.getErrorCount(), maxStoredErrors));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(job.getPosition());
+            boolean hasHeader = pipeline.importTours(Channels.newInputStream(channel), job.getPosition(),
+                    job.getRowNumber(), checkpoint -> saveCheckpoint(jobId, checkpoint, storedErrors));
+            if (hasHeader) {
+                if (finish(jobId, TourImportJobEntity.Status.COMPLETED, null)) {
+                    deleteQuietly(file);
+                }
+            } else {
+                finish(jobId, TourImportJobEntity.Status.FAILED, getMessage("tour.import.error.empty_file"));
+            }
+        } catch (InterruptedException | ClosedByInterruptException e) {
+            Thread.currentThread().interrupt();
+            logger.info("Tour import {} stopped, it resumes from its last checkpoint once its lease expires", jobId);
+        } catch (LeaseLostException e) {
+            logger.warn("Tour import {} was taken over by another node, stopped here without its last batch", jobId);
+        } catch (IOException | RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                logger.info("Tour import {} stopped, it resumes from its last checkpoint once its lease expires",
+                        jobId);
+                return;
+            }
+            logger.error("Tour import {} failed", jobId, e);
+            finish(jobId, TourImportJobEntity.Status.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs inside the transaction of the pipeline batch the checkpoint belongs to, and rolls the batch back when this
+     * node no longer owns the job.
+     */
+    private void saveCheckpoint(Long jobId, TourImportPipeline.Checkpoint checkpoint, AtomicInteger storedErrors) {
+        if (jobRepository.advance(jobId, nodeId, checkpoint.position(), checkpoint.rowNumber(), checkpoint.rows(),
+                checkpoint.inserted(), checkpoint.errors().size(), LocalDateTime.now(),
+                TourImportJobEntity.Status.RUNNING) == 0) {
+            throw new LeaseLostException();
+        }
+        int room = maxStoredErrors - storedErrors.get();
+        if (room > 0 && !checkpoint.errors().isEmpty()) {
+            List<TourImportErrorEntity> errors = checkpoint.errors().stream()
+                    .limit(room)
+                    .map(error -> TourImportErrorEntity.builder()
+                            .jobId(jobId)
+                            .rowNumber(error.getRowNumber())
+                            .message(truncate(error.getMessage()))
+                            .build())
+                    .toList();
+            errorRepository.saveAll(errors);
+            storedErrors.addAndGet(errors.size());
+        }
+    }
+
+    private boolean finish(Long jobId, TourImportJobEntity.Status status, String error) {
+        Integer finished = transactionTemplate.execute(tx -> jobRepository.finish(jobId, nodeId, status, error,
+                LocalDateTime.now(), TourImportJobEntity.Status.RUNNING));
+        if (finished == null || finished == 0) {
+            logger.warn("Tour import {} was taken over by another node before it could be marked {}", jobId, status);
+            return false;
+        }
+        jobRepository.findById(jobId).ifPresent(job -> logger.info("Tour import {} {}: {} rows, {} imported, {} errors",
+                jobId, status, job.getTotalRows(), job.getSuccessCount(), job.getErrorCount()));
+        return true;
+    }
+
+    TourImportJobResponse toResponse(TourImportJobEntity job) {
+        boolean completed = job.getStatus() == TourImportJobEntity.Status.COMPLETED;
+        double rowsPerSecond = 0;
+        if (job.getResumedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long millis = Duration.between(job.getResumedAt(), end).toMillis();
+            if (millis > 0) {
+                rowsPerSecond = (job.getTotalRows() - job.getRowsAtResume()) * 1000.0 / millis;
+            }
+        }
+        return TourImportJobResponse.builder()
+                .id(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .fileBytes(job.getFileBytes())
+                .bytesProcessed(completed ? job.getFileBytes() : job.getPosition())
+                .percent(completed ? 100.0
+                        : job.getFileBytes() > 0 ? job.getPosition() * 100.0 / job.getFileBytes() : 0.0)
+                .rowsProcessed(job.getTotalRows())
+                .successCount(job.getSuccessCount())
+                .errorCount(job.getErrorCount())
+                .rowsPerSecond(rowsPerSecond)
+                .error(job.getError())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= MAX_ERROR_MESSAGE_LENGTH ? message
+                : message.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete tour import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String generateNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Another node claimed the job after this node's lease expired; thrown to roll the current batch back.
+     */
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("Tour import lease lost");
+        }
+    }
+}
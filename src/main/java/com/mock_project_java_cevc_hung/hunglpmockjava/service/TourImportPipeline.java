@@ -0,0 +1,541 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.TourImportRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportResult;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.CategoryEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.CategoryRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourJdbcRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports tours from CSV in three stages, so a large catalog is not parsed, validated and saved one row at a time.
+ * <p>The calling thread reads lines and hands them in chunks of {@code chunk-rows} to {@code workers} threads,
+ * which parse, validate and map them to tours. The calling thread takes the chunks back in file order and inserts
+ * their tours in JDBC batches of at least {@code batch-size} on its own connection, so the import still belongs to
+ * the caller's transaction when there is one. At most two chunks per worker are in flight, so memory does not grow
+ * with the file.</p>
+ * <p>Each batch runs in a nested transaction: a savepoint inside the caller's transaction, or a transaction of its
+ * own when there is none. When it fails it is rolled back and its rows are inserted one by one to report the rows
+ * that fail; the others are kept. A batch always ends on a chunk boundary, and the {@link Checkpoint} it reports is
+ * handed to the caller inside the same transaction, so a caller that stores it there can resume the file from it.</p>
+ */
+@Service
+public class TourImportPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(TourImportPipeline.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int EXPECTED_CSV_COLUMNS = 13;
+    private static final int CHUNKS_PER_WORKER = 2;
+
+    private final CategoryRepository categoryRepository;
+    private final TourJdbcRepository tourJdbcRepository;
+    private final Validator validator;
+    private final TransactionTemplate batchTransaction;
+    private final int workers;
+    private final int chunkRows;
+    private final int batchSize;
+
+    public TourImportPipeline(
+        CategoryRepository categoryRepository,
+        TourJdbcRepository tourJdbcRepository,
+        Validator validator,
+        PlatformTransactionManager transactionManager,
+        @Value("${app.tour-import.workers:0}") int workers,
+        @Value("${app.tour-import.chunk-rows:500}") int chunkRows,
+        @Value("${app.tour-import.batch-size:1000}") int batchSize
+    ) {
+        this.categoryRepository = categoryRepository;
+        this.tourJdbcRepository = tourJdbcRepository;
+        this.validator = validator;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.chunkRows = Math.max(1, chunkRows);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Import every non-empty line after the header of {@code input}. Rows are numbered by line, the header being
+     * row 1, and every row that is not imported gets an error in row order.
+     */
+    public TourImportResult importTours(InputStream input) {
+        TourImportResult result = TourImportResult.builder()
+                .totalRows(0)
+                .successCount(0)
+                .errorCount(0)
+                .build();
+        try {
+            boolean hasHeader = importTours(input, 0, 0, checkpoint -> {
+                result.setTotalRows(result.getTotalRows() + checkpoint.rows());
+                result.setSuccessCount(result.getSuccessCount() + checkpoint.inserted());
+                checkpoint.errors().forEach(error -> result.addError(error.getRowNumber(), error.getMessage()));
+            });
+            if (!hasHeader) {
+                result.addError(0, "File is empty");
+            }
+        } catch (IOException e) {
+            result.addError(0, "Failed to read file: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.addError(0, "Import was interrupted");
+        }
+        return result;
+    }
+
+    /**
+     * Import the lines of {@code input}, which starts {@code position} bytes into the file just after line
+     * {@code rowNumber}. At position 0 the first line is the header and is skipped. Every batch reports a
+     * {@link Checkpoint} to {@code checkpoints} inside its transaction; rows read after the last checkpoint when this
+     * throws are not imported.
+     *
+     * @return false when the file is empty, without even a header
+     */
+    public boolean importTours(InputStream input, long position, int rowNumber, Consumer<Checkpoint> checkpoints)
+            throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        LineReader reader = new LineReader(input, position);
+        if (position == 0) {
+            if (reader.readLine() == null) {
+                return false;
+            }
+            rowNumber = 1;
+        }
+
+        // Load all categories once to avoid N+1 query
+        Map<String, CategoryEntity> categoryMap = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(
+                        c -> c.getName().toLowerCase(),
+                        c -> c,
+                        (existing, replacement) -> existing));
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("tour-import-"));
+        Batch batch = new Batch(position, rowNumber);
+        try {
+            Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+            RawChunk chunk = new RawChunk(chunkRows);
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                rowNumber++;
+
+                // Skip empty lines before counting
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                chunk.add(rowNumber, line, reader.position());
+                if (chunk.isFull()) {
+                    RawChunk full = chunk;
+                    inFlight.add(executor.submit(() -> parse(full, categoryMap)));
+                    chunk = new RawChunk(chunkRows);
+                    if (inFlight.size() >= workers * CHUNKS_PER_WORKER) {
+                        write(inFlight.poll().get(), batch, checkpoints);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                RawChunk last = chunk;
+                inFlight.add(executor.submit(() -> parse(last, categoryMap)));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll().get(), batch, checkpoints);
+            }
+            flush(batch, checkpoints);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tour import worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logger.info("Imported tour rows {} to {} in {} ms", batch.firstRowNumber + 1, batch.rowNumber,
+                (System.nanoTime() - started) / 1_000_000);
+        return true;
+    }
+
+    private void write(ParsedChunk chunk, Batch batch, Consumer<Checkpoint> checkpoints) {
+        batch.add(chunk);
+        if (batch.tours.size() >= batchSize || batch.errors.size() >= batchSize) {
+            flush(batch, checkpoints);
+        }
+    }
+
+    private void flush(Batch batch, Consumer<Checkpoint> checkpoints) {
+        if (batch.rows == 0) {
+            return;
+        }
+        List<TourEntity> tours = batch.tours.stream().map(ParsedRow::tour).toList();
+        try {
+            batchTransaction.executeWithoutResult(status -> {
+                tourJdbcRepository.insertAll(tours);
+                checkpoints.accept(batch.checkpoint(tours.size(), batch.errors));
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Tour import batch of {} rows failed, retrying row by row: {}", tours.size(), e.getMessage());
+            batchTransaction.executeWithoutResult(status -> {
+                List<TourImportResult.ImportError> errors = new ArrayList<>(batch.errors);
+                int inserted = 0;
+                for (ParsedRow row : batch.tours) {
+                    try {
+                        tourJdbcRepository.insert(row.tour());
+                        inserted++;
+                    } catch (DataAccessException rowFailure) {
+                        errors.add(new TourImportResult.ImportError(row.rowNumber(),
+                                "Error: " + rowFailure.getMessage()));
+                    }
+                }
+                errors.sort(Comparator.comparingInt(TourImportResult.ImportError::getRowNumber));
+                checkpoints.accept(batch.checkpoint(inserted, errors));
+            });
+        }
+        batch.clear();
+    }
+
+    /**
+     * Parse, validate and map one chunk. Runs on a worker thread; {@code categoryMap} is only read.
+     */
+    ParsedChunk parse(RawChunk chunk, Map<String, CategoryEntity> categoryMap) {
+        ParsedChunk parsed = new ParsedChunk(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            int rowNumber = chunk.rowNumbers[i];
+            try {
+                TourImportRequest importRequest = parseCsvLine(chunk.lines.get(i), rowNumber);
+
+                // Validate
+                Set<ConstraintViolation<TourImportRequest>> violations = validator.validate(importRequest);
+                if (!violations.isEmpty()) {
+                    StringBuilder errors = new StringBuilder();
+                    for (ConstraintViolation<TourImportRequest> violation : violations) {
+                        errors.append(violation.getMessage()).append("; ");
+                    }
+                    parsed.error(rowNumber, errors.toString());
+                    continue;
+                }
+
+                // Custom validation: seatsAvailable <= seatsTotal
+                if (!importRequest.isSeatsValid()) {
+                    parsed.error(rowNumber, "Available seats cannot exceed total seats");
+                    continue;
+                }
+
+                // Custom validation: endDate should be after startDate
+                if (importRequest.getStartDate() != null && importRequest.getEndDate() != null) {
+                    if (importRequest.getEndDate().isBefore(importRequest.getStartDate())) {
+                        parsed.error(rowNumber, "End date must be after start date");
+                        continue;
+                    }
+                }
+
+                // Find category by name using pre-loaded map
+                CategoryEntity category = categoryMap.get(importRequest.getCategoryName().trim().toLowerCase());
+
+                if (category == null) {
+                    parsed.error(rowNumber, "Category '" + importRequest.getCategoryName() + "' not found");
+                    continue;
+                }
+
+                parsed.rows.add(new ParsedRow(rowNumber, toTour(importRequest, category)));
+
+            } catch (Exception e) {
+                parsed.error(rowNumber, "Error: " + e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    private TourEntity toTour(TourImportRequest importRequest, CategoryEntity category) {
+        return TourEntity.builder()
+                .title(importRequest.getTitle())
+                .description(importRequest.getDescription())
+                .price(importRequest.getPrice())
+                .location(importRequest.getLocation())
+                .thumbnailUrl(importRequest.getThumbnailUrl())
+                .seatsTotal(importRequest.getSeatsTotal())
+                .seatsAvailable(
+                        importRequest.getSeatsAvailable() != null ? importRequest.getSeatsAvailable()
+                                : importRequest.getSeatsTotal())
+                .startDate(importRequest.getStartDate())
+                .endDate(importRequest.getEndDate())
+                .status(parseStatus(importRequest.getStatus()))
+                .category(category)
+                .ratingAvg(importRequest.getRatingAvg() != null ? importRequest.getRatingAvg() : 0.0)
+                .build();
+    }
+
+    /**
+     * Parse CSV line into TourImportRequest
+     */
+    private TourImportRequest parseCsvLine(String line, int rowNumber) throws Exception {
+        List<String> values = parseCsvRow(line);
+
+        if (values.size() < EXPECTED_CSV_COLUMNS) {
+            throw new Exception(
+                    "Invalid CSV format: expected " + EXPECTED_CSV_COLUMNS + " columns, found " + values.size());
+        }
+
+        TourImportRequest request = new TourImportRequest();
+
+        try {
+            // Skip ID (column 0) as we're only doing INSERT
+            request.setTitle(values.get(1).trim());
+            request.setDescription(values.get(2).trim());
+            request.setPrice(values.get(3).trim().isEmpty() ? null : Money.valueOf(values.get(3)));
+            request.setLocation(values.get(4).trim());
+            request.setThumbnailUrl(values.get(5).trim().isEmpty() ? null : values.get(5).trim());
+            request.setSeatsTotal(values.get(6).trim().isEmpty() ? null : Integer.parseInt(values.get(6).trim()));
+            request.setSeatsAvailable(values.get(7).trim().isEmpty() ? null : Integer.parseInt(values.get(7).trim()));
+            request.setStartDate(
+                    values.get(8).trim().isEmpty() ? null : LocalDateTime.parse(values.get(8).trim(), DATE_FORMATTER));
+            request.setEndDate(
+                    values.get(9).trim().isEmpty() ? null : LocalDateTime.parse(values.get(9).trim(), DATE_FORMATTER));
+            request.setStatus(values.get(10).trim());
+            request.setCategoryName(values.get(11).trim());
+            request.setRatingAvg(values.get(12).trim().isEmpty() ? null : Double.parseDouble(values.get(12).trim()));
+
+        } catch (NumberFormatException e) {
+            throw new Exception("Invalid number format: " + e.getMessage());
+        } catch (DateTimeParseException e) {
+            throw new Exception("Invalid date format (expected: yyyy-MM-dd HH:mm:ss): " + e.getMessage());
+        }
+
+        return request;
+    }
+
+    /**
+     * Parse CSV row handling quoted fields and escaped quotes
+     */
+    private List<String> parseCsvRow(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder currentValue = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                // Check for escaped quote ""
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    currentValue.append('"');
+                    i++; // Skip next quote
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                values.add(currentValue.toString());
+                currentValue = new StringBuilder();
+            } else {
+                currentValue.append(c);
+            }
+        }
+        values.add(currentValue.toString());
+
+        return values;
+    }
+
+    /**
+     * Parse status string to enum
+     */
+    private TourEntity.Status parseStatus(String status) {
+        if (status == null || status.trim().isEmpty()) {
+            return TourEntity.Status.ACTIVE;
+        }
+        try {
+            return TourEntity.Status.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return TourEntity.Status.ACTIVE;
+        }
+    }
+
+    /**
+     * How far an import got: every line up to {@code rowNumber}, ending {@code position} bytes into the file, is
+     * imported or reported. {@code rows}, {@code inserted} and {@code errors} cover the lines since the previous
+     * checkpoint; the errors are in row order.
+     */
+    public record Checkpoint(long position, int rowNumber, int rows, int inserted,
+                             List<TourImportResult.ImportError> errors) {
+    }
+
+    /**
+     * Lines read from the file, with the row number of each.
+     */
+    static final class RawChunk {
+        private final int[] rowNumbers;
+        private final List<String> lines;
+        private long endPosition;
+
+        RawChunk(int capacity) {
+            this.rowNumbers = new int[capacity];
+            this.lines = new ArrayList<>(capacity);
+        }
+
+        void add(int rowNumber, String line, long lineEndPosition) {
+            rowNumbers[lines.size()] = rowNumber;
+            lines.add(line);
+            endPosition = lineEndPosition;
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        boolean isEmpty() {
+            return lines.isEmpty();
+        }
+
+        boolean isFull() {
+            return lines.size() == rowNumbers.length;
+        }
+    }
+
+    /**
+     * The tours a chunk maps to and the errors of its other rows.
+     */
+    static final class ParsedChunk {
+        final List<ParsedRow> rows;
+        final List<TourImportResult.ImportError> errors = new ArrayList<>();
+        final int size;
+        final int lastRowNumber;
+        final long endPosition;
+
+        ParsedChunk(RawChunk chunk) {
+            this.rows = new ArrayList<>(chunk.size());
+            this.size = chunk.size();
+            this.lastRowNumber = chunk.rowNumbers[chunk.size() - 1];
+            this.endPosition = chunk.endPosition;
+        }
+
+        void error(int rowNumber, String message) {
+            errors.add(new TourImportResult.ImportError(rowNumber, message));
+        }
+    }
+
+    record ParsedRow(int rowNumber, TourEntity tour) {
+    }
+
+    /**
+     * Chunks taken back from the workers and not yet inserted.
+     */
+    private static final class Batch {
+        private final int firstRowNumber;
+        private final List<ParsedRow> tours = new ArrayList<>();
+        private final List<TourImportResult.ImportError> errors = new ArrayList<>();
+        private int rows;
+        private long position;
+        private int rowNumber;
+
+        Batch(long position, int rowNumber) {
+            this.firstRowNumber = rowNumber;
+            this.position = position;
+            this.rowNumber = rowNumber;
+        }
+
+        void add(ParsedChunk chunk) {
+            tours.addAll(chunk.rows);
+            errors.addAll(chunk.errors);
+            rows += chunk.size;
+            position = chunk.endPosition;
+            rowNumber = chunk.lastRowNumber;
+        }
+
+        Checkpoint checkpoint(int inserted, List<TourImportResult.ImportError> batchErrors) {
+            return new Checkpoint(position, rowNumber, rows, inserted, List.copyOf(batchErrors));
+        }
+
+        void clear() {
+            tours.clear();
+            errors.clear();
+            rows = 0;
+        }
+    }
+
+    /**
+     * Reads UTF-8 lines ending in {@code \n} or {@code \r\n} and counts the bytes consumed, so an import can
+     * report where the next line starts.
+     */
+    static final class LineReader {
+        private final InputStream input;
+        private final byte[] buffer = new byte[64 * 1024];
+        private byte[] line = new byte[256];
+        private int next;
+        private int limit;
+        private long position;
+
+        LineReader(InputStream input, long position) {
+            this.input = input;
+            this.position = position;
+        }
+
+        /**
+         * The next line without its terminator, or null at the end of the input.
+         */
+        String readLine() throws IOException {
+            int length = 0;
+            boolean any = false;
+            while (true) {
+                if (next == limit) {
+                    limit = Math.max(0, input.read(buffer));
+                    next = 0;
+                    if (limit == 0) {
+                        if (!any) {
+                            return null;
+                        }
+                        break;
+                    }
+                }
+                any = true;
+                byte b = buffer[next++];
+                position++;
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Bytes from the start of the file to the end of the last line read.
+         */
+        long position() {
+            return position;
+        }
+    }
+}
@@ -104,6 +104,16 @@ public class TourService {
         return convertToResponse(savedTour);
     }
 
+    public TourResponse setBookingMode(Long id, TourEntity.BookingMode bookingMode) {
+        TourEntity tour = tourRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Tour not found with id: " + id));
+
+        tour.setBookingMode(bookingMode);
+
+        TourEntity savedTour = tourRepository.save(tour);
+        return convertToResponse(savedTour);
+    }
+
     public List<TourResponse> getToursByStatus(TourEntity.Status status) {
         List<TourEntity> tours = tourRepository.findByStatus(status);
         return tours.stream()
@@ -147,6 +157,7 @@ public class TourService {
             .startDate(tour.getStartDate())
             .endDate(tour.getEndDate())
             .status(tour.getStatus())
+            .bookingMode(tour.getBookingMode())
             .categoryName(tour.getCategory() != null ? tour.getCategory().getName() : null)
             .categoryId(tour.getCategory() != null ? tour.getCategory().getId() : null)
             .createdAt(tour.getCreatedAt())
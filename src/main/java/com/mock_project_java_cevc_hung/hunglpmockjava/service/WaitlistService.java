@@ -0,0 +1,268 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.WaitlistJoinRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiWaitlistResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.WaitlistEntryEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.WaitlistEntryRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.SeatsReleasedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-tour FIFO waitlist.
+ * <p>Tours that release seats inside a transaction are collected and served once, just before that transaction
+ * commits: one locking read of the tour, one guarded seat reservation and one batch of PENDING bookings per tour,
+ * however many bookings the transaction cancelled. Promotion uses every seat the tour has available at that point,
+ * not only the ones just released, and is strictly in arrival order; it stops at the first entry that does not fit
+ * instead of letting smaller parties jump the queue.</p>
+ */
+@Service
+@Transactional
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final TourRepository tourRepository;
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatLeaseAllocator seatLeaseAllocator;
+    private final SeatHoldExpiryService seatHoldExpiryService;
+    private final MessageSource messageSource;
+    private final Counter promotedCounter;
+
+    @Value("${app.booking.waitlist.promotion-batch-size:200}")
+    private int promotionBatchSize = 200;
+
+    public WaitlistService(
+        WaitlistEntryRepository waitlistEntryRepository,
+        TourRepository tourRepository,
+        UserRepository userRepository,
+        BookingRepository bookingRepository,
+        SeatLeaseAllocator seatLeaseAllocator,
+        SeatHoldExpiryService seatHoldExpiryService,
+        MessageSource messageSource,
+        MeterRegistry meterRegistry
+    ) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.tourRepository = tourRepository;
+        this.userRepository = userRepository;
+        this.bookingRepository = bookingRepository;
+        this.seatLeaseAllocator = seatLeaseAllocator;
+        this.seatHoldExpiryService = seatHoldExpiryService;
+        this.messageSource = messageSource;
+        this.promotedCounter = Counter.builder("booking.waitlist.promoted")
+                .description("Waitlist entries turned into PENDING bookings")
+                .register(meterRegistry);
+    }
+
+    private String getMessage(String code, Object... args) {
+        return messageSource.getMessage(code, args, LocaleContextHolder.getLocale());
+    }
+
+    public ApiWaitlistResponse join(Long tourId, Long userId, WaitlistJoinRequest request) {
+        TourEntity tour = tourRepository.findById(tourId)
+                .orElseThrow(() -> new ResourceNotFoundException(getMessage("booking.api.error.tour.not_found", tourId)));
+        if (tour.getStatus() != TourEntity.Status.ACTIVE) {
+            throw new BusinessException(getMessage("booking.api.error.tour.not_active"));
+        }
+        if (tour.getSeatsAvailable() >= request.getQty()) {
+            throw new BusinessException(getMessage("booking.api.error.waitlist.seats_available", tour.getSeatsAvailable()));
+        }
+        if (request.getQty() > tour.getSeatsTotal()) {
+            throw new BusinessException(getMessage("booking.api.error.tour.not_enough_seats",
+                    tour.getSeatsTotal(), request.getQty()));
+        }
+        if (waitlistEntryRepository.existsByTourIdAndUserIdAndStatus(tourId, userId, WaitlistEntryEntity.Status.WAITING)) {
+            throw new BusinessException(getMessage("booking.api.error.waitlist.already_waiting"));
+        }
+
+        UserEntity user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(getMessage("booking.api.error.user.not_found", userId)));
+
+        WaitlistEntryEntity entry = WaitlistEntryEntity.builder()
+                .tour(tour)
+                .user(user)
+                .qty(request.getQty())
+                .status(WaitlistEntryEntity.Status.WAITING)
+                .build();
+        return convertToApiResponse(waitlistEntryRepository.save(entry));
+    }
+
+    public ApiWaitlistResponse getEntry(Long tourId, Long userId) {
+        return convertToApiResponse(findLatestEntry(tourId, userId));
+    }
+
+    public void leave(Long tourId, Long userId) {
+        WaitlistEntryEntity entry = findLatestEntry(tourId, userId);
+        if (entry.getStatus() != WaitlistEntryEntity.Status.WAITING) {
+            throw new ResourceNotFoundException(getMessage("booking.api.error.waitlist.not_found", tourId));
+        }
+        entry.setStatus(WaitlistEntryEntity.Status.CANCELLED);
+        waitlistEntryRepository.save(entry);
+    }
+
+    /**
+     * Collect the tour for promotion when the releasing transaction commits. Outside a transaction it is promoted
+     * immediately.
+     */
+    @EventListener
+    public void onSeatsReleased(SeatsReleasedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            promote(event.tourId());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Long> released = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (released == null) {
+            Set<Long> pending = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    TransactionSynchronizationManager.unbindResource(WaitlistService.this);
+                    pending.forEach(WaitlistService.this::promote);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WaitlistService.this);
+                }
+            });
+            released = pending;
+        }
+        released.add(event.tourId());
+    }
+
+    /**
+     * Grant the seats a tour has available to the head of its waitlist. The tour row stays locked until the caller's
+     * transaction ends, so the seats counted here are still there when they are reserved.
+     *
+     * @return number of entries promoted
+     */
+    public int promote(Long tourId) {
+        Integer seatsAvailable = tourRepository.findSeatsAvailableForUpdate(tourId).orElse(null);
+        if (seatsAvailable == null) {
+            return 0;
+        }
+        // May be the instance the releasing transaction loaded, with the seat count from before the release
+        TourEntity tour = tourRepository.getReferenceById(tourId);
+        int seats = availableSeats(tour, seatsAvailable);
+        if (seats <= 0) {
+            return 0;
+        }
+
+        List<WaitlistEntryEntity> waiting = waitlistEntryRepository.findByTourIdAndStatusOrderByIdAsc(
+                tourId, WaitlistEntryEntity.Status.WAITING, PageRequest.of(0, promotionBatchSize));
+        List<WaitlistEntryEntity> promoted = new ArrayList<>();
+        int granted = 0;
+        for (WaitlistEntryEntity entry : waiting) {
+            if (granted + entry.getQty() > seats) {
+                break;
+            }
+            promoted.add(entry);
+            granted += entry.getQty();
+        }
+        if (promoted.isEmpty()) {
+            return 0;
+        }
+
+        if (!reserveSeats(tour, granted)) {
+            logger.info("Seats of tour {} were taken before the waitlist could be served", tourId);
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime holdExpiresAt = seatHoldExpiryService.newDeadline();
+        List<BookingEntity> bookings = new ArrayList<>(promoted.size());
+        for (WaitlistEntryEntity entry : promoted) {
+            bookings.add(BookingEntity.builder()
+                    .tour(tour)
+                    .user(entry.getUser())
+                    .qty(entry.getQty())
+                    .amount(tour.getPrice().times(entry.getQty()))
+                    .status(BookingEntity.Status.PENDING)
+                    .holdExpiresAt(holdExpiresAt)
+                    .build());
+        }
+        List<BookingEntity> saved = bookingRepository.saveAll(bookings);
+        for (int i = 0; i < promoted.size(); i++) {
+            WaitlistEntryEntity entry = promoted.get(i);
+            entry.setStatus(WaitlistEntryEntity.Status.PROMOTED);
+            entry.setBooking(saved.get(i));
+            entry.setPromotedAt(now);
+            seatHoldExpiryService.track(saved.get(i).getId(), holdExpiresAt);
+        }
+        waitlistEntryRepository.saveAll(promoted);
+
+        promotedCounter.increment(promoted.size());
+        logger.info("Promoted {} waitlist entries ({} seats) for tour {}", promoted.size(), granted, tourId);
+        return promoted.size();
+    }
+
+    /**
+     * Seats one reservation can take: the tour row, or for a HOT tour this node's lease when it holds more.
+     */
+    private int availableSeats(TourEntity tour, int seatsAvailable) {
+        if (seatLeaseAllocator.isHot(tour)) {
+            return Math.max(seatsAvailable, seatLeaseAllocator.leasedSeats(tour.getId()));
+        }
+        return seatsAvailable;
+    }
+
+    private boolean reserveSeats(TourEntity tour, int qty) {
+        if (seatLeaseAllocator.isHot(tour)) {
+            return seatLeaseAllocator.reserve(tour, qty);
+        }
+        return tourRepository.reserveSeats(tour.getId(), qty) > 0;
+    }
+
+    private WaitlistEntryEntity findLatestEntry(Long tourId, Long userId) {
+        return waitlistEntryRepository.findFirstByTourIdAndUserIdOrderByIdDesc(tourId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException(getMessage("booking.api.error.waitlist.not_found", tourId)));
+    }
+
+    private ApiWaitlistResponse convertToApiResponse(WaitlistEntryEntity entry) {
+        Long position = entry.getStatus() == WaitlistEntryEntity.Status.WAITING
+                ? waitlistEntryRepository.countByTourIdAndStatusAndIdLessThan(
+                        entry.getTour().getId(), WaitlistEntryEntity.Status.WAITING, entry.getId()) + 1
+                : null;
+        return ApiWaitlistResponse.builder()
+                .id(entry.getId())
+                .tourId(entry.getTour().getId())
+                .tourTitle(entry.getTour().getTitle())
+                .qty(entry.getQty())
+                .status(entry.getStatus())
+                .position(position)
+                .bookingId(entry.getBooking() != null ? entry.getBooking().getId() : null)
+                .promotedAt(entry.getPromotedAt())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service.event;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published in the paying transaction whenever a booking becomes PAID, with what revenue analytics slice it by.
+ */
+public record BookingPaidEvent(Long bookingId, LocalDateTime paidAt, Long tourId, Long categoryId,
+                               LocalDateTime userRegisteredAt, BookingEntity.Status status, Money amount) {
+
+    public static BookingPaidEvent of(BookingEntity booking) {
+        TourEntity tour = booking.getTour();
+        return new BookingPaidEvent(booking.getId(), booking.getPaidAt(),
+                tour != null ? tour.getId() : null,
+                tour != null && tour.getCategory() != null ? tour.getCategory().getId() : null,
+                booking.getUser() != null ? booking.getUser().getCreatedAt() : null,
+                booking.getStatus(), booking.getAmount());
+    }
+}
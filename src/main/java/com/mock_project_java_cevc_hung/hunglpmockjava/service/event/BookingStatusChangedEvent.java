@@ -0,0 +1,17 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service.event;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published in the changing transaction whenever a booking leaves PENDING.
+ */
+public record BookingStatusChangedEvent(Long bookingId, BookingEntity.Status status, String paymentRef,
+                                        LocalDateTime paidAt) {
+
+    public static BookingStatusChangedEvent of(BookingEntity booking) {
+        return new BookingStatusChangedEvent(booking.getId(), booking.getStatus(), booking.getPaymentRef(),
+                booking.getPaidAt());
+    }
+}
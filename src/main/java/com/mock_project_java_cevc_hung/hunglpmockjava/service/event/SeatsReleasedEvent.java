@@ -0,0 +1,7 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service.event;
+
+/**
+ * Published in the releasing transaction whenever booked seats of a tour become available again.
+ */
+public record SeatsReleasedEvent(Long tourId, int seats) {
+}
@@ -0,0 +1,191 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.simulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.PaymentWebhookRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.security.PaymentWebhookSigner;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Local load generator that plays the payment gateway against this node's webhook. Enabled with the
+ * {@code gateway-simulator} profile.
+ * <p>It signs {@code total} notifications at {@code rate} per second with up to {@code concurrency} in flight,
+ * resends {@code duplicate-ratio} of them like a gateway retrying, and logs the outcome counts and the ack latency
+ * percentiles when done. Notifications pay pending bookings when there are some, otherwise they reference unknown
+ * bookings and only exercise ingestion.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.payment.webhook.simulator.enabled", havingValue = "true")
+public class PaymentGatewaySimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentGatewaySimulator.class);
+    private static final long SYNTHETIC_BOOKING_ID_BASE = 1_000_000_000L;
+
+    private final PaymentWebhookSigner signer;
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("payment-gateway-simulator-"));
+
+    @Value("${app.payment.webhook.simulator.url:http://localhost:${server.port:8080}/api/v1/payments/webhook}")
+    private String url = "http://localhost:8080/api/v1/payments/webhook";
+
+    @Value("${app.payment.webhook.simulator.total:10000}")
+    private int total = 10000;
+
+    @Value("${app.payment.webhook.simulator.rate-per-second:2000}")
+    private int ratePerSecond = 2000;
+
+    @Value("${app.payment.webhook.simulator.concurrency:200}")
+    private int concurrency = 200;
+
+    @Value("${app.payment.webhook.simulator.duplicate-ratio:0.05}")
+    private double duplicateRatio = 0.05;
+
+    public PaymentGatewaySimulator(
+        PaymentWebhookSigner signer,
+        BookingRepository bookingRepository,
+        ObjectMapper objectMapper
+    ) {
+        this.signer = signer;
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        runner.execute(() -> {
+            try {
+                run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Payment gateway simulation failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private void run() throws InterruptedException {
+        List<BookingEntity> pending = bookingRepository.findByStatus(
+                BookingEntity.Status.PENDING, PageRequest.of(0, total));
+        logger.info("Simulating {} gateway notifications at {}/s against {} ({} pending bookings)",
+                total, ratePerSecond, url, pending.size());
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long[] latenciesMicros = new long[total];
+        AtomicInteger recorded = new AtomicInteger();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        long startedNanos = System.nanoTime();
+
+        for (int i = 0; i < total; i++) {
+            long due = startedNanos + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            // A duplicate resends an earlier payment reference, as a gateway does after a lost ack
+            long sequence = i > 0 && ThreadLocalRandom.current().nextDouble() < duplicateRatio
+                    ? ThreadLocalRandom.current().nextLong(i)
+                    : i;
+            byte[] body = body(runId, sequence, pending);
+            long timestamp = System.currentTimeMillis() / 1000;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .header(PaymentWebhookSigner.TIMESTAMP_HEADER, Long.toString(timestamp))
+                    .header(PaymentWebhookSigner.SIGNATURE_HEADER, signer.sign(timestamp, body))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+
+            inFlight.acquire();
+            long sentNanos = System.nanoTime();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                latenciesMicros[recorded.getAndIncrement()] = (System.nanoTime() - sentNanos) / 1000;
+                if (error != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                } else if (response.body().contains("DUPLICATE")) {
+                    duplicates.incrementAndGet();
+                } else {
+                    accepted.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+        long[] sorted = Arrays.copyOf(latenciesMicros, recorded.get());
+        Arrays.sort(sorted);
+        logger.info("Gateway simulation done in {} ms ({}/s): accepted={}, duplicate={}, error={}, "
+                        + "ack p50={} us, p99={} us, max={} us",
+                elapsedMs, total * 1000L / elapsedMs, accepted.get(), duplicates.get(), errors.get(),
+                percentile(sorted, 0.5), percentile(sorted, 0.99), sorted.length > 0 ? sorted[sorted.length - 1] : 0);
+    }
+
+    private byte[] body(String runId, long sequence, List<BookingEntity> pending) {
+        PaymentWebhookRequest.PaymentWebhookRequestBuilder notification = PaymentWebhookRequest.builder()
+                .paymentRef("SIM-" + runId + "-" + sequence)
+                .status(PaymentWebhookRequest.STATUS_SUCCEEDED)
+                .paidAt(LocalDateTime.now());
+        if (sequence < pending.size()) {
+            BookingEntity booking = pending.get((int) sequence);
+            notification.bookingId(booking.getId()).amount(booking.getAmount());
+        } else {
+            notification.bookingId(SYNTHETIC_BOOKING_ID_BASE + sequence).amount(Money.ofMinor(10_000));
+        }
+        try {
+            return objectMapper.writeValueAsBytes(notification.build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
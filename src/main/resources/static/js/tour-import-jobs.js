@@ -0,0 +1,136 @@
+/**
+ * Background Tour Import
+ * Starts an import job from the upload form and polls its progress until it finishes
+ */
+
+(function() {
+    'use strict';
+
+    const POLL_MS = 1000;
+    const JOBS_URL = '/admin/tours/import/jobs';
+
+    if (document.readyState === 'loading') {
+        document.addEventListener('DOMContentLoaded', init);
+    } else {
+        init();
+    }
+
+    function init() {
+        const form = document.getElementById('importJobForm');
+        if (!form) {
+            return;
+        }
+        form.addEventListener('submit', function(event) {
+            event.preventDefault();
+            startJob(form);
+        });
+    }
+
+    function startJob(form) {
+        const file = form.querySelector('input[type=file]').files[0];
+        if (!file) {
+            return;
+        }
+        const submit = document.getElementById('importJobSubmit');
+        submit.disabled = true;
+        fetch(JOBS_URL + '?fileName=' + encodeURIComponent(file.name), {
+            method: 'POST',
+            headers: { 'Content-Type': 'text/csv' },
+            body: file
+        })
+            .then(readJson)
+            .then(function(job) {
+                show(job);
+                poll(job.id);
+            })
+            .catch(showError)
+            .finally(function() {
+                submit.disabled = false;
+            });
+    }
+
+    function poll(jobId) {
+        fetch(JOBS_URL + '/' + jobId)
+            .then(readJson)
+            .then(function(job) {
+                show(job);
+                if (job.status === 'QUEUED' || job.status === 'RUNNING') {
+                    setTimeout(function() { poll(jobId); }, POLL_MS);
+                } else if (job.errorCount > 0) {
+                    loadErrors(jobId);
+                }
+            })
+            .catch(showError);
+    }
+
+    function resume(jobId) {
+        fetch(JOBS_URL + '/' + jobId + '/resume', { method: 'POST' })
+            .then(readJson)
+            .then(function(job) {
+                show(job);
+                poll(job.id);
+            })
+            .catch(showError);
+    }
+
+    function loadErrors(jobId) {
+        fetch(JOBS_URL + '/' + jobId + '/errors')
+            .then(readJson)
+            .then(function(errors) {
+                const table = document.getElementById('importJobErrorTable');
+                const body = table.querySelector('tbody');
+                body.replaceChildren();
+                errors.forEach(function(error) {
+                    const row = body.insertRow();
+                    row.insertCell().textContent = error.rowNumber;
+                    row.insertCell().textContent = error.message;
+                });
+                table.classList.toggle('d-none', errors.length === 0);
+            })
+            .catch(showError);
+    }
+
+    function show(job) {
+        const number = new Intl.NumberFormat();
+        document.getElementById('importJobProgress').classList.remove('d-none');
+        document.getElementById('importJobFile').textContent = job.fileName;
+        document.getElementById('importJobStatus').textContent = job.status;
+        document.getElementById('importJobRows').textContent = number.format(job.rowsProcessed);
+        document.getElementById('importJobRate').textContent = number.format(Math.round(job.rowsPerSecond));
+        document.getElementById('importJobSuccess').textContent = number.format(job.successCount);
+        document.getElementById('importJobErrors').textContent = number.format(job.errorCount);
+
+        const percent = Math.floor(job.percent);
+        const bar = document.getElementById('importJobBar');
+        bar.style.width = percent + '%';
+        bar.textContent = percent + '%';
+        bar.classList.toggle('bg-success', job.status === 'COMPLETED');
+        bar.classList.toggle('bg-danger', job.status === 'FAILED');
+        bar.classList.toggle('progress-bar-animated', job.status === 'RUNNING');
+        bar.classList.toggle('progress-bar-striped', job.status === 'RUNNING');
+
+        const message = document.getElementById('importJobMessage');
+        message.textContent = job.error || '';
+        message.classList.toggle('d-none', !job.error);
+
+        const resumeButton = document.getElementById('importJobResume');
+        resumeButton.classList.toggle('d-none', job.status !== 'FAILED');
+        resumeButton.onclick = function() { resume(job.id); };
+    }
+
+    function showError(error) {
+        const message = document.getElementById('importJobMessage');
+        document.getElementById('importJobProgress').classList.remove('d-none');
+        message.textContent = error.message;
+        message.classList.remove('d-none');
+    }
+
+    function readJson(response) {
+        return response.json().then(function(body) {
+            if (!response.ok) {
+                throw new Error(body.message || ('Request failed with status ' + response.status));
+            }
+            return body;
+        });
+    }
+})();
@@ -0,0 +1,109 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.analytics;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSliceRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueSliceResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.context.MessageSource;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RevenueAnalyticsService Tests")
+class RevenueAnalyticsServiceTest {
+
+    private static final LocalDateTime PAID_AT = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Mock
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @Mock
+    private MessageSource messageSource;
+
+    private RevenueAnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsService = new RevenueAnalyticsService(bookingJdbcRepository, messageSource, true, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        analyticsService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should read payments and status changes written by other nodes after the initial load")
+    void tail_AfterLoad_ShouldApplyWritesOfOtherNodes() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            handler.processRow(row(1L, "PAID", 10_000));
+            return null;
+        }).when(bookingJdbcRepository).streamPaidBookings(any());
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(1L, "REFUNDED", 10_000));
+            handler.processRow(row(2L, "PAID", 25_000));
+            return null;
+        }).when(bookingJdbcRepository).streamPaidBookingsUpdatedSince(any(), any());
+        analyticsService.load();
+
+        // When
+        analyticsService.tail();
+        RevenueSliceResponse response = analyticsService.slice(RevenueSliceRequest.builder().build());
+
+        // Then
+        assertThat(response.getTotalBookings()).isEqualTo(1);
+        assertThat(response.getTotalRevenue()).isEqualTo(Money.ofMinor(25_000));
+        assertThat(response.isComplete()).isTrue();
+        verify(bookingJdbcRepository).streamPaidBookingsUpdatedSince(
+                argThat(since -> since.isBefore(LocalDateTime.now().minusSeconds(59))), any());
+    }
+
+    @Test
+    @DisplayName("Should flag slices incomplete when the store has not caught up with the database lately")
+    void slice_TailFailing_ShouldReportIncomplete() {
+        // Given
+        analyticsService.load();
+        doThrow(new QueryTimeoutException("timeout"))
+                .when(bookingJdbcRepository).streamPaidBookingsUpdatedSince(any(), any());
+        ReflectionTestUtils.setField(analyticsService, "caughtUpAt", LocalDateTime.now().minusMinutes(5));
+
+        // When
+        analyticsService.tail();
+        RevenueSliceResponse response = analyticsService.slice(RevenueSliceRequest.builder().build());
+
+        // Then
+        assertThat(response.isComplete()).isFalse();
+    }
+
+    private static ResultSet row(long bookingId, String status, long amountMinor) throws Exception {
+        ResultSet rs = mock(ResultSet.class, withSettings().strictness(Strictness.LENIENT));
+        when(rs.getLong("id")).thenReturn(bookingId);
+        when(rs.getLong("tour_id")).thenReturn(10L);
+        when(rs.getLong("category_id")).thenReturn(1L);
+        when(rs.getTimestamp("paid_at")).thenReturn(Timestamp.valueOf(PAID_AT));
+        when(rs.getString("status")).thenReturn(status);
+        when(rs.getLong("amount_minor")).thenReturn(amountMinor);
+        return rs;
+    }
+}
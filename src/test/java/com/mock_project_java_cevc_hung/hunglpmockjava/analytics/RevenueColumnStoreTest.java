@@ -0,0 +1,124 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.analytics;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSliceRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueSliceResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RevenueColumnStore Tests")
+class RevenueColumnStoreTest {
+
+    private static final LocalDate MARCH_1 = LocalDate.of(2025, 3, 1);
+    private static final LocalDate REGISTERED = LocalDate.of(2024, 11, 20);
+
+    private final RevenueColumnStore store = new RevenueColumnStore(4);
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should filter by range, tour and category and group by category, largest revenue first")
+    void query_GroupByCategory_ShouldSumMatchingRows() {
+        // Given
+        store.append(1, MARCH_1, 10L, 1L, REGISTERED, BookingEntity.Status.PAID, 10_000);
+        store.append(2, MARCH_1.plusDays(1), 11L, 2L, REGISTERED, BookingEntity.Status.PAID, 50_000);
+        store.append(3, MARCH_1.plusDays(2), 12L, 2L, null, BookingEntity.Status.PAID, 7_000);
+        store.append(4, MARCH_1.plusDays(40), 10L, 1L, REGISTERED, BookingEntity.Status.PAID, 99_000);
+        store.append(5, MARCH_1, 13L, null, REGISTERED, BookingEntity.Status.PAID, 1_000);
+
+        // When
+        RevenueSliceResponse byCategory = store.query(RevenueSliceRequest.builder()
+                .from(MARCH_1).to(MARCH_1.plusDays(30))
+                .groupBy(List.of(RevenueSliceRequest.Dimension.CATEGORY)).build());
+        RevenueSliceResponse oneTour = store.query(RevenueSliceRequest.builder()
+                .tourIds(List.of(10L, 404L)).categoryIds(List.of(1L)).build());
+
+        // Then
+        assertThat(byCategory.getGroups())
+                .extracting(group -> group.getKeys().get(0), RevenueSliceResponse.Group::getRevenue,
+                        RevenueSliceResponse.Group::getBookings)
+                .containsExactly(
+                        tuple("2", Money.ofMinor(57_000), 2L),
+                        tuple("1", Money.ofMinor(10_000), 1L),
+                        tuple(null, Money.ofMinor(1_000), 1L));
+        assertThat(byCategory.getTotalRevenue()).isEqualTo(Money.ofMinor(68_000));
+        assertThat(byCategory.getScannedRows()).isEqualTo(5);
+        assertThat(oneTour.getGroups()).singleElement()
+                .satisfies(group -> assertThat(group.getRevenue()).isEqualTo(Money.ofMinor(109_000)));
+    }
+
+    @Test
+    @DisplayName("Should follow status changes, ignore a second append and apply changes seen while loading")
+    void updateStatus_ShouldMoveBookingsBetweenStatusSlices() {
+        // Given
+        store.setLoading(true);
+        store.append(1, MARCH_1, 10L, 1L, REGISTERED, BookingEntity.Status.PAID, 10_000);
+        store.updateStatus(2, BookingEntity.Status.CANCELLED);
+        store.append(2, MARCH_1, 10L, 1L, REGISTERED, BookingEntity.Status.PAID, 20_000);
+        store.setLoading(false);
+        store.append(1, MARCH_1, 10L, 1L, REGISTERED, BookingEntity.Status.PAID, 10_000);
+
+        // When
+        store.updateStatus(1, BookingEntity.Status.REFUNDED);
+        RevenueSliceResponse paid = store.query(RevenueSliceRequest.builder().build());
+        RevenueSliceResponse byStatus = store.query(RevenueSliceRequest.builder()
+                .statuses(List.of(BookingEntity.Status.REFUNDED, BookingEntity.Status.CANCELLED))
+                .groupBy(List.of(RevenueSliceRequest.Dimension.STATUS)).build());
+
+        // Then
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(paid.getTotalBookings()).isZero();
+        assertThat(byStatus.getGroups())
+                .extracting(group -> group.getKeys().get(0), RevenueSliceResponse.Group::getRevenue)
+                .containsExactly(
+                        tuple("CANCELLED", Money.ofMinor(20_000)),
+                        tuple("REFUNDED", Money.ofMinor(10_000)));
+    }
+
+    @Test
+    @DisplayName("Should group across chunks by month and cohort the same way as a plain loop")
+    void query_AcrossChunks_ShouldMatchPlainAggregation() {
+        // Given
+        int rows = RevenueColumnStore.CHUNK_ROWS * 3 + 5;
+        Map<String, Long> expected = new TreeMap<>();
+        for (int id = 1; id <= rows; id++) {
+            LocalDate day = LocalDate.of(2023, 12, 1).plusDays(id % 500);
+            LocalDate registered = LocalDate.of(2024, 1 + id % 3, 1);
+            long amount = 100 + id % 7;
+            store.append(id, day, (long) (id % 50), (long) (id % 4), registered, BookingEntity.Status.PAID, amount);
+            if (registered.getMonthValue() >= 2) {
+                expected.merge(YearMonth.from(day) + "|" + YearMonth.from(registered), amount, Long::sum);
+            }
+        }
+
+        // When
+        RevenueSliceResponse response = store.query(RevenueSliceRequest.builder()
+                .cohortFrom(YearMonth.of(2024, 2))
+                .groupBy(List.of(RevenueSliceRequest.Dimension.MONTH, RevenueSliceRequest.Dimension.COHORT))
+                .build());
+
+        // Then
+        Map<String, Long> actual = new TreeMap<>();
+        response.getGroups().forEach(group -> actual.put(String.join("|", group.getKeys()),
+                group.getRevenue().minorUnits()));
+        assertThat(actual).isEqualTo(expected);
+        for (int epochDay = -800; epochDay < 40_000; epochDay += 13) {
+            LocalDate day = LocalDate.ofEpochDay(epochDay);
+            assertThat(RevenueColumnStore.epochMonthOfDay(epochDay))
+                    .isEqualTo((day.getYear() - 1970) * 12 + day.getMonthValue() - 1);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.analytics;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSliceRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+/**
+ * Deterministic paid bookings and the slices the revenue benchmarks run over them, so the in-memory and SQL
+ * benchmarks see the same data: 2,000 tours in 40 categories, 200,000 users registered over three years and
+ * payments spread over the three years after that.
+ */
+final class RevenueSliceDataset {
+
+    static final int TOURS = 2_000;
+    static final int CATEGORIES = 40;
+    static final int USERS = 200_000;
+    static final LocalDate FIRST_REGISTRATION = LocalDate.of(2022, 1, 1);
+    static final LocalDate FIRST_PAYMENT = LocalDate.of(2023, 1, 1);
+    static final int DAYS = 3 * 365;
+
+    static final RevenueSliceRequest MONTHLY_TOTALS = RevenueSliceRequest.builder()
+            .groupBy(List.of(RevenueSliceRequest.Dimension.MONTH))
+            .build();
+
+    static final RevenueSliceRequest QUARTER_BY_CATEGORY = RevenueSliceRequest.builder()
+            .from(LocalDate.of(2025, 1, 1))
+            .to(LocalDate.of(2025, 3, 31))
+            .groupBy(List.of(RevenueSliceRequest.Dimension.CATEGORY))
+            .build();
+
+    static final RevenueSliceRequest COHORT_BY_TOUR_AND_STATUS = RevenueSliceRequest.builder()
+            .tourIds(LongStream.rangeClosed(1, 20).boxed().toList())
+            .statuses(List.of(BookingEntity.Status.PAID, BookingEntity.Status.REFUNDED))
+            .cohortFrom(YearMonth.of(2024, 1))
+            .groupBy(List.of(RevenueSliceRequest.Dimension.TOUR, RevenueSliceRequest.Dimension.STATUS))
+            .build();
+
+    interface BookingSink {
+        void accept(long bookingId, LocalDate paidDay, long tourId, long categoryId, long userId,
+                    LocalDate userRegisteredAt, BookingEntity.Status status, long amountMinor);
+    }
+
+    private RevenueSliceDataset() {
+    }
+
+    static long categoryOf(long tourId) {
+        return 1 + tourId % CATEGORIES;
+    }
+
+    static LocalDate registeredAt(long userId) {
+        return FIRST_REGISTRATION.plusDays(userId * 1_095 / USERS);
+    }
+
+    static void generate(int bookings, BookingSink sink) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= bookings; id++) {
+            long tourId = 1 + random.nextInt(TOURS);
+            long userId = 1 + random.nextInt(USERS);
+            int roll = random.nextInt(100);
+            BookingEntity.Status status = roll < 90 ? BookingEntity.Status.PAID
+                    : roll < 96 ? BookingEntity.Status.REFUNDED : BookingEntity.Status.CANCELLED;
+            sink.accept(id, FIRST_PAYMENT.plusDays(random.nextInt(DAYS)), tourId, categoryOf(tourId), userId,
+                    registeredAt(userId), status, 50_000_00L + random.nextInt(2_000_000_00));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.analytics;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueSliceResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three {@link RevenueSliceDataset} slices answered by {@link RevenueColumnStore}; compare with
+ * {@link RevenueSliceSqlBenchmark}, which runs the same slices in MySQL.
+ * <p>{@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RevenueSliceMemory}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RevenueSliceMemoryBenchmark {
+
+    @Param("10000000")
+    private int bookings;
+
+    private RevenueColumnStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new RevenueColumnStore(0);
+        RevenueSliceDataset.generate(bookings, (bookingId, paidDay, tourId, categoryId, userId, registeredAt,
+                                                status, amountMinor) ->
+                store.append(bookingId, paidDay, tourId, categoryId, registeredAt, status, amountMinor));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.shutdown();
+    }
+
+    @Benchmark
+    public RevenueSliceResponse monthlyTotals() {
+        return store.query(RevenueSliceDataset.MONTHLY_TOTALS);
+    }
+
+    @Benchmark
+    public RevenueSliceResponse quarterByCategory() {
+        return store.query(RevenueSliceDataset.QUARTER_BY_CATEGORY);
+    }
+
+    @Benchmark
+    public RevenueSliceResponse cohortByTourAndStatus() {
+        return store.query(RevenueSliceDataset.COHORT_BY_TOUR_AND_STATUS);
+    }
+}
@@ -0,0 +1,143 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.analytics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three {@link RevenueSliceDataset} slices as the native SQL aggregations {@code RevenueService} would run,
+ * joined the same way: bookings to tours for categories and to users for cohorts.
+ * <p>Needs a scratch MySQL schema in {@code BENCH_JDBC_URL} (with {@code BENCH_JDBC_USER} and
+ * {@code BENCH_JDBC_PASSWORD}). The {@code bench_*} tables are created and filled on the first run, which takes a
+ * few minutes for 10M bookings, and reused afterwards.</p>
+ * <p>{@code BENCH_JDBC_URL=jdbc:mysql://localhost:3306/bench mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark=RevenueSliceSql}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RevenueSliceSqlBenchmark {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private static final String MONTHLY_TOTALS_SQL =
+            "SELECT DATE_FORMAT(b.paid_at, '%Y-%m') AS period, SUM(b.amount_minor), COUNT(*) " +
+            "FROM bench_bookings b WHERE b.status = 'PAID' GROUP BY period";
+
+    private static final String QUARTER_BY_CATEGORY_SQL =
+            "SELECT t.category_id, SUM(b.amount_minor), COUNT(*) " +
+            "FROM bench_bookings b JOIN bench_tours t ON b.tour_id = t.id " +
+            "WHERE b.status = 'PAID' AND b.paid_at BETWEEN ? AND ? GROUP BY t.category_id";
+
+    private static final String COHORT_BY_TOUR_AND_STATUS_SQL =
+            "SELECT b.tour_id, b.status, SUM(b.amount_minor), COUNT(*) " +
+            "FROM bench_bookings b JOIN bench_users u ON b.user_id = u.id " +
+            "WHERE b.tour_id BETWEEN 1 AND 20 AND b.status IN ('PAID', 'REFUNDED') AND u.created_at >= '2024-01-01' " +
+            "GROUP BY b.tour_id, b.status";
+
+    @Param("10000000")
+    private int bookings;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getenv("BENCH_JDBC_URL");
+        if (url == null) {
+            throw new IllegalStateException("Set BENCH_JDBC_URL to a scratch MySQL schema");
+        }
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true",
+                System.getenv().getOrDefault("BENCH_JDBC_USER", "root"),
+                System.getenv().getOrDefault("BENCH_JDBC_PASSWORD", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        seed();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> monthlyTotals() {
+        return jdbcTemplate.queryForList(MONTHLY_TOTALS_SQL);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> quarterByCategory() {
+        return jdbcTemplate.queryForList(QUARTER_BY_CATEGORY_SQL,
+                Date.valueOf(RevenueSliceDataset.QUARTER_BY_CATEGORY.getFrom()),
+                Date.valueOf(RevenueSliceDataset.QUARTER_BY_CATEGORY.getTo()));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> cohortByTourAndStatus() {
+        return jdbcTemplate.queryForList(COHORT_BY_TOUR_AND_STATUS_SQL);
+    }
+
+    private void seed() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bench_tours (id BIGINT PRIMARY KEY, category_id BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bench_users (id BIGINT PRIMARY KEY, created_at DATETIME)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bench_bookings (id BIGINT PRIMARY KEY, user_id BIGINT, " +
+                "tour_id BIGINT, status VARCHAR(20), paid_at DATETIME, amount_minor BIGINT, " +
+                "INDEX idx_bench_bookings_paid_at (paid_at), INDEX idx_bench_bookings_tour (tour_id))");
+        Long seeded = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bench_bookings", Long.class);
+        if (seeded != null && seeded == bookings) {
+            return;
+        }
+
+        jdbcTemplate.execute("TRUNCATE TABLE bench_tours");
+        jdbcTemplate.execute("TRUNCATE TABLE bench_users");
+        jdbcTemplate.execute("TRUNCATE TABLE bench_bookings");
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (long tourId = 1; tourId <= RevenueSliceDataset.TOURS; tourId++) {
+            rows.add(new Object[]{tourId, RevenueSliceDataset.categoryOf(tourId)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bench_tours (id, category_id) VALUES (?, ?)", rows);
+        rows.clear();
+        for (long userId = 1; userId <= RevenueSliceDataset.USERS; userId++) {
+            rows.add(new Object[]{userId, Date.valueOf(RevenueSliceDataset.registeredAt(userId))});
+            flushIfFull("INSERT INTO bench_users (id, created_at) VALUES (?, ?)", rows);
+        }
+        flush("INSERT INTO bench_users (id, created_at) VALUES (?, ?)", rows);
+
+        String insertBooking = "INSERT INTO bench_bookings (id, user_id, tour_id, status, paid_at, amount_minor) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        RevenueSliceDataset.generate(bookings, (bookingId, paidDay, tourId, categoryId, userId, registeredAt,
+                                                status, amountMinor) -> {
+            rows.add(new Object[]{bookingId, userId, tourId, status.name(), Date.valueOf(paidDay), amountMinor});
+            flushIfFull(insertBooking, rows);
+        });
+        flush(insertBooking, rows);
+        jdbcTemplate.execute("ANALYZE TABLE bench_tours, bench_users, bench_bookings");
+    }
+
+    private void flushIfFull(String sql, List<Object[]> rows) {
+        if (rows.size() == INSERT_BATCH) {
+            flush(sql, rows);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.ExportJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CsvExportJobService Tests")
+class CsvExportJobServiceTest {
+
+    private static final CsvExport EXPORT = new CsvExport("tours_export", "SELECT id FROM tours",
+            List.of(CsvColumn.text("ID", "id")), "SELECT COUNT(*) FROM tours");
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private CsvExporter csvExporter;
+
+    @Mock
+    private MessageSource messageSource;
+
+    private CsvExportJobService jobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(directory.resolve("left-over-tours_export.csv"), "stale");
+        jobService = new CsvExportJobService(csvExporter, messageSource, directory.toString(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    private void givenRenderWrites(String content) throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(csvExporter).write(eq(EXPORT), any(), eq(false), any());
+    }
+
+    private CsvExportJobService.ExportJob finished(CsvExportJobService.ExportJob job) throws InterruptedException {
+        assertThat(job.await(5_000)).isTrue();
+        return job;
+    }
+
+    @Test
+    @DisplayName("Should reuse the rendered file until the data version changes, keeping one superseded file")
+    void request_ShouldRenderOncePerVersion() throws Exception {
+        // Given
+        when(csvExporter.version(EXPORT)).thenReturn("v1", "v1", "v2", "v3");
+        givenRenderWrites("ID\n1\n");
+
+        // When
+        CsvExportJobService.ExportJob first = finished(jobService.request(EXPORT, false));
+        CsvExportJobService.ExportJob reused = jobService.request(EXPORT, false);
+        CsvExportJobService.ExportJob second = finished(jobService.request(EXPORT, false));
+        CsvExportJobService.ExportJob third = finished(jobService.request(EXPORT, false));
+
+        // Then
+        assertThat(reused).isSameAs(first);
+        assertThat(second).isNotSameAs(first);
+        verify(csvExporter, times(3)).write(eq(EXPORT), any(), eq(false), any());
+        assertThat(Files.readString(third.file)).isEqualTo("ID\n1\n");
+        assertThat(second.file).exists();
+        assertThat(first.file).doesNotExist();
+        assertThat(directory.resolve("left-over-tours_export.csv")).doesNotExist();
+        assertThat(jobService.getJob(third.id).getBytes()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should let concurrent requests for the same version share one running job")
+    void request_WhileRendering_ShouldJoinRunningJob() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(csvExporter.version(EXPORT)).thenReturn("v1");
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        }).when(csvExporter).write(eq(EXPORT), any(), eq(false), any());
+
+        // When
+        CsvExportJobService.ExportJob first = jobService.request(EXPORT, false);
+        CsvExportJobService.ExportJob joined = jobService.request(EXPORT, false);
+        ExportJobResponse.Status statusWhileRunning = jobService.getJob(first.id).getStatus();
+        release.countDown();
+
+        // Then
+        assertThat(joined).isSameAs(first);
+        assertThat(statusWhileRunning).isEqualTo(ExportJobResponse.Status.RUNNING);
+        assertThat(finished(first).status()).isEqualTo(ExportJobResponse.Status.COMPLETED);
+        verify(csvExporter, times(1)).write(eq(EXPORT), any(), eq(false), any());
+        assertThat(jobService.getJobs()).extracting(ExportJobResponse::getId).containsExactly(first.id);
+    }
+
+    @Test
+    @DisplayName("Should mark a failed render and refuse to serve its file")
+    void render_WhenQueryFails_ShouldFailJob() throws Exception {
+        // Given
+        when(csvExporter.version(EXPORT)).thenReturn("v1");
+        when(csvExporter.write(eq(EXPORT), any(), eq(false), any()))
+                .thenThrow(new IllegalStateException("connection reset"));
+        when(messageSource.getMessage(eq("export.error.not_ready"), any(), any())).thenReturn("Not ready");
+
+        // When
+        CsvExportJobService.ExportJob job = finished(jobService.request(EXPORT, false));
+
+        // Then
+        ExportJobResponse response = jobService.getJob(job.id);
+        assertThat(response.getStatus()).isEqualTo(ExportJobResponse.Status.FAILED);
+        assertThat(response.getError()).isEqualTo("connection reset");
+        assertThat(response.getDownloadUrl()).isNull();
+        assertThatThrownBy(() -> jobService.findCompletedJob(job.id))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Not ready");
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
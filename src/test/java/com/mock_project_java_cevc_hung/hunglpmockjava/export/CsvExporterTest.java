@@ -0,0 +1,142 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CsvExporter Tests")
+class CsvExporterTest {
+
+    private static final CsvExport EXPORT = new CsvExport("things", "SELECT id, name, price_minor, created_at FROM things",
+            List.of(
+                    CsvColumn.text("ID", "id"),
+                    CsvColumn.text("Name", "name"),
+                    CsvColumn.money("Price", "price_minor", "0"),
+                    CsvColumn.dateTime("Created At", "created_at", null)),
+            null);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private CsvExporter csvExporter;
+
+    @BeforeEach
+    void setUp() {
+        csvExporter = new CsvExporter(jdbcTemplate);
+    }
+
+    private void givenRows(int rows) throws SQLException {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < rows; i++) {
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Should stream rows through a forward-only cursor, escaping fields and formatting money")
+    void write_ShouldEncodeEveryRowUnderTheHeader() throws Exception {
+        // Given
+        givenRows(2);
+        when(resultSet.getString("id")).thenReturn("1", "2");
+        when(resultSet.getString("name")).thenReturn("Ha Long, 2 days", "=HYPERLINK(\"x\")");
+        when(resultSet.getLong("price_minor")).thenReturn(1_250_050L, 0L);
+        when(resultSet.wasNull()).thenReturn(false, true);
+        when(resultSet.getTimestamp("created_at"))
+                .thenReturn(Timestamp.valueOf(LocalDateTime.of(2025, 3, 1, 9, 30)))
+                .thenReturn(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = csvExporter.write(EXPORT, out, false);
+
+        // Then
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "ID,Name,Price,Created At\n" +
+                "1,\"Ha Long, 2 days\",12500.50,2025-03-01T09:30\n" +
+                "2,\"'=HYPERLINK(\"\"x\"\")\",0,\n");
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(RowCallbackHandler.class));
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(EXPORT.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+                .thenReturn(statement);
+        creator.getValue().createPreparedStatement(connection);
+        verify(statement).setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Test
+    @DisplayName("Should write a complete gzip stream when asked to compress")
+    void write_WithGzip_ShouldProduceReadableArchive() throws Exception {
+        // Given
+        givenRows(3);
+        when(resultSet.getString(anyString())).thenReturn("x");
+        when(resultSet.getLong("price_minor")).thenReturn(100L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        csvExporter.write(EXPORT, out, true);
+
+        // Then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo("ID,Name,Price,Created At\n" + "x,x,1.00,\n".repeat(3));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop reading rows once the client goes away")
+    void write_WhenClientDisconnects_ShouldRethrowIOException() throws Exception {
+        // Given
+        givenRows(100_000);
+        when(resultSet.getString(anyString())).thenReturn("a fairly long field value to fill the buffer quickly");
+        OutputStream brokenPipe = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then
+        assertThatThrownBy(() -> csvExporter.write(EXPORT, brokenPipe, false))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+}
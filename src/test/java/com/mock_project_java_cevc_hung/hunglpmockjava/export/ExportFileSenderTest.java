@@ -0,0 +1,158 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.export;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.ExportJobResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExportFileSender Tests")
+class ExportFileSenderTest {
+
+    private static final CsvExport EXPORT = new CsvExport("all_revenues", "SELECT id FROM revenues",
+            List.of(CsvColumn.text("ID", "id")), "SELECT COUNT(*) FROM revenues");
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private CsvExporter csvExporter;
+
+    @Mock
+    private MessageSource messageSource;
+
+    private CsvExportJobService jobService;
+    private ExportFileSender sender;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new CsvExportJobService(csvExporter, messageSource, directory.toString(), 1);
+        sender = new ExportFileSender(jobService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    private ResponseEntity<?> serve(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        return sender.serve(EXPORT, false, request, response);
+    }
+
+    private void givenRenderedFile() throws Exception {
+        when(csvExporter.version(EXPORT)).thenReturn("v1");
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("0123456789".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(csvExporter).write(eq(EXPORT), any(), eq(false), any());
+    }
+
+    @Test
+    @DisplayName("Should send the whole file or the requested range, honouring If-Range")
+    void serve_WithRange_ShouldSendPartialContent() throws Exception {
+        // Given
+        givenRenderedFile();
+        MockHttpServletResponse whole = new MockHttpServletResponse();
+        assertThat(serve(new MockHttpServletRequest("GET", "/admin/revenue/export/all"), whole)).isNull();
+        String etag = whole.getHeader("ETag");
+        MockHttpServletRequest rangeRequest = new MockHttpServletRequest("GET", "/admin/revenue/export/all");
+        rangeRequest.addHeader("Range", "bytes=2-5");
+        rangeRequest.addHeader("If-Range", etag);
+        MockHttpServletRequest staleRequest = new MockHttpServletRequest("GET", "/admin/revenue/export/all");
+        staleRequest.addHeader("Range", "bytes=2-5");
+        staleRequest.addHeader("If-Range", "\"another-file\"");
+
+        // When
+        MockHttpServletResponse partial = new MockHttpServletResponse();
+        serve(rangeRequest, partial);
+        MockHttpServletResponse stale = new MockHttpServletResponse();
+        serve(staleRequest, stale);
+
+        // Then
+        assertThat(whole.getStatus()).isEqualTo(200);
+        assertThat(whole.getContentAsString()).isEqualTo("0123456789");
+        assertThat(whole.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(whole.getHeader("Content-Disposition")).contains("all_revenues.csv");
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(partial.getContentAsString()).isEqualTo("2345");
+        assertThat(stale.getStatus()).isEqualTo(200);
+        assertThat(stale.getContentAsString()).isEqualTo("0123456789");
+        verify(csvExporter, times(1)).write(eq(EXPORT), any(), eq(false), any());
+    }
+
+    @Test
+    @DisplayName("Should hand the file to Tomcat sendfile, and answer 416 to a range past the end")
+    void serve_OnTomcat_ShouldUseSendfileAttributes() throws Exception {
+        // Given
+        givenRenderedFile();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/admin/revenue/export/all");
+        request.setAttribute(ExportFileSender.SENDFILE_SUPPORTED, Boolean.TRUE);
+        request.addHeader("Range", "bytes=-3");
+        MockHttpServletRequest pastEnd = new MockHttpServletRequest("GET", "/admin/revenue/export/all");
+        pastEnd.addHeader("Range", "bytes=20-");
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        serve(request, response);
+        MockHttpServletResponse unsatisfiable = new MockHttpServletResponse();
+        serve(pastEnd, unsatisfiable);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(3);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat((String) request.getAttribute(ExportFileSender.SENDFILE_FILENAME)).endsWith("all_revenues.csv");
+        assertThat(request.getAttribute(ExportFileSender.SENDFILE_START)).isEqualTo(7L);
+        assertThat(request.getAttribute(ExportFileSender.SENDFILE_END)).isEqualTo(10L);
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader("Content-Range")).isEqualTo("bytes */10");
+    }
+
+    @Test
+    @DisplayName("Should answer 202 with the job when the file is not ready in time")
+    void serve_WhileRendering_ShouldReturnAccepted() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(sender, "waitMs", 0L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(csvExporter.version(EXPORT)).thenReturn("v1");
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        }).when(csvExporter).write(eq(EXPORT), any(), eq(false), any());
+
+        // When
+        ResponseEntity<?> response = serve(new MockHttpServletRequest("GET", "/admin/revenue/export/all"),
+                new MockHttpServletResponse());
+        release.countDown();
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        ExportJobResponse job = (ExportJobResponse) response.getBody();
+        assertThat(job.getStatus()).isEqualTo(ExportJobResponse.Status.RUNNING);
+        assertThat(response.getHeaders().getLocation()).hasToString("/admin/exports/" + job.getId());
+    }
+}
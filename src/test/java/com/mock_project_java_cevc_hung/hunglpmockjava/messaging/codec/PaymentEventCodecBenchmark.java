@@ -0,0 +1,78 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of one payment event: the Jackson message converter used so far against
+ * {@link PaymentCompletedEventBinaryFormat}. Bytes on the wire are logged at setup.
+ * <p>{@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PaymentEventCodec}</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentEventCodecBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentEventCodecBenchmark.class);
+
+    private Jackson2JsonMessageConverter jsonConverter;
+    private PaymentCompletedEvent event;
+    private Message jsonMessage;
+    private byte[] binaryBody;
+
+    @Setup
+    public void setUp() {
+        jsonConverter = new Jackson2JsonMessageConverter(new ObjectMapper().findAndRegisterModules());
+        event = PaymentCompletedEvent.builder()
+                .bookingId(1_234_567L)
+                .amount(Money.of(2_450_000.0))
+                .paymentRef("PAY-2c9f1d4e-7b1a-4f65-9a0e-1d2b3c4d5e6f")
+                .paidAt(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_000_000))
+                .build();
+        jsonMessage = jsonConverter.toMessage(event, new MessageProperties());
+        binaryBody = PaymentCompletedEventBinaryFormat.encode(event);
+        logger.info("Bytes on the wire: json={} binary={}", jsonMessage.getBody().length, binaryBody.length);
+    }
+
+    @Benchmark
+    public Message jsonEncode() {
+        return jsonConverter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonConverter.fromMessage(jsonMessage);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return PaymentCompletedEventBinaryFormat.encode(event);
+    }
+
+    @Benchmark
+    public PaymentCompletedEvent binaryDecode() {
+        return PaymentCompletedEventBinaryFormat.decode(binaryBody);
+    }
+}
@@ -0,0 +1,107 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PaymentEventCodec Tests")
+class PaymentEventCodecTest {
+
+    private ObjectMapper objectMapper;
+    private PaymentEventCodec binaryCodec;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        binaryCodec = new PaymentEventCodec(objectMapper, PaymentEventCodec.FORMAT_BINARY);
+    }
+
+    @Test
+    @DisplayName("Should round-trip an event through the binary format, absent fields included")
+    void encode_Binary_ShouldRoundTrip() {
+        // Given
+        PaymentCompletedEvent full = PaymentCompletedEvent.builder()
+                .bookingId(42L).amount(Money.of(1250.5)).paymentRef("PAY-ÿ-42")
+                .paidAt(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_789))
+                .build();
+        PaymentCompletedEvent sparse = PaymentCompletedEvent.builder().bookingId(7L).build();
+
+        // When
+        byte[] fullBody = binaryCodec.encode(full);
+        PaymentCompletedEvent decodedFull = binaryCodec.decodeStored(
+                binaryCodec.toOutboxPayload(fullBody), binaryCodec.contentType());
+        PaymentCompletedEvent decodedSparse = binaryCodec.decode(binaryCodec.encode(sparse), binaryCodec.contentType());
+
+        // Then
+        assertThat(fullBody.length).isLessThan(objectMapper.valueToTree(full).toString().length());
+        assertThat(decodedFull).usingRecursiveComparison().isEqualTo(full);
+        assertThat(decodedSparse).usingRecursiveComparison().isEqualTo(sparse);
+        assertThat(binaryCodec.encode(sparse)).hasSize(2 + Long.BYTES);
+    }
+
+    @Test
+    @DisplayName("Should keep reading JSON events, with or without a content type, on a binary producer")
+    void decode_Json_ShouldBeReadByContentType() throws Exception {
+        // Given
+        PaymentCompletedEvent event = PaymentCompletedEvent.builder().bookingId(3L).amount(Money.of(99.0)).paymentRef("PAY-3").build();
+        byte[] json = objectMapper.writeValueAsBytes(event);
+
+        // When
+        PaymentCompletedEvent typed = binaryCodec.decode(json, MessageProperties.CONTENT_TYPE_JSON);
+        PaymentCompletedEvent legacy = binaryCodec.decodeStored(new String(json), null);
+
+        // Then
+        assertThat(typed).usingRecursiveComparison().isEqualTo(event);
+        assertThat(legacy).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Should still read version 1 bodies, which carry the amount as a double")
+    void decode_Version1_ShouldReadFloatingPointAmount() {
+        // Given
+        byte[] version1 = ByteBuffer.allocate(2 + Long.BYTES + Double.BYTES)
+                .put(PaymentCompletedEventBinaryFormat.VERSION_1)
+                .put((byte) 0b11)
+                .putLong(8L)
+                .putDouble(0.145)
+                .array();
+
+        // When
+        PaymentCompletedEvent event = binaryCodec.decode(version1, PaymentCompletedEventBinaryFormat.CONTENT_TYPE);
+
+        // Then
+        assertThat(event.getBookingId()).isEqualTo(8L);
+        assertThat(event.getAmount()).isEqualTo(Money.ofMinor(15));
+        assertThat(binaryCodec.encode(event)[0]).isEqualTo(PaymentCompletedEventBinaryFormat.VERSION_2);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown versions and truncated bodies as conversion errors")
+    void decode_UnknownVersionOrTruncated_ShouldThrowConversionException() {
+        // Given
+        byte[] body = binaryCodec.encode(PaymentCompletedEvent.builder().bookingId(5L).amount(Money.of(10.0)).build());
+        byte[] futureVersion = body.clone();
+        futureVersion[0] = 99;
+        byte[] truncated = Arrays.copyOf(body, body.length - 3);
+
+        // When & Then
+        assertThatThrownBy(() -> binaryCodec.decode(futureVersion, PaymentCompletedEventBinaryFormat.CONTENT_TYPE))
+                .isInstanceOf(MessageConversionException.class)
+                .hasMessageContaining("version 99");
+        assertThatThrownBy(() -> binaryCodec.decode(truncated, PaymentCompletedEventBinaryFormat.CONTENT_TYPE))
+                .isInstanceOf(MessageConversionException.class);
+        assertThatThrownBy(() -> new PaymentEventCodec(objectMapper, "avro"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
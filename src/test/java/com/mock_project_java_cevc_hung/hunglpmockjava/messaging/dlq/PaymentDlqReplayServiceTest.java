@@ -0,0 +1,189 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.dlq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.DlqReplayRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.DlqReplayJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.DlqSummaryResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.exception.PaymentProcessingException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener.PaymentCompletedBatchProcessor;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentConsumerAutoscaler;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentPartitionLagMonitor;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentPartitions;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry.PaymentRetryRecoverer;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.MessageSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentDlqReplayService Tests")
+class PaymentDlqReplayServiceTest {
+
+    private static final String MISMATCH = "PaymentProcessingException: Amount mismatch";
+    private static final String NOT_FOUND = "PaymentProcessingException: Booking not found";
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private PaymentCompletedBatchProcessor batchProcessor;
+
+    @Mock
+    private PaymentConsumerAutoscaler autoscaler;
+
+    @Mock
+    private PaymentPartitionLagMonitor lagMonitor;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @Mock
+    private Channel channel;
+
+    private PaymentDlqReplayService replayService;
+    private PaymentPartitions paymentPartitions;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        paymentPartitions = new PaymentPartitions(4, "");
+        replayService = new PaymentDlqReplayService(rabbitTemplate, paymentPartitions, batchProcessor, autoscaler,
+                lagMonitor, new PaymentEventCodec(objectMapper, "json"), messageSource, new SimpleMeterRegistry());
+
+        lenient().when(rabbitTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+        lenient().when(channel.messageCount(RabbitMQConfig.PAYMENT_COMPLETED_DLQ)).thenReturn(3L);
+        lenient().when(channel.basicGet(RabbitMQConfig.PAYMENT_COMPLETED_DLQ, false)).thenReturn(
+                deadLetter(1, 10L, MISMATCH), deadLetter(2, 11L, NOT_FOUND), deadLetter(3, 12L, MISMATCH), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayService.shutdown();
+    }
+
+    private GetResponse deadLetter(long deliveryTag, Long bookingId, String reason) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(PaymentCompletedEvent.builder()
+                .bookingId(bookingId).amount(Money.of(100.0)).paymentRef("PAY-" + bookingId).build());
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .headers(Map.of(PaymentRetryRecoverer.FAILURE_REASON_HEADER, reason,
+                        PaymentRetryRecoverer.RETRY_ATTEMPT_HEADER, 3))
+                .build();
+        return new GetResponse(new Envelope(deliveryTag, false, RabbitMQConfig.PAYMENT_DLX,
+                RabbitMQConfig.PAYMENT_COMPLETED_DLQ_ROUTING_KEY), properties, body, 0);
+    }
+
+    @Test
+    @DisplayName("Should group DLQ messages by failure reason and hand them all back to the queue")
+    void summarize_ShouldGroupByReasonAndRequeue() throws Exception {
+        // When
+        DlqSummaryResponse summary = replayService.summarize();
+
+        // Then
+        assertThat(summary.getQueueDepth()).isEqualTo(3);
+        assertThat(summary.getInspected()).isEqualTo(3);
+        assertThat(summary.getReasons()).extracting(DlqSummaryResponse.ReasonGroup::getReason)
+                .containsExactly(MISMATCH, NOT_FOUND);
+        assertThat(summary.getReasons().get(0).getSampleBookingIds()).containsExactly(10L, 12L);
+        verify(channel).basicNack(3L, true, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should republish the messages of the selected reason to their partition and put the others back")
+    void run_RepublishByReason_ShouldReplaySelectedMessages() throws Exception {
+        // Given
+        PaymentDlqReplayService.ReplayJob job = new PaymentDlqReplayService.ReplayJob(
+                "job-1", DlqReplayRequest.Mode.REPUBLISH, MISMATCH, null);
+
+        // When
+        replayService.run(job);
+
+        // Then
+        DlqReplayJobResponse progress = job.toResponse();
+        assertThat(progress.getStatus()).isEqualTo(DlqReplayJobResponse.Status.COMPLETED);
+        assertThat(progress.getScanned()).isEqualTo(3);
+        assertThat(progress.getReplayed()).isEqualTo(2);
+        assertThat(progress.getSkipped()).isEqualTo(1);
+        verify(channel).basicPublish(eq(RabbitMQConfig.PAYMENT_EXCHANGE), eq(paymentPartitions.routingKeyFor(10L)),
+                eq(false), argThat(properties ->
+                        !properties.getHeaders().containsKey(PaymentRetryRecoverer.RETRY_ATTEMPT_HEADER)), any());
+        verify(channel).basicPublish(eq(RabbitMQConfig.PAYMENT_EXCHANGE), eq(paymentPartitions.routingKeyFor(12L)),
+                eq(false), any(), any());
+        verify(channel).basicPublish(eq(RabbitMQConfig.PAYMENT_DLX),
+                eq(RabbitMQConfig.PAYMENT_COMPLETED_DLQ_ROUTING_KEY), eq(false), any(), any());
+        verify(channel).waitForConfirmsOrDie(anyLong());
+        verify(channel).basicAck(3L, true);
+        verifyNoInteractions(batchProcessor);
+    }
+
+    @Test
+    @DisplayName("Should apply messages directly in one batch and send the ones that fail again back to the DLQ")
+    void run_Direct_ShouldApplyInBulk() throws Exception {
+        // Given
+        when(batchProcessor.process(anyList())).thenReturn(
+                Arrays.asList(null, new PaymentProcessingException("Booking cancelled"), null));
+        PaymentDlqReplayService.ReplayJob job = new PaymentDlqReplayService.ReplayJob(
+                "job-2", DlqReplayRequest.Mode.DIRECT, null, null);
+
+        // When
+        replayService.run(job);
+
+        // Then
+        DlqReplayJobResponse progress = job.toResponse();
+        assertThat(progress.getReplayed()).isEqualTo(2);
+        assertThat(progress.getFailed()).isEqualTo(1);
+        verify(batchProcessor, times(1)).process(argThat(events -> events.size() == 3));
+        verify(channel).basicPublish(eq(RabbitMQConfig.PAYMENT_DLX),
+                eq(RabbitMQConfig.PAYMENT_COMPLETED_DLQ_ROUTING_KEY), eq(false),
+                argThat(properties -> properties.getHeaders().get(PaymentRetryRecoverer.FAILURE_REASON_HEADER)
+                        .toString().equals("PaymentProcessingException: Booking cancelled")),
+                any());
+        verify(channel, never()).basicPublish(eq(RabbitMQConfig.PAYMENT_EXCHANGE), anyString(), anyBoolean(), any(),
+                any());
+        verify(channel).basicAck(3L, true);
+    }
+
+    @Test
+    @DisplayName("Should wait while the connection pool is under pressure and stop when cancelled")
+    void run_PoolUnderPressure_ShouldPauseUntilCancelled() throws Exception {
+        // Given
+        PaymentDlqReplayService.ReplayJob job = new PaymentDlqReplayService.ReplayJob(
+                "job-3", DlqReplayRequest.Mode.REPUBLISH, null, null);
+        when(autoscaler.poolUnderPressure()).thenAnswer(invocation -> {
+            job.cancelled = true;
+            return true;
+        });
+
+        // When
+        replayService.run(job);
+
+        // Then
+        assertThat(job.toResponse().getStatus()).isEqualTo(DlqReplayJobResponse.Status.CANCELLED);
+        verify(channel, never()).basicGet(anyString(), anyBoolean());
+    }
+}
@@ -0,0 +1,160 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.inprocess;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.exception.PaymentProcessingException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener.PaymentCompletedBatchProcessor;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener.PaymentCompletedListener;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition.PaymentPartitions;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InProcessPaymentEventBus Tests")
+class InProcessPaymentEventBusTest {
+
+    @Mock
+    private PaymentCompletedListener paymentCompletedListener;
+
+    @Mock
+    private PaymentCompletedBatchProcessor batchProcessor;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private InProcessPaymentEventBus bus;
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        bus = bus(false);
+    }
+
+    private InProcessPaymentEventBus bus(boolean batchEnabled) {
+        // A registry per bus: gauges of a second bus on the same registry would be ignored
+        meterRegistry = new SimpleMeterRegistry();
+        return new InProcessPaymentEventBus(new PaymentPartitions(2, ""), paymentCompletedListener, batchProcessor,
+                new PaymentEventCodec(objectMapper, "json"), outboxEventRepository, meterRegistry, new long[]{1, 1}, 100, batchEnabled);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    private OutboxEventEntity outboxEvent(Long id, Long bookingId) throws Exception {
+        OutboxEventEntity event = OutboxEventEntity.builder()
+                .aggregateId(bookingId)
+                .payload(objectMapper.writeValueAsString(PaymentCompletedEvent.builder()
+                        .bookingId(bookingId).amount(Money.of(100.0)).paymentRef("PAY-" + id).build()))
+                .status(OutboxEventEntity.Status.PENDING)
+                .build();
+        event.setId(id);
+        return event;
+    }
+
+    @Test
+    @DisplayName("Should hand every sent event to the payment listener")
+    void send_SingleMode_ShouldDispatchEveryEvent() throws Exception {
+        // When
+        bus.send(List.of(outboxEvent(1L, 10L), outboxEvent(2L, 11L), outboxEvent(3L, 10L)));
+
+        // Then
+        verify(paymentCompletedListener, timeout(1000).times(2))
+                .handlePaymentCompleted(argThat(event -> event.getBookingId() == 10L));
+        verify(paymentCompletedListener, timeout(1000))
+                .handlePaymentCompleted(argThat(event -> event.getBookingId() == 11L));
+        assertThat(bus.deadLetters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should retry a failing event after each delay and dead-letter it once the delays are used up")
+    void send_EventKeepsFailing_ShouldRetryThenDeadLetter() throws Exception {
+        // Given
+        doThrow(new PaymentProcessingException("Amount mismatch"))
+                .when(paymentCompletedListener).handlePaymentCompleted(any());
+
+        // When
+        bus.send(List.of(outboxEvent(1L, 10L)));
+
+        // Then
+        verify(paymentCompletedListener, timeout(1000).times(3)).handlePaymentCompleted(any());
+        await(() -> assertThat(bus.deadLetters()).singleElement().satisfies(deadLetter -> {
+            assertThat(deadLetter.outboxId()).isEqualTo(1L);
+            assertThat(deadLetter.attempts()).isEqualTo(2);
+            assertThat(deadLetter.reason()).isEqualTo("PaymentProcessingException: Amount mismatch");
+        }));
+        assertThat(meterRegistry.get("payment.retry.scheduled").tag("attempt", "2").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("payment.retry.exhausted").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should apply events in batches and retry only those the batch rejected")
+    void send_BatchMode_ShouldRetryOnlyRejectedEvents() throws Exception {
+        // Given
+        bus.shutdown();
+        bus = bus(true);
+        when(batchProcessor.process(anyList()))
+                .thenReturn(Arrays.asList(null, new PaymentProcessingException("Booking not found")))
+                .thenReturn(Arrays.asList((RuntimeException) null));
+
+        // When
+        bus.send(List.of(outboxEvent(1L, 10L), outboxEvent(2L, 10L)));
+
+        // Then
+        verify(batchProcessor, timeout(1000)).process(argThat(events -> events.size() == 2));
+        verify(batchProcessor, timeout(1000)).process(argThat(events ->
+                events.size() == 1 && events.get(0).getPaymentRef().equals("PAY-2")));
+        verifyNoInteractions(paymentCompletedListener);
+    }
+
+    @Test
+    @DisplayName("Should dispatch again relayed events whose booking is still pending on startup")
+    void replayUnconfirmed_PendingBookings_ShouldDispatchAgain() throws Exception {
+        // Given
+        when(outboxEventRepository.findSentForBookingsIn(eq(OutboxEventEntity.Status.SENT), any(),
+                eq(BookingEntity.Status.PENDING))).thenReturn(List.of(outboxEvent(5L, 12L)));
+
+        // When
+        bus.replayUnconfirmed();
+
+        // Then
+        verify(paymentCompletedListener, timeout(1000))
+                .handlePaymentCompleted(argThat(event -> event.getBookingId() == 12L));
+    }
+
+    private void await(Runnable assertion) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+}
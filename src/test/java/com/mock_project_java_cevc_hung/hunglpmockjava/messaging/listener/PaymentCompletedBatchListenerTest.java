@@ -0,0 +1,170 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.codec.PaymentEventCodec;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry.PaymentRetryRecoverer;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.RevenueService;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentCompletedBatchListener Tests")
+class PaymentCompletedBatchListenerTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @Mock
+    private RevenueService revenueService;
+
+    @Mock
+    private PaymentCompletedListener paymentCompletedListener;
+
+    @Mock
+    private PaymentRetryRecoverer paymentRetryRecoverer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Channel channel;
+
+    private PaymentCompletedBatchListener listener;
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        meterRegistry = new SimpleMeterRegistry();
+        PaymentCompletedBatchProcessor batchProcessor = new PaymentCompletedBatchProcessor(bookingRepository,
+                bookingJdbcRepository, revenueService, paymentCompletedListener, mock(ApplicationEventPublisher.class),
+                transactionManager, meterRegistry);
+        listener = new PaymentCompletedBatchListener(batchProcessor, paymentRetryRecoverer,
+                new PaymentEventCodec(objectMapper, "json"), meterRegistry);
+    }
+
+    private BookingEntity booking(Long id, BookingEntity.Status status) {
+        BookingEntity booking = BookingEntity.builder().qty(1).amount(Money.of(100.0)).status(status).build();
+        booking.setId(id);
+        return booking;
+    }
+
+    private Message message(long deliveryTag, Long bookingId, double amount) throws Exception {
+        PaymentCompletedEvent event = PaymentCompletedEvent.builder()
+                .bookingId(bookingId).amount(Money.of(amount)).paymentRef("PAY-" + deliveryTag)
+                .paidAt(LocalDateTime.of(2025, 1, 1, 10, 0))
+                .build();
+        return message(deliveryTag, objectMapper.writeValueAsBytes(event));
+    }
+
+    private Message message(long deliveryTag, byte[] body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(body, properties);
+    }
+
+    @Test
+    @DisplayName("Should apply a batch with one lock query and two JDBC batches, retrying only the bad messages")
+    void handlePaymentsCompleted_MixedBatch_ShouldBatchWritesAndRejectIndividually() throws Exception {
+        // Given
+        when(bookingRepository.findAllLockedByIdIn(any())).thenReturn(List.of(
+                booking(1L, BookingEntity.Status.PENDING),
+                booking(2L, BookingEntity.Status.PENDING),
+                booking(3L, BookingEntity.Status.PAID),
+                booking(4L, BookingEntity.Status.PENDING)));
+        List<Message> batch = List.of(
+                message(1, 1L, 100.0),
+                message(2, 2L, 100.0),
+                message(3, 3L, 100.0),
+                message(4, 4L, 55.0),
+                message(5, "not json".getBytes(StandardCharsets.UTF_8)),
+                message(6, 1L, 100.0),
+                message(7, 9L, 100.0));
+
+        // When
+        listener.handlePaymentsCompleted(batch, channel);
+
+        // Then
+        verify(bookingRepository, times(1)).findAllLockedByIdIn(
+                argThat(ids -> List.copyOf(ids).equals(List.of(1L, 2L, 3L, 4L, 9L))));
+        verify(bookingJdbcRepository, times(1)).markPaid(argThat(bookings ->
+                bookings.stream().map(BookingEntity::getId).toList().equals(List.of(1L, 2L))
+                        && bookings.stream().allMatch(b -> b.getStatus() == BookingEntity.Status.PAID)));
+        verify(revenueService, times(1)).createRevenuesForPayments(argThat(bookings -> bookings.size() == 2));
+        verify(paymentRetryRecoverer).recover(argThat(m -> m.getMessageProperties().getDeliveryTag() == 4), any());
+        verify(paymentRetryRecoverer).recover(argThat(m -> m.getMessageProperties().getDeliveryTag() == 7), any());
+        verify(paymentRetryRecoverer).deadLetter(argThat(m -> m.getMessageProperties().getDeliveryTag() == 5), any());
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        verify(channel, times(1)).basicAck(7, true);
+        verify(paymentCompletedListener, never()).handlePaymentCompleted(any());
+        assertThat(meterRegistry.get("payment.listener.rejected").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should fall back to one-by-one processing when the batch write fails")
+    void handlePaymentsCompleted_BatchWriteFails_ShouldProcessOneByOne() throws Exception {
+        // Given
+        when(bookingRepository.findAllLockedByIdIn(any())).thenReturn(List.of(
+                booking(1L, BookingEntity.Status.PENDING),
+                booking(2L, BookingEntity.Status.PENDING)));
+        doThrow(new QueryTimeoutException("lock wait timeout")).when(bookingJdbcRepository).markPaid(anyList());
+        doNothing().doThrow(new QueryTimeoutException("lock wait timeout"))
+                .when(paymentCompletedListener).handlePaymentCompleted(any());
+
+        // When
+        listener.handlePaymentsCompleted(List.of(message(1, 1L, 100.0), message(2, 2L, 100.0)), channel);
+
+        // Then
+        verify(paymentCompletedListener, times(2)).handlePaymentCompleted(any());
+        verify(paymentRetryRecoverer, times(1)).recover(
+                argThat(m -> m.getMessageProperties().getDeliveryTag() == 2), any());
+        verify(channel, times(1)).basicAck(2, true);
+    }
+
+    @Test
+    @DisplayName("Should reject a message to the broker when it cannot be re-routed")
+    void handlePaymentsCompleted_RetryPublishFails_ShouldNackThatMessage() throws Exception {
+        // Given
+        when(bookingRepository.findAllLockedByIdIn(any())).thenReturn(List.of(
+                booking(1L, BookingEntity.Status.PENDING),
+                booking(2L, BookingEntity.Status.PENDING)));
+        doThrow(new AmqpRejectAndDontRequeueException("broker unavailable"))
+                .when(paymentRetryRecoverer).recover(any(), any());
+
+        // When
+        listener.handlePaymentsCompleted(List.of(message(1, 1L, 100.0), message(2, 2L, 55.0)), channel);
+
+        // Then
+        verify(channel).basicNack(2, false, false);
+        verify(channel).basicAck(1, true);
+    }
+}
@@ -0,0 +1,110 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.outbox;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.OutboxEventEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport.RabbitPaymentEventTransport;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.net.ConnectException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Tests")
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitOperations rabbitOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay outboxRelay;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxEventRepository, new RabbitPaymentEventTransport(rabbitTemplate),
+                transactionManager, meterRegistry);
+    }
+
+    private OutboxEventEntity pendingEvent(Long id) {
+        OutboxEventEntity event = OutboxEventEntity.builder()
+                .aggregateId(id)
+                .exchange("payment.exchange")
+                .routingKey("payment.completed")
+                .payloadType("com.example.PaymentCompletedEvent")
+                .payload("{\"bookingId\":" + id + "}")
+                .status(OutboxEventEntity.Status.PENDING)
+                .build();
+        event.setId(id);
+        return event;
+    }
+
+    @Test
+    @DisplayName("Should publish a batch, wait for confirms once and mark it sent")
+    @SuppressWarnings("unchecked")
+    void relay_PendingEvents_ShouldPublishConfirmAndMarkSent() {
+        // Given
+        when(outboxEventRepository.lockBatch(eq(OutboxEventEntity.Status.PENDING), any()))
+                .thenReturn(List.of(pendingEvent(1L), pendingEvent(2L)));
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(rabbitOperations));
+        when(outboxEventRepository.findOldestCreatedAt(OutboxEventEntity.Status.PENDING)).thenReturn(Optional.empty());
+
+        // When
+        outboxRelay.relay();
+
+        // Then
+        verify(rabbitOperations, times(2)).send(eq("payment.exchange"), eq("payment.completed"), any(Message.class));
+        verify(rabbitOperations, times(1)).waitForConfirmsOrDie(anyLong());
+        verify(outboxEventRepository).markSent(eq(List.of(1L, 2L)), eq(OutboxEventEntity.Status.SENT), any());
+        assertThat(meterRegistry.get("outbox.relay.published").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should keep events pending and report the backlog while the broker is down")
+    @SuppressWarnings("unchecked")
+    void relay_BrokerDown_ShouldOnlyGrowBacklog() {
+        // Given
+        when(outboxEventRepository.lockBatch(eq(OutboxEventEntity.Status.PENDING), any()))
+                .thenReturn(List.of(pendingEvent(1L)));
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class)))
+                .thenThrow(new AmqpConnectException(new ConnectException("Connection refused")));
+        when(outboxEventRepository.countByStatus(OutboxEventEntity.Status.PENDING)).thenReturn(42L);
+        when(outboxEventRepository.findOldestCreatedAt(OutboxEventEntity.Status.PENDING))
+                .thenReturn(Optional.of(LocalDateTime.now().minusSeconds(30)));
+
+        // When
+        outboxRelay.relay();
+
+        // Then
+        verify(outboxEventRepository, never()).markSent(anyCollection(), any(), any());
+        assertThat(meterRegistry.get("outbox.relay.failures").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("outbox.backlog").gauge().value()).isEqualTo(42.0);
+        assertThat(meterRegistry.get("outbox.lag").gauge().value()).isGreaterThanOrEqualTo(30.0);
+    }
+}
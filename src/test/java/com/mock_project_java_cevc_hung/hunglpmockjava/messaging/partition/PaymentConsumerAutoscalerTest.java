@@ -0,0 +1,158 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentConsumerAutoscaler Tests")
+class PaymentConsumerAutoscalerTest {
+
+    @Mock
+    private RabbitListenerEndpointRegistry registry;
+
+    @Mock
+    private PaymentPartitionLagMonitor lagMonitor;
+
+    @Mock
+    private HikariDataSource dataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    private PaymentConsumerAutoscaler autoscaler;
+    private SimpleMeterRegistry meterRegistry;
+    private final Map<Integer, SimpleMessageListenerContainer> containers = new HashMap<>();
+    private final Map<Integer, Boolean> runningState = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        PaymentPartitions partitions = new PaymentPartitions(4, "");
+        for (int partition = 0; partition < 4; partition++) {
+            int p = partition;
+            SimpleMessageListenerContainer container = mock(SimpleMessageListenerContainer.class);
+            runningState.put(p, true);
+            lenient().when(container.isRunning()).thenAnswer(invocation -> runningState.get(p));
+            lenient().doAnswer(invocation -> runningState.put(p, true)).when(container).start();
+            lenient().doAnswer(invocation -> runningState.put(p, false)).when(container).stop();
+            containers.put(p, container);
+            lenient().when(registry.getListenerContainer(RabbitMQConfig.paymentCompletedPartitionQueue(p)))
+                    .thenReturn(container);
+        }
+        lenient().when(dataSource.getMaximumPoolSize()).thenReturn(10);
+        lenient().when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        autoscaler = new PaymentConsumerAutoscaler(registry, partitions, lagMonitor, dataSource, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should start a stopped partition with backlog, busiest first")
+    void adjust_BackloggedStoppedPartition_ShouldStartIt() {
+        // Given
+        runningState.put(2, false);
+        runningState.put(3, false);
+        when(lagMonitor.lag(anyInt())).thenAnswer(invocation -> switch ((int) invocation.getArgument(0)) {
+            case 2 -> 40L;
+            case 3 -> 900L;
+            default -> 0L;
+        });
+
+        // When
+        autoscaler.adjust();
+
+        // Then
+        verify(containers.get(3)).start();
+        verify(containers.get(2), never()).start();
+        verify(containers.get(0)).setPrefetchCount(250);
+        assertThat(meterRegistry.get("payment.listener.consumers").gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should stop the least loaded consumer while callers wait for a connection")
+    void adjust_PoolSaturated_ShouldScaleDown() {
+        // Given
+        when(pool.getThreadsAwaitingConnection()).thenReturn(3);
+        when(lagMonitor.lag(anyInt())).thenAnswer(invocation -> (int) invocation.getArgument(0) == 1 ? 0L : 500L);
+
+        // When
+        autoscaler.adjust();
+
+        // Then
+        verify(containers.get(1)).stop();
+        verify(containers.get(0), never()).stop();
+        assertThat(meterRegistry.get("payment.listener.consumers").gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should stop idle consumers one per sample, never below the minimum, and cap at the pool")
+    void adjust_IdleAndSmallPool_ShouldScaleDownWithinBounds() {
+        // Given
+        when(dataSource.getMaximumPoolSize()).thenReturn(7);
+        when(lagMonitor.lag(anyInt())).thenReturn(0L);
+
+        // When
+        for (int sample = 0; sample < 12; sample++) {
+            autoscaler.adjust();
+        }
+
+        // Then
+        assertThat(runningState.values().stream().filter(Boolean::booleanValue).count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.listener.consumers.ceiling").gauge().value()).isEqualTo(2.0);
+        verify(containers.get(0), never()).start();
+    }
+
+    @Test
+    @DisplayName("Should keep consumers that deliver messages running even though their queues stay empty")
+    void adjust_BusyPartitionsKeepingUp_ShouldNotCountAsIdle() {
+        // Given
+        when(lagMonitor.lag(anyInt())).thenReturn(0L);
+
+        // When
+        for (int sample = 0; sample < 12; sample++) {
+            for (int partition = 0; partition < 4; partition++) {
+                autoscaler.recordProcessing(partition, 20, 1_000_000L);
+            }
+            autoscaler.adjust();
+        }
+
+        // Then
+        assertThat(runningState.values()).containsOnly(true);
+        containers.values().forEach(container -> verify(container, never()).stop());
+    }
+
+    @Test
+    @DisplayName("Should not stop the last consumer of a partition with messages waiting, even under pressure")
+    void adjust_PressureWithBacklogAndNoStandby_ShouldKeepConsumers() {
+        // Given
+        when(pool.getThreadsAwaitingConnection()).thenReturn(3);
+        when(lagMonitor.lag(anyInt())).thenReturn(500L);
+        when(lagMonitor.consumers(anyInt())).thenAnswer(invocation -> (int) invocation.getArgument(0) == 2 ? 2L : 1L);
+
+        // When
+        autoscaler.adjust();
+        autoscaler.adjust();
+
+        // Then
+        verify(containers.get(2)).stop();
+        verify(containers.get(0), never()).stop();
+        verify(containers.get(1), never()).stop();
+        verify(containers.get(3), never()).stop();
+        assertThat(meterRegistry.get("payment.listener.consumers").gauge().value()).isEqualTo(3.0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.partition;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PaymentPartitions Tests")
+class PaymentPartitionsTest {
+
+    @Test
+    @DisplayName("Should spread bookings evenly and move only the share taken by a new partition")
+    void partitionOf_GrowingPartitionCount_ShouldMoveFewBookings() {
+        // Given
+        PaymentPartitions four = new PaymentPartitions(4, "");
+        PaymentPartitions five = new PaymentPartitions(5, "");
+        int bookings = 100_000;
+        int[] perPartition = new int[4];
+        int moved = 0;
+
+        // When
+        for (long bookingId = 1; bookingId <= bookings; bookingId++) {
+            int before = four.partitionOf(bookingId);
+            int after = five.partitionOf(bookingId);
+            perPartition[before]++;
+            if (before != after) {
+                moved++;
+                assertThat(after).isEqualTo(4);
+            }
+        }
+
+        // Then
+        assertThat(Arrays.stream(perPartition).min().orElseThrow()).isGreaterThan(bookings / 4 * 9 / 10);
+        assertThat(moved).isBetween(bookings / 5 * 9 / 10, bookings / 5 * 11 / 10);
+        assertThat(four.routingKeyFor(42L)).isEqualTo("payment.completed." + four.partitionOf(42L));
+    }
+
+    @Test
+    @DisplayName("Should consume all partitions by default and only the assigned ones when configured")
+    void assigned_Configuration_ShouldSelectPartitions() {
+        // When & Then
+        assertThat(new PaymentPartitions(3, "").assigned()).isEqualTo(List.of(0, 1, 2));
+        assertThat(new PaymentPartitions(8, "5, 1,3").assigned()).isEqualTo(List.of(1, 3, 5));
+        assertThatThrownBy(() -> new PaymentPartitions(4, "4"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
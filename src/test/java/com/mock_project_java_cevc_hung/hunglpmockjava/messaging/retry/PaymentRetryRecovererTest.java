@@ -0,0 +1,120 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.messaging.retry;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.config.RabbitMQConfig;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.exception.PaymentProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.AmqpNackReceivedException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.net.ConnectException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentRetryRecoverer Tests")
+class PaymentRetryRecovererTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitOperations operations;
+
+    private PaymentRetryRecoverer recoverer;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recoverer = new PaymentRetryRecoverer(rabbitTemplate, meterRegistry, new long[]{1000, 5000});
+        lenient().when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+    }
+
+    private Message message(Integer attempt) {
+        MessageProperties properties = new MessageProperties();
+        if (attempt != null) {
+            properties.setHeader(PaymentRetryRecoverer.RETRY_ATTEMPT_HEADER, attempt);
+            properties.setReceivedRoutingKey("retry." + attempt + ".payment.completed.3");
+        } else {
+            properties.setReceivedRoutingKey("payment.completed.3");
+        }
+        return new Message("{\"bookingId\":1}".getBytes(), properties);
+    }
+
+    private Throwable failure(Throwable cause) {
+        return new ListenerExecutionFailedException("Listener threw exception", cause);
+    }
+
+    @Test
+    @DisplayName("Should park a failed message for its next attempt, keeping its partition routing key")
+    void recover_RetriesLeft_ShouldPublishToNextDelayQueue() {
+        // When
+        recoverer.recover(message(1), failure(new PaymentProcessingException("Amount mismatch")));
+
+        // Then
+        verify(operations).send(eq(RabbitMQConfig.PAYMENT_RETRY_EXCHANGE),
+                eq("retry.2.payment.completed.3"),
+                argThat(m -> PaymentRetryRecoverer.retryAttempt(m) == 2
+                        && "PaymentProcessingException: Amount mismatch".equals(
+                        m.getMessageProperties().getHeader(PaymentRetryRecoverer.FAILURE_REASON_HEADER))));
+        assertThat(meterRegistry.get("payment.retry.scheduled").tag("attempt", "2").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should route to the DLQ once every delay has been used, or at once for unreadable messages")
+    void recover_RetriesExhaustedOrFatal_ShouldDeadLetter() {
+        // When
+        recoverer.recover(message(2), failure(new PaymentProcessingException("Booking not found")));
+        recoverer.recover(message(null), failure(new MessageConversionException("bad json")));
+
+        // Then
+        verify(operations, times(2)).send(eq(RabbitMQConfig.PAYMENT_DLX),
+                eq(RabbitMQConfig.PAYMENT_COMPLETED_DLQ_ROUTING_KEY), any(Message.class));
+        verify(operations, never()).send(eq(RabbitMQConfig.PAYMENT_RETRY_EXCHANGE), anyString(), any(Message.class));
+        assertThat(meterRegistry.get("payment.retry.exhausted").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should reject the delivery when the retry copy cannot be published")
+    void recover_PublishFails_ShouldRejectDelivery() {
+        // Given
+        doThrow(new AmqpConnectException(new ConnectException("Connection refused")))
+                .when(operations).send(anyString(), anyString(), any(Message.class));
+
+        // When & Then
+        assertThatThrownBy(() -> recoverer.recover(message(null), failure(new PaymentProcessingException("x"))))
+                .isInstanceOf(AmqpRejectAndDontRequeueException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject the delivery instead of acking it when the broker does not confirm the copy")
+    void deadLetter_ConfirmFails_ShouldRejectDelivery() {
+        // Given
+        Message message = message(2);
+        doThrow(new AmqpNackReceivedException("Nack received", message))
+                .when(operations).waitForConfirmsOrDie(anyLong());
+
+        // When & Then
+        assertThatThrownBy(() -> recoverer.deadLetter(message, failure(new PaymentProcessingException("x"))))
+                .isInstanceOf(AmqpRejectAndDontRequeueException.class);
+        verify(operations).send(eq(RabbitMQConfig.PAYMENT_DLX), eq(RabbitMQConfig.PAYMENT_COMPLETED_DLQ_ROUTING_KEY),
+                any(Message.class));
+        assertThat(meterRegistry.get("payment.retry.exhausted").counter().count()).isZero();
+    }
+}
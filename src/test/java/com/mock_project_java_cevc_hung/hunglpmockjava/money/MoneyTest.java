@@ -0,0 +1,71 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.BookingCreateRequest;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Money Tests")
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should round half up to minor units and sum without drift")
+    void of_ShouldRoundHalfUpAndSumExactly() {
+        // Given
+        Money tenCents = Money.of(0.1);
+        Money total = Money.ZERO;
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(tenCents);
+        }
+
+        // Then
+        assertThat(total).isEqualTo(Money.valueOf("1"));
+        assertThat(Money.of(0.145).minorUnits()).isEqualTo(15);
+        assertThat(Money.of(new BigDecimal("-2.005")).minorUnits()).isEqualTo(-201);
+        assertThat(Money.valueOf("1250.5").toString()).isEqualTo("1250.50");
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).times(2)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Should compare a total against unit price times quantity within a tolerance")
+    void isWithinTotal_ShouldCompareWithoutBuildingTheProduct() {
+        // Given
+        Money unitPrice = Money.valueOf("333.33");
+        Money tolerance = Money.ofMinor(1);
+
+        // When & Then
+        assertThat(Money.valueOf("999.99").isWithinTotal(unitPrice, 3, tolerance)).isTrue();
+        assertThat(Money.valueOf("1000.00").isWithinTotal(unitPrice, 3, tolerance)).isTrue();
+        assertThat(Money.valueOf("1000.01").isWithinTotal(unitPrice, 3, tolerance)).isFalse();
+        assertThat(Money.valueOf("999.99").isWithin(Money.valueOf("1000.01"), tolerance)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read and write JSON as a plain decimal and honour @Min")
+    void json_ShouldStayANumberAndValidate() throws Exception {
+        // Given
+        ObjectMapper objectMapper = new ObjectMapper();
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        // When
+        BookingCreateRequest request = objectMapper.readValue(
+                "{\"tourId\":1,\"qty\":2,\"amount\":199.9}", BookingCreateRequest.class);
+        BookingCreateRequest negative = BookingCreateRequest.builder()
+                .tourId(1L).qty(1).amount(Money.valueOf("-0.01")).build();
+
+        // Then
+        assertThat(request.getAmount()).isEqualTo(Money.ofMinor(19_990));
+        assertThat(objectMapper.writeValueAsString(request)).contains("\"amount\":199.90");
+        assertThat(validator.validate(request)).isEmpty();
+        assertThat(validator.validate(negative)).extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactly("amount");
+    }
+}
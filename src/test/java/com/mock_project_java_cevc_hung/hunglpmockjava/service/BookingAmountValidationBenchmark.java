@@ -0,0 +1,64 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The amount check of {@link BookingService#createBooking}: {@code bigDecimal} is the previous implementation
+ * ({@code BigDecimal} price, {@code Double} amount), {@code money} the current one. Run with
+ * {@code -prof gc} to compare allocations per call.
+ * <p>{@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BookingAmountValidation}</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingAmountValidationBenchmark {
+
+    private static final BigDecimal LEGACY_TOLERANCE = new BigDecimal("0.01");
+
+    private BookingService bookingService;
+    private TourEntity tour;
+    private BigDecimal legacyPrice;
+    private int qty;
+    private Money amount;
+    private Double legacyAmount;
+
+    @Setup
+    public void setUp() {
+        bookingService = new BookingService(null, null, null, null, null, null, null);
+        tour = TourEntity.builder().price(Money.valueOf("1250000.50")).build();
+        legacyPrice = new BigDecimal("1250000.50");
+        qty = 3;
+        amount = Money.valueOf("3750001.50");
+        legacyAmount = 3750001.50;
+    }
+
+    @Benchmark
+    public boolean bigDecimal() {
+        BigDecimal expectedAmount = legacyPrice.multiply(new BigDecimal(qty));
+        BigDecimal actualAmount = BigDecimal.valueOf(legacyAmount);
+        BigDecimal diff = expectedAmount.subtract(actualAmount).abs();
+        return diff.compareTo(LEGACY_TOLERANCE) <= 0;
+    }
+
+    @Benchmark
+    public void money() {
+        bookingService.validateBookingAmount(tour, qty, amount);
+    }
+}
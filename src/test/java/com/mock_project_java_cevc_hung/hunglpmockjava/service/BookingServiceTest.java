@@ -9,9 +9,11 @@ import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.SeatsReleasedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,13 +21,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
@@ -51,6 +53,15 @@ class BookingServiceTest {
     @Mock
     private MessageSource messageSource;
 
+    @Mock
+    private SeatLeaseAllocator seatLeaseAllocator;
+
+    @Mock
+    private SeatHoldExpiryService seatHoldExpiryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -69,7 +80,7 @@ class BookingServiceTest {
 
         testTour = TourEntity.builder()
                 .title("Test Tour")
-                .price(new BigDecimal("1000"))
+                .price(Money.valueOf("1000"))
                 .seatsTotal(100)
                 .seatsAvailable(50)
                 .status(TourEntity.Status.ACTIVE)
@@ -80,7 +91,7 @@ class BookingServiceTest {
                 .tour(testTour)
                 .user(testUser)
                 .qty(2)
-                .amount(2000.0)
+                .amount(Money.of(2000.0))
                 .status(BookingEntity.Status.PENDING)
                 .build();
         testBooking.setId(1L);
@@ -88,7 +99,7 @@ class BookingServiceTest {
         bookingRequest = BookingCreateRequest.builder()
                 .tourId(1L)
                 .qty(2)
-                .amount(2000.0)
+                .amount(Money.of(2000.0))
                 .build();
 
         lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
@@ -101,7 +112,7 @@ class BookingServiceTest {
         when(tourRepository.findById(anyLong())).thenReturn(Optional.of(testTour));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
         when(bookingRepository.save(any(BookingEntity.class))).thenReturn(testBooking);
-        when(tourRepository.save(any(TourEntity.class))).thenReturn(testTour);
+        when(tourRepository.reserveSeats(1L, 2)).thenReturn(1);
 
         // When
         ApiBookingResponse result = bookingService.createBooking(bookingRequest, 1L);
@@ -109,9 +120,25 @@ class BookingServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getQty()).isEqualTo(2);
-        assertThat(testTour.getSeatsAvailable()).isEqualTo(48); // 50 - 2
         verify(bookingRepository, times(1)).save(any(BookingEntity.class));
-        verify(tourRepository, times(1)).save(testTour);
+        verify(tourRepository, times(1)).reserveSeats(1L, 2);
+        verify(tourRepository, never()).save(any());
+        verify(seatHoldExpiryService).track(eq(testBooking.getId()), any());
+    }
+
+    @Test
+    @DisplayName("Should reject booking when the guarded seat update loses the race")
+    void createBooking_SeatsTakenConcurrently_ShouldThrowException() {
+        // Given
+        when(tourRepository.findById(anyLong())).thenReturn(Optional.of(testTour));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        when(tourRepository.reserveSeats(1L, 2)).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> bookingService.createBooking(bookingRequest, 1L))
+                .isInstanceOf(BusinessException.class);
+
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -194,7 +221,6 @@ class BookingServiceTest {
         testBooking.setTour(testTour);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(testBooking));
         when(bookingRepository.save(any(BookingEntity.class))).thenReturn(testBooking);
-        when(tourRepository.save(any(TourEntity.class))).thenReturn(testTour);
 
         // When
         bookingService.cancelUserBooking(1L, 1L);
@@ -202,9 +228,9 @@ class BookingServiceTest {
         // Then
         assertThat(testBooking.getStatus()).isEqualTo(BookingEntity.Status.CANCELLED);
         assertThat(testBooking.getCancelledAt()).isNotNull();
-        assertThat(testTour.getSeatsAvailable()).isEqualTo(52); // 50 + 2
         verify(bookingRepository, times(1)).save(testBooking);
-        verify(tourRepository, times(1)).save(testTour);
+        verify(tourRepository, times(1)).releaseSeats(1L, 2);
+        verify(eventPublisher).publishEvent(new SeatsReleasedEvent(1L, 2));
     }
 
     @Test
@@ -234,6 +260,39 @@ class BookingServiceTest {
         // Then
         verify(tourRepository, never()).findById(anyLong());
         verify(tourRepository, never()).save(any());
+        verify(tourRepository, never()).releaseSeats(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reserve only the extra seats when quantity grows")
+    void updateBooking_IncreaseQty_ShouldReserveDifference() {
+        // Given
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(testBooking));
+        when(bookingRepository.save(any(BookingEntity.class))).thenReturn(testBooking);
+        when(tourRepository.reserveSeats(1L, 3)).thenReturn(1);
+
+        // When
+        bookingService.updateBooking(1L, BookingUpdateRequest.builder().qty(5).amount(Money.of(5000.0)).build());
+
+        // Then
+        assertThat(testBooking.getQty()).isEqualTo(5);
+        verify(tourRepository, times(1)).reserveSeats(1L, 3);
+    }
+
+    @Test
+    @DisplayName("Should keep booking unchanged when extra seats cannot be reserved")
+    void updateBooking_NotEnoughSeats_ShouldThrowException() {
+        // Given
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(testBooking));
+        when(tourRepository.reserveSeats(1L, 3)).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> bookingService.updateBooking(1L,
+                BookingUpdateRequest.builder().qty(5).amount(Money.of(5000.0)).build()))
+                .isInstanceOf(BusinessException.class);
+
+        assertThat(testBooking.getQty()).isEqualTo(2);
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
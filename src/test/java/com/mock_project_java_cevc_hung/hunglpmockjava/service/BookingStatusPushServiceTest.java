@@ -0,0 +1,196 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiBookingStatusResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.projection.BookingStatusProjection;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.BookingStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedConstruction;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookingStatusPushService Tests")
+class BookingStatusPushServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private MessageSource messageSource;
+
+    private BookingStatusPushService bookingStatusPushService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingStatusPushService = new BookingStatusPushService(bookingRepository, messageSource, meterRegistry, 1);
+        lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingStatusPushService.shutdown();
+    }
+
+    private void stubBooking(Long id, Long userId, BookingEntity.Status status) {
+        BookingStatusProjection booking = mock(BookingStatusProjection.class);
+        lenient().when(booking.getId()).thenReturn(id);
+        lenient().when(booking.getUserId()).thenReturn(userId);
+        lenient().when(booking.getStatus()).thenReturn(status);
+        when(bookingRepository.findStatusById(id)).thenReturn(Optional.of(booking));
+    }
+
+    private double waiters() {
+        return meterRegistry.get("booking.events.waiters").gauge().value();
+    }
+
+    @Test
+    @DisplayName("Should answer a long-poll as soon as the payment is applied, without reading the booking again")
+    void poll_PendingBooking_ShouldCompleteOnStatusChange() {
+        // Given
+        stubBooking(5L, 7L, BookingEntity.Status.PENDING);
+        DeferredResult<ApiBookingStatusResponse> result = bookingStatusPushService.poll(5L, 7L, 30000L);
+        assertThat(result.hasResult()).isFalse();
+        assertThat(waiters()).isEqualTo(1.0);
+        LocalDateTime paidAt = LocalDateTime.now();
+
+        // When
+        bookingStatusPushService.onStatusChanged(
+                new BookingStatusChangedEvent(5L, BookingEntity.Status.PAID, "PAY-1", paidAt));
+
+        // Then
+        assertThat(result.getResult()).isInstanceOfSatisfying(ApiBookingStatusResponse.class, status -> {
+            assertThat(status.getStatus()).isEqualTo(BookingEntity.Status.PAID);
+            assertThat(status.getPaymentRef()).isEqualTo("PAY-1");
+            assertThat(status.getPaidAt()).isEqualTo(paidAt);
+        });
+        assertThat(waiters()).isZero();
+        verify(bookingRepository, times(1)).findStatusById(5L);
+    }
+
+    @Test
+    @DisplayName("Should answer at once when the booking already left PENDING")
+    void poll_PaidBooking_ShouldCompleteImmediately() {
+        // Given
+        stubBooking(5L, 7L, BookingEntity.Status.PAID);
+
+        // When
+        DeferredResult<ApiBookingStatusResponse> result = bookingStatusPushService.poll(5L, 7L, null);
+
+        // Then
+        assertThat(result.getResult()).isInstanceOfSatisfying(ApiBookingStatusResponse.class,
+                status -> assertThat(status.getStatus()).isEqualTo(BookingEntity.Status.PAID));
+        assertThat(waiters()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should refuse to follow another user's booking and leave no waiter behind")
+    void poll_OtherUsersBooking_ShouldReject() {
+        // Given
+        stubBooking(5L, 8L, BookingEntity.Status.PENDING);
+
+        // When & Then
+        assertThatThrownBy(() -> bookingStatusPushService.poll(5L, 7L, null))
+                .isInstanceOf(BusinessException.class);
+        assertThat(waiters()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stream the current status, then the change once it is applied, and complete")
+    void stream_PendingBooking_ShouldSendStatusChangeAndComplete() throws Exception {
+        // Given
+        stubBooking(5L, 7L, BookingEntity.Status.PENDING);
+        try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class)) {
+            SseEmitter emitter = bookingStatusPushService.stream(5L, 7L);
+            verify(emitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+
+            // When
+            bookingStatusPushService.onStatusChanged(
+                    new BookingStatusChangedEvent(5L, BookingEntity.Status.PAID, "PAY-1", LocalDateTime.now()));
+
+            // Then
+            verify(emitter, timeout(1000)).complete();
+            ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+            verify(emitter, times(2)).send(events.capture());
+            assertThat(events.getAllValues()).extracting(this::statusOf)
+                    .containsExactly(BookingEntity.Status.PENDING, BookingEntity.Status.PAID);
+            assertThat(waiters()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should finish a stream on the heartbeat when its booking was paid on another node")
+    void heartbeat_StatusChangedElsewhere_ShouldSendStatusAndComplete() throws Exception {
+        // Given
+        stubBooking(5L, 7L, BookingEntity.Status.PENDING);
+        BookingStatusProjection paid = mock(BookingStatusProjection.class);
+        when(paid.getId()).thenReturn(5L);
+        when(paid.getStatus()).thenReturn(BookingEntity.Status.PAID);
+        when(bookingRepository.findStatusByIdInAndStatusNot(List.of(5L), BookingEntity.Status.PENDING))
+                .thenReturn(List.of(paid));
+        try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class)) {
+            SseEmitter emitter = bookingStatusPushService.stream(5L, 7L);
+            verify(emitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+
+            // When
+            bookingStatusPushService.heartbeat();
+
+            // Then
+            verify(emitter, timeout(1000)).complete();
+            ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+            verify(emitter, times(2)).send(events.capture());
+            assertThat(events.getAllValues()).extracting(this::statusOf)
+                    .containsExactly(BookingEntity.Status.PENDING, BookingEntity.Status.PAID);
+            assertThat(waiters()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not fail the request when the stream closes before the first event is written")
+    void stream_EmitterClosed_ShouldNotThrow() throws Exception {
+        // Given
+        stubBooking(5L, 7L, BookingEntity.Status.PENDING);
+        try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class, (mock, context) ->
+                doThrow(new IllegalStateException("ResponseBodyEmitter has already completed"))
+                        .when(mock).send(any(SseEmitter.SseEventBuilder.class)))) {
+
+            // When
+            SseEmitter emitter = bookingStatusPushService.stream(5L, 7L);
+
+            // Then
+            verify(emitter, timeout(1000)).completeWithError(any(IllegalStateException.class));
+            assertThat(waiters()).isZero();
+        }
+    }
+
+    private BookingEntity.Status statusOf(SseEmitter.SseEventBuilder event) {
+        return event.build().stream()
+                .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                .filter(ApiBookingStatusResponse.class::isInstance)
+                .map(data -> ((ApiBookingStatusResponse) data).getStatus())
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,164 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.BookingCreateRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.CartCheckoutRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiCartCheckoutResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiCartLineResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.CartCheckoutException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CartCheckoutService Tests")
+class CartCheckoutServiceTest {
+
+    @Mock
+    private TourRepository tourRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @Mock
+    private SeatLeaseAllocator seatLeaseAllocator;
+
+    @Mock
+    private SeatHoldExpiryService seatHoldExpiryService;
+
+    @Mock
+    private MessageSource messageSource;
+
+    private CartCheckoutService cartCheckoutService;
+    private TourEntity tourA;
+    private TourEntity tourB;
+
+    @BeforeEach
+    void setUp() {
+        BookingService bookingService = new BookingService(bookingRepository, tourRepository, userRepository,
+                messageSource, seatLeaseAllocator, seatHoldExpiryService, mock(ApplicationEventPublisher.class));
+        cartCheckoutService = new CartCheckoutService(tourRepository, userRepository, bookingJdbcRepository,
+                bookingService, seatLeaseAllocator, seatHoldExpiryService, messageSource);
+
+        tourA = tour(1L, 10);
+        tourB = tour(2L, 3);
+        UserEntity user = UserEntity.builder().email("user@example.com").build();
+        user.setId(7L);
+
+        lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
+        lenient().when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        lenient().when(tourRepository.findAllForUpdateOrderById(any())).thenReturn(List.of(tourA, tourB));
+        lenient().doAnswer(invocation -> {
+            List<BookingEntity> bookings = invocation.getArgument(0);
+            for (int i = 0; i < bookings.size(); i++) {
+                bookings.get(i).setId(100L + i);
+            }
+            return null;
+        }).when(bookingJdbcRepository).insertAll(anyList());
+    }
+
+    private TourEntity tour(Long id, int seats) {
+        TourEntity tour = TourEntity.builder()
+                .title("Tour " + id)
+                .price(Money.valueOf("100"))
+                .seatsTotal(seats)
+                .seatsAvailable(seats)
+                .status(TourEntity.Status.ACTIVE)
+                .build();
+        tour.setId(id);
+        return tour;
+    }
+
+    private BookingCreateRequest item(Long tourId, int qty) {
+        return BookingCreateRequest.builder().tourId(tourId).qty(qty).amount(Money.of(qty * 100.0)).build();
+    }
+
+    @Test
+    @DisplayName("Should book every line with one reservation per tour and one batch insert")
+    void checkout_ValidCart_ShouldBookAllLines() {
+        // Given
+        when(tourRepository.reserveSeats(anyLong(), anyInt())).thenReturn(1);
+        CartCheckoutRequest request = CartCheckoutRequest.builder()
+                .items(List.of(item(2L, 1), item(1L, 2), item(2L, 2)))
+                .build();
+
+        // When
+        ApiCartCheckoutResponse result = cartCheckoutService.checkout(request, 7L);
+
+        // Then
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTotalAmount()).isEqualTo(Money.valueOf("500"));
+        assertThat(result.getLines()).extracting(ApiCartLineResponse::getStatus)
+                .containsOnly(ApiCartLineResponse.Status.BOOKED);
+        assertThat(result.getLines()).extracting(line -> line.getBooking().getId()).containsExactly(100L, 101L, 102L);
+        verify(tourRepository).findAllForUpdateOrderById(argThat(ids -> List.copyOf(ids).equals(List.of(1L, 2L))));
+        verify(tourRepository).reserveSeats(1L, 2);
+        verify(tourRepository).reserveSeats(2L, 3);
+        verify(bookingJdbcRepository, times(1)).insertAll(argThat(bookings -> bookings.size() == 3));
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    @DisplayName("Should reject the whole cart and report each failing line")
+    void checkout_OneLineFails_ShouldRollBackEverything() {
+        // Given
+        CartCheckoutRequest request = CartCheckoutRequest.builder()
+                .items(List.of(item(1L, 2), item(2L, 2), item(2L, 2), item(9L, 1)))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> cartCheckoutService.checkout(request, 7L))
+                .isInstanceOfSatisfying(CartCheckoutException.class, e -> {
+                    assertThat(e.getResult().isSuccess()).isFalse();
+                    assertThat(e.getResult().getLines()).extracting(ApiCartLineResponse::getStatus).containsExactly(
+                            ApiCartLineResponse.Status.NOT_BOOKED,
+                            ApiCartLineResponse.Status.NOT_BOOKED,
+                            ApiCartLineResponse.Status.FAILED,
+                            ApiCartLineResponse.Status.FAILED);
+                });
+        verify(tourRepository, never()).reserveSeats(anyLong(), anyInt());
+        verify(bookingJdbcRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject the cart when a tour cannot cover the lines at reservation time")
+    void checkout_ReservationFails_ShouldRollBackEverything() {
+        // Given
+        when(tourRepository.reserveSeats(1L, 2)).thenReturn(1);
+        when(tourRepository.reserveSeats(2L, 1)).thenReturn(0);
+        CartCheckoutRequest request = CartCheckoutRequest.builder()
+                .items(List.of(item(1L, 2), item(2L, 1)))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> cartCheckoutService.checkout(request, 7L))
+                .isInstanceOfSatisfying(CartCheckoutException.class, e ->
+                        assertThat(e.getResult().getLines().get(1).getStatus()).isEqualTo(ApiCartLineResponse.Status.FAILED));
+        verify(bookingJdbcRepository, never()).insertAll(anyList());
+    }
+}
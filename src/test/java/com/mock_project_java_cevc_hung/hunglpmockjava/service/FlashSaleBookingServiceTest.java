@@ -0,0 +1,232 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.BookingCreateRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiBookingResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FlashSaleBookingService Tests")
+class FlashSaleBookingServiceTest {
+
+    private static final long TOUR_ID = 1L;
+
+    @Mock
+    private TourRepository tourRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FlashSaleBookingService flashSaleBookingService;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger seatsAvailable;
+    private AtomicInteger bookingsInserted;
+
+    @BeforeEach
+    void setUp() {
+        seatsAvailable = new AtomicInteger();
+        bookingsInserted = new AtomicInteger();
+        AtomicLong bookingIds = new AtomicLong();
+
+        lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
+        lenient().when(tourRepository.findById(TOUR_ID)).thenAnswer(invocation -> {
+            TourEntity tour = TourEntity.builder()
+                    .title("Flash Tour")
+                    .price(Money.valueOf("100"))
+                    .seatsTotal(seatsAvailable.get())
+                    .seatsAvailable(seatsAvailable.get())
+                    .status(TourEntity.Status.ACTIVE)
+                    .bookingMode(TourEntity.BookingMode.FLASH_SALE)
+                    .build();
+            tour.setId(TOUR_ID);
+            return Optional.of(tour);
+        });
+        // Mirrors the guarded UPDATE ... WHERE seats_available >= :qty
+        lenient().when(tourRepository.reserveSeats(eq(TOUR_ID), anyInt())).thenAnswer(invocation -> {
+            int qty = invocation.getArgument(1);
+            return seatsAvailable.getAndUpdate(current -> current >= qty ? current - qty : current) >= qty ? 1 : 0;
+        });
+        lenient().when(userRepository.findAllById(any())).thenAnswer(invocation -> users(invocation.getArgument(0)));
+        lenient().when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<BookingEntity> bookings = invocation.getArgument(0);
+            bookings.forEach(booking -> booking.setId(bookingIds.incrementAndGet()));
+            bookingsInserted.addAndGet(bookings.size());
+            return bookings;
+        });
+
+        SeatHoldExpiryService seatHoldExpiryService = mock(SeatHoldExpiryService.class);
+        BookingService bookingService = new BookingService(bookingRepository, tourRepository, userRepository,
+                messageSource, mock(SeatLeaseAllocator.class), seatHoldExpiryService, mock(ApplicationEventPublisher.class));
+        meterRegistry = new SimpleMeterRegistry();
+        flashSaleBookingService = new FlashSaleBookingService(
+                tourRepository, userRepository, bookingRepository, bookingService, seatHoldExpiryService,
+                messageSource, transactionManager, meterRegistry, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        flashSaleBookingService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should grant exactly the available seats to thousands of concurrent callers")
+    void createBooking_ThousandsOfConcurrentCallers_ShouldNeverOversell() throws Exception {
+        // Given
+        int seats = 500;
+        int callers = 3000;
+        seatsAvailable.set(seats);
+        ExecutorService clients = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < callers; i++) {
+            long userId = i + 1;
+            outcomes.add(clients.submit(() -> {
+                start.await();
+                try {
+                    ApiBookingResponse response = flashSaleBookingService.createBooking(
+                            BookingCreateRequest.builder().tourId(TOUR_ID).qty(1).amount(Money.of(100.0)).build(), userId);
+                    return response.getId() != null;
+                } catch (BusinessException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int granted = 0;
+        for (Future<Boolean> outcome : outcomes) {
+            if (outcome.get(30, TimeUnit.SECONDS)) {
+                granted++;
+            }
+        }
+        clients.shutdown();
+
+        // Then
+        assertThat(granted).isEqualTo(seats);
+        assertThat(bookingsInserted.get()).isEqualTo(seats);
+        assertThat(seatsAvailable.get()).isZero();
+        assertThat(meterRegistry.get("booking.flash_sale.wait").timer().count()).isPositive();
+        assertThat(meterRegistry.get("booking.flash_sale.batch.size").summary().max()).isGreaterThan(1.0);
+    }
+
+    @Test
+    @DisplayName("Should reject immediately once the tour is sold out")
+    void createBooking_SoldOut_ShouldRejectWithoutQueueing() {
+        // Given
+        seatsAvailable.set(1);
+        BookingCreateRequest request = BookingCreateRequest.builder().tourId(TOUR_ID).qty(1).amount(Money.of(100.0)).build();
+        flashSaleBookingService.createBooking(request, 1L);
+
+        // When & Then
+        assertThatThrownBy(() -> flashSaleBookingService.createBooking(request, 2L))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> flashSaleBookingService.submit(request, 3L))
+                .isInstanceOf(BusinessException.class);
+        verify(tourRepository, times(1)).findById(TOUR_ID);
+    }
+
+    @Test
+    @DisplayName("Should reject a mismatched amount without affecting other requests in the batch")
+    void createBooking_AmountMismatch_ShouldRejectOnlyThatRequest() {
+        // Given
+        seatsAvailable.set(10);
+
+        // When & Then
+        assertThatThrownBy(() -> flashSaleBookingService.createBooking(
+                BookingCreateRequest.builder().tourId(TOUR_ID).qty(2).amount(Money.of(1.0)).build(), 1L))
+                .isInstanceOf(BusinessException.class);
+        ApiBookingResponse response = flashSaleBookingService.createBooking(
+                BookingCreateRequest.builder().tourId(TOUR_ID).qty(2).amount(Money.of(200.0)).build(), 2L);
+
+        assertThat(response.getQty()).isEqualTo(2);
+        assertThat(seatsAvailable.get()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should withdraw a queued request on timeout and wait for one whose batch is being granted")
+    void createBooking_WaitTimesOut_ShouldNeverAdmitAbandonedRequest() throws Exception {
+        // Given
+        seatsAvailable.set(10);
+        ReflectionTestUtils.setField(flashSaleBookingService, "waitTimeoutMs", 100L);
+        CountDownLatch granting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            granting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return users(invocation.getArgument(0));
+        }).when(userRepository).findAllById(any());
+        BookingCreateRequest request = BookingCreateRequest.builder().tourId(TOUR_ID).qty(1).amount(Money.of(100.0)).build();
+        ExecutorService clients = Executors.newSingleThreadExecutor();
+
+        // When
+        Future<ApiBookingResponse> inBatch = clients.submit(() -> flashSaleBookingService.createBooking(request, 1L));
+        assertThat(granting.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThatThrownBy(() -> flashSaleBookingService.createBooking(request, 2L))
+                .isInstanceOf(BusinessException.class);
+        release.countDown();
+        ApiBookingResponse admitted = inBatch.get(5, TimeUnit.SECONDS);
+        ReflectionTestUtils.setField(flashSaleBookingService, "waitTimeoutMs", 10000L);
+        ApiBookingResponse next = flashSaleBookingService.createBooking(request, 3L);
+        clients.shutdown();
+
+        // Then
+        assertThat(admitted.getId()).isNotNull();
+        assertThat(next.getId()).isNotNull();
+        assertThat(bookingsInserted.get()).isEqualTo(2);
+        assertThat(seatsAvailable.get()).isEqualTo(8);
+    }
+
+    private static List<UserEntity> users(Iterable<Long> ids) {
+        List<UserEntity> users = new ArrayList<>();
+        for (Long id : ids) {
+            UserEntity user = UserEntity.builder().email("user" + id + "@example.com").build();
+            user.setId(id);
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,189 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.PaymentRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.IdempotencyKeyEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.IdempotencyConflictException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService Tests")
+class IdempotencyServiceTest {
+
+    private static final IdempotencyKeyEntity.Scope SCOPE = IdempotencyKeyEntity.Scope.PAYMENT;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentRequest request;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, new ObjectMapper(), messageSource,
+                transactionManager, meterRegistry, 100);
+        request = PaymentRequest.builder().bookingId(1L).paymentRef("PAY-1").amount(Money.of(200.0)).build();
+        executions = new AtomicInteger();
+
+        lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
+        lenient().when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKeyEntity.class))).thenAnswer(invocation -> {
+            IdempotencyKeyEntity entity = invocation.getArgument(0);
+            entity.setId(42L);
+            lenient().when(idempotencyKeyRepository.findById(42L)).thenReturn(Optional.of(entity));
+            return entity;
+        });
+        lenient().when(idempotencyKeyRepository.save(any(IdempotencyKeyEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private ResponseEntity<?> pay() {
+        executions.incrementAndGet();
+        return ResponseEntity.ok(Map.of("bookingId", 1L, "status", "PENDING"));
+    }
+
+    private double lookups(String result, String tier) {
+        return meterRegistry.get("idempotency.store.lookups").tag("result", result).tag("tier", tier).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response from memory without running the request again")
+    void execute_RepeatedKey_ShouldReplayFromMemory() {
+        // When
+        ResponseEntity<?> first = idempotencyService.execute(SCOPE, 7L, "key-1", request, this::pay);
+        ResponseEntity<?> second = idempotencyService.execute(SCOPE, 7L, "key-1", request, this::pay);
+
+        // Then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat((String) second.getBody()).contains("\"bookingId\":1");
+        assertThat(lookups("miss", "none")).isEqualTo(1.0);
+        assertThat(lookups("hit", "memory")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the database for keys completed on another node")
+    void execute_KeyCompletedElsewhere_ShouldReplayFromDatabase() {
+        // Given
+        ResponseEntity<?> original = idempotencyService.execute(SCOPE, 7L, "key-1", request, this::pay);
+        IdempotencyKeyEntity stored = idempotencyKeyRepository.findById(42L).orElseThrow();
+        SimpleMeterRegistry otherNodeMeters = new SimpleMeterRegistry();
+        IdempotencyService otherNode = new IdempotencyService(idempotencyKeyRepository, new ObjectMapper(),
+                messageSource, transactionManager, otherNodeMeters, 100);
+        when(idempotencyKeyRepository.findByScopeAndUserIdAndIdempotencyKey(SCOPE, 7L, "key-1"))
+                .thenReturn(Optional.of(stored));
+
+        // When
+        ResponseEntity<?> replayed = otherNode.execute(SCOPE, 7L, "key-1", request, this::pay);
+
+        // Then
+        assertThat(original.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(otherNodeMeters.get("idempotency.store.lookups").tag("result", "hit").tag("tier", "database")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different payload")
+    void execute_KeyReusedWithDifferentPayload_ShouldThrowConflict() {
+        // Given
+        idempotencyService.execute(SCOPE, 7L, "key-1", request, this::pay);
+        PaymentRequest other = PaymentRequest.builder().bookingId(2L).paymentRef("PAY-2").amount(Money.of(50.0)).build();
+
+        // When & Then
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, 7L, "key-1", other, this::pay))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate while the first request still holds the key")
+    void execute_KeyStillRunning_ShouldThrowConflict() {
+        // Given
+        IdempotencyKeyEntity claim = IdempotencyKeyEntity.builder()
+                .scope(SCOPE).userId(7L).idempotencyKey("key-1").requestHash("hash")
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        claim.setCreatedAt(LocalDateTime.now());
+        when(idempotencyKeyRepository.findByScopeAndUserIdAndIdempotencyKey(SCOPE, 7L, "key-1"))
+                .thenReturn(Optional.of(claim));
+
+        // When & Then
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, 7L, "key-1", request, this::pay))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(executions.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should turn a lost claim race into a conflict")
+    void execute_ConcurrentClaim_ShouldThrowConflict() {
+        // Given
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKeyEntity.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When & Then
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, 7L, "key-1", request, this::pay))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(executions.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give the key back when the request fails")
+    void execute_ActionFails_ShouldReleaseClaim() {
+        // When & Then
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, 7L, "key-1", request, () -> {
+            throw new BusinessException("Tour is not active");
+        })).isInstanceOf(BusinessException.class);
+        verify(idempotencyKeyRepository).deleteById(42L);
+
+        ResponseEntity<?> retried = idempotencyService.execute(SCOPE, 7L, "key-1", request, this::pay);
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should run requests without a key every time")
+    void execute_NoKey_ShouldAlwaysRun() {
+        // When
+        idempotencyService.execute(SCOPE, 7L, null, request, this::pay);
+        idempotencyService.execute(SCOPE, 7L, " ", request, this::pay);
+
+        // Then
+        assertThat(executions.get()).isEqualTo(2);
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+}
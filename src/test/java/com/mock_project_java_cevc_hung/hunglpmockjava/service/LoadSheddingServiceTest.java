@@ -0,0 +1,118 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ServiceUnavailableException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.TooManyRequestsException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.outbox.OutboxRelay;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.transport.PaymentEventBacklog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.MessageSource;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoadSheddingService Tests")
+class LoadSheddingServiceTest {
+
+    @Mock
+    private OutboxRelay outboxRelay;
+
+    @Mock
+    private PaymentEventBacklog paymentEventBacklog;
+
+    @Mock
+    private ObjectProvider<PaymentEventBacklog> paymentEventBacklogProvider;
+
+    @Mock
+    private MessageSource messageSource;
+
+    private LoadSheddingService loadSheddingService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loadSheddingService = new LoadSheddingService(outboxRelay, paymentEventBacklogProvider, messageSource,
+                meterRegistry);
+        lenient().when(paymentEventBacklogProvider.getIfAvailable()).thenReturn(paymentEventBacklog);
+        lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
+    }
+
+    private void sample(long queueDepth, long outboxLagSeconds) {
+        when(paymentEventBacklog.pendingEvents()).thenReturn(queueDepth);
+        when(outboxRelay.lagSeconds()).thenReturn(outboxLagSeconds);
+        loadSheddingService.sample();
+    }
+
+    @Test
+    @DisplayName("Should let every request through while the pipeline keeps up")
+    void check_BelowThresholds_ShouldAdmit() {
+        // Given
+        sample(100, 2);
+
+        // When & Then
+        assertThatCode(() -> loadSheddingService.check(LoadSheddingService.Gate.PAYMENT)).doesNotThrowAnyException();
+        assertThat(loadSheddingService.level(LoadSheddingService.Gate.PAYMENT))
+                .isEqualTo(LoadSheddingService.Level.NORMAL);
+        assertThat(meterRegistry.get("backpressure.threshold").tag("gate", "payment").tag("signal", "queue_depth")
+                .tag("level", "reject").gauge().value()).isEqualTo(20000.0);
+    }
+
+    @Test
+    @DisplayName("Should throttle payments with 429 in proportion to the lag while bookings stay open")
+    void check_BetweenThresholds_ShouldThrottlePaymentsOnly() {
+        // Given: the outbox lag is almost at the payment reject threshold
+        sample(0, 119);
+
+        // When
+        long throttled = 0;
+        for (int i = 0; i < 200; i++) {
+            try {
+                loadSheddingService.check(LoadSheddingService.Gate.PAYMENT);
+            } catch (TooManyRequestsException e) {
+                assertThat(e.getRetryAfterSeconds()).isEqualTo(5);
+                throttled++;
+            }
+        }
+
+        // Then
+        assertThat(loadSheddingService.level(LoadSheddingService.Gate.PAYMENT))
+                .isEqualTo(LoadSheddingService.Level.THROTTLE);
+        assertThat(throttled).isGreaterThan(190);
+        assertThat(meterRegistry.get("backpressure.admit_ratio").tag("gate", "payment").gauge().value())
+                .isLessThan(0.05);
+        assertThatCode(() -> loadSheddingService.check(LoadSheddingService.Gate.BOOKING)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 above the reject threshold until the backlog falls well below it")
+    void check_AboveRejectThreshold_ShouldRejectUntilRecovered() {
+        // Given
+        sample(25000, 0);
+
+        // When & Then
+        assertThatThrownBy(() -> loadSheddingService.check(LoadSheddingService.Gate.PAYMENT))
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(5));
+        assertThat(loadSheddingService.level(LoadSheddingService.Gate.BOOKING))
+                .isEqualTo(LoadSheddingService.Level.THROTTLE);
+
+        sample(19000, 0);
+        assertThat(loadSheddingService.level(LoadSheddingService.Gate.PAYMENT))
+                .isEqualTo(LoadSheddingService.Level.REJECT);
+
+        sample(15000, 0);
+        assertThat(loadSheddingService.level(LoadSheddingService.Gate.PAYMENT))
+                .isEqualTo(LoadSheddingService.Level.THROTTLE);
+        assertThat(meterRegistry.get("backpressure.shed").tag("gate", "payment").tag("status", "503").counter()
+                .count()).isEqualTo(1.0);
+    }
+}
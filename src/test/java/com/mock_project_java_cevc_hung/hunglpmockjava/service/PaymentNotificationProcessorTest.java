@@ -0,0 +1,133 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.PaymentNotificationEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.event.PaymentCompletedEvent;
+import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.publisher.PaymentEventPublisher;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.PaymentNotificationJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.PaymentNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentNotificationProcessor Tests")
+class PaymentNotificationProcessorTest {
+
+    @Mock
+    private PaymentNotificationRepository notificationRepository;
+
+    @Mock
+    private PaymentNotificationJdbcRepository notificationJdbcRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PaymentEventPublisher paymentEventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentNotificationProcessor processor;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        processor = new PaymentNotificationProcessor(notificationRepository, notificationJdbcRepository,
+                bookingRepository, paymentEventPublisher, transactionManager, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    private PaymentNotificationEntity notification(String paymentRef, Long bookingId, double amount, String status) {
+        return PaymentNotificationEntity.builder()
+                .paymentRef(paymentRef)
+                .bookingId(bookingId)
+                .amount(Money.of(amount))
+                .gatewayStatus(status)
+                .status(PaymentNotificationEntity.Status.RECEIVED)
+                .build();
+    }
+
+    private BookingEntity booking(Long id, BookingEntity.Status status, double amount) {
+        BookingEntity booking = BookingEntity.builder().status(status).amount(Money.of(amount)).build();
+        booking.setId(id);
+        return booking;
+    }
+
+    @Test
+    @DisplayName("Should publish payable notifications and record why the others were not")
+    void processBatch_MixedNotifications_ShouldPublishOnlyPayableOnes() {
+        // Given
+        PaymentNotificationEntity payable = notification("PAY-1", 1L, 200.0, "SUCCEEDED");
+        PaymentNotificationEntity failed = notification("PAY-2", 2L, 100.0, "FAILED");
+        PaymentNotificationEntity wrongAmount = notification("PAY-3", 2L, 50.0, "SUCCEEDED");
+        PaymentNotificationEntity unknownBooking = notification("PAY-4", 9L, 100.0, "SUCCEEDED");
+        PaymentNotificationEntity secondPayment = notification("PAY-5", 1L, 200.0, "SUCCEEDED");
+        when(notificationRepository.lockBatch(eq(PaymentNotificationEntity.Status.RECEIVED), any()))
+                .thenReturn(List.of(payable, failed, wrongAmount, unknownBooking, secondPayment));
+        when(bookingRepository.findAllById(anyIterable())).thenReturn(List.of(
+                booking(1L, BookingEntity.Status.PENDING, 200.0),
+                booking(2L, BookingEntity.Status.PENDING, 100.0)));
+
+        // When
+        int processed = processor.processBatch();
+
+        // Then
+        assertThat(processed).isEqualTo(5);
+        ArgumentCaptor<PaymentCompletedEvent> event = ArgumentCaptor.forClass(PaymentCompletedEvent.class);
+        verify(paymentEventPublisher, times(1)).publishPaymentCompleted(event.capture());
+        assertThat(event.getValue().getBookingId()).isEqualTo(1L);
+        assertThat(event.getValue().getPaymentRef()).isEqualTo("PAY-1");
+        assertThat(List.of(payable, failed, wrongAmount, unknownBooking, secondPayment))
+                .extracting(PaymentNotificationEntity::getStatus)
+                .containsExactly(
+                        PaymentNotificationEntity.Status.PUBLISHED,
+                        PaymentNotificationEntity.Status.IGNORED,
+                        PaymentNotificationEntity.Status.REJECTED,
+                        PaymentNotificationEntity.Status.REJECTED,
+                        PaymentNotificationEntity.Status.REJECTED);
+        verify(notificationJdbcRepository).markProcessed(anyList());
+        assertThat(meterRegistry.get("payment.webhook.processed").tag("outcome", "rejected").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should ignore a repeated notification for a booking already paid with the same reference")
+    void processBatch_AlreadyPaidWithSameRef_ShouldIgnore() {
+        // Given
+        PaymentNotificationEntity repeated = notification("PAY-1", 1L, 200.0, "SUCCEEDED");
+        BookingEntity paid = booking(1L, BookingEntity.Status.PAID, 200.0);
+        paid.setPaymentRef("PAY-1");
+        when(notificationRepository.lockBatch(eq(PaymentNotificationEntity.Status.RECEIVED), any()))
+                .thenReturn(List.of(repeated));
+        when(bookingRepository.findAllById(anyIterable())).thenReturn(List.of(paid));
+
+        // When
+        processor.processBatch();
+
+        // Then
+        assertThat(repeated.getStatus()).isEqualTo(PaymentNotificationEntity.Status.IGNORED);
+        verifyNoInteractions(paymentEventPublisher);
+    }
+}
@@ -6,6 +6,7 @@ import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
 import com.mock_project_java_cevc_hung.hunglpmockjava.messaging.publisher.PaymentEventPublisher;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -44,7 +45,7 @@ class PaymentServiceTest {
     @BeforeEach
     void setUp() {
         testBooking = BookingEntity.builder()
-                .amount(2000.0)
+                .amount(Money.of(2000.0))
                 .status(BookingEntity.Status.PENDING)
                 .build();
         // Set ID manually since @GeneratedValue won't work in tests
@@ -53,7 +54,7 @@ class PaymentServiceTest {
         paymentRequest = PaymentRequest.builder()
                 .bookingId(1L)
                 .paymentRef("PAY-123456")
-                .amount(2000.0)
+                .amount(Money.of(2000.0))
                 .build();
 
         lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
@@ -73,7 +74,7 @@ class PaymentServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getBookingId()).isEqualTo(1L);
         assertThat(result.getPaymentRef()).isEqualTo("PAY-123456");
-        assertThat(result.getAmount()).isEqualTo(2000.0);
+        assertThat(result.getAmount()).isEqualTo(Money.of(2000.0));
         verify(paymentEventPublisher, times(1)).publishPaymentCompleted(any());
     }
 
@@ -108,7 +109,7 @@ class PaymentServiceTest {
     @DisplayName("Should throw exception when payment amount doesn't match")
     void processPayment_AmountMismatch_ShouldThrowException() {
         // Given
-        paymentRequest.setAmount(1500.0); // Different from booking
+        paymentRequest.setAmount(Money.of(1500.0)); // Different from booking
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(testBooking));
 
         // When & Then
@@ -0,0 +1,135 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.PaymentWebhookResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.PaymentNotificationEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.AuthException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.PaymentNotificationJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.security.PaymentWebhookSigner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentWebhookService Tests")
+class PaymentWebhookServiceTest {
+
+    @Mock
+    private PaymentNotificationJdbcRepository notificationJdbcRepository;
+
+    @Mock
+    private PaymentNotificationProcessor notificationProcessor;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentWebhookSigner signer;
+    private PaymentWebhookService paymentWebhookService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        signer = new PaymentWebhookSigner("test-secret", 300);
+        meterRegistry = new SimpleMeterRegistry();
+        paymentWebhookService = new PaymentWebhookService(notificationJdbcRepository, notificationProcessor, signer,
+                new ObjectMapper().registerModule(new JavaTimeModule()), messageSource, transactionManager,
+                meterRegistry, 100);
+        lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentWebhookService.shutdown();
+    }
+
+    private byte[] body(String paymentRef) {
+        return ("{\"paymentRef\":\"" + paymentRef + "\",\"bookingId\":7,\"amount\":200.0,"
+                + "\"status\":\"SUCCEEDED\",\"paidAt\":\"2026-01-01T10:00:00\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private PaymentWebhookResponse receiveSigned(byte[] body) {
+        long timestamp = System.currentTimeMillis() / 1000;
+        return paymentWebhookService.receive(Long.toString(timestamp), signer.sign(timestamp, body), body);
+    }
+
+    @Test
+    @DisplayName("Should store a new notification, acknowledge it and wake the processor")
+    @SuppressWarnings("unchecked")
+    void receive_NewNotification_ShouldStoreAndAccept() {
+        // Given
+        when(notificationJdbcRepository.findExistingRefs(anyCollection())).thenReturn(Set.of());
+
+        // When
+        PaymentWebhookResponse result = receiveSigned(body("PAY-1"));
+
+        // Then
+        assertThat(result.getResult()).isEqualTo(PaymentWebhookResponse.Result.ACCEPTED);
+        ArgumentCaptor<List<PaymentNotificationEntity>> stored = ArgumentCaptor.forClass(List.class);
+        verify(notificationJdbcRepository).insertAll(stored.capture());
+        assertThat(stored.getValue()).singleElement().satisfies(notification -> {
+            assertThat(notification.getPaymentRef()).isEqualTo("PAY-1");
+            assertThat(notification.getBookingId()).isEqualTo(7L);
+            assertThat(notification.getStatus()).isEqualTo(PaymentNotificationEntity.Status.RECEIVED);
+            assertThat(notification.getPayload()).contains("\"paymentRef\":\"PAY-1\"");
+        });
+        verify(notificationProcessor).wakeUp();
+        assertThat(meterRegistry.get("payment.webhook.received").tag("result", "accepted").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should acknowledge a payment reference already stored as a duplicate without storing it again")
+    void receive_KnownPaymentRef_ShouldReturnDuplicate() {
+        // Given
+        when(notificationJdbcRepository.findExistingRefs(anyCollection())).thenReturn(Set.of("PAY-1"));
+
+        // When
+        PaymentWebhookResponse result = receiveSigned(body("PAY-1"));
+
+        // Then
+        assertThat(result.getResult()).isEqualTo(PaymentWebhookResponse.Result.DUPLICATE);
+        verify(notificationJdbcRepository, never()).insertAll(anyList());
+        verify(notificationProcessor, never()).wakeUp();
+    }
+
+    @Test
+    @DisplayName("Should reject a bad signature or an invalid body before queueing anything")
+    void receive_BadSignatureOrBody_ShouldReject() {
+        // Given
+        byte[] body = body("PAY-1");
+        long timestamp = System.currentTimeMillis() / 1000;
+        byte[] invalid = "{\"paymentRef\":\"PAY-2\"}".getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        assertThatThrownBy(() -> paymentWebhookService.receive(Long.toString(timestamp),
+                signer.sign(timestamp, body("PAY-9")), body))
+                .isInstanceOf(AuthException.class);
+        assertThatThrownBy(() -> paymentWebhookService.receive(Long.toString(timestamp - 3600),
+                signer.sign(timestamp - 3600, body), body))
+                .isInstanceOf(AuthException.class);
+        assertThatThrownBy(() -> receiveSigned(invalid))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(notificationJdbcRepository);
+    }
+}
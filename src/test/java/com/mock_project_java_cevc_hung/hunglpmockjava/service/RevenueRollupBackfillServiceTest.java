@@ -0,0 +1,98 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueRollupRebuildResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueRollupJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RevenueRollupBackfillService Tests")
+class RevenueRollupBackfillServiceTest {
+
+    @Mock
+    private RevenueRollupJdbcRepository rollupJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MessageSource messageSource;
+
+    private RevenueRollupBackfillService backfillService;
+
+    @BeforeEach
+    void setUp() {
+        backfillService = new RevenueRollupBackfillService(rollupJdbcRepository, transactionManager, messageSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        backfillService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the whole revenue range in chunks of 31 days, one transaction each")
+    void run_WithoutBounds_ShouldRebuildRevenueRangeInChunks() {
+        // Given
+        LocalDate first = LocalDate.of(2025, 1, 1);
+        LocalDate last = LocalDate.of(2025, 3, 10);
+        when(rollupJdbcRepository.findRevenueDateRange()).thenReturn(new LocalDate[]{first, last});
+        when(rollupJdbcRepository.rebuild(any(), any())).thenReturn(5);
+        RevenueRollupBackfillService.RebuildJob job = new RevenueRollupBackfillService.RebuildJob("job-1", null, null);
+
+        // When
+        backfillService.run(job);
+
+        // Then
+        verify(rollupJdbcRepository).rebuild(first, LocalDate.of(2025, 1, 31));
+        verify(rollupJdbcRepository).rebuild(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 3));
+        verify(rollupJdbcRepository).rebuild(LocalDate.of(2025, 3, 4), last);
+        verify(transactionManager, times(3)).commit(any());
+        RevenueRollupRebuildResponse response = job.toResponse();
+        assertThat(response.getStatus()).isEqualTo(RevenueRollupRebuildResponse.Status.COMPLETED);
+        assertThat(response.getDaysRebuilt()).isEqualTo(69);
+        assertThat(response.getRollupRows()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Should refuse a second rebuild while one is running")
+    void startRebuild_WhileRunning_ShouldThrow() throws InterruptedException {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rollupJdbcRepository.rebuild(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 0;
+        });
+        when(messageSource.getMessage(eq("revenue.rollup.error.rebuild_running"), any(), any()))
+                .thenReturn("Rebuild is still running");
+        RevenueRollupRebuildResponse first = backfillService.startRebuild(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 2));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When & Then
+        assertThatThrownBy(() -> backfillService.startRebuild(null, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Rebuild is still running");
+        release.countDown();
+        assertThat(backfillService.getRebuilds()).extracting(RevenueRollupRebuildResponse::getId)
+                .containsExactly(first.getId());
+    }
+}
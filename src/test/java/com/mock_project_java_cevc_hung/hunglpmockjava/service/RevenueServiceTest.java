@@ -0,0 +1,142 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.RevenueSeriesRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.RevenueSeriesResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.CategoryEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.RevenueDailyRollupEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueDailyRollupRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.RevenueRollupJdbcRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.ReviewRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RevenueService Tests")
+class RevenueServiceTest {
+
+    @Mock
+    private RevenueRepository revenueRepository;
+
+    @Mock
+    private RevenueJdbcRepository revenueJdbcRepository;
+
+    @Mock
+    private RevenueDailyRollupRepository rollupRepository;
+
+    @Mock
+    private RevenueRollupJdbcRepository rollupJdbcRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @InjectMocks
+    private RevenueService revenueService;
+
+    @Test
+    @DisplayName("Should add one rollup increment per day and tour before inserting the revenue rows")
+    @SuppressWarnings("unchecked")
+    void createRevenuesForPayments_ShouldMergeRollupIncrementsInKeyOrder() {
+        // Given
+        CategoryEntity category = new CategoryEntity();
+        category.setId(3L);
+        TourEntity beach = TourEntity.builder().category(category).build();
+        beach.setId(20L);
+        TourEntity city = TourEntity.builder().build();
+        city.setId(10L);
+        LocalDateTime paidAt = LocalDateTime.of(2025, 3, 1, 9, 0);
+        List<BookingEntity> bookings = List.of(
+                paidBooking(beach, "100.00", paidAt),
+                paidBooking(city, "40.00", paidAt),
+                paidBooking(beach, "250.50", paidAt.plusHours(2)));
+
+        // When
+        revenueService.createRevenuesForPayments(bookings);
+
+        // Then
+        ArgumentCaptor<List<RevenueDailyRollupEntity>> increments = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(rollupJdbcRepository, revenueJdbcRepository);
+        inOrder.verify(rollupJdbcRepository).addAll(increments.capture());
+        inOrder.verify(revenueJdbcRepository).insertAll(argThat(revenues -> revenues.size() == 3));
+        assertThat(increments.getValue())
+                .extracting(RevenueDailyRollupEntity::getCategoryId, RevenueDailyRollupEntity::getTourId,
+                        RevenueDailyRollupEntity::getRevenue, RevenueDailyRollupEntity::getBookings)
+                .containsExactly(
+                        tuple(RevenueDailyRollupEntity.NONE, 10L, Money.valueOf("40.00"), 1),
+                        tuple(3L, 20L, Money.valueOf("350.50"), 2));
+    }
+
+    @Test
+    @DisplayName("Should return every weekly bucket of the range, clipped to it, with zero where nothing was paid")
+    void getRevenueSeries_Weekly_ShouldFillEmptyBuckets() {
+        // Given
+        LocalDate from = LocalDate.of(2025, 3, 5);
+        LocalDate to = LocalDate.of(2025, 3, 20);
+        RevenueSeriesRequest request = RevenueSeriesRequest.builder()
+                .from(from).to(to).granularity(RevenueSeriesRequest.Granularity.WEEK).build();
+        when(rollupJdbcRepository.sumByBucket(from, to, RevenueSeriesRequest.Granularity.WEEK, null, null))
+                .thenReturn(List.of(RevenueSeriesResponse.Point.builder()
+                        .start(LocalDate.of(2025, 3, 10)).revenue(Money.valueOf("1200.00")).bookings(4).build()));
+
+        // When
+        RevenueSeriesResponse series = revenueService.getRevenueSeries(request);
+
+        // Then
+        assertThat(series.getPoints())
+                .extracting(RevenueSeriesResponse.Point::getStart, RevenueSeriesResponse.Point::getEnd,
+                        RevenueSeriesResponse.Point::getRevenue, RevenueSeriesResponse.Point::getBookings)
+                .containsExactly(
+                        tuple(from, LocalDate.of(2025, 3, 9), Money.ZERO, 0L),
+                        tuple(LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 16), Money.valueOf("1200.00"), 4L),
+                        tuple(LocalDate.of(2025, 3, 17), to, Money.ZERO, 0L));
+        assertThat(series.getTotalRevenue()).isEqualTo(Money.valueOf("1200.00"));
+        assertThat(series.getTotalBookings()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should reject an inverted range without querying the rollups")
+    void getRevenueSeries_InvertedRange_ShouldThrow() {
+        // Given
+        RevenueSeriesRequest request = RevenueSeriesRequest.builder()
+                .from(LocalDate.of(2025, 3, 20)).to(LocalDate.of(2025, 3, 1)).build();
+        when(messageSource.getMessage(eq("revenue.series.error.invalid_range"), any(), any()))
+                .thenReturn("Invalid range");
+
+        // When & Then
+        assertThatThrownBy(() -> revenueService.getRevenueSeries(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Invalid range");
+        verifyNoInteractions(rollupJdbcRepository);
+    }
+
+    private static BookingEntity paidBooking(TourEntity tour, String amount, LocalDateTime paidAt) {
+        return BookingEntity.builder()
+                .tour(tour)
+                .amount(Money.valueOf(amount))
+                .paidAt(paidAt)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.SeatsReleasedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SeatHoldExpiryService Tests")
+class SeatHoldExpiryServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private TourRepository tourRepository;
+
+    @Mock
+    private SeatLeaseAllocator seatLeaseAllocator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SeatHoldExpiryService seatHoldExpiryService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        seatHoldExpiryService = new SeatHoldExpiryService(
+                bookingRepository, tourRepository, seatLeaseAllocator, eventPublisher, transactionManager, meterRegistry, 10, 64);
+    }
+
+    private BookingEntity pendingBooking(Long id, TourEntity tour, int qty) {
+        BookingEntity booking = BookingEntity.builder()
+                .tour(tour)
+                .qty(qty)
+                .amount(Money.of(qty * 100.0))
+                .status(BookingEntity.Status.PENDING)
+                .holdExpiresAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+        booking.setId(id);
+        return booking;
+    }
+
+    private TourEntity tour(Long id, TourEntity.BookingMode mode) {
+        TourEntity tour = TourEntity.builder()
+                .title("Tour " + id)
+                .price(Money.valueOf("100"))
+                .seatsTotal(100)
+                .seatsAvailable(50)
+                .status(TourEntity.Status.ACTIVE)
+                .bookingMode(mode)
+                .build();
+        tour.setId(id);
+        return tour;
+    }
+
+    @Test
+    @DisplayName("Should cancel due holds in one update and release seats once per tour")
+    void expire_DueHolds_ShouldBatchUpdateAndReleasePerTour() {
+        // Given
+        TourEntity standardTour = tour(1L, TourEntity.BookingMode.STANDARD);
+        TourEntity hotTour = tour(2L, TourEntity.BookingMode.HOT);
+        when(seatLeaseAllocator.isHot(standardTour)).thenReturn(false);
+        when(seatLeaseAllocator.isHot(hotTour)).thenReturn(true);
+        when(bookingRepository.findExpiredHoldsForUpdate(anyCollection(), eq(BookingEntity.Status.PENDING), any()))
+                .thenReturn(List.of(
+                        pendingBooking(10L, standardTour, 2),
+                        pendingBooking(11L, standardTour, 3),
+                        pendingBooking(12L, hotTour, 4)));
+
+        // When
+        int cancelled = seatHoldExpiryService.expire(List.of(10L, 11L, 12L, 13L));
+
+        // Then
+        assertThat(cancelled).isEqualTo(3);
+        verify(bookingRepository).updateStatusByIdIn(eq(List.of(10L, 11L, 12L)), eq(BookingEntity.Status.CANCELLED), any());
+        verify(tourRepository).releaseSeats(1L, 5);
+        verify(seatLeaseAllocator).release(hotTour, 4);
+        verify(eventPublisher).publishEvent(new SeatsReleasedEvent(1L, 5));
+        verify(eventPublisher).publishEvent(new SeatsReleasedEvent(2L, 4));
+        assertThat(meterRegistry.get("booking.hold.expired").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the holds were paid or cancelled meanwhile")
+    void expire_NoLongerPending_ShouldNotRelease() {
+        // Given
+        when(bookingRepository.findExpiredHoldsForUpdate(anyCollection(), any(), any())).thenReturn(List.of());
+
+        // When
+        int cancelled = seatHoldExpiryService.expire(List.of(10L));
+
+        // Then
+        assertThat(cancelled).isZero();
+        verify(bookingRepository, never()).updateStatusByIdIn(anyCollection(), any(), any());
+        verify(tourRepository, never()).releaseSeats(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should only hand out holds whose deadline has passed")
+    void timingWheel_ShouldExpireOnlyDueDeadlines() {
+        // Given
+        SeatHoldTimingWheel wheel = new SeatHoldTimingWheel(10, 8, 0);
+        wheel.schedule(1L, 25);
+        wheel.schedule(2L, 95);
+        wheel.schedule(3L, 1000);
+
+        // When & Then
+        assertThat(wheel.advance(20)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly(1L);
+        assertThat(wheel.advance(100)).containsExactly(2L);
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(5000)).containsExactly(3L);
+        assertThat(wheel.size()).isZero();
+    }
+}
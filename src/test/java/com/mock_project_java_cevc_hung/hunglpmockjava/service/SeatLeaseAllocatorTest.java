@@ -0,0 +1,174 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.SeatReconciliationResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.SeatLeaseEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.SeatLeaseRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SeatLeaseAllocator Tests")
+class SeatLeaseAllocatorTest {
+
+    @Mock
+    private TourRepository tourRepository;
+
+    @Mock
+    private SeatLeaseRepository seatLeaseRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SeatLeaseAllocator seatLeaseAllocator;
+    private TourEntity hotTour;
+
+    @BeforeEach
+    void setUp() {
+        hotTour = TourEntity.builder()
+                .title("Hot Tour")
+                .price(Money.valueOf("100"))
+                .seatsTotal(100)
+                .seatsAvailable(100)
+                .status(TourEntity.Status.ACTIVE)
+                .bookingMode(TourEntity.BookingMode.HOT)
+                .build();
+        hotTour.setId(1L);
+
+        seatLeaseAllocator = new SeatLeaseAllocator(
+                tourRepository, seatLeaseRepository, bookingRepository, transactionManager, "node-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        seatLeaseAllocator.returnAllLeases();
+    }
+
+    private void leaseBlock() {
+        when(tourRepository.findById(1L)).thenReturn(Optional.of(hotTour));
+        when(tourRepository.reserveSeats(1L, 50)).thenReturn(1);
+        when(seatLeaseRepository.findByTourIdAndNodeId(1L, "node-a")).thenReturn(Optional.empty());
+        when(seatLeaseRepository.save(any(SeatLeaseEntity.class))).thenAnswer(invocation -> {
+            SeatLeaseEntity lease = invocation.getArgument(0);
+            lease.setId(10L);
+            return lease;
+        });
+        assertThat(seatLeaseAllocator.refill(1L)).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Should move one block from the tour row into this node's lease")
+    void refill_HotTour_ShouldLeaseOneBlock() {
+        leaseBlock();
+
+        verify(tourRepository).reserveSeats(1L, 50);
+        verify(seatLeaseRepository).save(argThat(lease ->
+                lease.getSeats() == 50 && "node-a".equals(lease.getNodeId())));
+    }
+
+    @Test
+    @DisplayName("Should sell from the lease without touching the tour row")
+    void reserve_WithLease_ShouldConsumeLeaseRow() {
+        // Given
+        leaseBlock();
+        when(seatLeaseRepository.consumeSeats(10L, 3)).thenReturn(1);
+
+        // When
+        boolean reserved = seatLeaseAllocator.reserve(hotTour, 3);
+
+        // Then
+        assertThat(reserved).isTrue();
+        verify(seatLeaseRepository).consumeSeats(10L, 3);
+        verify(tourRepository, never()).reserveSeats(1L, 3);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the tour row when no lease is held")
+    void reserve_WithoutLease_ShouldUseTourRow() {
+        // Given
+        lenient().when(tourRepository.findById(1L)).thenReturn(Optional.empty());
+        when(tourRepository.reserveSeats(1L, 2)).thenReturn(1);
+
+        // When
+        boolean reserved = seatLeaseAllocator.reserve(hotTour, 2);
+
+        // Then
+        assertThat(reserved).isTrue();
+        verify(seatLeaseRepository, never()).consumeSeats(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should return cancelled seats into the lease")
+    void release_WithLease_ShouldReturnIntoLease() {
+        // Given
+        leaseBlock();
+        when(seatLeaseRepository.returnSeats(10L, 4)).thenReturn(1);
+
+        // When
+        seatLeaseAllocator.release(hotTour, 4);
+
+        // Then
+        verify(seatLeaseRepository).returnSeats(10L, 4);
+        verify(tourRepository, never()).releaseSeats(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should give the seats of expired leases back to the tour")
+    void heartbeat_ExpiredLease_ShouldReturnSeats() {
+        // Given
+        SeatLeaseEntity expired = SeatLeaseEntity.builder()
+                .tour(hotTour)
+                .nodeId("node-b")
+                .seats(7)
+                .expiresAt(LocalDateTime.now().minusMinutes(5))
+                .build();
+        expired.setId(20L);
+        when(seatLeaseRepository.findExpiredIds(any())).thenReturn(List.of(20L));
+        when(seatLeaseRepository.findLockedById(20L)).thenReturn(Optional.of(expired));
+
+        // When
+        seatLeaseAllocator.heartbeat();
+
+        // Then
+        verify(tourRepository).releaseSeats(1L, 7);
+        verify(seatLeaseRepository).delete(expired);
+    }
+
+    @Test
+    @DisplayName("Should report balanced inventory when leases plus sold seats add up")
+    void reconcile_ShouldBalanceAvailableLeasedAndSold() {
+        // Given
+        hotTour.setSeatsAvailable(40);
+        when(tourRepository.findById(1L)).thenReturn(Optional.of(hotTour));
+        when(seatLeaseRepository.sumSeatsByTourId(1L)).thenReturn(35L);
+        when(bookingRepository.sumQtyByTourIdAndStatusIn(eq(1L), anyCollection())).thenReturn(25L);
+
+        // When
+        SeatReconciliationResponse result = seatLeaseAllocator.reconcile(1L);
+
+        // Then
+        assertThat(result.isBalanced()).isTrue();
+        assertThat(result.getSeatsLeased()).isEqualTo(35L);
+        assertThat(result.getSeatsSold()).isEqualTo(25L);
+    }
+}
@@ -0,0 +1,122 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportResult;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.CategoryEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.CategoryRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourJdbcRepository;
+import jakarta.validation.Validation;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TourImportPipeline} on generated CSVs of {@code rows} rows, one in fifty of them invalid,
+ * with {@code workers} parse threads ({@code 0} = every core). Inserts go to a repository that only counts them, so
+ * this measures reading, parsing, validation and batching; the database adds the same cost whatever the parse
+ * stage does. Divide the row count by the score for rows per second.
+ * <p>{@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TourImport}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TourImportBenchmark {
+
+    private static final String[] CATEGORIES = {"Beach", "Mountain", "City", "Island", "Culture"};
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"1", "0"})
+    private int workers;
+
+    private byte[] csv;
+    private TourImportPipeline pipeline;
+
+    @Setup
+    public void setUp() {
+        csv = generateCsv(rows);
+
+        CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            CategoryEntity category = CategoryEntity.builder().name(CATEGORIES[i]).build();
+            category.setId(i + 1L);
+            categories.add(category);
+        }
+        Mockito.when(categoryRepository.findAll()).thenReturn(categories);
+
+        pipeline = new TourImportPipeline(categoryRepository, new CountingTourJdbcRepository(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                Mockito.mock(PlatformTransactionManager.class), workers, 500, 1000);
+    }
+
+    @Benchmark
+    public TourImportResult importTours() {
+        return pipeline.importTours(new ByteArrayInputStream(csv));
+    }
+
+    static byte[] generateCsv(int rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows * 160);
+        StringBuilder line = new StringBuilder(256);
+        line.append("ID,Title,Description,Price,Location,Thumbnail URL,Seats Total,Seats Available,")
+                .append("Start Date,End Date,Status,Category Name,Rating Average\n");
+        for (int i = 1; i <= rows; i++) {
+            int day = 1 + i % 28;
+            line.append(',')
+                    .append("Tour ").append(i).append(',')
+                    .append("\"Day trip ").append(i).append(", lunch and \"\"guide\"\" included\"").append(',')
+                    .append(i % 50 == 0 ? "-1" : Integer.toString(500_000 + i % 1000 * 1000)).append(',')
+                    .append("Da Nang").append(',')
+                    .append("https://cdn.example.com/tours/").append(i).append(".jpg").append(',')
+                    .append(20 + i % 30).append(',')
+                    .append(10 + i % 10).append(',')
+                    .append("2025-07-").append(day < 10 ? "0" : "").append(day).append(" 08:00:00,")
+                    .append("2025-08-").append(day < 10 ? "0" : "").append(day).append(" 18:00:00,")
+                    .append(i % 7 == 0 ? "INACTIVE" : "ACTIVE").append(',')
+                    .append(CATEGORIES[i % CATEGORIES.length]).append(',')
+                    .append(i % 5).append(".5\n");
+            out.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+            line.setLength(0);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class CountingTourJdbcRepository extends TourJdbcRepository {
+        private long inserted;
+
+        CountingTourJdbcRepository() {
+            super(null);
+        }
+
+        @Override
+        public void insertAll(List<TourEntity> tours) {
+            inserted += tours.size();
+        }
+
+        @Override
+        public void insert(TourEntity tour) {
+            inserted++;
+        }
+    }
+}
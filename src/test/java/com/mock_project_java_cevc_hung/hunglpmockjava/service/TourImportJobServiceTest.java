@@ -0,0 +1,243 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportJobResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportResult;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourImportErrorEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourImportJobEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourImportErrorRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourImportJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TourImportJobService Tests")
+class TourImportJobServiceTest {
+
+    private static final String HEADER = "ID,Title,Description,Price,Location,Thumbnail URL,Seats Total," +
+            "Seats Available,Start Date,End Date,Status,Category Name,Rating Average\n";
+    private static final String REST = ",Tour 2,Desc,100,Hanoi,,10,5,,,ACTIVE,Beach,\n" +
+            ",Tour 3,Desc,100,Hanoi,,10,5,,,ACTIVE,Nowhere,\n";
+
+    @Mock
+    private TourImportPipeline pipeline;
+
+    @Mock
+    private TourImportJobRepository jobRepository;
+
+    @Mock
+    private TourImportErrorRepository errorRepository;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private TourImportJobService importJobService;
+
+    @BeforeEach
+    void setUp() {
+        importJobService = new TourImportJobService(pipeline, jobRepository, errorRepository, messageSource,
+                transactionManager, directory.toString(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importJobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should continue after the checkpoint, store it and keep only the first errors")
+    @SuppressWarnings("unchecked")
+    void run_FromCheckpoint_ShouldImportRestOfFile() throws Exception {
+        // Given
+        Path file = Files.writeString(directory.resolve("upload.csv"), HEADER + REST);
+        long headerBytes = HEADER.getBytes(StandardCharsets.UTF_8).length;
+        long fileBytes = Files.size(file);
+        TourImportJobEntity job = job(file, TourImportJobEntity.Status.RUNNING);
+        job.setPosition(headerBytes);
+        job.setRowNumber(1);
+        job.setErrorCount(1);
+        stubClaim(job);
+        when(jobRepository.advance(eq(7L), anyString(), eq(fileBytes), eq(3), eq(2), eq(1), eq(2), any(),
+                eq(TourImportJobEntity.Status.RUNNING))).thenReturn(1);
+        when(jobRepository.finish(eq(7L), anyString(), eq(TourImportJobEntity.Status.COMPLETED), isNull(), any(),
+                eq(TourImportJobEntity.Status.RUNNING))).thenReturn(1);
+        when(pipeline.importTours(any(InputStream.class), eq(headerBytes), eq(1), any())).thenAnswer(invocation -> {
+            InputStream input = invocation.getArgument(0);
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(REST);
+            Consumer<TourImportPipeline.Checkpoint> checkpoints = invocation.getArgument(3);
+            checkpoints.accept(new TourImportPipeline.Checkpoint(fileBytes, 3, 2, 1, List.of(
+                    new TourImportResult.ImportError(3, "Category 'Nowhere' not found"),
+                    new TourImportResult.ImportError(3, "Second error of the same row"))));
+            return true;
+        });
+
+        // When
+        importJobService.run(7L);
+
+        // Then
+        ArgumentCaptor<List<TourImportErrorEntity>> stored = ArgumentCaptor.forClass(List.class);
+        verify(errorRepository).saveAll(stored.capture());
+        assertThat(stored.getValue()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).isEqualTo("Category 'Nowhere' not found"));
+        verify(jobRepository).finish(eq(7L), anyString(), eq(TourImportJobEntity.Status.COMPLETED), isNull(),
+                any(), any());
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should leave an interrupted job running with its file so it resumes once its lease expires")
+    void run_Interrupted_ShouldKeepJobResumable() throws Exception {
+        // Given
+        Path file = Files.writeString(directory.resolve("upload.csv"), HEADER + REST);
+        stubClaim(job(file, TourImportJobEntity.Status.RUNNING));
+        when(pipeline.importTours(any(InputStream.class), eq(0L), eq(0), any()))
+                .thenThrow(new InterruptedException());
+
+        // When
+        importJobService.run(7L);
+
+        // Then
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(file).exists();
+        verify(jobRepository, never()).finish(any(), any(), any(), any(), any(), any());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should skip a job another node holds and stop a job another node took over")
+    @SuppressWarnings("unchecked")
+    void run_LeaseHeldElsewhere_ShouldNotImportOrFinish() throws Exception {
+        // Given
+        Path file = Files.writeString(directory.resolve("upload.csv"), HEADER + REST);
+        when(jobRepository.claim(eq(7L), anyString(), any(), any(), any(), any())).thenReturn(0, 1);
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(job(file, TourImportJobEntity.Status.RUNNING)));
+        when(pipeline.importTours(any(InputStream.class), eq(0L), eq(0), any())).thenAnswer(invocation -> {
+            Consumer<TourImportPipeline.Checkpoint> checkpoints = invocation.getArgument(3);
+            checkpoints.accept(new TourImportPipeline.Checkpoint(100, 2, 1, 1, List.of()));
+            return true;
+        });
+
+        // When
+        importJobService.run(7L);
+        verifyNoInteractions(pipeline);
+        importJobService.run(7L);
+
+        // Then
+        verify(jobRepository).advance(eq(7L), anyString(), eq(100L), eq(2), eq(1), eq(1), eq(0), any(),
+                eq(TourImportJobEntity.Status.RUNNING));
+        verify(jobRepository, never()).finish(any(), any(), any(), any(), any(), any());
+        assertThat(file).exists();
+    }
+
+    @Test
+    @DisplayName("Should refuse to resume a job that did not fail")
+    void resume_CompletedJob_ShouldThrow() throws Exception {
+        // Given
+        Path file = Files.writeString(directory.resolve("upload.csv"), HEADER);
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(job(file, TourImportJobEntity.Status.COMPLETED)));
+        when(messageSource.getMessage(eq("tour.import.error.not_resumable"), any(), any()))
+                .thenReturn("Tour import 7 is COMPLETED");
+
+        // When & Then
+        assertThatThrownBy(() -> importJobService.resume(7L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Tour import 7 is COMPLETED");
+        verify(jobRepository, never()).save(any());
+        verifyNoInteractions(pipeline);
+    }
+
+    @Test
+    @DisplayName("Should stream an upload to disk and stop reading a body over the limit")
+    void start_RawBody_ShouldStoreFileAndEnforceLimit() {
+        // Given
+        ReflectionTestUtils.setField(importJobService, "maxUploadBytes", 300L);
+        when(jobRepository.save(any())).thenAnswer(invocation -> {
+            TourImportJobEntity job = invocation.getArgument(0);
+            job.setId(8L);
+            return job;
+        });
+        byte[] upload = (HEADER + REST).getBytes(StandardCharsets.UTF_8);
+        byte[] tooLarge = (HEADER + REST + REST + REST).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        TourImportJobResponse job = importJobService.start("tours.csv", new ByteArrayInputStream(upload), -1);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(TourImportJobEntity.Status.QUEUED);
+        assertThat(job.getFileBytes()).isEqualTo(upload.length);
+        assertThatThrownBy(() -> importJobService.start("big.csv", new ByteArrayInputStream(tooLarge), -1))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> importJobService.start("tours.xlsx", new ByteArrayInputStream(upload), -1))
+                .isInstanceOf(BusinessException.class);
+        verify(jobRepository, times(1)).save(any());
+    }
+
+    @Test
+    @DisplayName("Should start without an import directory and reject background imports")
+    void start_WithoutDirectory_ShouldThrow() {
+        // Given
+        TourImportJobService disabled = new TourImportJobService(pipeline, jobRepository, errorRepository,
+                messageSource, transactionManager, "", 2);
+        when(messageSource.getMessage(eq("tour.import.error.disabled"), any(), any()))
+                .thenReturn("Background tour imports are disabled");
+
+        // When & Then
+        try {
+            assertThatThrownBy(() -> disabled.start("tours.csv",
+                    new ByteArrayInputStream(HEADER.getBytes(StandardCharsets.UTF_8)), -1))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("Background tour imports are disabled");
+            assertThatThrownBy(() -> disabled.resume(7L)).isInstanceOf(BusinessException.class);
+            disabled.resumeUnfinished();
+            verifyNoInteractions(jobRepository, pipeline);
+        } finally {
+            disabled.shutdown();
+        }
+    }
+
+    private void stubClaim(TourImportJobEntity job) {
+        when(jobRepository.claim(eq(7L), anyString(), any(), any(), eq(TourImportJobEntity.Status.QUEUED),
+                eq(TourImportJobEntity.Status.RUNNING))).thenReturn(1);
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(job));
+    }
+
+    private static TourImportJobEntity job(Path file, TourImportJobEntity.Status status) throws Exception {
+        TourImportJobEntity job = TourImportJobEntity.builder()
+                .fileName("tours.csv")
+                .filePath(file.toString())
+                .fileBytes(Files.size(file))
+                .status(status)
+                .build();
+        job.setId(7L);
+        return job;
+    }
+}
@@ -0,0 +1,189 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.TourImportResult;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.CategoryEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.CategoryRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourJdbcRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TourImportPipeline Tests")
+class TourImportPipelineTest {
+
+    private static final String HEADER = "ID,Title,Description,Price,Location,Thumbnail URL,Seats Total," +
+            "Seats Available,Start Date,End Date,Status,Category Name,Rating Average";
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TourJdbcRepository tourJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TourImportPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new TourImportPipeline(categoryRepository, tourJdbcRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, 3, 2, 3);
+    }
+
+    @Test
+    @DisplayName("Should insert valid rows in file order in batches and report invalid rows by line")
+    void importTours_MixedRows_ShouldBatchValidRowsAndReportErrorsInOrder() {
+        // Given
+        stubCategories();
+        List<List<String>> batches = captureBatches();
+        String csv = HEADER + "\n" +
+                row("Tour 1", "Beach") + "\n" +
+                row("", "Beach") + "\n" +
+                "\n" +
+                row("Tour 3", "Mountain") + "\n" +
+                row("Tour 4", "Space") + "\n" +
+                row("Tour 5", "beach") + "\n" +
+                "1,Tour 6,Desc,100,Hanoi,,ten,5,,,ACTIVE,Beach,4.5\n" +
+                "1,too,few\n" +
+                row("Tour 8", "Mountain") + "\n" +
+                row("Tour 9", "Beach") + "\n";
+
+        // When
+        TourImportResult result = pipeline.importTours(input(csv));
+
+        // Then
+        assertThat(batches).containsExactly(
+                List.of("Tour 1", "Tour 3", "Tour 5"),
+                List.of("Tour 8", "Tour 9"));
+        assertThat(result.getTotalRows()).isEqualTo(9);
+        assertThat(result.getSuccessCount()).isEqualTo(5);
+        assertThat(result.getErrorCount()).isEqualTo(4);
+        assertThat(result.getErrors())
+                .extracting(TourImportResult.ImportError::getRowNumber, TourImportResult.ImportError::getMessage)
+                .containsExactly(
+                        tuple(3, "Title is required; "),
+                        tuple(6, "Category 'Space' not found"),
+                        tuple(8, "Error: Invalid number format: For input string: \"ten\""),
+                        tuple(9, "Error: Invalid CSV format: expected 13 columns, found 3"));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should roll a failed batch back and insert its rows one by one")
+    void importTours_BatchFails_ShouldRetryRowByRow() {
+        // Given
+        stubCategories();
+        doThrow(new DataIntegrityViolationException("batch failed")).when(tourJdbcRepository).insertAll(anyList());
+        doAnswer(invocation -> {
+            TourEntity tour = invocation.getArgument(0);
+            if (tour.getTitle().equals("Tour 2")) {
+                throw new DataIntegrityViolationException("Data too long for column 'title'");
+            }
+            return null;
+        }).when(tourJdbcRepository).insert(any());
+        String csv = HEADER + "\n" + row("Tour 1", "Beach") + "\n" + row("Tour 2", "Beach") + "\n";
+
+        // When
+        TourImportResult result = pipeline.importTours(input(csv));
+
+        // Then
+        verify(transactionManager).rollback(any());
+        verify(tourJdbcRepository, times(2)).insert(any());
+        assertThat(result.getSuccessCount()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRowNumber()).isEqualTo(3);
+            assertThat(error.getMessage()).isEqualTo("Error: Data too long for column 'title'");
+        });
+    }
+
+    @Test
+    @DisplayName("Should report an empty file without loading categories")
+    void importTours_EmptyFile_ShouldReportError() {
+        // When
+        TourImportResult result = pipeline.importTours(input(""));
+
+        // Then
+        assertThat(result.getTotalRows()).isZero();
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).isEqualTo("File is empty"));
+        verifyNoInteractions(categoryRepository, tourJdbcRepository);
+    }
+
+    @Test
+    @DisplayName("Should report a checkpoint at chunk ends in bytes and resume the file from it")
+    void importTours_FromCheckpoint_ShouldContinueAfterIt() throws Exception {
+        // Given
+        stubCategories();
+        List<List<String>> batches = captureBatches();
+        StringBuilder csv = new StringBuilder(HEADER).append("\r\n");
+        for (int i = 1; i <= 5; i++) {
+            csv.append(row("Tour ở Đà Nẵng " + i, "Beach")).append("\r\n");
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        List<TourImportPipeline.Checkpoint> checkpoints = new ArrayList<>();
+
+        // When
+        pipeline.importTours(new ByteArrayInputStream(bytes), 0, 0, checkpoints::add);
+        TourImportPipeline.Checkpoint first = checkpoints.get(0);
+        int offset = (int) first.position();
+        pipeline.importTours(new ByteArrayInputStream(bytes, offset, bytes.length - offset), first.position(),
+                first.rowNumber(), checkpoints::add);
+
+        // Then
+        assertThat(checkpoints)
+                .extracting(TourImportPipeline.Checkpoint::rowNumber, TourImportPipeline.Checkpoint::rows,
+                        TourImportPipeline.Checkpoint::inserted)
+                .containsExactly(tuple(5, 4, 4), tuple(6, 1, 1), tuple(6, 1, 1));
+        assertThat(checkpoints.get(1).position()).isEqualTo(bytes.length);
+        assertThat(new String(bytes, offset, bytes.length - offset, StandardCharsets.UTF_8))
+                .isEqualTo(row("Tour ở Đà Nẵng 5", "Beach") + "\r\n");
+        assertThat(batches).last().isEqualTo(List.of("Tour ở Đà Nẵng 5"));
+    }
+
+    private void stubCategories() {
+        CategoryEntity beach = CategoryEntity.builder().name("Beach").build();
+        beach.setId(1L);
+        CategoryEntity mountain = CategoryEntity.builder().name("Mountain").build();
+        mountain.setId(2L);
+        when(categoryRepository.findAll()).thenReturn(List.of(beach, mountain));
+    }
+
+    private List<List<String>> captureBatches() {
+        List<List<String>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<TourEntity> tours = invocation.getArgument(0);
+            batches.add(tours.stream().map(TourEntity::getTitle).toList());
+            assertThat(tours).allSatisfy(tour -> assertThat(tour.getPrice()).isEqualTo(Money.valueOf("1500000")));
+            return null;
+        }).when(tourJdbcRepository).insertAll(anyList());
+        return batches;
+    }
+
+    private static String row(String title, String category) {
+        return "," + title + ",\"Desc, with comma\",1500000,Hanoi,,10,5," +
+                "2025-06-01 08:00:00,2025-06-03 18:00:00,ACTIVE," + category + ",";
+    }
+
+    private static ByteArrayInputStream input(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
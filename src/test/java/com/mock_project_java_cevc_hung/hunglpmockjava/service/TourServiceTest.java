@@ -5,6 +5,7 @@ import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiTourRe
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.CategoryEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
 import com.mock_project_java_cevc_hung.hunglpmockjava.exception.ResourceNotFoundException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.CategoryRepository;
 import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,7 +20,6 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,7 +52,7 @@ class TourServiceTest {
         testTour = TourEntity.builder()
                 .title("Mountain Trek")
                 .description("Amazing mountain adventure")
-                .price(new BigDecimal("1500"))
+                .price(Money.valueOf("1500"))
                 .location("Himalayas")
                 .seatsTotal(100)
                 .seatsAvailable(75)
@@ -92,7 +92,7 @@ class TourServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getTitle()).isEqualTo("Mountain Trek");
-        assertThat(result.getPrice()).isEqualByComparingTo(new BigDecimal("1500"));
+        assertThat(result.getPrice()).isEqualByComparingTo(Money.valueOf("1500"));
     }
 
     @Test
@@ -0,0 +1,132 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.WaitlistEntryEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.WaitlistEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cancels against a real persistence context, where the tour loaded with the booking keeps its seat count
+ * from before the bulk seat update.
+ */
+@DataJpaTest(properties = "spring.jpa.database=h2")
+@Import({BookingService.class, WaitlistService.class, WaitlistServiceJpaTest.Meters.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("WaitlistService JPA Tests")
+class WaitlistServiceJpaTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private SeatLeaseAllocator seatLeaseAllocator;
+
+    @MockitoBean
+    private SeatHoldExpiryService seatHoldExpiryService;
+
+    @MockitoBean
+    private MessageSource messageSource;
+
+    @Test
+    @DisplayName("Should promote the head of the waitlist when a booking on a sold-out tour is cancelled")
+    void cancelUserBooking_SoldOutTour_ShouldPromoteWaitlist() {
+        // Given
+        when(seatHoldExpiryService.newDeadline()).thenReturn(LocalDateTime.now().plusMinutes(15));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BookingEntity booking = transactionTemplate.execute(status -> {
+            TourEntity tour = tourRepository.save(TourEntity.builder()
+                    .title("Sold Out Tour")
+                    .description("Desc")
+                    .location("Hanoi")
+                    .price(Money.valueOf("100"))
+                    .seatsTotal(2)
+                    .seatsAvailable(0)
+                    .build());
+            UserEntity holder = userRepository.save(user("holder@example.com"));
+            UserEntity waiter = userRepository.save(user("waiter@example.com"));
+            waitlistEntryRepository.save(WaitlistEntryEntity.builder()
+                    .tour(tour)
+                    .user(waiter)
+                    .qty(2)
+                    .status(WaitlistEntryEntity.Status.WAITING)
+                    .build());
+            return bookingRepository.save(BookingEntity.builder()
+                    .tour(tour)
+                    .user(holder)
+                    .qty(2)
+                    .amount(Money.valueOf("200"))
+                    .status(BookingEntity.Status.PAID)
+                    .build());
+        });
+
+        // When
+        bookingService.cancelUserBooking(booking.getId(), booking.getUser().getId());
+
+        // Then
+        assertThat(waitlistEntryRepository.findAll()).singleElement()
+                .satisfies(entry -> assertThat(entry.getStatus()).isEqualTo(WaitlistEntryEntity.Status.PROMOTED));
+        assertThat(bookingRepository.findAll())
+                .extracting(BookingEntity::getStatus)
+                .containsExactlyInAnyOrder(BookingEntity.Status.CANCELLED, BookingEntity.Status.PENDING);
+        assertThat(tourRepository.findById(booking.getTour().getId()))
+                .hasValueSatisfying(tour -> assertThat(tour.getSeatsAvailable()).isZero());
+    }
+
+    private static UserEntity user(String email) {
+        return UserEntity.builder()
+                .name("User")
+                .phoneNumber("0912345678")
+                .email(email)
+                .password("secret")
+                .build();
+    }
+
+    @TestConfiguration
+    static class Meters {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
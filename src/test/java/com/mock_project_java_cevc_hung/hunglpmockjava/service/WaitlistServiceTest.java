@@ -0,0 +1,176 @@
+package com.mock_project_java_cevc_hung.hunglpmockjava.service;
+
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.request.WaitlistJoinRequest;
+import com.mock_project_java_cevc_hung.hunglpmockjava.dto.response.api.ApiWaitlistResponse;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.BookingEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.TourEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.UserEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.entity.WaitlistEntryEntity;
+import com.mock_project_java_cevc_hung.hunglpmockjava.exception.BusinessException;
+import com.mock_project_java_cevc_hung.hunglpmockjava.money.Money;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.BookingRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.TourRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.UserRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.repository.WaitlistEntryRepository;
+import com.mock_project_java_cevc_hung.hunglpmockjava.service.event.SeatsReleasedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WaitlistService Tests")
+class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private TourRepository tourRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private SeatLeaseAllocator seatLeaseAllocator;
+
+    @Mock
+    private SeatHoldExpiryService seatHoldExpiryService;
+
+    @Mock
+    private MessageSource messageSource;
+
+    private WaitlistService waitlistService;
+    private TourEntity testTour;
+
+    @BeforeEach
+    void setUp() {
+        waitlistService = new WaitlistService(waitlistEntryRepository, tourRepository, userRepository,
+                bookingRepository, seatLeaseAllocator, seatHoldExpiryService, messageSource, new SimpleMeterRegistry());
+
+        testTour = TourEntity.builder()
+                .title("Sold Out Tour")
+                .price(Money.valueOf("100"))
+                .seatsTotal(10)
+                .seatsAvailable(0)
+                .status(TourEntity.Status.ACTIVE)
+                .build();
+        testTour.setId(1L);
+
+        lenient().when(messageSource.getMessage(anyString(), any(), any())).thenReturn("Message");
+    }
+
+    private WaitlistEntryEntity waitingEntry(Long id, int qty) {
+        UserEntity user = UserEntity.builder().email("user" + id + "@example.com").build();
+        user.setId(id);
+        WaitlistEntryEntity entry = WaitlistEntryEntity.builder()
+                .tour(testTour)
+                .user(user)
+                .qty(qty)
+                .status(WaitlistEntryEntity.Status.WAITING)
+                .build();
+        entry.setId(id);
+        return entry;
+    }
+
+    @Test
+    @DisplayName("Should queue the customer when the tour is sold out")
+    void join_SoldOutTour_ShouldCreateWaitingEntry() {
+        // Given
+        UserEntity user = UserEntity.builder().email("user@example.com").build();
+        user.setId(7L);
+        when(tourRepository.findById(1L)).thenReturn(Optional.of(testTour));
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(waitlistEntryRepository.save(any(WaitlistEntryEntity.class))).thenAnswer(invocation -> {
+            WaitlistEntryEntity entry = invocation.getArgument(0);
+            entry.setId(5L);
+            return entry;
+        });
+        when(waitlistEntryRepository.countByTourIdAndStatusAndIdLessThan(1L, WaitlistEntryEntity.Status.WAITING, 5L))
+                .thenReturn(2L);
+
+        // When
+        ApiWaitlistResponse result = waitlistService.join(1L, 7L, WaitlistJoinRequest.builder().qty(2).build());
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(WaitlistEntryEntity.Status.WAITING);
+        assertThat(result.getPosition()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Should refuse to queue while seats are still available")
+    void join_SeatsAvailable_ShouldThrowException() {
+        // Given
+        testTour.setSeatsAvailable(5);
+        when(tourRepository.findById(1L)).thenReturn(Optional.of(testTour));
+
+        // When & Then
+        assertThatThrownBy(() -> waitlistService.join(1L, 7L, WaitlistJoinRequest.builder().qty(2).build()))
+                .isInstanceOf(BusinessException.class);
+        verify(waitlistEntryRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should promote against all available seats in one batch and stop at the first entry that does not fit")
+    @SuppressWarnings("unchecked")
+    void onSeatsReleased_ShouldPromoteInArrivalOrderWithOneReservation() {
+        // Given
+        when(tourRepository.findSeatsAvailableForUpdate(1L)).thenReturn(Optional.of(6));
+        when(tourRepository.getReferenceById(1L)).thenReturn(testTour);
+        when(waitlistEntryRepository.findByTourIdAndStatusOrderByIdAsc(eq(1L), eq(WaitlistEntryEntity.Status.WAITING), any()))
+                .thenReturn(List.of(waitingEntry(1L, 2), waitingEntry(2L, 3), waitingEntry(3L, 4), waitingEntry(4L, 1)));
+        when(tourRepository.reserveSeats(1L, 5)).thenReturn(1);
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<BookingEntity> bookings = invocation.getArgument(0);
+            for (int i = 0; i < bookings.size(); i++) {
+                bookings.get(i).setId(100L + i);
+            }
+            return bookings;
+        });
+
+        // When
+        waitlistService.onSeatsReleased(new SeatsReleasedEvent(1L, 2));
+
+        // Then
+        ArgumentCaptor<List<BookingEntity>> bookings = ArgumentCaptor.forClass(List.class);
+        verify(bookingRepository).saveAll(bookings.capture());
+        assertThat(bookings.getValue()).extracting(BookingEntity::getQty).containsExactly(2, 3);
+        assertThat(bookings.getValue()).allMatch(booking -> booking.getStatus() == BookingEntity.Status.PENDING);
+        assertThat(bookings.getValue().get(1).getAmount()).isEqualTo(Money.valueOf("300"));
+        verify(tourRepository, times(1)).reserveSeats(anyLong(), anyInt());
+        verify(seatHoldExpiryService, times(2)).track(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should leave entries waiting when the released seats were taken meanwhile")
+    void onSeatsReleased_SeatsGone_ShouldNotCreateBookings() {
+        // Given
+        when(tourRepository.findSeatsAvailableForUpdate(1L)).thenReturn(Optional.of(2));
+        when(tourRepository.getReferenceById(1L)).thenReturn(testTour);
+        when(waitlistEntryRepository.findByTourIdAndStatusOrderByIdAsc(eq(1L), eq(WaitlistEntryEntity.Status.WAITING), any()))
+                .thenReturn(List.of(waitingEntry(1L, 2)));
+        when(tourRepository.reserveSeats(1L, 2)).thenReturn(0);
+
+        // When
+        waitlistService.onSeatsReleased(new SeatsReleasedEvent(1L, 2));
+
+        // Then
+        verify(bookingRepository, never()).saveAll(anyList());
+        verify(waitlistEntryRepository, never()).saveAll(anyList());
+    }
+}